@@ -0,0 +1,16 @@
+#!/usr/bin/env bash
+# Excel export mérése generált adatokkal (Spring, Firestore és kijelző nélkül): futási idő, fájlméret,
+# a munkafüzet cellastílusainak száma.
+#
+# Használat: scripts/benchmark-export.sh [dolgozók száma] [mért futások száma]   (alapértelmezés: 1000 5)
+# Előtte: ./mvnw -Pfast-start package   (a függőségek a target/lib könyvtárba kerülnek)
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+if [[ ! -d target/classes || ! -d target/lib ]]; then
+    echo "Hiányzik: target/classes vagy target/lib - futtassa előbb: ./mvnw -Pfast-start package" >&2
+    exit 1
+fi
+
+exec java -cp "target/classes:target/lib/*" com.employeemanager.diagnostics.ExportBenchmark "${1:-1000}" "${2:-5}"
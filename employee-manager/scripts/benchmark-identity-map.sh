@@ -0,0 +1,17 @@
+#!/usr/bin/env bash
+# A munkanaplók dolgozópéldányainak heap igénye generált adatokkal (Spring és Firestore nélkül):
+# rekordonként külön Employee, illetve az EmployeeIdentityMap közös példányai.
+#
+# Használat: scripts/benchmark-identity-map.sh [rekordok száma] [dolgozók száma]   (alapértelmezés: 10000 50)
+# Előtte: ./mvnw -Pfast-start package   (a függőségek a target/lib könyvtárba kerülnek)
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+if [[ ! -d target/classes || ! -d target/lib ]]; then
+    echo "Hiányzik: target/classes vagy target/lib - futtassa előbb: ./mvnw -Pfast-start package" >&2
+    exit 1
+fi
+
+exec java -XX:+UseSerialGC -cp "target/classes:target/lib/*" \
+    com.employeemanager.diagnostics.IdentityMapBenchmark "${1:-10000}" "${2:-50}"
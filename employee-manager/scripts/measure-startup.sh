@@ -0,0 +1,97 @@
+#!/usr/bin/env bash
+# Hidegindítás mérése: az első interaktív ablakig eltelt idő (StartupProfiler) több futás mediánja,
+# alap (AOT és CDS nélkül) és gyors (AOT + AppCDS) módban.
+#
+# Használat: scripts/measure-startup.sh [--headless] [futások száma]   (alapértelmezés: 5)
+# Előtte: ./mvnw -Pfast-start package, a CDS archívumhoz: ./mvnw -Pfast-start -Dcds.skip=false package
+# Grafikus módban kell hozzá kijelző és a Firebase service-account.json, mint a normál indításhoz.
+#
+# --headless: kijelző nélkül a Spring kontextus indulását méri a kötegelt belépési ponton keresztül
+# (a folyamat teljes futásideje parancs nélküli --batch hívással, ami a kontextus elindulása után kilép).
+# A CDS archívum ehhez egy kijelző nélküli tanító futásból készül (target/app-cds-headless.jsa).
+# Firestore kapcsolat nem kell, de a service account fájlnak olvashatónak kell lennie; további JVM
+# opciók a JAVA_OPTS változóban adhatók át, pl. JAVA_OPTS="-Dfirebase.service-account.path=file:/út/sa.json".
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+HEADLESS=false
+if [[ "${1:-}" == "--headless" ]]; then
+    HEADLESS=true
+    shift
+fi
+
+RUNS="${1:-5}"
+JAR="target/employee-manager-0.0.1-SNAPSHOT.jar"
+ARCHIVE="target/app-cds.jsa"
+RESULTS_DIR="target/startup-measurements"
+read -r -a EXTRA_OPTS <<< "${JAVA_OPTS:-}"
+
+if [[ ! -f "$JAR" ]]; then
+    echo "Hiányzik: $JAR - futtassa előbb: ./mvnw -Pfast-start package" >&2
+    exit 1
+fi
+
+mkdir -p "$RESULTS_DIR"
+
+# Kijelző nélkül a háttérfeladatok ne induljanak el és ne érjék el a Firestore-t
+HEADLESS_OPTS=(-Dfirebase.firestore.warm-up.enabled=false -Dfirestore.payment-backfill.auto=false)
+
+# Egy futás: grafikus módban a StartupProfiler írja a CSV sort, kijelző nélkül a teljes futásidő kerül bele
+run_once() {
+    local log="$1"
+    shift
+    if [[ "$HEADLESS" == true ]]; then
+        local start end
+        start=$(date +%s%N)
+        java "$@" "${HEADLESS_OPTS[@]}" "${EXTRA_OPTS[@]}" -jar "$JAR" --batch > /dev/null 2>&1 || true
+        end=$(date +%s%N)
+        printf '%s,%d,headless\n' "$(date +%Y-%m-%dT%H:%M:%S)" $(((end - start) / 1000000)) >> "$log"
+    else
+        java "$@" "${EXTRA_OPTS[@]}" \
+            -Demployeemanager.startup.exit-after-interactive=true \
+            -Demployeemanager.startup.log="$log" \
+            -jar "$JAR" > /dev/null 2>&1 || true
+    fi
+}
+
+# Egy mód mérése: minden futás egy sort ír a saját CSV fájljába (időbélyeg, összes ms, fázisok)
+measure() {
+    local name="$1"
+    shift
+    local log="$RESULTS_DIR/$name.csv"
+    rm -f "$log"
+
+    for ((i = 1; i <= RUNS; i++)); do
+        run_once "$log" "$@"
+    done
+
+    if [[ ! -s "$log" ]]; then
+        echo "$name: nincs mérési eredmény (lásd a normál indítás logját)" >&2
+        return
+    fi
+
+    local median
+    median=$(cut -d, -f2 "$log" | sort -n | awk '{ a[NR] = $1 } END { print (NR % 2) ? a[(NR + 1) / 2] : int((a[NR / 2] + a[NR / 2 + 1]) / 2) }')
+    printf '%-10s runs=%-3s median=%6s ms   (%s)\n' "$name" "$(wc -l < "$log")" "$median" "$log"
+}
+
+if [[ "$HEADLESS" == true ]]; then
+    ARCHIVE="target/app-cds-headless.jsa"
+    RESULTS_DIR="$RESULTS_DIR/headless"
+    mkdir -p "$RESULTS_DIR"
+    if [[ ! -f "$ARCHIVE" ]]; then
+        echo "CDS archívum készítése kijelző nélküli tanító futásból: $ARCHIVE" >&2
+        java -XX:ArchiveClassesAtExit="$ARCHIVE" -Dspring.aot.enabled=true "${HEADLESS_OPTS[@]}" "${EXTRA_OPTS[@]}" \
+            -jar "$JAR" --batch > /dev/null 2>&1 || true
+    fi
+fi
+
+measure baseline -Xshare:auto
+measure aot-only -Dspring.aot.enabled=true -Xshare:auto
+
+if [[ -f "$ARCHIVE" ]]; then
+    measure fast -Dspring.aot.enabled=true -XX:SharedArchiveFile="$ARCHIVE" -Xshare:auto
+else
+    echo "Nincs CDS archívum ($ARCHIVE), csak AOT mérve" >&2
+fi
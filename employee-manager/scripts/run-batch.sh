@@ -0,0 +1,23 @@
+#!/usr/bin/env bash
+# Grafikus felület nélküli futtatás ütemezett exportokhoz és riportokhoz (pl. cron-ból).
+# Csak a Spring szolgáltatások indulnak, JavaFX nélkül; a kilépési kód 0 siker, 1 hiba, 2 hibás paraméterek.
+#
+# Használat: scripts/run-batch.sh export|report --from=2025-01 [--to=2025-12] [--filter=notification|work|both]
+#                                   [--format=xlsx|csv|ndjson] [--gzip] [--bundle]
+#           scripts/run-batch.sh import --file=exports/munkanaplot_2025_08_01_2025_08_31.xlsx
+#           scripts/run-batch.sh backup
+#           scripts/run-batch.sh restore --dir=backups/backup_2025_09_01_020000
+# Példa (havi zárás, előző hónap): scripts/run-batch.sh export --from="$(date -d 'last month' +%Y-%m)"
+# Előtte: ./mvnw package
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAR="target/employee-manager-0.0.1-SNAPSHOT.jar"
+
+if [[ ! -f "$JAR" ]]; then
+    echo "Hiányzik: $JAR - futtassa előbb: ./mvnw package" >&2
+    exit 1
+fi
+
+exec java -Xmx256m -Djava.awt.headless=true -jar "$JAR" --batch "$@"
@@ -0,0 +1,16 @@
+#!/usr/bin/env bash
+# Indítás a fast-start profillal épített artifactokból (AOT bean definíciók + AppCDS archívum).
+# Előtte: ./mvnw -Pfast-start package, a CDS archívumhoz: ./mvnw -Pfast-start -Dcds.skip=false package
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAR="target/employee-manager-0.0.1-SNAPSHOT.jar"
+ARCHIVE="target/app-cds.jsa"
+
+JAVA_OPTS=(-Dspring.aot.enabled=true)
+if [[ -f "$ARCHIVE" ]]; then
+    JAVA_OPTS+=(-XX:SharedArchiveFile="$ARCHIVE" -Xshare:auto)
+fi
+
+exec java "${JAVA_OPTS[@]}" "$@" -jar "$JAR"
@@ -1,14 +1,32 @@
 package com.employeemanager;
 
+import com.employeemanager.batch.BatchRunner;
+import com.employeemanager.util.StartupProfiler;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
 
 @SpringBootApplication(exclude = {DataSourceAutoConfiguration.class})
 public class EmployeeManagerApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(EmployeeManagerApplication.class, args);
+        // Spring AOT feldolgozáskor (process-aot) csak a kontextus leírása kell, JavaFX nélkül
+        if (Boolean.getBoolean("spring.aot.processing")) {
+            SpringApplication.run(EmployeeManagerApplication.class, args);
+            return;
+        }
+
+        // Ütemezett exportok: csak a Spring kontextus indul, JavaFX nélkül; a kilépési kód a futás eredménye
+        if (BatchRunner.isRequested(args)) {
+            System.exit(SpringApplication.exit(new SpringApplicationBuilder(EmployeeManagerApplication.class)
+                    .main(EmployeeManagerApplication.class)
+                    .headless(true)
+                    .run(args)));
+        }
+
+        StartupProfiler.begin("launch");
+        // A Spring kontextust a JavaFxApplication indítja el, így csak egy kontextus jön létre
         JavaFxApplication.launch(JavaFxApplication.class, args);
     }
-}
\ No newline at end of file
+}
@@ -1,42 +1,191 @@
 package com.employeemanager;
 
+import com.employeemanager.component.SplashScreen;
+import com.employeemanager.util.AlertHelper;
+import com.employeemanager.util.StartupProfiler;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.context.ConfigurableApplicationContext;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Slf4j
 public class JavaFxApplication extends Application {
 
+    private static final String MAIN_VIEW = "/fxml/MainView.fxml";
+    private static final String STYLESHEET = "/css/application.css";
+
+    private static final Pattern IMPORT_PATTERN = Pattern.compile("<\\?import\\s+([\\w.]+?)(\\.\\*)?\\s*\\?>");
+    private static final Pattern ELEMENT_PATTERN = Pattern.compile("<([A-Z]\\w*)");
+
     private ConfigurableApplicationContext applicationContext;
+    private ExecutorService startupExecutor;
 
     @Override
     public void init() {
-        applicationContext = new SpringApplicationBuilder(EmployeeManagerApplication.class).run();
+        StartupProfiler.end("launch");
     }
 
     @Override
-    public void start(Stage primaryStage) throws Exception {
-        FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/fxml/MainView.fxml"));
-        fxmlLoader.setControllerFactory(applicationContext::getBean);
+    public void start(Stage primaryStage) {
+        StartupProfiler.begin("splash");
+        SplashScreen splashScreen = new SplashScreen("Employee Manager");
+        Stage splashStage = new Stage(StageStyle.UNDECORATED);
+        splashStage.setScene(new Scene(splashScreen));
+        splashStage.centerOnScreen();
+        splashStage.show();
+        StartupProfiler.end("splash");
+
+        startupExecutor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "startup");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        String[] args = getParameters().getRaw().toArray(new String[0]);
+
+        // Párhuzamosan: Spring kontextus (benne a Firestore bemelegítés, lásd FirebaseConfig) és FXML/CSS előtöltés
+        CompletableFuture<ConfigurableApplicationContext> contextFuture =
+                CompletableFuture.supplyAsync(() -> startSpring(args), startupExecutor);
+        CompletableFuture<Void> preloadFuture =
+                CompletableFuture.runAsync(this::preloadView, startupExecutor);
+
+        splashScreen.setMessage("Szolgáltatások betöltése...");
+
+        contextFuture.thenCombine(preloadFuture, (context, ignored) -> context)
+                .whenComplete((context, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        log.error("Application startup failed", error);
+                        splashStage.close();
+                        AlertHelper.showError("Hiba", "Nem sikerült elindítani az alkalmazást",
+                                error.getCause() != null ? error.getCause().getMessage() : error.getMessage());
+                        Platform.exit();
+                        return;
+                    }
+
+                    applicationContext = context;
+                    splashScreen.setMessage("Főablak betöltése...");
+                    showMainWindow(primaryStage, splashStage);
+                }));
+    }
+
+    private ConfigurableApplicationContext startSpring(String[] args) {
+        StartupProfiler.begin("spring-context");
+        // A main osztály megadása kell, hogy AOT módban megtalálja a generált inicializálót
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(EmployeeManagerApplication.class)
+                .main(EmployeeManagerApplication.class)
+                .headless(false)
+                .run(args);
+        StartupProfiler.end("spring-context");
+        return context;
+    }
+
+    /**
+     * Az FXML-ben használt vezérlő osztályok betöltése és a CSS beolvasása háttérszálon,
+     * hogy a főablak építésekor már ne az osztálybetöltés vigye az időt
+     */
+    private void preloadView() {
+        StartupProfiler.begin("fxml-preload");
+        try (InputStream fxml = getClass().getResourceAsStream(MAIN_VIEW);
+             InputStream css = getClass().getResourceAsStream(STYLESHEET)) {
+            if (fxml == null) {
+                return;
+            }
+            String source = new String(fxml.readAllBytes(), StandardCharsets.UTF_8);
+            if (css != null) {
+                css.readAllBytes();
+            }
+
+            List<String> packages = new ArrayList<>();
+            Set<String> classNames = new LinkedHashSet<>();
+            Matcher imports = IMPORT_PATTERN.matcher(source);
+            while (imports.find()) {
+                if (imports.group(2) != null) {
+                    packages.add(imports.group(1));
+                } else {
+                    classNames.add(imports.group(1));
+                }
+            }
+
+            Matcher elements = ELEMENT_PATTERN.matcher(source);
+            while (elements.find()) {
+                for (String pkg : packages) {
+                    classNames.add(pkg + "." + elements.group(1));
+                }
+            }
+
+            ClassLoader classLoader = getClass().getClassLoader();
+            for (String className : classNames) {
+                try {
+                    Class.forName(className, true, classLoader);
+                } catch (ClassNotFoundException | LinkageError ignored) {
+                    // Nem minden csomag+elem kombináció létező osztály
+                }
+            }
+        } catch (IOException e) {
+            log.debug("View preload skipped: {}", e.getMessage());
+        } finally {
+            StartupProfiler.end("fxml-preload");
+        }
+    }
+
+    private void showMainWindow(Stage primaryStage, Stage splashStage) {
+        try {
+            StartupProfiler.begin("fxml-load");
+            FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource(MAIN_VIEW));
+            fxmlLoader.setControllerFactory(applicationContext::getBean);
+
+            Parent root = fxmlLoader.load();
+            Scene scene = new Scene(root);
 
-        Parent root = fxmlLoader.load();
-        Scene scene = new Scene(root);
+            scene.getStylesheets().add(getClass().getResource(STYLESHEET).toExternalForm());
+            StartupProfiler.end("fxml-load");
 
-        scene.getStylesheets().add(getClass().getResource("/css/application.css").toExternalForm());
+            primaryStage.setTitle("Employee Manager");
+            primaryStage.setScene(scene);
+            primaryStage.setMaximized(true);
+            primaryStage.show();
+            splashStage.close();
 
-        primaryStage.setTitle("Employee Manager");
-        primaryStage.setScene(scene);
-        primaryStage.setMaximized(true);
-        primaryStage.show();
+            // A következő pulse után az ablak már ki van rajzolva és fogad eseményeket
+            Platform.runLater(() -> {
+                StartupProfiler.firstInteractive();
+                startupExecutor.shutdown();
+                if (StartupProfiler.isExitAfterInteractive()) {
+                    Platform.exit();
+                }
+            });
+        } catch (Exception e) {
+            log.error("Failed to load main window", e);
+            splashStage.close();
+            AlertHelper.showError("Hiba", "Nem sikerült betölteni a főablakot", e.getMessage());
+            Platform.exit();
+        }
     }
 
     @Override
     public void stop() {
-        applicationContext.close();
+        if (applicationContext != null) {
+            applicationContext.close();
+        }
         Platform.exit();
     }
-}
\ No newline at end of file
+}
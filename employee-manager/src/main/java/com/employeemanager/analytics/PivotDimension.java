@@ -0,0 +1,28 @@
+package com.employeemanager.analytics;
+
+/**
+ * Kimutatás csoportosítási szempontjai. A dátum alapú dimenziók a lekérdezésben megadott
+ * dátum szerint (munkavégzés vagy bejelentés) csoportosítanak.
+ */
+public enum PivotDimension {
+    EMPLOYEE("Dolgozó"),
+    DAY("Nap"),
+    WEEK("Hét"),
+    MONTH("Hónap"),
+    YEAR("Év");
+
+    private final String label;
+
+    PivotDimension(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
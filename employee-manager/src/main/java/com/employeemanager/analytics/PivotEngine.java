@@ -0,0 +1,312 @@
+package com.employeemanager.analytics;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Általános csoportosító/kimutatás motor a {@link WorkRecordSnapshot} oszlopain.
+ * A dimenzió kulcsokból vegyes alapú számrendszerben egyetlen long csoportkulcs készül, a rekordok
+ * összegzése fork-join feladatokban, primitív hash táblákban történik. Az eredmény a pillanatkép
+ * verziójához kötve memoizálódik, így ugyanaz a kimutatás újraszámolás nélkül kérhető le újra.
+ */
+@Slf4j
+@Component
+public class PivotEngine {
+
+    private static final int CACHE_SIZE = 32;
+    private static final int PARALLEL_THRESHOLD = 16_384;
+
+    private final Map<CacheKey, PivotResult> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<CacheKey, PivotResult> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    public PivotResult pivot(WorkRecordSnapshot snapshot, PivotQuery query) {
+        CacheKey key = new CacheKey(snapshot.getVersion(), query);
+        PivotResult cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long start = System.nanoTime();
+        PivotResult result = compute(snapshot, query);
+        cache.put(key, result);
+        log.debug("Pivot {} over {} records: {} rows in {} ms", query.getDimensions(), snapshot.size(),
+                result.getRows().size(), (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * A 1970-01-01 (csütörtök) óta eltelt hetek hétfői kezdettel; a WEEK dimenzió kulcsa
+     */
+    static int week(int epochDay) {
+        return Math.floorDiv(epochDay + 3, 7);
+    }
+
+    static long weekStart(int week) {
+        return week * 7L - 3;
+    }
+
+    private PivotResult compute(WorkRecordSnapshot snapshot, PivotQuery query) {
+        List<PivotDimension> dimensions = query.getDimensions();
+        int size = snapshot.size();
+        int dims = dimensions.size();
+
+        // Dolgozók név szerinti sorrendje, hogy a kimutatás sorai ábécé rendben legyenek
+        Integer[] byName = new Integer[snapshot.employeeCount()];
+        for (int i = 0; i < byName.length; i++) {
+            byName[i] = i;
+        }
+        Collator collator = Collator.getInstance(Locale.forLanguageTag("hu-HU"));
+        Arrays.sort(byName, (a, b) -> collator.compare(snapshot.employeeName(a), snapshot.employeeName(b)));
+        int[] employeeRank = new int[byName.length];
+        String[] employeeNames = new String[byName.length];
+        for (int rank = 0; rank < byName.length; rank++) {
+            employeeRank[byName[rank]] = rank;
+            employeeNames[rank] = snapshot.employeeName(byName[rank]);
+        }
+
+        // Dimenziónkénti kulcs oszlopok és tartományok
+        int[][] keys = new int[dims][];
+        int[] min = new int[dims];
+        long[] span = new long[dims];
+        long cells = 1;
+        for (int d = 0; d < dims; d++) {
+            keys[d] = keyColumn(snapshot, dimensions.get(d), query.getDateBasis(), employeeRank);
+            int low = Integer.MAX_VALUE;
+            int high = Integer.MIN_VALUE;
+            for (int key : keys[d]) {
+                if (key != WorkRecordSnapshot.NO_DATE) {
+                    low = Math.min(low, key);
+                    high = Math.max(high, key);
+                }
+            }
+            min[d] = low <= high ? low : 0;
+            span[d] = low <= high ? (long) high - low + 1 : 1;
+            try {
+                cells = Math.multiplyExact(cells, span[d]);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Too many pivot cells for dimensions " + dimensions, e);
+            }
+        }
+
+        Aggregation aggregation = new Aggregation(snapshot, keys, min, span);
+        GroupTable table = size < PARALLEL_THRESHOLD
+                ? aggregation.accumulate(0, size)
+                : ForkJoinPool.commonPool().invoke(new AggregateTask(aggregation, 0, size));
+
+        // Csoportkulcs szerinti rendezés = dimenziók szerinti lexikografikus rendezés
+        long[] groups = table.keys();
+        Arrays.sort(groups);
+
+        List<PivotResult.Row> rows = new ArrayList<>(groups.length);
+        for (long group : groups) {
+            int slot = table.find(group);
+            int[] rowKeys = new int[dims];
+            long rest = group;
+            for (int d = dims - 1; d >= 0; d--) {
+                rowKeys[d] = (int) (min[d] + rest % span[d]);
+                rest /= span[d];
+            }
+            rows.add(new PivotResult.Row(rowKeys, table.days[slot], table.hours[slot], table.payment[slot]));
+        }
+
+        return new PivotResult(query, Collections.unmodifiableList(rows), employeeNames);
+    }
+
+    private static int[] keyColumn(WorkRecordSnapshot snapshot, PivotDimension dimension,
+                                   PivotQuery.DateBasis dateBasis, int[] employeeRank) {
+        boolean work = dateBasis == PivotQuery.DateBasis.WORK_DATE;
+        int[] column = new int[snapshot.size()];
+
+        for (int row = 0; row < column.length; row++) {
+            if (dimension == PivotDimension.EMPLOYEE) {
+                column[row] = employeeRank[snapshot.employeeIndex(row)];
+                continue;
+            }
+
+            int day = work ? snapshot.epochDay(row) : snapshot.notificationEpochDay(row);
+            int month = work ? snapshot.workMonth(row) : snapshot.notificationMonth(row);
+            if (day == WorkRecordSnapshot.NO_DATE) {
+                column[row] = WorkRecordSnapshot.NO_DATE;
+                continue;
+            }
+            column[row] = switch (dimension) {
+                case DAY -> day;
+                case WEEK -> week(day);
+                case MONTH -> month;
+                case YEAR -> month / 12;
+                default -> throw new IllegalStateException("Unexpected dimension: " + dimension);
+            };
+        }
+        return column;
+    }
+
+    /**
+     * Sorok csoportkulcsa és összegzése; a hiányzó dátumú rekordok dátum dimenziónál kimaradnak
+     */
+    private static final class Aggregation {
+        private final WorkRecordSnapshot snapshot;
+        private final int[][] keys;
+        private final int[] min;
+        private final long[] span;
+
+        private Aggregation(WorkRecordSnapshot snapshot, int[][] keys, int[] min, long[] span) {
+            this.snapshot = snapshot;
+            this.keys = keys;
+            this.min = min;
+            this.span = span;
+        }
+
+        private GroupTable accumulate(int from, int to) {
+            GroupTable table = new GroupTable();
+            rows:
+            for (int row = from; row < to; row++) {
+                long group = 0;
+                for (int d = 0; d < keys.length; d++) {
+                    int key = keys[d][row];
+                    if (key == WorkRecordSnapshot.NO_DATE) {
+                        continue rows;
+                    }
+                    group = group * span[d] + (key - min[d]);
+                }
+                table.add(group, 1, snapshot.hours(row), snapshot.paymentMinor(row));
+            }
+            return table;
+        }
+    }
+
+    private static final class AggregateTask extends RecursiveTask<GroupTable> {
+        private final Aggregation aggregation;
+        private final int from;
+        private final int to;
+
+        private AggregateTask(Aggregation aggregation, int from, int to) {
+            this.aggregation = aggregation;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected GroupTable compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return aggregation.accumulate(from, to);
+            }
+            int mid = (from + to) >>> 1;
+            AggregateTask left = new AggregateTask(aggregation, from, mid);
+            left.fork();
+            GroupTable result = new AggregateTask(aggregation, mid, to).compute();
+            result.addAll(left.join());
+            return result;
+        }
+    }
+
+    /**
+     * Nyílt címzéses long -> (napok, órák, fillér) tábla, dobozolás nélkül. A csoportkulcsok nem negatívak.
+     */
+    static final class GroupTable {
+        private static final long EMPTY = -1;
+
+        private long[] slots = newSlots(64);
+        long[] days = new long[64];
+        long[] hours = new long[64];
+        long[] payment = new long[64];
+        private int count;
+
+        private static long[] newSlots(int capacity) {
+            long[] slots = new long[capacity];
+            Arrays.fill(slots, EMPTY);
+            return slots;
+        }
+
+        int find(long group) {
+            int mask = slots.length - 1;
+            int slot = (int) (mix(group) & mask);
+            while (slots[slot] != EMPTY && slots[slot] != group) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        void add(long group, long dayCount, long hourCount, long paymentMinor) {
+            if ((count + 1) * 2 > slots.length) {
+                resize();
+            }
+            int slot = find(group);
+            if (slots[slot] == EMPTY) {
+                slots[slot] = group;
+                count++;
+            }
+            days[slot] += dayCount;
+            hours[slot] += hourCount;
+            payment[slot] += paymentMinor;
+        }
+
+        void addAll(GroupTable other) {
+            for (int i = 0; i < other.slots.length; i++) {
+                if (other.slots[i] != EMPTY) {
+                    add(other.slots[i], other.days[i], other.hours[i], other.payment[i]);
+                }
+            }
+        }
+
+        long[] keys() {
+            long[] keys = new long[count];
+            int next = 0;
+            for (long slot : slots) {
+                if (slot != EMPTY) {
+                    keys[next++] = slot;
+                }
+            }
+            return keys;
+        }
+
+        private void resize() {
+            long[] oldSlots = slots;
+            long[] oldDays = days;
+            long[] oldHours = hours;
+            long[] oldPayment = payment;
+
+            int capacity = oldSlots.length * 2;
+            slots = newSlots(capacity);
+            days = new long[capacity];
+            hours = new long[capacity];
+            payment = new long[capacity];
+            count = 0;
+
+            for (int i = 0; i < oldSlots.length; i++) {
+                if (oldSlots[i] != EMPTY) {
+                    add(oldSlots[i], oldDays[i], oldHours[i], oldPayment[i]);
+                }
+            }
+        }
+
+        private static long mix(long value) {
+            value ^= value >>> 33;
+            value *= 0xff51afd7ed558ccdL;
+            value ^= value >>> 33;
+            return value;
+        }
+    }
+
+    @Value
+    private static class CacheKey {
+        long version;
+        PivotQuery query;
+    }
+}
@@ -0,0 +1,25 @@
+package com.employeemanager.analytics;
+
+/**
+ * Kimutatás mértékei: munkanapok (rekordok) száma, órák és kifizetés összege
+ */
+public enum PivotMeasure {
+    DAYS("Munkanapok"),
+    HOURS("Órák"),
+    PAYMENT("Kifizetés");
+
+    private final String label;
+
+    PivotMeasure(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
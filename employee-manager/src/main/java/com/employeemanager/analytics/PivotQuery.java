@@ -0,0 +1,46 @@
+package com.employeemanager.analytics;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Kimutatás definíció: dimenziók sorrendben, a dátum alapja és a megjelenítendő mértékek.
+ * Értékobjektum, a memoizálás kulcsának része.
+ */
+@Value
+public class PivotQuery {
+
+    public enum DateBasis {
+        WORK_DATE("Munkavégzés dátuma"),
+        NOTIFICATION_DATE("Bejelentés dátuma");
+
+        private final String label;
+
+        DateBasis(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    List<PivotDimension> dimensions;
+    DateBasis dateBasis;
+    List<PivotMeasure> measures;
+
+    public PivotQuery(List<PivotDimension> dimensions, DateBasis dateBasis, List<PivotMeasure> measures) {
+        if (dimensions.stream().distinct().count() != dimensions.size()) {
+            throw new IllegalArgumentException("Duplicate pivot dimension: " + dimensions);
+        }
+        this.dimensions = List.copyOf(dimensions);
+        this.dateBasis = dateBasis;
+        this.measures = List.copyOf(measures);
+    }
+
+    public static PivotQuery of(DateBasis dateBasis, PivotDimension... dimensions) {
+        return new PivotQuery(List.of(dimensions), dateBasis, List.of(PivotMeasure.values()));
+    }
+}
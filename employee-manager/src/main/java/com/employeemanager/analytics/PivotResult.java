@@ -0,0 +1,66 @@
+package com.employeemanager.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.util.List;
+
+/**
+ * Kimutatás eredménye: soronként a dimenzió kulcsok és a mértékek, a dimenziók szerint rendezve.
+ * Megváltoztathatatlan, így a memoizált példány több nézet és az export között is megosztható.
+ */
+@Getter
+@AllArgsConstructor
+public class PivotResult {
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern("yyyy.MM.dd.");
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy.MM.");
+
+    private final PivotQuery query;
+    private final List<Row> rows;
+
+    // Dolgozó dimenzió kulcsa -> név (a kulcs a név szerinti sorrend)
+    private final String[] employeeNames;
+
+    /**
+     * Egy dimenzió kulcsának megjelenítendő szövege
+     */
+    public String label(Row row, int dimension) {
+        int key = row.getKeys()[dimension];
+        return switch (query.getDimensions().get(dimension)) {
+            case EMPLOYEE -> employeeNames[key];
+            case DAY -> LocalDate.ofEpochDay(key).format(DAY_FORMATTER);
+            case WEEK -> {
+                LocalDate monday = LocalDate.ofEpochDay(PivotEngine.weekStart(key));
+                yield String.format("%d. %02d. hét", monday.get(IsoFields.WEEK_BASED_YEAR),
+                        monday.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            }
+            case MONTH -> YearMonth.of(key / 12, key % 12 + 1).format(MONTH_FORMATTER);
+            case YEAR -> Integer.toString(key);
+        };
+    }
+
+    /**
+     * Mérték értéke: darab és óra egész, kifizetés forintban
+     */
+    public double value(Row row, PivotMeasure measure) {
+        return switch (measure) {
+            case DAYS -> row.getDays();
+            case HOURS -> row.getHours();
+            case PAYMENT -> WorkRecordSnapshot.toPayment(row.getPaymentMinor()).doubleValue();
+        };
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Row {
+        private final int[] keys;
+        private final long days;
+        private final long hours;
+        private final long paymentMinor;
+    }
+}
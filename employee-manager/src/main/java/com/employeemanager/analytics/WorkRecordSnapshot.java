@@ -0,0 +1,417 @@
+package com.employeemanager.analytics;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.model.fx.WorkRecordFX;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Egy betöltött időszak munkanaplói oszlopos, primitív tömbös formában.
+ * Betöltésenként egyszer épül fel; az összesítések ezután objektum létrehozás nélküli ciklusok,
+ * nagy adatmennyiségnél fork-join párhuzamosítással. A pénzösszegek fillérben (2 tizedes) tárolódnak.
+ */
+public final class WorkRecordSnapshot {
+
+    /**
+     * Összesíthető oszlopok
+     */
+    public enum Column {
+        RECORDS, HOURS, PAYMENT
+    }
+
+    // Hiányzó dátum jelölése az epochDay oszlopokban
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    // Ez alatt a rekordszám alatt a párhuzamosítás többe kerül, mint amit nyer
+    private static final int PARALLEL_THRESHOLD = 16_384;
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    // Minden felépített pillanatkép új verziót kap, erre épül a kimutatások memoizálása
+    private final long version = VERSIONS.incrementAndGet();
+    private final int size;
+    private final int[] epochDay;
+    private final int[] notificationEpochDay;
+    private final int[] workMonth;
+    private final int[] notificationMonth;
+    private final short[] hours;
+    private final long[] paymentMinor;
+    private final int[] employeeIndex;
+
+    private final String[] employeeIds;
+    private final String[] employeeNames;
+
+    private volatile int[] byWorkDate;
+
+    private WorkRecordSnapshot(Builder builder) {
+        this.size = builder.size;
+        this.epochDay = Arrays.copyOf(builder.epochDay, size);
+        this.notificationEpochDay = Arrays.copyOf(builder.notificationEpochDay, size);
+        this.workMonth = Arrays.copyOf(builder.workMonth, size);
+        this.notificationMonth = Arrays.copyOf(builder.notificationMonth, size);
+        this.hours = Arrays.copyOf(builder.hours, size);
+        this.paymentMinor = Arrays.copyOf(builder.paymentMinor, size);
+        this.employeeIndex = Arrays.copyOf(builder.employeeIndex, size);
+        this.employeeIds = builder.employeeIds.toArray(new String[0]);
+        this.employeeNames = builder.employeeNames.toArray(new String[0]);
+    }
+
+    public static WorkRecordSnapshot of(List<WorkRecord> records) {
+        Builder builder = new Builder(records.size());
+        for (WorkRecord record : records) {
+            builder.add(record.getEmployee(), record.getWorkDate(), record.getNotificationDate(),
+                    record.getHoursWorked(), record.getPayment());
+        }
+        return new WorkRecordSnapshot(builder);
+    }
+
+    public static WorkRecordSnapshot ofFx(List<WorkRecordFX> records) {
+        Builder builder = new Builder(records.size());
+        for (WorkRecordFX record : records) {
+            builder.add(record.getEmployee(), record.getEmployeeName(), record.getWorkDate(),
+                    record.getNotificationDate(), record.getHoursWorked(), record.getPayment());
+        }
+        return new WorkRecordSnapshot(builder);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int employeeCount() {
+        return employeeNames.length;
+    }
+
+    public String employeeId(int index) {
+        return employeeIds[index];
+    }
+
+    public String employeeName(int index) {
+        return employeeNames[index];
+    }
+
+    public int employeeIndex(int row) {
+        return employeeIndex[row];
+    }
+
+    public int epochDay(int row) {
+        return epochDay[row];
+    }
+
+    public int notificationEpochDay(int row) {
+        return notificationEpochDay[row];
+    }
+
+    /**
+     * Hónap kulcs: év * 12 + hónap - 1, hiányzó dátumnál NO_DATE
+     */
+    public int workMonth(int row) {
+        return workMonth[row];
+    }
+
+    public int notificationMonth(int row) {
+        return notificationMonth[row];
+    }
+
+    public int hours(int row) {
+        return hours[row];
+    }
+
+    public long paymentMinor(int row) {
+        return paymentMinor[row];
+    }
+
+    public long totalHours() {
+        return total(Column.HOURS);
+    }
+
+    public long totalPaymentMinor() {
+        return total(Column.PAYMENT);
+    }
+
+    public BigDecimal totalPayment() {
+        return toPayment(totalPaymentMinor());
+    }
+
+    public static BigDecimal toPayment(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+
+    /**
+     * Oszlop összege az összes rekordra
+     */
+    public long total(Column column) {
+        if (size < PARALLEL_THRESHOLD) {
+            return sum(column, 0, size);
+        }
+        return ForkJoinPool.commonPool().invoke(new SumTask(column, 0, size));
+    }
+
+    /**
+     * Oszlop összege dolgozónként (index: employeeIndex)
+     */
+    public long[] totalsByEmployee(Column column) {
+        return grouped(column, 0, 0);
+    }
+
+    /**
+     * Oszlop összege dolgozónként és hónaponként, lapított tömbben:
+     * [employeeIndex * months + (hónap - firstMonth)]. Az időszakon kívüli rekordok kimaradnak.
+     */
+    public long[] totalsByEmployeeAndMonth(Column column, YearMonth firstMonth, int months) {
+        return grouped(column, monthKey(firstMonth), months);
+    }
+
+    /**
+     * Oszlop összege a munkavégzés dátuma szerinti zárt intervallumban, a rendezett indexen bináris kereséssel
+     */
+    public long totalByWorkDate(Column column, LocalDate from, LocalDate to) {
+        int[] sorted = sortedByWorkDate();
+        int start = lowerBound(sorted, (int) from.toEpochDay());
+        int end = lowerBound(sorted, (int) to.toEpochDay() + 1);
+
+        long total = 0;
+        for (int i = start; i < end; i++) {
+            total += value(column, sorted[i]);
+        }
+        return total;
+    }
+
+    /**
+     * Sorindexek munkavégzés dátuma szerint növekvő sorrendben (hiányzó dátum elöl); első híváskor épül fel
+     */
+    public int[] sortedByWorkDate() {
+        int[] sorted = byWorkDate;
+        if (sorted == null) {
+            sorted = sortIndex(epochDay);
+            byWorkDate = sorted;
+        }
+        return sorted;
+    }
+
+    /**
+     * Rendezés (kulcs, sorindex) párok egyetlen long tömbjén, így az azonos kulcsúak sorrendje stabil
+     */
+    private int[] sortIndex(int[] keys) {
+        long[] packed = new long[size];
+        for (int i = 0; i < size; i++) {
+            packed[i] = ((long) keys[i] << 32) | (i & 0xffffffffL);
+        }
+        if (size < PARALLEL_THRESHOLD) {
+            Arrays.sort(packed);
+        } else {
+            Arrays.parallelSort(packed);
+        }
+
+        int[] index = new int[size];
+        for (int i = 0; i < size; i++) {
+            index[i] = (int) packed[i];
+        }
+        return index;
+    }
+
+    private int lowerBound(int[] sorted, int day) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDay[sorted[mid]] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long[] grouped(Column column, int firstMonth, int months) {
+        int groups = months > 0 ? employeeNames.length * months : employeeNames.length;
+        if (size < PARALLEL_THRESHOLD) {
+            long[] result = new long[groups];
+            accumulate(result, column, firstMonth, months, 0, size);
+            return result;
+        }
+        return ForkJoinPool.commonPool().invoke(new GroupTask(column, firstMonth, months, groups, 0, size));
+    }
+
+    private long sum(Column column, int from, int to) {
+        long total = 0;
+        switch (column) {
+            case RECORDS -> total = to - from;
+            case HOURS -> {
+                for (int i = from; i < to; i++) {
+                    total += hours[i];
+                }
+            }
+            case PAYMENT -> {
+                for (int i = from; i < to; i++) {
+                    total += paymentMinor[i];
+                }
+            }
+        }
+        return total;
+    }
+
+    private void accumulate(long[] target, Column column, int firstMonth, int months, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int group = employeeIndex[i];
+            if (months > 0) {
+                int month = workMonth[i] - firstMonth;
+                if (workMonth[i] == NO_DATE || month < 0 || month >= months) {
+                    continue;
+                }
+                group = group * months + month;
+            }
+            target[group] += value(column, i);
+        }
+    }
+
+    private long value(Column column, int row) {
+        return switch (column) {
+            case RECORDS -> 1;
+            case HOURS -> hours[row];
+            case PAYMENT -> paymentMinor[row];
+        };
+    }
+
+    private static int monthKey(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private static int monthKey(LocalDate date) {
+        return date != null ? date.getYear() * 12 + date.getMonthValue() - 1 : NO_DATE;
+    }
+
+    private final class SumTask extends RecursiveTask<Long> {
+        private final Column column;
+        private final int from;
+        private final int to;
+
+        private SumTask(Column column, int from, int to) {
+            this.column = column;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return sum(column, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            SumTask left = new SumTask(column, from, mid);
+            left.fork();
+            long right = new SumTask(column, mid, to).compute();
+            return left.join() + right;
+        }
+    }
+
+    private final class GroupTask extends RecursiveTask<long[]> {
+        private final Column column;
+        private final int firstMonth;
+        private final int months;
+        private final int groups;
+        private final int from;
+        private final int to;
+
+        private GroupTask(Column column, int firstMonth, int months, int groups, int from, int to) {
+            this.column = column;
+            this.firstMonth = firstMonth;
+            this.months = months;
+            this.groups = groups;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                long[] result = new long[groups];
+                accumulate(result, column, firstMonth, months, from, to);
+                return result;
+            }
+            int mid = (from + to) >>> 1;
+            GroupTask left = new GroupTask(column, firstMonth, months, groups, from, mid);
+            left.fork();
+            long[] result = new GroupTask(column, firstMonth, months, groups, mid, to).compute();
+            long[] other = left.join();
+            for (int i = 0; i < groups; i++) {
+                result[i] += other[i];
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Oszloptömbök feltöltése; a dolgozók ID szerint (ennek hiányában név szerint) kapnak sorszámot
+     */
+    private static final class Builder {
+        private final int[] epochDay;
+        private final int[] notificationEpochDay;
+        private final int[] workMonth;
+        private final int[] notificationMonth;
+        private final short[] hours;
+        private final long[] paymentMinor;
+        private final int[] employeeIndex;
+
+        private final Map<String, Integer> employeeKeys = new HashMap<>();
+        private final List<String> employeeIds = new ArrayList<>();
+        private final List<String> employeeNames = new ArrayList<>();
+        private int size;
+
+        private Builder(int capacity) {
+            epochDay = new int[capacity];
+            notificationEpochDay = new int[capacity];
+            workMonth = new int[capacity];
+            notificationMonth = new int[capacity];
+            hours = new short[capacity];
+            paymentMinor = new long[capacity];
+            employeeIndex = new int[capacity];
+        }
+
+        private void add(Employee employee, LocalDate workDate, LocalDate notificationDate,
+                         Integer hoursWorked, BigDecimal payment) {
+            add(employee, employee != null ? employee.getName() : null, workDate, notificationDate, hoursWorked, payment);
+        }
+
+        private void add(Employee employee, String employeeName, LocalDate workDate, LocalDate notificationDate,
+                         Integer hoursWorked, BigDecimal payment) {
+            int row = size++;
+            epochDay[row] = workDate != null ? (int) workDate.toEpochDay() : NO_DATE;
+            notificationEpochDay[row] = notificationDate != null ? (int) notificationDate.toEpochDay() : NO_DATE;
+            workMonth[row] = monthKey(workDate);
+            notificationMonth[row] = monthKey(notificationDate);
+            hours[row] = hoursWorked != null ? hoursWorked.shortValue() : 0;
+            paymentMinor[row] = payment != null ? payment.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue() : 0;
+            employeeIndex[row] = employeeIndex(employee != null ? employee.getId() : null, employeeName);
+        }
+
+        private int employeeIndex(String employeeId, String employeeName) {
+            String key = employeeId != null ? employeeId : "name:" + employeeName;
+            Integer index = employeeKeys.get(key);
+            if (index == null) {
+                index = employeeIds.size();
+                employeeKeys.put(key, index);
+                employeeIds.add(employeeId);
+                employeeNames.add(employeeName != null ? employeeName : "");
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.employeemanager.batch;
+
+import com.employeemanager.diagnostics.ReadAccounting;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.service.impl.BackupService;
+import com.employeemanager.service.impl.ExportBundleService;
+import com.employeemanager.service.impl.ReportService;
+import com.employeemanager.service.impl.StreamingExportService;
+import com.employeemanager.service.impl.StreamingExportService.Filter;
+import com.employeemanager.service.impl.StreamingExportService.Format;
+import com.employeemanager.service.impl.WorkRecordImportService;
+import com.employeemanager.service.interfaces.EmployeeService;
+import com.employeemanager.util.ExcelExporter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Grafikus felület nélküli futtatás (cron, ütemezett exportok): csak a Spring szolgáltatások és
+ * tárolók indulnak, JavaFX toolkit és FXML nélkül. Több hónap exportjánál az adatok egyszer töltődnek
+ * be, a havi munkafüzetek a memóriában szétválogatott rekordokból készülnek.
+ * <p>
+ * Használat: {@code --batch export|report --from=2025-01 [--to=2025-12] [--filter=notification|work|both]},
+ * nyers adat exportnál (egy fájl a teljes időszakra) {@code --format=csv|ndjson [--gzip]}, a havi munkafüzetek
+ * egy zip fájlba gyűjtéséhez {@code --bundle},
+ * illetve korábbi export visszatöltése: {@code --batch import --file=exports/munkanaplot_....xlsx},
+ * teljes mentés: {@code --batch backup}, mentés visszatöltése: {@code --batch restore --dir=backups/backup_...}
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BatchRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    public static final String BATCH_OPTION = "batch";
+
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_FAILED = 1;
+    private static final int EXIT_USAGE = 2;
+
+    private static final String USAGE = "Használat: --batch export|report --from=ÉÉÉÉ-HH [--to=ÉÉÉÉ-HH] "
+            + "[--filter=notification|work|both] [--format=xlsx|csv|ndjson] [--gzip] [--bundle]\n"
+            + "          --batch import --file=FÁJL.xlsx\n"
+            + "          --batch backup\n"
+            + "          --batch restore --dir=MENTÉS_KÖNYVTÁR";
+
+    private final EmployeeService employeeService;
+    private final ReportService reportService;
+    private final ExcelExporter excelExporter;
+    private final ReadAccounting readAccounting;
+    private final WorkRecordImportService workRecordImportService;
+    private final StreamingExportService streamingExportService;
+    private final ExportBundleService exportBundleService;
+    private final BackupService backupService;
+
+    private int exitCode = EXIT_OK;
+
+    public static boolean isRequested(String[] args) {
+        return Arrays.asList(args).contains("--" + BATCH_OPTION);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(BATCH_OPTION)) {
+            return;
+        }
+
+        try {
+            List<String> commands = args.getNonOptionArgs();
+            if (commands.size() != 1) {
+                throw new IllegalArgumentException(
+                        "Pontosan egy parancs szükséges (export, report, import, backup vagy restore)");
+            }
+
+            if (commands.get(0).equals("import")) {
+                runImport(Paths.get(single(args, "file", null)));
+                return;
+            }
+            if (commands.get(0).equals("backup")) {
+                runBackup();
+                return;
+            }
+            if (commands.get(0).equals("restore")) {
+                runRestore(Paths.get(single(args, "dir", null)));
+                return;
+            }
+
+            YearMonth from = YearMonth.parse(single(args, "from", null));
+            YearMonth to = YearMonth.parse(single(args, "to", from.toString()));
+            if (to.isBefore(from)) {
+                throw new IllegalArgumentException("A --to nem lehet korábbi, mint a --from");
+            }
+            Filter filter = parse(Filter.class, "szűrés", single(args, "filter", "notification"));
+            String format = single(args, "format", "xlsx");
+
+            long start = System.nanoTime();
+            List<String> files = switch (commands.get(0)) {
+                case "export" -> {
+                    if (!format.equalsIgnoreCase("xlsx")) {
+                        yield List.of(streamingExport(from, to, filter, parse(Format.class, "formátum", format),
+                                args.containsOption("gzip")));
+                    }
+                    yield args.containsOption("bundle") ? List.of(exportBundle(from, to, filter)) : export(from, to, filter);
+                }
+                case "report" -> report(from, to);
+                default -> throw new IllegalArgumentException("Ismeretlen parancs: " + commands.get(0));
+            };
+
+            files.forEach(System.out::println);
+            log.info("Batch {} {} - {}: {} files in {} ms", commands.get(0), from, to, files.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            exitCode = EXIT_USAGE;
+        } catch (Exception e) {
+            log.error("Batch run failed", e);
+            exitCode = EXIT_FAILED;
+        }
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * Havonkénti munkafüzetek; a teljes időszak egyetlen lekérdezéssel töltődik be
+     */
+    private List<String> export(YearMonth from, YearMonth to, Filter filter) throws Exception {
+        Map<YearMonth, List<WorkRecord>> byMonth;
+        try (ReadAccounting.Scope scope = readAccounting.begin("batchExport")) {
+            byMonth = exportBundleService.loadByMonth(from, to, filter);
+        }
+
+        List<String> files = new ArrayList<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            List<WorkRecord> monthRecords = byMonth.get(month);
+            if (monthRecords == null) {
+                log.info("No work records for {}, export skipped", month);
+                continue;
+            }
+            files.add(excelExporter.exportWorkRecords(monthRecords, month.atDay(1), month.atEndOfMonth()));
+        }
+        return files;
+    }
+
+    /**
+     * A havi munkafüzetek egyetlen zip fájlban, párhuzamosan elkészítve
+     */
+    private String exportBundle(YearMonth from, YearMonth to, Filter filter) throws InterruptedException {
+        try (ReadAccounting.Scope scope = readAccounting.begin("batchExport")) {
+            return exportBundleService.exportBundle(from, to, filter,
+                    (done, total) -> log.info("{} / {} monthly workbooks written", done, total));
+        }
+    }
+
+    /**
+     * Nyers adat export: a rekordok lapokban, egyetlen fájlba íródnak, havi bontás nélkül
+     */
+    private String streamingExport(YearMonth from, YearMonth to, Filter filter, Format format, boolean gzip) {
+        try (ReadAccounting.Scope scope = readAccounting.begin("batchExport")) {
+            return streamingExportService.exportWorkRecords(from.atDay(1), to.atEndOfMonth(), filter, format, gzip);
+        }
+    }
+
+    private void runImport(Path file) {
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("A fájl nem található: " + file);
+        }
+
+        WorkRecordImportService.ImportResult result = workRecordImportService.importWorkbook(file,
+                count -> log.info("{} work records imported", count));
+        System.out.println(result.getImported() + " imported, " + result.getSkipped() + " skipped");
+        result.getProblems().forEach(System.err::println);
+    }
+
+    private void runBackup() throws InterruptedException {
+        try (ReadAccounting.Scope scope = readAccounting.begin("batchBackup")) {
+            BackupService.Manifest manifest = backupService.backup(
+                    count -> log.info("{} documents backed up", count));
+            for (BackupService.CollectionBackup collection : manifest.getCollections()) {
+                System.out.println(collection.getName() + ": " + collection.getDocuments() + " documents");
+            }
+        }
+    }
+
+    private void runRestore(Path backup) throws InterruptedException {
+        if (!Files.isRegularFile(backup.resolve(BackupService.MANIFEST))) {
+            throw new IllegalArgumentException("Nem teljes mentés (hiányzó " + BackupService.MANIFEST + "): " + backup);
+        }
+
+        BackupService.RestoreResult result = backupService.restore(backup,
+                count -> log.info("{} documents restored", count));
+        System.out.println(result.getRestored() + " restored, " + result.getFailed() + " failed");
+        if (result.getFailed() > 0) {
+            exitCode = EXIT_FAILED;
+        }
+    }
+
+    private List<String> report(YearMonth from, YearMonth to) {
+        List<String> files = new ArrayList<>();
+        try (ReadAccounting.Scope scope = readAccounting.begin("batchReport")) {
+            for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+                files.add(reportService.generateReport(month.atDay(1), month.atEndOfMonth(), true, true, true));
+            }
+        }
+        return files;
+    }
+
+    private static String single(ApplicationArguments args, String name, String defaultValue) {
+        List<String> values = args.getOptionValues(name);
+        if (values == null || values.isEmpty()) {
+            if (defaultValue == null) {
+                throw new IllegalArgumentException("Hiányzó kapcsoló: --" + name);
+            }
+            return defaultValue;
+        }
+        return values.get(values.size() - 1);
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String label, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Ismeretlen " + label + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.employeemanager.component;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+/**
+ * Indítóképernyő, amíg a Spring kontextus és a főablak betöltődik
+ */
+public class SplashScreen extends VBox {
+    private final Label messageLabel = new Label("Indítás...");
+    private final ProgressBar progressBar = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+
+    public SplashScreen(String title) {
+        setSpacing(15);
+        setPadding(new Insets(30));
+        setAlignment(Pos.CENTER);
+        setPrefSize(420, 180);
+
+        Label titleLabel = new Label(title);
+        titleLabel.setFont(Font.font("System", FontWeight.BOLD, 20));
+
+        progressBar.setPrefWidth(320);
+        messageLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #757575;");
+
+        getChildren().addAll(titleLabel, progressBar, messageLabel);
+
+        setStyle("-fx-background-color: white; -fx-border-color: #c8c8c8; -fx-border-width: 1;");
+    }
+
+    public void setMessage(String message) {
+        messageLabel.setText(message);
+    }
+}
@@ -1,18 +1,40 @@
 package com.employeemanager.component;
 
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.geometry.Insets;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 
 public class StatusBar extends HBox {
     private final Label label;
+    private final Label usageLabel;
+    private final Label pendingLabel;
+    private final ProgressBar progressBar;
+    private final Button cancelButton;
 
     public StatusBar() {
         this.label = new Label();
         this.label.setMaxWidth(Double.MAX_VALUE);
         HBox.setHgrow(label, Priority.ALWAYS);
 
-        getChildren().add(label);
+        // Firestore olvasás/írás számláló a jobb oldalon
+        this.usageLabel = new Label();
+
+        // Még Firestore-ba nem írt (naplózott) mentések száma
+        this.pendingLabel = new Label();
+        this.pendingLabel.setStyle("-fx-padding: 0 15 0 0;");
+
+        // Háttérben futó művelet (pl. export) állapota, megszakítási lehetőséggel
+        this.progressBar = new ProgressBar();
+        this.progressBar.setPrefWidth(150);
+        this.cancelButton = new Button("Mégse");
+        this.cancelButton.setStyle("-fx-padding: 0 8 0 8;");
+        HBox.setMargin(cancelButton, new Insets(0, 15, 0, 5));
+        hideProgress();
+
+        getChildren().addAll(label, progressBar, cancelButton, pendingLabel, usageLabel);
 
         setStyle("-fx-padding: 5; -fx-background-color: #f4f4f4; -fx-border-width: 1 0 0 0; -fx-border-color: #c8c8c8;");
     }
@@ -24,4 +46,39 @@ public class StatusBar extends HBox {
     public String getText() {
         return label.getText();
     }
-}
\ No newline at end of file
+
+    public void setUsage(String text, boolean warning) {
+        usageLabel.setText(text);
+        usageLabel.setStyle(warning ? "-fx-text-fill: #c0392b; -fx-font-weight: bold;" : "");
+    }
+
+    public void setPendingWrites(int pending, boolean retrying) {
+        if (pending == 0) {
+            pendingLabel.setText("");
+            return;
+        }
+        pendingLabel.setText("Mentésre vár: " + pending + (retrying ? " (újrapróbálás...)" : ""));
+        pendingLabel.setStyle("-fx-padding: 0 15 0 0; -fx-text-fill: " + (retrying ? "#c0392b" : "#d35400") + ";");
+    }
+
+    /**
+     * Folyamatjelző megjelenítése; a progress 0 és 1 közötti, negatív értéknél határozatlan
+     */
+    public void showProgress(double progress, Runnable onCancel) {
+        progressBar.setProgress(progress < 0 ? ProgressBar.INDETERMINATE_PROGRESS : progress);
+        cancelButton.setOnAction(event -> onCancel.run());
+        setProgressVisible(true);
+    }
+
+    public void hideProgress() {
+        cancelButton.setOnAction(null);
+        setProgressVisible(false);
+    }
+
+    private void setProgressVisible(boolean visible) {
+        progressBar.setVisible(visible);
+        progressBar.setManaged(visible);
+        cancelButton.setVisible(visible);
+        cancelButton.setManaged(visible);
+    }
+}
@@ -1,10 +1,20 @@
 package com.employeemanager.config;
 
+import com.employeemanager.util.StartupProfiler;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.grpc.InstantiatingGrpcChannelProvider;
+import com.google.api.gax.grpc.ChannelPoolSettings;
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.firestore.FirestoreOptions;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.firebase.cloud.FirestoreClient;
 import com.google.cloud.firestore.Firestore;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,6 +27,11 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import java.text.SimpleDateFormat;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
 @Configuration
 public class FirebaseConfig {
     @Value("${firebase.service-account.path}")
@@ -27,6 +42,26 @@ public class FirebaseConfig {
     
     @Value("${firebase.project.id}")
     private String projectId;
+
+    // Firestore gRPC átvitel beállításai
+    @Value("${firebase.firestore.channel-pool-size:1}")
+    private int channelPoolSize;
+
+    @Value("${firebase.firestore.keep-alive-seconds:60}")
+    private long keepAliveSeconds;
+
+    @Value("${firebase.firestore.keep-alive-timeout-seconds:20}")
+    private long keepAliveTimeoutSeconds;
+
+    @Value("${firebase.firestore.executor-threads:4}")
+    private int executorThreads;
+
+    @Value("${firebase.firestore.warm-up.enabled:true}")
+    private boolean warmUpEnabled;
+
+    @Value("${firebase.firestore.warm-up.collection:employees}")
+    private String warmUpCollection;
+
     private final ResourceLoader resourceLoader;
     public FirebaseConfig(ResourceLoader resourceLoader) {
         this.resourceLoader = resourceLoader;
@@ -44,17 +79,74 @@ public class FirebaseConfig {
                 .setCredentials(GoogleCredentials.fromStream(serviceAccount.getInputStream()))
                 .setProjectId(projectId)
                 .setDatabaseUrl(databaseUrl)
+                .setFirestoreOptions(firestoreOptions())
                 .build();
 
             if (FirebaseApp.getApps().isEmpty()) {
                 FirebaseApp.initializeApp(options);
             }
 
-            return FirestoreClient.getFirestore();
+            Firestore firestore = FirestoreClient.getFirestore();
+            if (warmUpEnabled) {
+                warmUp(firestore);
+            }
+            return firestore;
         } catch (IOException e) {
             throw new IOException("Failed to initialize Firebase: " + e.getMessage(), e);
         }
     }
+    /**
+     * gRPC csatorna beállítások: csatorna pool, keep-alive és saját executor szálak
+     */
+    private FirestoreOptions firestoreOptions() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(executorThreads, runnable -> {
+            Thread thread = new Thread(runnable, "firestore-grpc-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        InstantiatingGrpcChannelProvider channelProvider = FirestoreOptions.getDefaultTransportChannelProviderBuilder()
+                .setChannelPoolSettings(ChannelPoolSettings.staticallySized(channelPoolSize))
+                .setKeepAliveTime(org.threeten.bp.Duration.ofSeconds(keepAliveSeconds))
+                .setKeepAliveTimeout(org.threeten.bp.Duration.ofSeconds(keepAliveTimeoutSeconds))
+                .setKeepAliveWithoutCalls(true)
+                .setExecutor(executor)
+                .build();
+
+        log.debug("Firestore transport: {} channel(s), keep-alive {}s, {} executor thread(s)",
+                channelPoolSize, keepAliveSeconds, executorThreads);
+
+        return FirestoreOptions.newBuilder()
+                .setProjectId(projectId)
+                .setChannelProvider(channelProvider)
+                .build();
+    }
+
+    /**
+     * Aszinkron bemelegítő olvasás: a csatorna létrehozása, a TLS kézfogás és a token lekérése
+     * még az első felhasználói lekérdezés előtt megtörténik, miközben a Spring tovább épül
+     */
+    private void warmUp(Firestore firestore) {
+        StartupProfiler.begin("firestore-warmup");
+        long start = System.nanoTime();
+        ApiFuture<QuerySnapshot> future = firestore.collection(warmUpCollection).limit(1).get();
+
+        ApiFutures.addCallback(future, new ApiFutureCallback<>() {
+            @Override
+            public void onSuccess(QuerySnapshot result) {
+                StartupProfiler.end("firestore-warmup");
+                log.debug("Firestore warm-up finished in {} ms", (System.nanoTime() - start) / 1_000_000);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                StartupProfiler.end("firestore-warmup");
+                log.warn("Firestore warm-up failed: {}", t.getMessage());
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
     @Bean
     public ObjectMapper objectMapper() {
         ObjectMapper mapper = new ObjectMapper();
@@ -0,0 +1,36 @@
+package com.employeemanager.config;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.jmx.JmxConfig;
+import io.micrometer.jmx.JmxMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Micrometer regiszter: memóriában (Diagnosztika panel, fájl kiírás) és JMX-en keresztül
+ */
+@Slf4j
+@Configuration
+public class MetricsConfig {
+
+    @Value("${metrics.jmx.enabled:true}")
+    private boolean jmxEnabled;
+
+    @Bean(destroyMethod = "close")
+    public MeterRegistry meterRegistry() {
+        CompositeMeterRegistry registry = new CompositeMeterRegistry();
+        registry.add(new SimpleMeterRegistry());
+
+        if (jmxEnabled) {
+            registry.add(new JmxMeterRegistry(JmxConfig.DEFAULT, Clock.SYSTEM));
+            log.debug("JMX meter registry enabled");
+        }
+
+        return registry;
+    }
+}
@@ -0,0 +1,43 @@
+package com.employeemanager.config;
+
+import com.employeemanager.repository.impl.BucketedWorkRecordRepository;
+import com.employeemanager.repository.impl.CachingWorkRecordRepository;
+import com.employeemanager.repository.impl.FirebaseWorkRecordRepository;
+import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+
+/**
+ * A munkanapló tárolási forma kiválasztása futásidőben (napi dokumentumok vagy havi bucket-ek).
+ * Feltételes bean helyett itt döntünk, mert az AOT feldolgozás a feltételeket build időben rögzítené.
+ * A kiválasztott tároló elé a lekérdezés gyorsítótár kerül, a szolgáltatások ezt kapják.
+ */
+@Slf4j
+@Configuration
+public class RepositoryConfig {
+
+    public static final String LAYOUT_PROPERTY = "firestore.work-records.layout";
+    public static final String LAYOUT_FLAT = "flat";
+    public static final String LAYOUT_BUCKETED = "bucketed";
+
+    @Bean
+    @Primary
+    public CachingWorkRecordRepository workRecordRepository(@Value("${" + LAYOUT_PROPERTY + ":" + LAYOUT_FLAT + "}") String layout,
+                                                            @Value("${firestore.query-cache.ttl-minutes:10}") long ttlMinutes,
+                                                            FirebaseWorkRecordRepository flatRepository,
+                                                            BucketedWorkRecordRepository bucketedRepository,
+                                                            MeterRegistry registry) {
+        WorkRecordRepository delegate = flatRepository;
+        if (LAYOUT_BUCKETED.equalsIgnoreCase(layout)) {
+            log.info("Using bucketed work record layout ({})", BucketedWorkRecordRepository.COLLECTION);
+            delegate = bucketedRepository;
+        }
+        return new CachingWorkRecordRepository(delegate, registry, Duration.ofMinutes(ttlMinutes));
+    }
+}
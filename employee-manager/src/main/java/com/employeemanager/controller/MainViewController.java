@@ -1,6 +1,13 @@
 package com.employeemanager.controller;
 
+import com.employeemanager.analytics.PivotEngine;
+import com.employeemanager.analytics.WorkRecordSnapshot;
+import com.employeemanager.diagnostics.OperationMetrics;
+import com.employeemanager.diagnostics.ReadAccounting;
+import com.employeemanager.diagnostics.jfr.FlightRecorderService;
+import com.employeemanager.dialog.DiagnosticsDialog;
 import com.employeemanager.dialog.EmployeeDialog;
+import com.employeemanager.dialog.PivotDialog;
 import com.employeemanager.dialog.SettingsDialog;
 import com.employeemanager.dialog.UserGuideDialog;
 import com.employeemanager.dialog.WorkRecordDialog;
@@ -8,40 +15,83 @@ import com.employeemanager.model.Employee;
 import com.employeemanager.model.WorkRecord;
 import com.employeemanager.model.fx.EmployeeFX;
 import com.employeemanager.model.fx.WorkRecordFX;
+import com.employeemanager.repository.impl.CachingWorkRecordRepository;
+import com.employeemanager.repository.journal.WriteBehindFlusher;
 import com.employeemanager.service.interfaces.EmployeeService;
+import com.employeemanager.service.impl.BucketMigrationService;
+import com.employeemanager.service.impl.ExportBundleService;
+import com.employeemanager.service.impl.ExportJobService;
+import com.employeemanager.service.impl.PaymentAmountBackfillService;
+import com.employeemanager.service.impl.PrebuiltExportService;
 import com.employeemanager.service.impl.ReportService;
 import com.employeemanager.service.impl.SettingsService;
+import com.employeemanager.service.impl.StreamingExportService;
+import com.employeemanager.service.impl.WorkRecordImportService;
+import com.employeemanager.service.impl.WorkRecordPrefetcher;
 import com.employeemanager.util.AlertHelper;
 import com.employeemanager.util.ExcelExporter;
+import com.employeemanager.util.LatestTaskRunner;
+import com.employeemanager.util.TemplateExporter;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.transformation.FilteredList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Controller;
 
+import java.io.File;
 import java.math.BigDecimal;
 import java.net.URL;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import com.employeemanager.component.StatusBar;
 
+// Az FXML betöltő kéri le, így batch módban (JavaFX nélkül) nem jön létre
+@Lazy
 @Controller
 @RequiredArgsConstructor
 public class MainViewController implements Initializable {
 
+    // Dátumválasztó és szűrési mód változása után ennyi csend kell a lekérdezés indításához
+    private static final Duration FILTER_DEBOUNCE = Duration.millis(300);
+
     private final EmployeeService employeeService;
     private final ReportService reportService;
     private final SettingsService settingsService;
     private final ExcelExporter excelExporter;
+    private final OperationMetrics operationMetrics;
+    private final ReadAccounting readAccounting;
+    private final FlightRecorderService flightRecorderService;
+    private final WriteBehindFlusher writeBehindFlusher;
+    private final BucketMigrationService bucketMigrationService;
+    private final PaymentAmountBackfillService paymentAmountBackfillService;
+    private final PivotEngine pivotEngine;
+    private final WorkRecordPrefetcher workRecordPrefetcher;
+    private final PrebuiltExportService prebuiltExportService;
+    private final WorkRecordImportService workRecordImportService;
+    private final StreamingExportService streamingExportService;
+    private final ExportBundleService exportBundleService;
+    private final ExportJobService exportJobService;
+    private final TemplateExporter templateExporter;
 
     // FXML injections for main TabPane
     @FXML private TabPane mainTabPane;
@@ -89,7 +139,15 @@ public class MainViewController implements Initializable {
 
     @FXML private StatusBar statusBar;
 
+    private final LatestTaskRunner workRecordLoader = new LatestTaskRunner("work-record-loader");
+
     private FilteredList<EmployeeFX> filteredEmployees;
+    private PauseTransition filterDebounce;
+    private WorkRecordSnapshot workRecordSnapshot;
+    // A táblázatot kitöltő szűretlen, munkavégzés szerinti időszak lekérdezés; más betöltésnél null
+    private LocalDate shownPeriodStart;
+    private LocalDate shownPeriodEnd;
+    private boolean budgetWarningShown;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -97,6 +155,9 @@ public class MainViewController implements Initializable {
         setupWorkRecordTable();
         setupSearchField();
         setupDatePickers();
+        setupFilterPipeline();
+        setupUsageIndicator();
+        setupExportJobs();
         loadInitialData();
         updateStatus("Alkalmazás betöltve");
     }
@@ -121,6 +182,144 @@ public class MainViewController implements Initializable {
         }
     }
 
+    @FXML
+    private void importWorkRecords() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Munkanaplók importálása");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Excel munkafüzet", "*.xlsx"));
+        File exportDirectory = new File("exports");
+        if (exportDirectory.isDirectory()) {
+            fileChooser.setInitialDirectory(exportDirectory);
+        }
+
+        File file = fileChooser.showOpenDialog(mainTabPane.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        Task<WorkRecordImportService.ImportResult> task = new Task<>() {
+            @Override
+            protected WorkRecordImportService.ImportResult call() {
+                return workRecordImportService.importWorkbook(file.toPath(),
+                        count -> updateMessage(count + " munkanapló importálva"));
+            }
+        };
+
+        runInBackground("work-record-import", task, "Importálás: ", result -> {
+            filterWorkRecords();
+            updateStatus("Munkanaplók importálva: " + result.getImported() + " rekord");
+
+            String details = result.getImported() + " munkanapló importálva, " + result.getSkipped() + " sor kihagyva.";
+            if (!result.getProblems().isEmpty()) {
+                details += "\n\n" + String.join("\n", result.getProblems());
+            }
+            AlertHelper.showInformation("Munkanaplók importálása", file.getName(), details);
+        }, "Nem sikerült importálni a munkanaplókat", "Hiba a munkanaplók importálása közben");
+    }
+
+    /**
+     * Nyers adat export a munkanapló nézet időszakával és szűrésével, az export sorban
+     */
+    @FXML
+    private void exportRawData() {
+        LocalDate start = startDatePicker.getValue();
+        LocalDate end = endDatePicker.getValue();
+        if (start == null || end == null) {
+            AlertHelper.showWarning("Figyelmeztetés", "Kérem válasszon időszakot");
+            return;
+        }
+
+        List<String> choices = List.of("CSV", "CSV (gzip)", "NDJSON", "NDJSON (gzip)");
+        ChoiceDialog<String> dialog = new ChoiceDialog<>(choices.get(0), choices);
+        dialog.setTitle("Nyers adatok exportálása");
+        dialog.setHeaderText("Munkanaplók és dolgozói adatok exportálása");
+        dialog.setContentText("Formátum:");
+        Optional<String> choice = dialog.showAndWait();
+        if (choice.isEmpty()) {
+            return;
+        }
+
+        StreamingExportService.Format format = choice.get().startsWith("CSV")
+                ? StreamingExportService.Format.CSV
+                : StreamingExportService.Format.NDJSON;
+        boolean gzip = choice.get().endsWith("(gzip)");
+        StreamingExportService.Filter filter = filterByNotificationDate.isSelected()
+                ? StreamingExportService.Filter.NOTIFICATION
+                : filterByWorkDate.isSelected()
+                ? StreamingExportService.Filter.WORK
+                : StreamingExportService.Filter.BOTH;
+
+        String name = String.format("nyers adatok (%s) %s - %s", choice.get(), start, end);
+        exportJobService.submit(name, progress -> {
+            try (ReadAccounting.Scope scope = readAccounting.begin("exportRawData")) {
+                return streamingExportService.exportWorkRecords(start, end, filter, format, gzip);
+            }
+        });
+    }
+
+    /**
+     * A kiválasztott időszak hónapjainak munkafüzetei egy zip fájlban, az export sorban; az állapotsorból megszakítható
+     */
+    @FXML
+    private void exportMonthlyBundle() {
+        LocalDate start = startDatePicker.getValue();
+        LocalDate end = endDatePicker.getValue();
+        if (start == null || end == null || start.isAfter(end)) {
+            AlertHelper.showWarning("Figyelmeztetés", "Kérem válasszon érvényes időszakot");
+            return;
+        }
+
+        YearMonth from = YearMonth.from(start);
+        YearMonth to = YearMonth.from(end);
+        StreamingExportService.Filter filter = filterByNotificationDate.isSelected()
+                ? StreamingExportService.Filter.NOTIFICATION
+                : filterByWorkDate.isSelected()
+                ? StreamingExportService.Filter.WORK
+                : StreamingExportService.Filter.BOTH;
+
+        String name = String.format("havi munkafüzetek %s - %s", from, to);
+        exportJobService.submit(name, progress -> {
+            try (ReadAccounting.Scope scope = readAccounting.begin("exportMonthlyBundle")) {
+                progress.update("adatok betöltése", 0, 0);
+                return exportBundleService.exportBundle(from, to, filter, (done, total) ->
+                        progress.update(done + " / " + total + " munkafüzet", done, total));
+            }
+        });
+    }
+
+    /**
+     * A táblázatban látható munkanaplók exportja egy választott sablon (templates/*.xlsx) elrendezésében
+     */
+    @FXML
+    private void exportWithTemplate() {
+        List<String> templates;
+        try {
+            templates = templateExporter.getAvailableTemplates();
+        } catch (Exception e) {
+            AlertHelper.showError("Hiba", "Nem sikerült betölteni a sablonokat", e.getMessage());
+            return;
+        }
+
+        ChoiceDialog<String> dialog = new ChoiceDialog<>(templates.get(0), templates);
+        dialog.setTitle("Exportálás sablon alapján");
+        dialog.setHeaderText("Sablonok helye: " + TemplateExporter.TEMPLATE_DIRECTORY);
+        dialog.setContentText("Sablon:");
+        Optional<String> template = dialog.showAndWait();
+        if (template.isEmpty()) {
+            return;
+        }
+
+        LocalDate start = startDatePicker.getValue();
+        LocalDate end = endDatePicker.getValue();
+        List<WorkRecord> records = workRecordTable.getItems().stream()
+                .map(WorkRecordFX::toWorkRecord)
+                .collect(Collectors.toList());
+
+        String name = String.format("%s sablon %s - %s", template.get(), start, end);
+        exportJobService.submit(name, progress ->
+                templateExporter.exportWorkRecords(template.get(), records, start, end));
+    }
+
     // ==========================================
     // ÚJ MENÜ AKCIÓK - SZERKESZTÉS MENÜ
     // ==========================================
@@ -197,6 +396,18 @@ public class MainViewController implements Initializable {
         updateStatus("Riportok tab megjelenítve");
     }
 
+    @FXML
+    private void showPivotView() {
+        if (workRecordSnapshot == null || workRecordSnapshot.size() == 0) {
+            AlertHelper.showWarning("Figyelmeztetés", "Előbb töltsön be munkanaplókat a Munkanaplók fülön");
+            return;
+        }
+
+        Dialog<Void> dialog = new PivotDialog(pivotEngine, excelExporter, exportJobService, workRecordSnapshot);
+        dialog.showAndWait();
+        updateStatus("Kimutatás megjelenítve");
+    }
+
     // ==========================================
     // ÚJ MENÜ AKCIÓK - ESZKÖZÖK MENÜ
     // ==========================================
@@ -214,6 +425,102 @@ public class MainViewController implements Initializable {
         updateStatus("Adatbázis beállítások - fejlesztés alatt");
     }
 
+    @FXML
+    private void showDiagnostics() {
+        Dialog<Void> dialog = new DiagnosticsDialog(operationMetrics);
+        dialog.showAndWait();
+        updateStatus("Diagnosztika megjelenítve");
+    }
+
+    @FXML
+    private void dumpFlightRecording() {
+        try {
+            Path file = flightRecorderService.dump();
+            updateStatus("JFR felvétel mentve: " + file);
+            AlertHelper.showInformation("JFR felvétel",
+                    "A felvétel sikeresen elmentve",
+                    "Fájl helye: " + file.toAbsolutePath() + "\n\n" +
+                            "Megnyitható a JDK Mission Control programmal vagy a 'jfr print' paranccsal.");
+        } catch (Exception e) {
+            AlertHelper.showError("Hiba", "Nem sikerült menteni a JFR felvételt", e.getMessage());
+            updateStatus("Hiba a JFR felvétel mentése közben");
+        }
+    }
+
+    @FXML
+    private void migrateToBuckets() {
+        if (!AlertHelper.showConfirmation("Munkanaplók átalakítása",
+                "Átmásolja a munkanaplókat havi dolgozónkénti dokumentumokba?",
+                "A meglévő adatok érintetlenek maradnak, a művelet újrafuttatható.\n" +
+                        "Az új tárolási forma az alkalmazás újraindítása után lép életbe.")) {
+            return;
+        }
+
+        Task<BucketMigrationService.MigrationResult> task = new Task<>() {
+            @Override
+            protected BucketMigrationService.MigrationResult call() {
+                return bucketMigrationService.migrate(count -> updateMessage(count + " munkanapló átmásolva"));
+            }
+        };
+
+        runInBackground("bucket-migration", task, "Átalakítás: ", result -> {
+            if (result.isComplete()) {
+                settingsService.setWorkRecordLayout("bucketed");
+                updateStatus("Munkanaplók átalakítva: " + result.getMigrated() + " rekord");
+                AlertHelper.showInformation("Munkanaplók átalakítása",
+                        "Az átalakítás sikeresen befejeződött",
+                        result.getMigrated() + " munkanapló, " + result.getBuckets() + " havi dokumentum.\n" +
+                                "Az új tárolási forma az alkalmazás újraindítása után lép életbe.");
+            } else {
+                updateStatus("Munkanaplók átalakítása eltérést talált");
+                AlertHelper.showWarning("Munkanaplók átalakítása",
+                        "Eltérés a rekordszámban: " + result.getSourceRecords() + " forrás, " +
+                                result.getBucketRecords() + " átalakított. A tárolási forma nem változott.");
+            }
+        }, "Nem sikerült átalakítani a munkanaplókat", "Hiba a munkanaplók átalakítása közben");
+    }
+
+    @FXML
+    private void backfillPaymentAmounts() {
+        if (!AlertHelper.showConfirmation("Bérösszegek pótlása",
+                "Kitölti a munkanaplók egész forintos bérösszeg mezőjét?",
+                "Az összesítők ezután egyetlen Firestore aggregációval készülnek.\n" +
+                        "Csak az eltérő munkanaplók íródnak, a művelet újrafuttatható.")) {
+            return;
+        }
+
+        Task<PaymentAmountBackfillService.BackfillResult> task = new Task<>() {
+            @Override
+            protected PaymentAmountBackfillService.BackfillResult call() {
+                return paymentAmountBackfillService.backfill(count -> updateMessage(count + " munkanapló ellenőrizve"));
+            }
+        };
+
+        runInBackground("payment-backfill", task, "Pótlás: ", result -> {
+            updateStatus("Bérösszegek pótolva: " + result.getUpdated() + " munkanapló");
+            AlertHelper.showInformation("Bérösszegek pótlása",
+                    "A pótlás befejeződött",
+                    result.getScanned() + " munkanapló ellenőrizve, " + result.getUpdated() + " frissítve.");
+        }, "Nem sikerült pótolni a bérösszegeket", "Hiba a bérösszegek pótlása közben");
+    }
+
+    /**
+     * Hosszú, nem export jellegű művelet háttérszálon; a feladat üzenetei az állapotsorba kerülnek
+     */
+    private <T> void runInBackground(String threadName, Task<T> task, String statusPrefix, Consumer<T> onSucceeded,
+                                     String failureHeader, String failureStatus) {
+        task.messageProperty().addListener((obs, oldValue, newValue) -> updateStatus(statusPrefix + newValue));
+        task.setOnSucceeded(event -> onSucceeded.accept(task.getValue()));
+        task.setOnFailed(event -> {
+            AlertHelper.showError("Hiba", failureHeader, task.getException().getMessage());
+            updateStatus(failureStatus);
+        });
+
+        Thread thread = new Thread(task, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     @FXML
     private void showUserGuide() {
         try {
@@ -297,6 +604,13 @@ public class MainViewController implements Initializable {
             }
         });
 
+        // Kijelöléskor előtöltjük az időszakot, hogy a dolgozó munkanaplói azonnal megjelenjenek
+        employeeTable.getSelectionModel().selectedItemProperty().addListener((obs, oldValue, newValue) -> {
+            if (newValue != null && startDatePicker.getValue() != null && endDatePicker.getValue() != null) {
+                workRecordPrefetcher.prefetchEmployeePeriod(startDatePicker.getValue(), endDatePicker.getValue());
+            }
+        });
+
         // Dupla kattintás esemény - váltás a munkanaplók tab-ra
         employeeTable.setOnMouseClicked(event -> {
             if (event.getClickCount() == 2 && !employeeTable.getSelectionModel().isEmpty()) {
@@ -397,8 +711,22 @@ public class MainViewController implements Initializable {
         filterByNotificationDate.setSelected(true);
     }
 
+    private void setupFilterPipeline() {
+        // Gyors egymás utáni változtatások (hónap léptetés, mód váltás) egyetlen lekérdezéssé vonódnak össze
+        filterDebounce = new PauseTransition(FILTER_DEBOUNCE);
+        filterDebounce.setOnFinished(event -> startFilter(false));
+
+        startDatePicker.valueProperty().addListener((obs, oldValue, newValue) -> filterDebounce.playFromStart());
+        endDatePicker.valueProperty().addListener((obs, oldValue, newValue) -> filterDebounce.playFromStart());
+        filterGroup.selectedToggleProperty().addListener((obs, oldValue, newValue) -> {
+            if (newValue != null) {
+                filterDebounce.playFromStart();
+            }
+        });
+    }
+
     private void loadInitialData() {
-        try {
+        try (ReadAccounting.Scope scope = readAccounting.begin("loadInitialData")) {
             List<Employee> employees = employeeService.getAllEmployees();
             List<EmployeeFX> employeeFXList = employees.stream()
                     .map(EmployeeFX::new)
@@ -417,7 +745,7 @@ public class MainViewController implements Initializable {
     }
 
     private void saveEmployee(EmployeeFX employeeFX) {
-        try {
+        try (ReadAccounting.Scope scope = readAccounting.begin("saveEmployee")) {
             Employee savedEmployee = employeeService.saveEmployee(employeeFX.toEmployee());
             loadInitialData();
             updateStatus("Alkalmazott mentve: " + savedEmployee.getName());
@@ -432,11 +760,20 @@ public class MainViewController implements Initializable {
             return;
         }
 
-        try {
+        try (ReadAccounting.Scope scope = readAccounting.begin("saveWorkRecords")) {
             List<WorkRecord> workRecords = workRecordFXList.stream()
                     .map(WorkRecordFX::toWorkRecord)
                     .collect(Collectors.toList());
 
+            // Azonos dolgozó + nap (+ e-BEV) már rögzítve: a mentés felülírná, ezért rákérdezünk
+            List<WorkRecord> duplicates = employeeService.findDuplicateWorkRecords(workRecords);
+            if (!duplicates.isEmpty() && !AlertHelper.showConfirmation("Már létező munkanapló",
+                    duplicates.size() + " munkanapló már rögzítve van ugyanarra a napra",
+                    "A mentés felülírja a meglévő bejegyzéseket. Folytatja?")) {
+                updateStatus("Mentés megszakítva");
+                return;
+            }
+
             List<WorkRecord> savedRecords = employeeService.addWorkRecords(workRecords);
             filterWorkRecords();
             updateStatus(savedRecords.size() + " munkanapló mentve");
@@ -466,7 +803,7 @@ public class MainViewController implements Initializable {
         if (AlertHelper.showConfirmation("Törlés megerősítése",
                 "Biztosan törli a kiválasztott alkalmazottat?",
                 "Ez a művelet nem vonható vissza.")) {
-            try {
+            try (ReadAccounting.Scope scope = readAccounting.begin("deleteEmployee")) {
                 employeeService.deleteEmployee(selectedEmployee.getId());
                 loadInitialData();
                 updateStatus("Alkalmazott törölve: " + selectedEmployee.getName());
@@ -493,7 +830,7 @@ public class MainViewController implements Initializable {
         if (AlertHelper.showConfirmation("Törlés megerősítése",
                 "Biztosan törli a kiválasztott munkanaplót?",
                 "Ez a művelet nem vonható vissza.")) {
-            try {
+            try (ReadAccounting.Scope scope = readAccounting.begin("deleteWorkRecord")) {
                 employeeService.deleteWorkRecord(selectedRecord.getId());
                 filterWorkRecords();
                 updateStatus("Munkanapló törölve");
@@ -506,54 +843,81 @@ public class MainViewController implements Initializable {
 
     @FXML
     private void filterWorkRecords() {
+        filterDebounce.stop();
+        startFilter(true);
+    }
+
+    /**
+     * A szűrés a háttérben fut; csak a legutóbb indított lekérdezés eredménye kerül a táblázatba
+     */
+    private void startFilter(boolean explicit) {
         LocalDate start = startDatePicker.getValue();
         LocalDate end = endDatePicker.getValue();
 
         if (start == null || end == null) {
-            AlertHelper.showWarning("Figyelmeztetés", "Kérem válasszon időszakot");
+            if (explicit) {
+                AlertHelper.showWarning("Figyelmeztetés", "Kérem válasszon időszakot");
+            }
+            return;
+        }
+        if (!explicit && start.isAfter(end)) {
+            // Léptetés közben átmenetileg fordított időszak, a következő változás javítja
             return;
         }
 
-        try {
-            List<WorkRecord> workRecords;
-
-            if (filterByNotificationDate.isSelected()) {
-                workRecords = employeeService.getRecordsByNotificationDate(start, end);
-            } else if (filterByWorkDate.isSelected()) {
-                workRecords = employeeService.getMonthlyRecords(start, end);
-            } else { // Mindkettő
-                workRecords = employeeService.getRecordsByBothDates(start, end, start, end);
-            }
+        boolean byNotificationDate = filterByNotificationDate.isSelected();
+        boolean byWorkDate = filterByWorkDate.isSelected();
 
-            List<WorkRecordFX> workRecordFXList = workRecords.stream()
-                    .map(WorkRecordFX::new)
-                    .collect(Collectors.toList());
+        workRecordPrefetcher.cancel();
+        workRecordLoader.submit(() -> {
+            try (ReadAccounting.Scope scope = readAccounting.begin("filterWorkRecords")) {
+                List<WorkRecord> workRecords;
+
+                if (byNotificationDate) {
+                    workRecords = employeeService.getRecordsByNotificationDate(start, end);
+                } else if (byWorkDate) {
+                    workRecords = employeeService.getMonthlyRecords(start, end);
+                } else { // Mindkettő
+                    workRecords = employeeService.getRecordsByBothDates(start, end, start, end);
+                }
 
-            workRecordTable.setItems(FXCollections.observableArrayList(workRecordFXList));
-            updateSummary(workRecordFXList);
+                return workRecords.stream()
+                        .map(WorkRecordFX::new)
+                        .collect(Collectors.toList());
+            }
+        }, workRecordFXList -> {
+            showWorkRecords(workRecordFXList);
+            boolean periodQuery = !byNotificationDate && byWorkDate;
+            shownPeriodStart = periodQuery ? start : null;
+            shownPeriodEnd = periodQuery ? end : null;
             updateStatus("Munkanaplók szűrve (" + workRecordFXList.size() + " találat)");
-        } catch (Exception e) {
+
+            // A következő lépés jellemzően a szomszédos hónap, ezt a háttérben előre betöltjük
+            workRecordPrefetcher.prefetchAround(byNotificationDate
+                    ? CachingWorkRecordRepository.Mode.NOTIFICATION_DATE
+                    : CachingWorkRecordRepository.Mode.WORK_DATE, start, end);
+        }, e -> {
             AlertHelper.showError("Hiba", "Nem sikerült szűrni a munkanaplókat", e.getMessage());
             updateStatus("Hiba a munkanaplók szűrése közben");
-        }
+        });
     }
 
-    private void updateSummary(List<WorkRecordFX> records) {
-        int totalHours = records.stream()
-                .mapToInt(WorkRecordFX::getHoursWorked)
-                .sum();
+    private void showWorkRecords(List<WorkRecordFX> workRecordFXList) {
+        workRecordTable.setItems(FXCollections.observableArrayList(workRecordFXList));
+        updateSummary(workRecordFXList);
+    }
 
-        BigDecimal totalPayment = records.stream()
-                .map(WorkRecordFX::getPayment)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private void updateSummary(List<WorkRecordFX> records) {
+        // Betöltésenként egyszer épül fel, az összesítések primitív tömbökön futnak
+        workRecordSnapshot = WorkRecordSnapshot.ofFx(records);
 
-        totalHoursLabel.setText(String.format("%d óra", totalHours));
-        totalPaymentLabel.setText(String.format("%,.0f Ft", totalPayment));
+        totalHoursLabel.setText(String.format("%d óra", workRecordSnapshot.totalHours()));
+        totalPaymentLabel.setText(String.format("%,.0f Ft", workRecordSnapshot.totalPayment()));
     }
 
     @FXML
     private void generateReport() {
-        try {
+        try (ReadAccounting.Scope scope = readAccounting.begin("generateReport")) {
             LocalDate start = reportStartDate.getValue();
             LocalDate end = reportEndDate.getValue();
 
@@ -562,10 +926,20 @@ public class MainViewController implements Initializable {
                 return;
             }
 
-            String reportPath = reportService.generateReport(start, end,
-                    includeEmployeeDetails.isSelected(),
-                    includeWorkRecords.isSelected(),
-                    includeSummary.isSelected());
+            // Teljes havi riportnál az éjszaka elkészített fájl is megfelel, ha az adatok nem változtak
+            boolean fullReport = includeEmployeeDetails.isSelected()
+                    && includeWorkRecords.isSelected()
+                    && includeSummary.isSelected();
+            Optional<String> prebuilt = fullReport
+                    ? prebuiltExportService.findFreshReport(start, end)
+                    : Optional.empty();
+
+            String reportPath = prebuilt.isPresent()
+                    ? prebuilt.get()
+                    : reportService.generateReport(start, end,
+                            includeEmployeeDetails.isSelected(),
+                            includeWorkRecords.isSelected(),
+                            includeSummary.isSelected());
 
             loadReportList();
             updateStatus("Riport generálva: " + reportPath);
@@ -587,21 +961,103 @@ public class MainViewController implements Initializable {
         }
     }
 
+    /**
+     * A táblázat munkanaplóinak exportja háttérfeladatként; több export is sorba állhat
+     */
     @FXML
     private void exportToExcel() {
-        try {
-            String filePath = excelExporter.exportWorkRecords(
-                    workRecordTable.getItems(),
-                    startDatePicker.getValue(),
-                    endDatePicker.getValue());
-
-            updateStatus("Excel exportálva: " + filePath);
-            AlertHelper.showInformation("Sikeres exportálás",
-                    "Az Excel fájl elkészült",
-                    "Fájl helye: " + filePath);
-        } catch (Exception e) {
-            AlertHelper.showError("Hiba", "Nem sikerült exportálni az Excel fájlt", e.getMessage());
-            updateStatus("Hiba az Excel exportálás közben");
+        LocalDate start = startDatePicker.getValue();
+        LocalDate end = endDatePicker.getValue();
+        // Az előre elkészített havi export csak a teljes időszak lekérdezést helyettesítheti (dolgozó nézetet nem)
+        boolean periodQuery = start != null && start.equals(shownPeriodStart) && Objects.equals(end, shownPeriodEnd);
+
+        // A rekordok az FX szálon kerülnek át, a háttérben már csak ez a másolat használatos
+        List<WorkRecord> records = workRecordTable.getItems().stream()
+                .map(WorkRecordFX::toWorkRecord)
+                .collect(Collectors.toList());
+
+        String name = String.format("munkanaplók %s - %s", start, end);
+        exportJobService.submit(name, progress -> {
+            try (ReadAccounting.Scope scope = readAccounting.begin("exportToExcel")) {
+                // Az előre elkészített havi export munkavégzés szerinti szűréssel készül
+                Optional<String> prebuilt = periodQuery
+                        ? prebuiltExportService.findFreshExport(start, end)
+                        : Optional.empty();
+                if (prebuilt.isPresent()) {
+                    return prebuilt.get();
+                }
+                return excelExporter.exportWorkRecords(records, start, end, progress);
+            }
+        });
+    }
+
+    private void setupExportJobs() {
+        exportJobService.addListener(job -> Platform.runLater(() -> onExportJobChanged(job)));
+    }
+
+    private void onExportJobChanged(ExportJobService.Status job) {
+        String waiting = job.getQueued() > 0 ? String.format(" (sorban: %d)", job.getQueued()) : "";
+
+        switch (job.getState()) {
+            case QUEUED -> updateStatus("Export sorba állítva: " + job.getName() + waiting);
+            case RUNNING -> {
+                statusBar.showProgress(job.getProgress(), () -> exportJobService.cancel(job.getJob()));
+                updateStatus("Export: " + job.getName()
+                        + (job.getStep().isEmpty() ? "" : " - " + job.getStep()) + waiting);
+            }
+            case DONE -> {
+                statusBar.hideProgress();
+                updateStatus("Exportálva: " + job.getResult() + waiting);
+                AlertHelper.showInformation("Sikeres exportálás",
+                        "Az export elkészült: " + job.getName(),
+                        "Fájl helye: " + job.getResult());
+            }
+            case CANCELLED -> {
+                statusBar.hideProgress();
+                updateStatus("Export megszakítva: " + job.getName() + waiting);
+            }
+            case FAILED -> {
+                statusBar.hideProgress();
+                AlertHelper.showError("Hiba", "Nem sikerült az exportálás: " + job.getName(),
+                        job.getError().getMessage());
+                updateStatus("Hiba az exportálás közben: " + job.getName());
+            }
+        }
+    }
+
+    private void setupUsageIndicator() {
+        // Az olvasások bármely szálról érkezhetnek, a kijelzés az FX szálon frissül
+        readAccounting.addListener(usage -> Platform.runLater(() -> updateUsage(usage)));
+        updateUsage(readAccounting.getUsage());
+
+        writeBehindFlusher.addListener(status -> Platform.runLater(() -> updatePendingWrites(status)));
+        updatePendingWrites(writeBehindFlusher.getStatus());
+    }
+
+    private void updatePendingWrites(WriteBehindFlusher.Status status) {
+        if (statusBar != null) {
+            statusBar.setPendingWrites(status.getPendingWrites(), status.isRetrying());
+        }
+    }
+
+    private void updateUsage(ReadAccounting.Usage usage) {
+        if (statusBar == null) {
+            return;
+        }
+
+        statusBar.setUsage(String.format("Firestore: %,d olvasás / %,d írás (ma: %,d / %,d olvasás)",
+                        usage.getSessionReads(), usage.getSessionWrites(),
+                        usage.getTodayReads(), usage.getDailyReadBudget()),
+                usage.isOverBudget());
+
+        if (usage.isOverBudget() && !budgetWarningShown) {
+            budgetWarningShown = true;
+            // Nem blokkoljuk a folyamatban lévő műveletet a figyelmeztetéssel
+            Platform.runLater(() -> AlertHelper.showWarning("Firestore keret túllépve",
+                    String.format("A mai Firestore használat túllépte a beállított keretet.%n" +
+                                    "Olvasás: %,d / %,d%nÍrás: %,d / %,d",
+                            usage.getTodayReads(), usage.getDailyReadBudget(),
+                            usage.getTodayWrites(), usage.getDailyWriteBudget())));
         }
     }
 
@@ -613,26 +1069,35 @@ public class MainViewController implements Initializable {
     }
 
     private void loadEmployeeWorkRecords(EmployeeFX employee) {
-        try {
-            LocalDate start = startDatePicker.getValue();
-            LocalDate end = endDatePicker.getValue();
+        LocalDate start = startDatePicker.getValue();
+        LocalDate end = endDatePicker.getValue();
+        if (start == null || end == null) {
+            return;
+        }
 
-            if (start != null && end != null) {
+        // A dolgozó nézete felülírja a még függő vagy futó időszak szűrést
+        filterDebounce.stop();
+        workRecordPrefetcher.cancel();
+        workRecordLoader.submit(() -> {
+            try (ReadAccounting.Scope scope = readAccounting.begin("loadEmployeeWorkRecords")) {
                 List<WorkRecord> records = employeeService.getEmployeeMonthlyRecords(
                         employee.getId(), start, end);
 
-                List<WorkRecordFX> workRecordFXList = records.stream()
+                return records.stream()
                         .map(WorkRecordFX::new)
                         .collect(Collectors.toList());
-
-                workRecordTable.setItems(FXCollections.observableArrayList(workRecordFXList));
-                updateSummary(workRecordFXList);
-                updateStatus(employee.getName() + " munkanaplói betöltve");
             }
-        } catch (Exception e) {
+        }, workRecordFXList -> {
+            showWorkRecords(workRecordFXList);
+            shownPeriodStart = null;
+            shownPeriodEnd = null;
+            updateStatus(employee.getName() + " munkanaplói betöltve");
+
+            workRecordPrefetcher.prefetchEmployeePeriod(start, end);
+        }, e -> {
             AlertHelper.showError("Hiba", "Nem sikerült betölteni az alkalmazott munkanaplóit", e.getMessage());
             updateStatus("Hiba a munkanaplók betöltése közben");
-        }
+        });
     }
 
     // ==========================================
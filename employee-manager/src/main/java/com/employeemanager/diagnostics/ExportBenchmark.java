@@ -0,0 +1,100 @@
+package com.employeemanager.diagnostics;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.util.ExcelExporter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.poi.openxml4j.util.ZipSecureFile;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Excel export mérése Spring és Firestore nélkül, generált adatokkal: dolgozónként egy hónapnyi munkanapló.
+ * Kiírja a futási idők mediánját, a fájl méretét és a munkafüzet cellastílusainak számát.
+ * <p>
+ * Használat: scripts/benchmark-export.sh [dolgozók száma] [mért futások száma]
+ */
+public final class ExportBenchmark {
+
+    private static final int WORK_DAYS = 20;
+    private static final int WARMUP_RUNS = 2;
+
+    private ExportBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        YearMonth month = YearMonth.of(2025, 1);
+        List<WorkRecord> records = generate(employees, month);
+        ExcelExporter exporter = new ExcelExporter(new OperationMetrics(new SimpleMeterRegistry()));
+
+        Path file = Paths.get("target", "export-benchmark.xlsx");
+        Files.createDirectories(file.getParent());
+
+        long[] millis = new long[runs];
+        for (int run = -WARMUP_RUNS; run < runs; run++) {
+            long start = System.nanoTime();
+            try (OutputStream out = Files.newOutputStream(file)) {
+                exporter.writeWorkRecords(records, month.atDay(1), month.atEndOfMonth(), out);
+            }
+            if (run >= 0) {
+                millis[run] = (System.nanoTime() - start) / 1_000_000;
+            }
+        }
+
+        // Sok ismétlődő stílusnál a styles.xml túllépi a POI tömörítési arány korlátját; itt csak a saját kimenet olvasódik
+        ZipSecureFile.setMinInflateRatio(0);
+        int cellStyles;
+        try (InputStream in = Files.newInputStream(file); XSSFWorkbook workbook = new XSSFWorkbook(in)) {
+            cellStyles = workbook.getNumCellStyles();
+        }
+
+        Arrays.sort(millis);
+        System.out.printf("dolgozók=%d rekordok=%d futások=%d medián=%d ms min=%d ms max=%d ms fájl=%,d bájt stílusok=%d%n",
+                employees, records.size(), runs, millis[runs / 2], millis[0], millis[runs - 1],
+                Files.size(file), cellStyles);
+    }
+
+    private static List<WorkRecord> generate(int employees, YearMonth month) {
+        List<WorkRecord> records = new ArrayList<>(employees * WORK_DAYS);
+        for (int i = 0; i < employees; i++) {
+            Employee employee = new Employee();
+            employee.setId("benchmark-" + i);
+            employee.setName(String.format("Dolgozó %04d", i));
+            employee.setBirthPlace("Budapest");
+            employee.setBirthDate(LocalDate.of(1980 + i % 30, 1 + i % 12, 1 + i % 28));
+            employee.setMotherName("Anyja " + i);
+            employee.setTaxNumber(String.format("8%09d", i));
+            employee.setSocialSecurityNumber(String.format("%09d", i));
+            employee.setAddress("1000 Budapest, Minta utca " + (i + 1) + ".");
+
+            for (int day = 0; day < WORK_DAYS; day++) {
+                WorkRecord record = new WorkRecord();
+                record.setId(employee.getId() + "_" + day);
+                record.setEmployee(employee);
+                record.setWorkDate(month.atDay(1 + day));
+                record.setNotificationDate(month.atDay(1 + day));
+                record.setNotificationTime(LocalTime.of(7, 0));
+                record.setEbevSerialNumber(String.valueOf(100000 + day));
+                record.setPayment(BigDecimal.valueOf(15000 + (i % 5) * 1000L));
+                record.setHoursWorked(8);
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
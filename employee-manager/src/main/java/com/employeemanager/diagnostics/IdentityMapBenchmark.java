@@ -0,0 +1,123 @@
+package com.employeemanager.diagnostics;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.impl.EmployeeIdentityMap;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A munkanaplókhoz tartozó dolgozópéldányok heap igényének mérése Spring és Firestore nélkül.
+ * Minden rekord dolgozója friss dokumentumtérképből épül (mint egy Firestore olvasás után), egyszer
+ * rekordonként külön példányként, egyszer az EmployeeIdentityMap kanonikus példányán keresztül.
+ * Kiírja a megtartott heap méretét és a különböző Employee példányok számát.
+ * <p>
+ * Használat: scripts/benchmark-identity-map.sh [rekordok száma] [dolgozók száma]
+ */
+public final class IdentityMapBenchmark {
+
+    private static final int GC_ROUNDS = 5;
+
+    private IdentityMapBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int employees = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        List<Map<String, Object>> documents = documents(employees);
+
+        // Bemelegítés, hogy az osztálybetöltés ne torzítsa az első mérést
+        load(documents, records, null);
+        load(documents, records, new EmployeeIdentityMap());
+
+        report("rekordonként", documents, records, null);
+        report("identity map", documents, records, new EmployeeIdentityMap());
+    }
+
+    private static void report(String mode, List<Map<String, Object>> documents, int records,
+                               EmployeeIdentityMap identityMap) throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long before = usedHeap(memory);
+        List<WorkRecord> loaded = load(documents, records, identityMap);
+        long after = usedHeap(memory);
+
+        Set<Employee> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (WorkRecord record : loaded) {
+            instances.add(record.getEmployee());
+        }
+        System.out.printf("%s: rekordok=%d dolgozók=%d Employee példányok=%d megtartott heap=%,d bájt%n",
+                mode, loaded.size(), documents.size(), instances.size(), after - before);
+    }
+
+    /**
+     * A repository-k betöltését utánozza: a dolgozó minden rekordnál új dokumentumtérképből épül
+     */
+    private static List<WorkRecord> load(List<Map<String, Object>> documents, int records,
+                                         EmployeeIdentityMap identityMap) {
+        YearMonth month = YearMonth.of(2025, 1);
+        List<WorkRecord> loaded = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            Employee employee = Employee.fromMap(copy(documents.get(i % documents.size())));
+            if (identityMap != null) {
+                employee = identityMap.canonical(employee);
+            }
+
+            WorkRecord record = new WorkRecord();
+            record.setId("benchmark-" + i);
+            record.setEmployee(employee);
+            record.setWorkDate(month.atDay(1 + i % month.lengthOfMonth()));
+            record.setNotificationDate(record.getWorkDate());
+            record.setPayment(BigDecimal.valueOf(15000));
+            record.setHoursWorked(8);
+            loaded.add(record);
+        }
+        return loaded;
+    }
+
+    private static List<Map<String, Object>> documents(int employees) {
+        List<Map<String, Object>> documents = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            Employee employee = new Employee();
+            employee.setId("benchmark-" + i);
+            employee.setName(String.format("Dolgozó %04d", i));
+            employee.setBirthPlace("Budapest");
+            employee.setBirthDate(LocalDate.of(1980 + i % 30, 1 + i % 12, 1 + i % 28));
+            employee.setMotherName("Anyja " + i);
+            employee.setTaxNumber(String.format("8%09d", i));
+            employee.setSocialSecurityNumber(String.format("%09d", i));
+            employee.setAddress("1000 Budapest, Minta utca " + (i + 1) + ".");
+            employee.setCreatedAt(LocalDate.of(2024, 1, 1));
+            documents.add(employee.toMap());
+        }
+        return documents;
+    }
+
+    /**
+     * A deszerializált dokumentum minden szöveges mezője új String példány
+     */
+    private static Map<String, Object> copy(Map<String, Object> document) {
+        Map<String, Object> copy = new HashMap<>();
+        document.forEach((key, value) -> copy.put(key, value instanceof String ? new String((String) value) : value));
+        return copy;
+    }
+
+    private static long usedHeap(MemoryMXBean memory) throws InterruptedException {
+        for (int round = 0; round < GC_ROUNDS; round++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
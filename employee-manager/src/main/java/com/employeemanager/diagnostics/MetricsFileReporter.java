@@ -0,0 +1,95 @@
+package com.employeemanager.diagnostics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A metrikák időszakos kiírása CSV fájlba, hogy éles használat után is visszanézhetők legyenek
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MetricsFileReporter {
+
+    private final OperationMetrics operationMetrics;
+
+    @Value("${metrics.file.enabled:true}")
+    private boolean enabled;
+
+    @Value("${metrics.file.path:metrics/metrics.csv}")
+    private String filePath;
+
+    @Value("${metrics.file.interval-seconds:60}")
+    private long intervalSeconds;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-file-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::report, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            // Utolsó pillanatkép kilépéskor
+            report();
+        }
+    }
+
+    void report() {
+        Path path = Paths.get(filePath);
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            boolean newFile = !Files.exists(path);
+
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                if (newFile) {
+                    writer.write("timestamp,name,tags,count,mean_ms,p50_ms,p99_ms,max_ms");
+                    writer.newLine();
+                }
+                for (OperationMetrics.OperationStats stats : operationMetrics.snapshot()) {
+                    writer.write(String.format(Locale.ROOT, "%s,%s,%s,%d,%.2f,%.2f,%.2f,%.2f",
+                            timestamp, stats.getName(), stats.getTags(), stats.getCount(),
+                            stats.getMeanMillis(), stats.getP50Millis(), stats.getP99Millis(), stats.getMaxMillis()));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not write metrics to {}: {}", path, e.getMessage());
+        }
+    }
+}
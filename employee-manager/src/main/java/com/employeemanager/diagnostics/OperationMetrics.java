@@ -0,0 +1,213 @@
+package com.employeemanager.diagnostics;
+
+import com.employeemanager.diagnostics.jfr.FirestoreOperationEvent;
+import com.employeemanager.diagnostics.jfr.PhaseEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Központi mérőpont a Firestore műveletekhez, valamint az export és riport fázisokhoz.
+ * Időzítők p50/p99 percentilisekkel, számlálók az olvasott/írt dokumentumokra és bájtokra.
+ */
+@Component
+@RequiredArgsConstructor
+public class OperationMetrics {
+
+    public static final String FIRESTORE_OPERATION = "firestore.operation";
+    public static final String DOCUMENTS_READ = "firestore.documents.read";
+    public static final String DOCUMENTS_WRITTEN = "firestore.documents.written";
+    public static final String BYTES_READ = "firestore.bytes.read";
+    public static final String BYTES_WRITTEN = "firestore.bytes.written";
+    public static final String EXPORT_PHASE = "export.phase";
+    public static final String REPORT_PHASE = "report.phase";
+
+    private final MeterRegistry registry;
+
+    @FunctionalInterface
+    public interface FirestoreCall<R> {
+        R call() throws ExecutionException, InterruptedException;
+    }
+
+    @FunctionalInterface
+    public interface PhaseCall<R> {
+        R call() throws Exception;
+    }
+
+    public <R> R timeFirestore(String collection, String operation, FirestoreCall<R> call)
+            throws ExecutionException, InterruptedException {
+        FirestoreOperationEvent event = new FirestoreOperationEvent();
+        event.begin();
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            return call.call();
+        } finally {
+            sample.stop(timer(FIRESTORE_OPERATION, "collection", collection, "operation", operation));
+            event.end();
+            if (event.shouldCommit()) {
+                event.setCollection(collection);
+                event.setOperation(operation);
+                event.commit();
+            }
+        }
+    }
+
+    public <R> R timePhase(String name, String phase, PhaseCall<R> call) throws Exception {
+        PhaseEvent event = new PhaseEvent();
+        event.begin();
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            return call.call();
+        } finally {
+            sample.stop(timer(name, "phase", phase));
+            commitPhase(event, name, phase);
+        }
+    }
+
+    public void timePhase(String name, String phase, Runnable runnable) {
+        PhaseEvent event = new PhaseEvent();
+        event.begin();
+        try {
+            timer(name, "phase", phase).record(runnable);
+        } finally {
+            commitPhase(event, name, phase);
+        }
+    }
+
+    private static void commitPhase(PhaseEvent event, String name, String phase) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setName(name);
+            event.setPhase(phase);
+            event.commit();
+        }
+    }
+
+    public void recordRead(String collection, String operation, long documents, long bytes) {
+        counter(DOCUMENTS_READ, collection, operation).increment(documents);
+        counter(BYTES_READ, collection, operation).increment(bytes);
+    }
+
+    public void recordWrite(String collection, String operation, long documents, long bytes) {
+        counter(DOCUMENTS_WRITTEN, collection, operation).increment(documents);
+        counter(BYTES_WRITTEN, collection, operation).increment(bytes);
+    }
+
+    /**
+     * Dokumentum méret becslése a Firestore tárolási szabályai szerint
+     * (mezőnév + 1 bájt, String UTF-8 + 1, szám 8, logikai és null 1 bájt)
+     */
+    public static long estimateSize(Map<String, Object> data) {
+        if (data == null) {
+            return 0;
+        }
+        long size = 32; // dokumentum név és fejléc
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            size += entry.getKey().getBytes(StandardCharsets.UTF_8).length + 1;
+            size += estimateValueSize(entry.getValue());
+        }
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long estimateValueSize(Object value) {
+        if (value == null || value instanceof Boolean) {
+            return 1;
+        }
+        if (value instanceof String) {
+            return ((String) value).getBytes(StandardCharsets.UTF_8).length + 1;
+        }
+        if (value instanceof Number) {
+            return 8;
+        }
+        if (value instanceof Map) {
+            return estimateSize((Map<String, Object>) value) - 32;
+        }
+        if (value instanceof List) {
+            return ((List<Object>) value).stream().mapToLong(OperationMetrics::estimateValueSize).sum();
+        }
+        return 16;
+    }
+
+    /**
+     * Pillanatkép az összes időzítőről és számlálóról a Diagnosztika panelhez és a fájl kiíráshoz
+     */
+    public List<OperationStats> snapshot() {
+        List<OperationStats> stats = new ArrayList<>();
+
+        for (Meter meter : registry.getMeters()) {
+            String tags = meter.getId().getTags().stream()
+                    .map(Tag::getValue)
+                    .collect(Collectors.joining("/"));
+
+            if (meter instanceof Timer) {
+                HistogramSnapshot snapshot = ((Timer) meter).takeSnapshot();
+                stats.add(new OperationStats(meter.getId().getName(), tags, snapshot.count(),
+                        snapshot.mean(TimeUnit.MILLISECONDS),
+                        percentile(snapshot, 0.5),
+                        percentile(snapshot, 0.99),
+                        snapshot.max(TimeUnit.MILLISECONDS)));
+            } else if (meter instanceof Counter) {
+                stats.add(new OperationStats(meter.getId().getName(), tags,
+                        (long) ((Counter) meter).count(), 0, 0, 0, 0));
+            }
+        }
+
+        stats.sort(Comparator.comparing(OperationStats::getName).thenComparing(OperationStats::getTags));
+        return stats;
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return 0;
+    }
+
+    private Timer timer(String name, String... tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    private Counter counter(String name, String collection, String operation) {
+        return Counter.builder(name)
+                .tags("collection", collection, "operation", operation)
+                .register(registry);
+    }
+
+    /**
+     * Egy mérő összesített adatai (időzítőknél ms, számlálóknál csak a darabszám)
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class OperationStats {
+        private final String name;
+        private final String tags;
+        private final long count;
+        private final double meanMillis;
+        private final double p50Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+    }
+}
@@ -0,0 +1,246 @@
+package com.employeemanager.diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Firestore dokumentum olvasások és írások elszámolása.
+ * Az olvasásokat a kiváltó UI művelethez rendeli (szálhoz kötött akció), a napi összesítőt
+ * fájlban tárolja, és figyelmeztet, ha a napi keret túllépésre kerül.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReadAccounting {
+
+    public static final String READS_BY_ACTION = "firestore.reads.by-action";
+    public static final String WRITES_BY_ACTION = "firestore.writes.by-action";
+
+    private static final String BACKGROUND_ACTION = "background";
+
+    private final MeterRegistry registry;
+
+    @Value("${firestore.usage.file:metrics/firestore-usage.csv}")
+    private String usageFile;
+
+    @Value("${firestore.usage.daily-read-budget:50000}")
+    private long dailyReadBudget;
+
+    @Value("${firestore.usage.daily-write-budget:20000}")
+    private long dailyWriteBudget;
+
+    private final ThreadLocal<String> currentAction = new ThreadLocal<>();
+    private final List<Consumer<Usage>> listeners = new CopyOnWriteArrayList<>();
+
+    // Korábbi napok összesítői (dátum -> {olvasás, írás}), a mai nap az atomi számlálókban
+    private final Map<LocalDate, long[]> history = new TreeMap<>();
+    private final AtomicLong sessionReads = new AtomicLong();
+    private final AtomicLong sessionWrites = new AtomicLong();
+    private final AtomicLong todayReads = new AtomicLong();
+    private final AtomicLong todayWrites = new AtomicLong();
+
+    private volatile LocalDate today = LocalDate.now();
+    private volatile boolean readBudgetWarned;
+    private volatile boolean writeBudgetWarned;
+
+    @PostConstruct
+    public void load() {
+        Path path = Paths.get(usageFile);
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        try {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                String[] parts = line.split(",");
+                if (parts.length != 3 || parts[0].equals("date")) {
+                    continue;
+                }
+                LocalDate date = LocalDate.parse(parts[0]);
+                long reads = Long.parseLong(parts[1]);
+                long writes = Long.parseLong(parts[2]);
+
+                if (date.equals(today)) {
+                    todayReads.set(reads);
+                    todayWrites.set(writes);
+                } else {
+                    history.put(date, new long[]{reads, writes});
+                }
+            }
+            readBudgetWarned = todayReads.get() > dailyReadBudget;
+            writeBudgetWarned = todayWrites.get() > dailyWriteBudget;
+            log.debug("Loaded Firestore usage for {}: {} reads, {} writes", today, todayReads.get(), todayWrites.get());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not load Firestore usage from {}: {}", path, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        save();
+    }
+
+    /**
+     * UI művelet kezdete: a szálon ezután történő olvasások ehhez az akcióhoz számítanak.
+     * Egymásba ágyazott műveleteknél a legkülső (a felhasználó által indított) akció marad érvényben.
+     * Try-with-resources blokkban használandó; a legkülső blokk lezárása menti a napi összesítőt.
+     */
+    public Scope begin(String action) {
+        String previous = currentAction.get();
+        if (previous == null) {
+            currentAction.set(action);
+        }
+        return new Scope(previous);
+    }
+
+    public void recordRead(long documents) {
+        if (documents <= 0) {
+            return;
+        }
+        rollOverIfNeeded();
+        sessionReads.addAndGet(documents);
+        long total = todayReads.addAndGet(documents);
+        counter(READS_BY_ACTION).increment(documents);
+
+        if (total > dailyReadBudget && !readBudgetWarned) {
+            readBudgetWarned = true;
+            log.warn("Daily Firestore read budget exceeded: {} > {}", total, dailyReadBudget);
+        }
+        notifyListeners();
+    }
+
+    public void recordWrite(long documents) {
+        if (documents <= 0) {
+            return;
+        }
+        rollOverIfNeeded();
+        sessionWrites.addAndGet(documents);
+        long total = todayWrites.addAndGet(documents);
+        counter(WRITES_BY_ACTION).increment(documents);
+
+        if (total > dailyWriteBudget && !writeBudgetWarned) {
+            writeBudgetWarned = true;
+            log.warn("Daily Firestore write budget exceeded: {} > {}", total, dailyWriteBudget);
+        }
+        notifyListeners();
+    }
+
+    public void addListener(Consumer<Usage> listener) {
+        listeners.add(listener);
+    }
+
+    public Usage getUsage() {
+        return new Usage(sessionReads.get(), sessionWrites.get(), todayReads.get(), todayWrites.get(),
+                dailyReadBudget, dailyWriteBudget);
+    }
+
+    private void notifyListeners() {
+        Usage usage = getUsage();
+        for (Consumer<Usage> listener : listeners) {
+            listener.accept(usage);
+        }
+    }
+
+    private Counter counter(String name) {
+        String action = currentAction.get();
+        return Counter.builder(name)
+                .tag("action", action != null ? action : BACKGROUND_ACTION)
+                .register(registry);
+    }
+
+    /**
+     * Éjfélkor a mai összesítő az előzmények közé kerül, a figyelmeztetések újraindulnak
+     */
+    private synchronized void rollOverIfNeeded() {
+        LocalDate now = LocalDate.now();
+        if (now.equals(today)) {
+            return;
+        }
+        history.put(today, new long[]{todayReads.getAndSet(0), todayWrites.getAndSet(0)});
+        today = now;
+        readBudgetWarned = false;
+        writeBudgetWarned = false;
+    }
+
+    synchronized void save() {
+        Path path = Paths.get(usageFile);
+
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write("date,reads,writes");
+                writer.newLine();
+                for (Map.Entry<LocalDate, long[]> entry : history.entrySet()) {
+                    writer.write(entry.getKey() + "," + entry.getValue()[0] + "," + entry.getValue()[1]);
+                    writer.newLine();
+                }
+                writer.write(today + "," + todayReads.get() + "," + todayWrites.get());
+                writer.newLine();
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not save Firestore usage to {}: {}", path, e.getMessage());
+        }
+    }
+
+    public final class Scope implements AutoCloseable {
+        private final String previous;
+
+        private Scope(String previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                currentAction.remove();
+                save();
+            }
+        }
+    }
+
+    /**
+     * Munkamenet és napi olvasás/írás számok a keretekkel együtt
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Usage {
+        private final long sessionReads;
+        private final long sessionWrites;
+        private final long todayReads;
+        private final long todayWrites;
+        private final long dailyReadBudget;
+        private final long dailyWriteBudget;
+
+        public boolean isOverBudget() {
+            return todayReads > dailyReadBudget || todayWrites > dailyWriteBudget;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.employeemanager.diagnostics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+@Name("com.employeemanager.AutoSizeColumn")
+@Label("Auto Size Column")
+@Category({"Employee Manager", "Export"})
+@Description("Egy oszlop szélességének kiszámítása (autoSizeColumn)")
+@StackTrace(false)
+@Setter
+public class AutoSizeColumnEvent extends Event {
+
+    @Label("Sheet")
+    private String sheet;
+
+    @Label("Column")
+    private int column;
+
+    @Label("Rows")
+    private int rows;
+}
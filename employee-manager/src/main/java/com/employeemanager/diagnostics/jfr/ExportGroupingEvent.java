@@ -0,0 +1,27 @@
+package com.employeemanager.diagnostics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+@Name("com.employeemanager.ExportGrouping")
+@Label("Export Grouping")
+@Category({"Employee Manager", "Export"})
+@Description("Munkanaplók csoportosítása egy munkalaphoz")
+@StackTrace(false)
+@Setter
+public class ExportGroupingEvent extends Event {
+
+    @Label("Sheet")
+    private String sheet;
+
+    @Label("Records")
+    private int records;
+
+    @Label("Groups")
+    private int groups;
+}
@@ -0,0 +1,24 @@
+package com.employeemanager.diagnostics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+@Name("com.employeemanager.FirestoreOperation")
+@Label("Firestore Operation")
+@Category({"Employee Manager", "Firestore"})
+@Description("Egy repository művelet teljes ideje (lekérdezés és hidratálás együtt)")
+@StackTrace(false)
+@Setter
+public class FirestoreOperationEvent extends Event {
+
+    @Label("Collection")
+    private String collection;
+
+    @Label("Operation")
+    private String operation;
+}
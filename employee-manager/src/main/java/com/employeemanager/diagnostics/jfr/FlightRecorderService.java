@@ -0,0 +1,103 @@
+package com.employeemanager.diagnostics.jfr;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Folyamatos, alacsony terhelésű JFR felvétel ("default" beállítás) az alkalmazás saját eseményeivel.
+ * A felvétel utolsó időszaka menüből fájlba menthető, így éles munkamenetek is elemezhetők.
+ */
+@Slf4j
+@Component
+public class FlightRecorderService {
+
+    @Value("${diagnostics.jfr.enabled:true}")
+    private boolean enabled;
+
+    @Value("${diagnostics.jfr.max-age-minutes:30}")
+    private long maxAgeMinutes;
+
+    @Value("${diagnostics.jfr.directory:recordings}")
+    private String directory;
+
+    private Recording recording;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled || !FlightRecorder.isAvailable()) {
+            return;
+        }
+
+        try {
+            recording = new Recording(Configuration.getConfiguration("default"));
+            recording.setName("employee-manager");
+            recording.setToDisk(true);
+            recording.setMaxAge(Duration.ofMinutes(maxAgeMinutes));
+
+            recording.enable(FirestoreOperationEvent.class);
+            recording.enable(HydrationEvent.class);
+            recording.enable(PhaseEvent.class);
+            recording.enable(ExportGroupingEvent.class);
+            recording.enable(AutoSizeColumnEvent.class);
+            recording.enable(WorkbookWriteEvent.class);
+
+            recording.start();
+            log.debug("Continuous flight recording started (max age {} min)", maxAgeMinutes);
+        } catch (Exception e) {
+            log.warn("Could not start flight recording: {}", e.getMessage());
+            recording = null;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    /**
+     * A felvétel mentése .jfr fájlba. Ha a saját felvétel ki van kapcsolva, a JVM-en
+     * futó bármely más felvételt (pl. -XX:StartFlightRecording) menti.
+     */
+    public Path dump() throws IOException {
+        Recording source = recording != null ? recording : findRunningRecording();
+        if (source == null) {
+            throw new IllegalStateException("Nincs futó JFR felvétel");
+        }
+
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        Path file = dir.resolve("employee-manager_" +
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".jfr");
+
+        source.dump(file);
+        log.info("Flight recording dumped to {}", file);
+        return file;
+    }
+
+    private Recording findRunningRecording() {
+        if (!FlightRecorder.isAvailable()) {
+            return null;
+        }
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(r -> r.getState() == RecordingState.RUNNING)
+                .findFirst()
+                .orElse(null);
+    }
+}
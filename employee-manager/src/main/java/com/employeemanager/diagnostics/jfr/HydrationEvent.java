@@ -0,0 +1,32 @@
+package com.employeemanager.diagnostics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+@Name("com.employeemanager.Hydration")
+@Label("Hydration")
+@Category({"Employee Manager", "Firestore"})
+@Description("Lekérdezett dokumentumok entitássá alakítása (convertFromMap)")
+@StackTrace(false)
+@Setter
+public class HydrationEvent extends Event {
+
+    @Label("Collection")
+    private String collection;
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Documents")
+    private int documents;
+
+    @Label("Estimated Size")
+    @DataAmount
+    private long bytes;
+}
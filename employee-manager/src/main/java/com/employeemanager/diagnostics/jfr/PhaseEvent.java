@@ -0,0 +1,24 @@
+package com.employeemanager.diagnostics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+@Name("com.employeemanager.Phase")
+@Label("Export/Report Phase")
+@Category({"Employee Manager", "Phases"})
+@Description("Az Excel export és a riport generálás egy fázisa")
+@StackTrace(false)
+@Setter
+public class PhaseEvent extends Event {
+
+    @Label("Name")
+    private String name;
+
+    @Label("Phase")
+    private String phase;
+}
@@ -0,0 +1,32 @@
+package com.employeemanager.diagnostics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+@Name("com.employeemanager.WorkbookWrite")
+@Label("Workbook Write")
+@Category({"Employee Manager", "Export"})
+@Description("A munkafüzet fájlba írása (workbook.write)")
+@StackTrace(false)
+@Setter
+public class WorkbookWriteEvent extends Event {
+
+    @Label("File")
+    private String file;
+
+    @Label("Sheets")
+    private int sheets;
+
+    @Label("Rows")
+    private int rows;
+
+    @Label("File Size")
+    @DataAmount
+    private long bytes;
+}
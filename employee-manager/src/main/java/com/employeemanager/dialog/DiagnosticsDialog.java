@@ -0,0 +1,79 @@
+package com.employeemanager.dialog;
+
+import com.employeemanager.diagnostics.OperationMetrics;
+import com.employeemanager.diagnostics.OperationMetrics.OperationStats;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.scene.control.*;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+
+public class DiagnosticsDialog extends Dialog<Void> {
+
+    private final OperationMetrics operationMetrics;
+    private final TableView<OperationStats> table = new TableView<>();
+
+    public DiagnosticsDialog(OperationMetrics operationMetrics) {
+        this.operationMetrics = operationMetrics;
+
+        setTitle("Diagnosztika");
+        setHeaderText("Műveletek futási ideje (p50/p99) és Firestore olvasások/írások");
+
+        setupDialog();
+        refresh();
+    }
+
+    private void setupDialog() {
+        DialogPane dialogPane = getDialogPane();
+        dialogPane.getButtonTypes().add(ButtonType.CLOSE);
+
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        table.getColumns().add(column("Mérő", "name"));
+        table.getColumns().add(column("Művelet", "tags"));
+        table.getColumns().add(column("Darab", "count"));
+        table.getColumns().add(millisColumn("Átlag (ms)", "meanMillis"));
+        table.getColumns().add(millisColumn("p50 (ms)", "p50Millis"));
+        table.getColumns().add(millisColumn("p99 (ms)", "p99Millis"));
+        table.getColumns().add(millisColumn("Max (ms)", "maxMillis"));
+
+        Button refreshButton = new Button("Frissítés");
+        refreshButton.setOnAction(e -> refresh());
+
+        HBox toolbar = new HBox(10, refreshButton);
+
+        VBox content = new VBox(10, toolbar, table);
+        content.setPadding(new Insets(10));
+
+        dialogPane.setContent(content);
+        dialogPane.setPrefWidth(900);
+        dialogPane.setPrefHeight(600);
+    }
+
+    private void refresh() {
+        table.setItems(FXCollections.observableArrayList(operationMetrics.snapshot()));
+    }
+
+    private static <V> TableColumn<OperationStats, V> column(String title, String property) {
+        TableColumn<OperationStats, V> column = new TableColumn<>(title);
+        column.setCellValueFactory(new PropertyValueFactory<>(property));
+        return column;
+    }
+
+    private static TableColumn<OperationStats, Double> millisColumn(String title, String property) {
+        TableColumn<OperationStats, Double> column = column(title, property);
+        column.setCellFactory(c -> new TableCell<OperationStats, Double>() {
+            @Override
+            protected void updateItem(Double item, boolean empty) {
+                super.updateItem(item, empty);
+                // Számlálóknál nincs időadat
+                if (empty || item == null || item == 0) {
+                    setText(null);
+                } else {
+                    setText(String.format("%.1f", item));
+                }
+            }
+        });
+        return column;
+    }
+}
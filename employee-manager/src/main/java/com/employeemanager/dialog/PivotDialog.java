@@ -0,0 +1,137 @@
+package com.employeemanager.dialog;
+
+import com.employeemanager.analytics.PivotDimension;
+import com.employeemanager.analytics.PivotEngine;
+import com.employeemanager.analytics.PivotMeasure;
+import com.employeemanager.analytics.PivotQuery;
+import com.employeemanager.analytics.PivotResult;
+import com.employeemanager.analytics.WorkRecordSnapshot;
+import com.employeemanager.service.impl.ExportJobService;
+import com.employeemanager.util.ExcelExporter;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kimutatás nézet a betöltött munkanaplókon: legfeljebb két dimenzió, választható dátum alap.
+ * Az eredményt a {@link PivotEngine} memoizálja, a nézetváltás így nem számol újra.
+ */
+public class PivotDialog extends Dialog<Void> {
+
+    private final PivotEngine pivotEngine;
+    private final ExcelExporter excelExporter;
+    private final ExportJobService exportJobService;
+    private final WorkRecordSnapshot snapshot;
+
+    private final ComboBox<PivotDimension> rowDimension = new ComboBox<>();
+    private final ComboBox<PivotDimension> columnDimension = new ComboBox<>();
+    private final ComboBox<PivotQuery.DateBasis> dateBasis = new ComboBox<>();
+    private final TableView<PivotResult.Row> table = new TableView<>();
+    private final Label summaryLabel = new Label();
+
+    private PivotResult result;
+
+    public PivotDialog(PivotEngine pivotEngine, ExcelExporter excelExporter, ExportJobService exportJobService,
+                       WorkRecordSnapshot snapshot) {
+        this.pivotEngine = pivotEngine;
+        this.excelExporter = excelExporter;
+        this.exportJobService = exportJobService;
+        this.snapshot = snapshot;
+
+        setTitle("Kimutatás");
+        setHeaderText("Betöltött munkanaplók csoportosítása (" + snapshot.size() + " rekord)");
+
+        setupDialog();
+        refresh();
+    }
+
+    private void setupDialog() {
+        DialogPane dialogPane = getDialogPane();
+        dialogPane.getButtonTypes().add(ButtonType.CLOSE);
+
+        rowDimension.setItems(FXCollections.observableArrayList(PivotDimension.values()));
+        rowDimension.setValue(PivotDimension.EMPLOYEE);
+
+        // Második dimenzió opcionális
+        List<PivotDimension> optional = new ArrayList<>();
+        optional.add(null);
+        optional.addAll(List.of(PivotDimension.values()));
+        columnDimension.setItems(FXCollections.observableArrayList(optional));
+        columnDimension.setValue(PivotDimension.MONTH);
+        columnDimension.setPromptText("—");
+
+        dateBasis.setItems(FXCollections.observableArrayList(PivotQuery.DateBasis.values()));
+        dateBasis.setValue(PivotQuery.DateBasis.WORK_DATE);
+
+        rowDimension.setOnAction(e -> refresh());
+        columnDimension.setOnAction(e -> refresh());
+        dateBasis.setOnAction(e -> refresh());
+
+        Button exportButton = new Button("Exportálás Excelbe");
+        exportButton.setOnAction(e -> export());
+
+        HBox toolbar = new HBox(10,
+                new Label("Csoportosítás:"), rowDimension,
+                new Label("majd:"), columnDimension,
+                new Label("Dátum:"), dateBasis,
+                exportButton);
+
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        VBox content = new VBox(10, toolbar, table, summaryLabel);
+        content.setPadding(new Insets(10));
+
+        dialogPane.setContent(content);
+        dialogPane.setPrefWidth(900);
+        dialogPane.setPrefHeight(600);
+    }
+
+    private void refresh() {
+        List<PivotDimension> dimensions = new ArrayList<>();
+        dimensions.add(rowDimension.getValue());
+        if (columnDimension.getValue() != null && columnDimension.getValue() != rowDimension.getValue()) {
+            dimensions.add(columnDimension.getValue());
+        }
+
+        result = pivotEngine.pivot(snapshot,
+                new PivotQuery(dimensions, dateBasis.getValue(), List.of(PivotMeasure.values())));
+
+        table.getColumns().clear();
+        for (int d = 0; d < dimensions.size(); d++) {
+            int dimension = d;
+            TableColumn<PivotResult.Row, String> column = new TableColumn<>(dimensions.get(d).getLabel());
+            column.setCellValueFactory(cell -> new SimpleStringProperty(result.label(cell.getValue(), dimension)));
+            table.getColumns().add(column);
+        }
+        for (PivotMeasure measure : result.getQuery().getMeasures()) {
+            TableColumn<PivotResult.Row, String> column = new TableColumn<>(measure.getLabel());
+            column.setCellValueFactory(cell -> new SimpleStringProperty(format(measure, result.value(cell.getValue(), measure))));
+            column.setStyle("-fx-alignment: CENTER-RIGHT;");
+            table.getColumns().add(column);
+        }
+
+        table.setItems(FXCollections.observableArrayList(result.getRows()));
+        summaryLabel.setText(String.format("%d sor, összesen %d óra, %,.0f Ft",
+                result.getRows().size(), snapshot.totalHours(), snapshot.totalPayment()));
+    }
+
+    /**
+     * Az export sorba kerül; az eredményt a főablak állapotsora és értesítése jelzi
+     */
+    private void export() {
+        PivotResult exported = result;
+        exportJobService.submit("kimutatás", progress -> excelExporter.exportPivot(exported));
+    }
+
+    private static String format(PivotMeasure measure, double value) {
+        return measure == PivotMeasure.PAYMENT
+                ? String.format("%,.0f Ft", value)
+                : String.format("%,.0f", value);
+    }
+}
@@ -3,7 +3,9 @@ package com.employeemanager.model;
 import com.employeemanager.util.FirebaseDateConverter;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -42,8 +44,18 @@ public class Employee {
     @Transient
     private LocalDate createdAt;
 
+    // Csak igény esetén jön létre: a betöltött dolgozók többségénél sosem használt üres lista
     @OneToMany(mappedBy = "employee", cascade = CascadeType.ALL)
-    private List<WorkRecord> workRecords = new ArrayList<>();
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private List<WorkRecord> workRecords;
+
+    public List<WorkRecord> getWorkRecords() {
+        if (workRecords == null) {
+            workRecords = new ArrayList<>();
+        }
+        return workRecords;
+    }
 
     @PrePersist
     protected void onCreate() {
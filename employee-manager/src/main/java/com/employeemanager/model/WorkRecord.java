@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -69,11 +70,20 @@ public class WorkRecord {
         map.put("ebevSerialNumber", ebevSerialNumber);
         map.put("workDate", FirebaseDateConverter.dateToString(workDate));
         map.put("payment", payment != null ? payment.toString() : "0");
+        // Egész forintos másolat a szerver oldali sum() aggregációhoz
+        map.put("paymentAmount", toForints(payment));
         map.put("hoursWorked", hoursWorked);
         map.put("createdAt", FirebaseDateConverter.dateTimeToString(createdAt));
         return map;
     }
 
+    /**
+     * Bér egész forintban; egész számok összege a Firestore sum() aggregációban is pontos
+     */
+    public static long toForints(BigDecimal payment) {
+        return payment != null ? payment.setScale(0, RoundingMode.HALF_UP).longValue() : 0L;
+    }
+
     /**
      * Firebase Map-ből objektummá konvertál (employee nélkül)
      */
@@ -0,0 +1,26 @@
+package com.employeemanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Munkanaplók összesítése (darabszám, munkaórák, kifizetés) egy időszakra
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkRecordSummary {
+
+    private long recordCount;
+
+    private long totalHours;
+
+    private BigDecimal totalPayment = BigDecimal.ZERO;
+
+    public static WorkRecordSummary empty() {
+        return new WorkRecordSummary(0, 0, BigDecimal.ZERO);
+    }
+}
@@ -1,14 +1,26 @@
 package com.employeemanager.repository.impl;
 
+import com.employeemanager.diagnostics.OperationMetrics;
+import com.employeemanager.diagnostics.ReadAccounting;
+import com.employeemanager.diagnostics.jfr.HydrationEvent;
+import com.employeemanager.repository.journal.JournalEntry;
+import com.employeemanager.repository.journal.WriteJournal;
 import com.employeemanager.repository.interfaces.BaseRepository;
 import com.google.cloud.firestore.*;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -16,104 +28,271 @@ public abstract class BaseFirebaseRepository<T> implements BaseRepository<T, Str
     protected final Firestore firestore;
     protected final String collectionName;
     protected final Class<T> entityClass;
+    protected final OperationMetrics metrics;
+    protected final ReadAccounting readAccounting;
+    protected final WriteJournal journal;
+    protected final DataVersions dataVersions;
 
-    protected BaseFirebaseRepository(Firestore firestore, String collectionName, Class<T> entityClass) {
+    protected BaseFirebaseRepository(Firestore firestore, String collectionName, Class<T> entityClass,
+                                     OperationMetrics metrics, ReadAccounting readAccounting, WriteJournal journal,
+                                     DataVersions dataVersions) {
         this.firestore = firestore;
         this.collectionName = collectionName;
         this.entityClass = entityClass;
+        this.metrics = metrics;
+        this.readAccounting = readAccounting;
+        this.journal = journal;
+        this.dataVersions = dataVersions;
     }
 
     @Override
     public T save(T entity) throws ExecutionException, InterruptedException {
-        String id = getEntityId(entity);
-        DocumentReference docRef;
-
-        if (id == null || id.isEmpty()) {
-            // Új entitás - Firebase generálja az ID-t
-            docRef = firestore.collection(collectionName).document();
-            setEntityId(entity, docRef.getId());
-            log.debug("Generated new ID: {} for collection: {}", docRef.getId(), collectionName);
-        } else {
-            // Meglévő entitás
-            docRef = firestore.collection(collectionName).document(id);
-            log.debug("Updating existing entity with ID: {} in collection: {}", id, collectionName);
-        }
-
-        // Entitás konvertálása Map-re a mentéshez
-        Map<String, Object> data = convertToMap(entity);
-        docRef.set(data).get();
-
-        return entity;
-    }
-
-    @Override
-    public List<T> saveAll(List<T> entities) throws ExecutionException, InterruptedException {
-        WriteBatch batch = firestore.batch();
-        List<T> savedEntities = new ArrayList<>();
-
-        for (T entity : entities) {
+        return metrics.timeFirestore(collectionName, "save", () -> {
             String id = getEntityId(entity);
             DocumentReference docRef;
 
             if (id == null || id.isEmpty()) {
-                docRef = firestore.collection(collectionName).document();
+                // Új entitás - az ID-t a leszármazott kulcsstratégiája vagy a Firebase adja
+                docRef = firestore.collection(collectionName).document(generateId(entity));
                 setEntityId(entity, docRef.getId());
+                log.debug("Generated new ID: {} for collection: {}", docRef.getId(), collectionName);
             } else {
+                // Meglévő entitás
                 docRef = firestore.collection(collectionName).document(id);
+                log.debug("Updating existing entity with ID: {} in collection: {}", id, collectionName);
             }
 
+            // Entitás konvertálása Map-re a mentéshez
             Map<String, Object> data = convertToMap(entity);
+
+            if (journal.isEnabled()) {
+                // Write-behind: a naplózás után visszatérünk, a Firestore írást a háttérszál végzi
+                appendToJournal(List.of(WriteJournal.newEntry(collectionName, docRef.getId(),
+                        JournalEntry.Operation.SET, data)));
+                return entity;
+            }
+
+            // A változásszámláló az adattal együtt íródik
+            WriteBatch batch = firestore.batch();
             batch.set(docRef, data);
-            savedEntities.add(entity);
-        }
+            dataVersions.commit(batch, DataVersions.keysFor(collectionName, docRef.getId(), data));
+            recordWrite("save", 1, OperationMetrics.estimateSize(data));
+
+            return entity;
+        });
+    }
+
+    @Override
+    public List<T> saveAll(List<T> entities) throws ExecutionException, InterruptedException {
+        return metrics.timeFirestore(collectionName, "saveAll", () -> {
+            WriteBatch batch = firestore.batch();
+            List<T> savedEntities = new ArrayList<>();
+            List<JournalEntry> journalEntries = new ArrayList<>();
+            Set<String> versionKeys = new HashSet<>();
+            long bytes = 0;
+
+            for (T entity : entities) {
+                String id = getEntityId(entity);
+                DocumentReference docRef;
 
-        batch.commit().get();
-        log.debug("Batch saved {} entities to collection: {}", savedEntities.size(), collectionName);
-        return savedEntities;
+                if (id == null || id.isEmpty()) {
+                    docRef = firestore.collection(collectionName).document(generateId(entity));
+                    setEntityId(entity, docRef.getId());
+                } else {
+                    docRef = firestore.collection(collectionName).document(id);
+                }
+
+                Map<String, Object> data = convertToMap(entity);
+                batch.set(docRef, data);
+                versionKeys.addAll(DataVersions.keysFor(collectionName, docRef.getId(), data));
+                journalEntries.add(WriteJournal.newEntry(collectionName, docRef.getId(),
+                        JournalEntry.Operation.SET, data));
+                savedEntities.add(entity);
+                bytes += OperationMetrics.estimateSize(data);
+            }
+
+            if (journal.isEnabled()) {
+                // Egyetlen fsync az egész batch-re
+                appendToJournal(journalEntries);
+                return savedEntities;
+            }
+
+            dataVersions.commit(batch, versionKeys);
+            recordWrite("saveAll", savedEntities.size(), bytes);
+            log.debug("Batch saved {} entities to collection: {}", savedEntities.size(), collectionName);
+            return savedEntities;
+        });
     }
 
     @Override
     public Optional<T> findById(String id) throws ExecutionException, InterruptedException {
-        DocumentSnapshot document = firestore.collection(collectionName)
-                .document(id)
-                .get()
-                .get();
-
-        if (document.exists()) {
-            Map<String, Object> data = document.getData();
-            if (data != null) {
-                data.put("id", document.getId()); // Ensure ID is included
-                return Optional.ofNullable(convertFromMap(data));
+        return metrics.timeFirestore(collectionName, "findById", () -> {
+            // Még ki nem írt mentés vagy törlés esetén a napló az érvényes állapot, olvasás nélkül
+            JournalEntry pending = journal.pendingFor(collectionName).get(id);
+            if (pending != null) {
+                return pending.getOperation() == JournalEntry.Operation.SET
+                        ? Optional.ofNullable(convertFromMap(withId(pending.getData(), id)))
+                        : Optional.<T>empty();
+            }
+
+            DocumentSnapshot document = firestore.collection(collectionName)
+                    .document(id)
+                    .get()
+                    .get();
+
+            // A nem létező dokumentum lekérése is olvasásnak számít
+            if (document.exists()) {
+                Map<String, Object> data = document.getData();
+                recordRead("findById", 1, OperationMetrics.estimateSize(data));
+                if (data != null) {
+                    data.put("id", document.getId()); // Ensure ID is included
+                    return Optional.ofNullable(convertFromMap(data));
+                }
+            } else {
+                recordRead("findById", 1, 0);
             }
-        }
 
-        return Optional.empty();
+            return Optional.empty();
+        });
     }
 
+    /**
+     * Létező dokumentum ID-k közvetlen olvasással (ID-nként egy olvasás, lekérdezés nélkül).
+     * A naplóban függő mentések és törlések felülírják a Firestore állapotát.
+     */
     @Override
-    public List<T> findAll() throws ExecutionException, InterruptedException {
-        QuerySnapshot querySnapshot = firestore.collection(collectionName).get().get();
-
-        return querySnapshot.getDocuments().stream()
-                .map(doc -> {
-                    Map<String, Object> data = doc.getData();
-                    if (data != null) {
-                        data.put("id", doc.getId()); // Ensure ID is included
-                        return convertFromMap(data);
+    public Set<String> findExistingIds(Collection<String> ids) throws ExecutionException, InterruptedException {
+        return metrics.timeFirestore(collectionName, "findExistingIds", () -> {
+            Set<String> existing = new HashSet<>();
+            Map<String, JournalEntry> pending = journal.pendingFor(collectionName);
+            List<DocumentReference> refs = new ArrayList<>();
+
+            for (String id : ids) {
+                JournalEntry entry = pending.get(id);
+                if (entry == null) {
+                    refs.add(firestore.collection(collectionName).document(id));
+                } else if (entry.getOperation() == JournalEntry.Operation.SET) {
+                    existing.add(id);
+                }
+            }
+
+            if (!refs.isEmpty()) {
+                for (DocumentSnapshot snapshot : firestore.getAll(refs.toArray(new DocumentReference[0])).get()) {
+                    if (snapshot.exists()) {
+                        existing.add(snapshot.getId());
                     }
-                    return null;
-                })
-                .filter(entity -> entity != null)
-                .collect(Collectors.toList());
+                }
+                recordRead("findExistingIds", refs.size(), 0);
+            }
+            return existing;
+        });
+    }
+
+    @Override
+    public List<T> findAll() throws ExecutionException, InterruptedException {
+        return metrics.timeFirestore(collectionName, "findAll", () -> {
+            QuerySnapshot querySnapshot = firestore.collection(collectionName).get().get();
+            return hydrate("findAll", querySnapshot.getDocuments(), data -> true);
+        });
     }
 
     @Override
     public void deleteById(String id) throws ExecutionException, InterruptedException {
-        firestore.collection(collectionName)
-                .document(id)
-                .delete()
-                .get();
-        log.debug("Deleted entity with ID: {} from collection: {}", id, collectionName);
+        metrics.timeFirestore(collectionName, "deleteById", () -> {
+            if (journal.isEnabled()) {
+                appendToJournal(List.of(WriteJournal.newEntry(collectionName, id,
+                        JournalEntry.Operation.DELETE, null)));
+                return null;
+            }
+
+            WriteBatch batch = firestore.batch();
+            batch.delete(firestore.collection(collectionName).document(id));
+            dataVersions.commit(batch, DataVersions.keysFor(collectionName, id, null));
+            recordWrite("deleteById", 1, 0);
+            log.debug("Deleted entity with ID: {} from collection: {}", id, collectionName);
+            return null;
+        });
+    }
+
+    /**
+     * Lekérdezés eredményének entitásokká alakítása, az olvasott dokumentumok és bájtok mérésével.
+     * A naplóban függő műveletek felülírják a lekérdezett állapotot; a függő mentések közül azok
+     * kerülnek be, amelyekre a lekérdezés szerver oldali feltétele (pendingFilter) teljesül.
+     */
+    protected List<T> hydrate(String operation, List<QueryDocumentSnapshot> documents,
+                              Predicate<Map<String, Object>> pendingFilter) {
+        HydrationEvent event = new HydrationEvent();
+        event.begin();
+
+        long bytes = 0;
+        List<T> entities = new ArrayList<>(documents.size());
+        Map<String, JournalEntry> pending = journal.pendingFor(collectionName);
+
+        for (QueryDocumentSnapshot doc : documents) {
+            Map<String, Object> data = doc.getData();
+            bytes += OperationMetrics.estimateSize(data);
+            if (pending.containsKey(doc.getId())) {
+                continue;
+            }
+            data.put("id", doc.getId()); // Ensure ID is included
+            entities.add(convertFromMap(data));
+        }
+
+        for (JournalEntry entry : pending.values()) {
+            if (entry.getOperation() == JournalEntry.Operation.SET && pendingFilter.test(entry.getData())) {
+                entities.add(convertFromMap(withId(entry.getData(), entry.getDocumentId())));
+            }
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.setCollection(collectionName);
+            event.setOperation(operation);
+            event.setDocuments(documents.size());
+            event.setBytes(bytes);
+            event.commit();
+        }
+
+        recordRead(operation, documents.size(), bytes);
+        return entities.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private void appendToJournal(List<JournalEntry> entries) throws ExecutionException {
+        try {
+            journal.appendAll(entries);
+            log.debug("Journaled {} write(s) for collection: {}", entries.size(), collectionName);
+        } catch (IOException e) {
+            throw new ExecutionException("Failed to write journal", e);
+        }
+    }
+
+    private static Map<String, Object> withId(Map<String, Object> data, String id) {
+        Map<String, Object> copy = new HashMap<>(data);
+        copy.put("id", id);
+        return copy;
+    }
+
+    /**
+     * Számlázott olvasások rögzítése: metrika és a kiváltó UI művelethez rendelt napi elszámolás
+     */
+    protected void recordRead(String operation, long documents, long bytes) {
+        metrics.recordRead(collectionName, operation, documents, bytes);
+        // Az üres eredményű lekérdezés is egy olvasásnak számít
+        readAccounting.recordRead(Math.max(1, documents));
+    }
+
+    protected void recordWrite(String operation, long documents, long bytes) {
+        metrics.recordWrite(collectionName, operation, documents, bytes);
+        readAccounting.recordWrite(documents);
+    }
+
+    /**
+     * Új entitás ID-ja; alapértelmezésben véletlen Firebase ID, a leszármazott determinisztikus kulcsot adhat
+     */
+    protected String generateId(T entity) {
+        return firestore.collection(collectionName).document().getId();
     }
 
     /**
@@ -135,4 +314,4 @@ public abstract class BaseFirebaseRepository<T> implements BaseRepository<T, Str
      * Convert Map from Firebase to entity
      */
     protected abstract T convertFromMap(Map<String, Object> data);
-}
\ No newline at end of file
+}
@@ -0,0 +1,655 @@
+package com.employeemanager.repository.impl;
+
+import com.employeemanager.diagnostics.OperationMetrics;
+import com.employeemanager.diagnostics.ReadAccounting;
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.model.WorkRecordSummary;
+import com.employeemanager.repository.interfaces.EmployeeRepository;
+import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import com.employeemanager.util.WorkRecordKeys;
+import com.google.cloud.firestore.AggregateField;
+import com.google.cloud.firestore.AggregateQuerySnapshot;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.Transaction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Munkanaplók tárolása dolgozónként és hónaponként egy dokumentumban ("{employeeId}_{yyyy-MM}").
+ * A bejegyzések az "entries" map-ben vannak (rekord ID -> mezők), mellettük az összesítők
+ * (recordCount, totalHours, totalPayment) és a kereséshez szükséges tömbök (recordIds, notificationMonths).
+ * Egy dolgozó egy havi lekérdezése így egyetlen dokumentum olvasás a napi dokumentumok helyett.
+ */
+@Repository
+@Slf4j
+public class BucketedWorkRecordRepository implements WorkRecordRepository {
+
+    public static final String COLLECTION = "workrecordBuckets";
+
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
+    // Firestore array-contains-any / in feltétel maximális elemszáma
+    private static final int ARRAY_QUERY_LIMIT = 30;
+
+    private static final String EMPLOYEE_ID = "employeeId";
+    private static final String EMPLOYEE_NAME = "employeeName";
+    private static final String MONTH = "month";
+    private static final String ENTRIES = "entries";
+    private static final String RECORD_IDS = "recordIds";
+    private static final String NOTIFICATION_MONTHS = "notificationMonths";
+    private static final String RECORD_COUNT = "recordCount";
+    private static final String TOTAL_HOURS = "totalHours";
+    private static final String TOTAL_PAYMENT = "totalPayment";
+
+    private final Firestore firestore;
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeIdentityMap identityMap;
+    private final OperationMetrics metrics;
+    private final ReadAccounting readAccounting;
+    private final DataVersions dataVersions;
+
+    public BucketedWorkRecordRepository(Firestore firestore, EmployeeRepository employeeRepository,
+                                        OperationMetrics metrics, ReadAccounting readAccounting,
+                                        EmployeeIdentityMap identityMap, DataVersions dataVersions) {
+        this.firestore = firestore;
+        this.employeeRepository = employeeRepository;
+        this.identityMap = identityMap;
+        this.metrics = metrics;
+        this.readAccounting = readAccounting;
+        this.dataVersions = dataVersions;
+    }
+
+    public static String bucketId(String employeeId, LocalDate workDate) {
+        return employeeId + "_" + workDate.format(MONTH_FORMATTER);
+    }
+
+    @Override
+    public WorkRecord save(WorkRecord workRecord) throws ExecutionException, InterruptedException {
+        return metrics.timeFirestore(COLLECTION, "save", () -> {
+            write("save", List.of(workRecord), true);
+            return workRecord;
+        });
+    }
+
+    @Override
+    public List<WorkRecord> saveAll(List<WorkRecord> workRecords) throws ExecutionException, InterruptedException {
+        return metrics.timeFirestore(COLLECTION, "saveAll", () -> {
+            write("saveAll", workRecords, true);
+            return workRecords;
+        });
+    }
+
+    /**
+     * Migrációhoz: a rekordok már meglévő ID-jukkal kerülnek a helyükre, áthelyezés keresése nélkül.
+     * Ugyanaz az ID mindig ugyanabba a bucket-be kerül, így az újrafuttatás nem duplikál.
+     */
+    public void importRecords(List<WorkRecord> workRecords) throws ExecutionException, InterruptedException {
+        metrics.timeFirestore(COLLECTION, "import", () -> {
+            write("import", workRecords, false);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<WorkRecord> findById(String id) throws ExecutionException, InterruptedException {
+        return metrics.timeFirestore(COLLECTION, "findById", () -> {
+            List<QueryDocumentSnapshot> buckets = collection()
+                    .whereArrayContains(RECORD_IDS, id)
+                    .limit(1)
+                    .get()
+                    .get()
+                    .getDocuments();
+
+            return hydrate("findById", buckets, record -> id.equals(record.getId()), WorkRecord::getWorkDate)
+                    .stream()
+                    .findFirst();
+        });
+    }
+
+    @Override
+    public Set<String> findExistingIds(Collection<String> ids) throws ExecutionException, InterruptedException {
+        return metrics.timeFirestore(COLLECTION, "findExistingIds", () -> {
+            Set<String> existing = new HashSet<>();
+            List<String> remaining = new ArrayList<>(ids);
+
+            for (int i = 0; i < remaining.size(); i += ARRAY_QUERY_LIMIT) {
+                List<String> chunk = remaining.subList(i, Math.min(i + ARRAY_QUERY_LIMIT, remaining.size()));
+                List<QueryDocumentSnapshot> buckets = collection()
+                        .whereArrayContainsAny(RECORD_IDS, new ArrayList<>(chunk))
+                        .select(RECORD_IDS)
+                        .get()
+                        .get()
+                        .getDocuments();
+                recordRead("findExistingIds", buckets.size(), 0);
+
+                for (QueryDocumentSnapshot bucket : buckets) {
+                    Object recordIds = bucket.get(RECORD_IDS);
+                    if (recordIds instanceof List) {
+                        for (Object id : (List<?>) recordIds) {
+                            if (chunk.contains(id)) {
+                                existing.add((String) id);
+                            }
+                        }
+                    }
+                }
+            }
+            return existing;
+        });
+    }
+
+    @Override
+    public List<WorkRecord> findAll() throws ExecutionException, InterruptedException {
+        return metrics.timeFirestore(COLLECTION, "findAll", () ->
+                hydrate("findAll", collection().get().get().getDocuments(), record -> true, WorkRecord::getWorkDate));
+    }
+
+    @Override
+    public void deleteById(String id) throws ExecutionException, InterruptedException {
+        metrics.timeFirestore(COLLECTION, "deleteById", () -> {
+            int written = firestore.runTransaction(transaction -> {
+                List<QueryDocumentSnapshot> buckets = transaction.get(collection().whereArrayContains(RECORD_IDS, id))
+                        .get()
+                        .getDocuments();
+
+                Set<String> versionKeys = new HashSet<>();
+                for (QueryDocumentSnapshot bucket : buckets) {
+                    Map<String, Object> data = copyBucket(bucket);
+                    entries(data).remove(id);
+                    writeBucket(transaction, bucket.getReference(), data);
+                    versionKeys.add(versionKey(data));
+                }
+                dataVersions.touch(transaction, versionKeys);
+                return buckets.size();
+            }).get();
+
+            recordRead("deleteById", 1, 0);
+            recordWrite("deleteById", written, 0);
+            log.debug("Deleted work record {} from {} bucket(s)", id, written);
+            return null;
+        });
+    }
+
+    @Override
+    public List<WorkRecord> findByEmployeeIdAndWorkDateBetween(String employeeId, LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        return metrics.timeFirestore(COLLECTION, "findByEmployeeIdAndWorkDateBetween", () -> {
+            // A dokumentum ID-k ismertek: hónaponként egy közvetlen olvasás, index és lekérdezés nélkül
+            List<DocumentReference> refs = months(startDate, endDate).stream()
+                    .map(month -> collection().document(employeeId + "_" + month))
+                    .collect(Collectors.toList());
+
+            List<DocumentSnapshot> buckets = firestore.getAll(refs.toArray(new DocumentReference[0])).get().stream()
+                    .filter(DocumentSnapshot::exists)
+                    .collect(Collectors.toList());
+
+            // A nem létező dokumentum lekérése is olvasásnak számít
+            return hydrate("findByEmployeeIdAndWorkDateBetween", buckets, refs.size(),
+                    record -> isBetween(record.getWorkDate(), startDate, endDate), WorkRecord::getWorkDate);
+        });
+    }
+
+    @Override
+    public List<WorkRecord> findByWorkDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        return metrics.timeFirestore(COLLECTION, "findByWorkDateBetween", () ->
+                hydrate("findByWorkDateBetween", monthRange(startDate, endDate).get().get().getDocuments(),
+                        record -> isBetween(record.getWorkDate(), startDate, endDate), WorkRecord::getWorkDate));
+    }
+
+    /**
+     * Lapozás bucket-enként: egy bucket egy dolgozó egy havi rekordjait tartalmazza,
+     * így egy lapra annyi bucket kerül, amennyi nagyjából pageSize rekordot ad
+     */
+    @Override
+    public void forEachPageByWorkDate(LocalDate startDate, LocalDate endDate, int pageSize,
+                                      Consumer<List<WorkRecord>> page)
+            throws ExecutionException, InterruptedException {
+        int bucketsPerPage = Math.max(1, pageSize / 31);
+        Query query = monthRange(startDate, endDate)
+                .orderBy(MONTH)
+                .limit(bucketsPerPage);
+
+        QueryDocumentSnapshot last = null;
+        while (true) {
+            Query pageQuery = last == null ? query : query.startAfter(last);
+            List<QueryDocumentSnapshot> buckets = metrics.timeFirestore(COLLECTION, "forEachPageByWorkDate",
+                    () -> pageQuery.get().get().getDocuments());
+
+            List<WorkRecord> records = hydrate("forEachPageByWorkDate", buckets,
+                    record -> isBetween(record.getWorkDate(), startDate, endDate), WorkRecord::getWorkDate);
+            if (!records.isEmpty()) {
+                page.accept(records);
+            }
+            if (buckets.size() < bucketsPerPage) {
+                return;
+            }
+            last = buckets.get(buckets.size() - 1);
+        }
+    }
+
+    /**
+     * Lapozás bejelentési hónaponként (notificationMonths array-contains, dokumentum ID szerinti kurzorral).
+     * Több bejelentési hónapot tartalmazó bucket minden hónapjában beolvasódik, de egy hónap lapjaira
+     * csak az abban a hónapban bejelentett rekordjai kerülnek, így minden rekord pontosan egyszer jelenik meg.
+     */
+    @Override
+    public void forEachPageByNotificationDate(LocalDate startDate, LocalDate endDate, int pageSize,
+                                              Consumer<List<WorkRecord>> page)
+            throws ExecutionException, InterruptedException {
+        int bucketsPerPage = Math.max(1, pageSize / 31);
+
+        for (String month : months(startDate, endDate)) {
+            Query query = collection()
+                    .whereArrayContains(NOTIFICATION_MONTHS, month)
+                    .orderBy(FieldPath.documentId())
+                    .limit(bucketsPerPage);
+
+            QueryDocumentSnapshot last = null;
+            while (true) {
+                Query pageQuery = last == null ? query : query.startAfter(last);
+                List<QueryDocumentSnapshot> buckets = metrics.timeFirestore(COLLECTION, "forEachPageByNotificationDate",
+                        () -> pageQuery.get().get().getDocuments());
+
+                List<WorkRecord> records = hydrate("forEachPageByNotificationDate", buckets,
+                        record -> isBetween(record.getNotificationDate(), startDate, endDate)
+                                && record.getNotificationDate().format(MONTH_FORMATTER).equals(month),
+                        WorkRecord::getNotificationDate);
+                if (!records.isEmpty()) {
+                    page.accept(records);
+                }
+                if (buckets.size() < bucketsPerPage) {
+                    break;
+                }
+                last = buckets.get(buckets.size() - 1);
+            }
+        }
+    }
+
+    @Override
+    public List<WorkRecord> findByNotificationDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        return metrics.timeFirestore(COLLECTION, "findByNotificationDateBetween", () -> {
+            List<String> months = months(startDate, endDate);
+            Query query = months.size() <= ARRAY_QUERY_LIMIT
+                    ? collection().whereArrayContainsAny(NOTIFICATION_MONTHS, new ArrayList<>(months))
+                    : collection();
+
+            return hydrate("findByNotificationDateBetween", query.get().get().getDocuments(),
+                    record -> isBetween(record.getNotificationDate(), startDate, endDate),
+                    WorkRecord::getNotificationDate);
+        });
+    }
+
+    @Override
+    public List<WorkRecord> findByNotificationDateAndWorkDateBetween(
+            LocalDate notifStart, LocalDate notifEnd,
+            LocalDate workStart, LocalDate workEnd)
+            throws ExecutionException, InterruptedException {
+        return metrics.timeFirestore(COLLECTION, "findByNotificationDateAndWorkDateBetween", () ->
+                hydrate("findByNotificationDateAndWorkDateBetween",
+                        monthRange(workStart, workEnd).get().get().getDocuments(),
+                        record -> isBetween(record.getWorkDate(), workStart, workEnd) &&
+                                isBetween(record.getNotificationDate(), notifStart, notifEnd),
+                        WorkRecord::getWorkDate));
+    }
+
+    @Override
+    public boolean existsByEmployeeId(String employeeId) throws ExecutionException, InterruptedException {
+        return metrics.timeFirestore(COLLECTION, "existsByEmployeeId", () -> {
+            boolean exists = !collection()
+                    .whereEqualTo(EMPLOYEE_ID, employeeId)
+                    .select(EMPLOYEE_ID)
+                    .limit(1)
+                    .get()
+                    .get()
+                    .isEmpty();
+            recordRead("existsByEmployeeId", 1, 0);
+            return exists;
+        });
+    }
+
+    @Override
+    public long countByEmployeeId(String employeeId) throws ExecutionException, InterruptedException {
+        return metrics.timeFirestore(COLLECTION, "countByEmployeeId", () -> {
+            AggregateField recordCount = AggregateField.sum(RECORD_COUNT);
+            AggregateQuerySnapshot snapshot = collection()
+                    .whereEqualTo(EMPLOYEE_ID, employeeId)
+                    .aggregate(AggregateField.count(), recordCount)
+                    .get()
+                    .get();
+            recordRead("countByEmployeeId", aggregationReads(snapshot.getCount()), 0);
+
+            Long count = snapshot.getLong(recordCount);
+            return count != null ? count : 0L;
+        });
+    }
+
+    @Override
+    public WorkRecordSummary summarizeByWorkDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        return metrics.timeFirestore(COLLECTION, "summarizeByWorkDateBetween", () -> {
+            boolean wholeMonths = startDate.getDayOfMonth() == 1 &&
+                    endDate.getDayOfMonth() == endDate.lengthOfMonth();
+
+            if (wholeMonths) {
+                // Teljes hónapoknál a bucket összesítők szerver oldali összege elég
+                AggregateField records = AggregateField.sum(RECORD_COUNT);
+                AggregateField hours = AggregateField.sum(TOTAL_HOURS);
+                AggregateField payment = AggregateField.sum(TOTAL_PAYMENT);
+
+                AggregateQuerySnapshot snapshot = monthRange(startDate, endDate)
+                        .aggregate(AggregateField.count(), records, hours, payment)
+                        .get()
+                        .get();
+                recordRead("summarizeByWorkDateBetween", aggregationReads(snapshot.getCount()), 0);
+
+                Long recordCount = snapshot.getLong(records);
+                Double totalHours = snapshot.getDouble(hours);
+                Long totalPayment = snapshot.getLong(payment);
+                return new WorkRecordSummary(
+                        recordCount != null ? recordCount : 0L,
+                        totalHours != null ? totalHours.longValue() : 0L,
+                        totalPayment != null ? BigDecimal.valueOf(totalPayment) : BigDecimal.ZERO);
+            }
+
+            // Részleges hónapok: a bucket-eket töltjük le, a rekordok dolgozó nélkül is összegezhetők
+            List<QueryDocumentSnapshot> buckets = monthRange(startDate, endDate).get().get().getDocuments();
+            recordRead("summarizeByWorkDateBetween", buckets.size(), 0);
+
+            WorkRecordSummary summary = WorkRecordSummary.empty();
+            for (QueryDocumentSnapshot bucket : buckets) {
+                for (Map.Entry<String, Object> entry : entries(bucket.getData()).entrySet()) {
+                    WorkRecord record = toRecord(entry.getKey(), entry.getValue());
+                    if (isBetween(record.getWorkDate(), startDate, endDate)) {
+                        summary.setRecordCount(summary.getRecordCount() + 1);
+                        summary.setTotalHours(summary.getTotalHours() +
+                                (record.getHoursWorked() != null ? record.getHoursWorked() : 0));
+                        summary.setTotalPayment(summary.getTotalPayment().add(
+                                record.getPayment() != null ? record.getPayment() : BigDecimal.ZERO));
+                    }
+                }
+            }
+            return summary;
+        });
+    }
+
+    /**
+     * A rekordok bucket-jeinek olvasás-módosítás-írása egy tranzakcióban.
+     * Meglévő ID-nál (relocate) megkeressük a jelenlegi helyét is, hogy dátum vagy dolgozó változáskor
+     * a régi bucket-ből törlődjön.
+     */
+    private void write(String operation, List<WorkRecord> workRecords, boolean relocate)
+            throws ExecutionException, InterruptedException {
+        if (workRecords.isEmpty()) {
+            return;
+        }
+
+        for (WorkRecord record : workRecords) {
+            if (record.getEmployee() == null || record.getEmployee().getId() == null || record.getWorkDate() == null) {
+                throw new ExecutionException("Work record without employee or work date cannot be bucketed",
+                        new IllegalArgumentException(record.getId()));
+            }
+        }
+
+        Set<String> existingIds = workRecords.stream()
+                .map(WorkRecord::getId)
+                .filter(id -> id != null && !id.isEmpty())
+                .collect(Collectors.toSet());
+
+        for (WorkRecord record : workRecords) {
+            if (!WorkRecordKeys.hasId(record)) {
+                record.setId(WorkRecordKeys.documentId(record));
+            }
+        }
+
+        long[] reads = new long[1];
+        int written = firestore.runTransaction(transaction -> {
+            reads[0] = 0;
+            Map<String, Map<String, Object>> buckets = new LinkedHashMap<>();
+            Map<String, DocumentReference> refs = new HashMap<>();
+
+            if (relocate) {
+                List<String> ids = new ArrayList<>(existingIds);
+                for (int i = 0; i < ids.size(); i += ARRAY_QUERY_LIMIT) {
+                    List<String> chunk = ids.subList(i, Math.min(i + ARRAY_QUERY_LIMIT, ids.size()));
+                    List<QueryDocumentSnapshot> found = transaction
+                            .get(collection().whereArrayContainsAny(RECORD_IDS, new ArrayList<>(chunk)))
+                            .get()
+                            .getDocuments();
+                    reads[0] += Math.max(1, found.size());
+                    for (QueryDocumentSnapshot bucket : found) {
+                        buckets.put(bucket.getId(), copyBucket(bucket));
+                        refs.put(bucket.getId(), bucket.getReference());
+                    }
+                }
+            }
+
+            List<DocumentReference> targets = workRecords.stream()
+                    .map(record -> bucketId(record.getEmployee().getId(), record.getWorkDate()))
+                    .filter(id -> !buckets.containsKey(id))
+                    .distinct()
+                    .map(id -> collection().document(id))
+                    .collect(Collectors.toList());
+
+            if (!targets.isEmpty()) {
+                for (DocumentSnapshot bucket : transaction.getAll(targets.toArray(new DocumentReference[0])).get()) {
+                    reads[0]++;
+                    buckets.put(bucket.getId(), bucket.exists() ? copyBucket(bucket) : new HashMap<>());
+                    refs.put(bucket.getId(), bucket.getReference());
+                }
+            }
+
+            if (relocate) {
+                for (Map<String, Object> bucket : buckets.values()) {
+                    entries(bucket).keySet().removeAll(existingIds);
+                }
+            }
+
+            for (WorkRecord record : workRecords) {
+                Map<String, Object> bucket = buckets.get(bucketId(record.getEmployee().getId(), record.getWorkDate()));
+                bucket.put(EMPLOYEE_ID, record.getEmployee().getId());
+                bucket.put(EMPLOYEE_NAME, record.getEmployee().getName());
+                bucket.put(MONTH, record.getWorkDate().format(MONTH_FORMATTER));
+                entries(bucket).put(record.getId(), toEntry(record));
+            }
+
+            Set<String> versionKeys = new HashSet<>();
+            for (Map.Entry<String, Map<String, Object>> bucket : buckets.entrySet()) {
+                writeBucket(transaction, refs.get(bucket.getKey()), bucket.getValue());
+                versionKeys.add(versionKey(bucket.getValue()));
+            }
+            // Áthelyezésnél a régi és az új hónap számlálója is nő
+            dataVersions.touch(transaction, versionKeys);
+            return buckets.size();
+        }).get();
+
+        recordRead(operation, reads[0], 0);
+        recordWrite(operation, written, 0);
+        log.debug("Saved {} work records into {} bucket(s)", workRecords.size(), written);
+    }
+
+    /**
+     * A bucket hónapjának változásszámlálója
+     */
+    private static String versionKey(Map<String, Object> bucket) {
+        Object month = bucket.get(MONTH);
+        return month instanceof String
+                ? DataVersions.monthKey(YearMonth.parse((String) month, MONTH_FORMATTER))
+                : DataVersions.WORK_RECORDS;
+    }
+
+    /**
+     * Összesítők és kereső tömbök újraszámolása, majd írás; üres bucket törlődik
+     */
+    private void writeBucket(Transaction transaction, DocumentReference ref, Map<String, Object> bucket) {
+        Map<String, Object> entries = entries(bucket);
+        if (entries.isEmpty()) {
+            transaction.delete(ref);
+            return;
+        }
+
+        long hours = 0;
+        long payment = 0;
+        Set<String> notificationMonths = new TreeSet<>();
+
+        for (Object value : entries.values()) {
+            Map<String, Object> entry = asMap(value);
+            Object hoursWorked = entry.get("hoursWorked");
+            if (hoursWorked instanceof Number) {
+                hours += ((Number) hoursWorked).longValue();
+            }
+            Object paymentAmount = entry.get("paymentAmount");
+            if (paymentAmount instanceof Number) {
+                // Régi (double) bejegyzéseknél is egész forintra kerekítve
+                payment += Math.round(((Number) paymentAmount).doubleValue());
+            }
+            Object notificationDate = entry.get("notificationDate");
+            if (notificationDate instanceof String && ((String) notificationDate).length() >= 7) {
+                notificationMonths.add(((String) notificationDate).substring(0, 7));
+            }
+        }
+
+        bucket.put(RECORD_IDS, new ArrayList<>(entries.keySet()));
+        bucket.put(NOTIFICATION_MONTHS, new ArrayList<>(notificationMonths));
+        bucket.put(RECORD_COUNT, entries.size());
+        bucket.put(TOTAL_HOURS, hours);
+        bucket.put(TOTAL_PAYMENT, payment);
+        transaction.set(ref, bucket);
+    }
+
+    /**
+     * Bucket-ek rekordokká bontása; a dolgozót bucket-enként egyszer töltjük be (nem rekordonként)
+     */
+    private List<WorkRecord> hydrate(String operation, List<? extends DocumentSnapshot> buckets,
+                                     Predicate<WorkRecord> filter, Function<WorkRecord, LocalDate> sortKey) {
+        // Lekérdezésnél az üres eredmény is egy olvasás
+        return hydrate(operation, buckets, Math.max(1, buckets.size()), filter, sortKey);
+    }
+
+    private List<WorkRecord> hydrate(String operation, List<? extends DocumentSnapshot> buckets, long billedReads,
+                                     Predicate<WorkRecord> filter, Function<WorkRecord, LocalDate> sortKey) {
+        long bytes = 0;
+        List<WorkRecord> records = new ArrayList<>();
+
+        for (DocumentSnapshot bucket : buckets) {
+            Map<String, Object> data = bucket.getData();
+            bytes += OperationMetrics.estimateSize(data);
+            Employee employee = identityMap.resolve((String) data.get(EMPLOYEE_ID),
+                    (String) data.get(EMPLOYEE_NAME), employeeRepository);
+
+            for (Map.Entry<String, Object> entry : entries(data).entrySet()) {
+                WorkRecord record = toRecord(entry.getKey(), entry.getValue());
+                if (filter.test(record)) {
+                    record.setEmployee(employee);
+                    records.add(record);
+                }
+            }
+        }
+        metrics.recordRead(COLLECTION, operation, buckets.size(), bytes);
+        readAccounting.recordRead(billedReads);
+
+        // Rendezés dátum szerint (csökkenő), mint a napi dokumentumos tárolásnál
+        records.sort(Comparator.comparing(sortKey, Comparator.nullsLast(Comparator.<LocalDate>reverseOrder())));
+        return records;
+    }
+
+    private static WorkRecord toRecord(String id, Object entry) {
+        Map<String, Object> data = new HashMap<>(asMap(entry));
+        data.put("id", id);
+        return WorkRecord.fromMap(data);
+    }
+
+    private static Map<String, Object> toEntry(WorkRecord record) {
+        // A dolgozó adatai a bucket szintjén vannak
+        Map<String, Object> entry = record.toMap();
+        entry.remove("id");
+        entry.remove(EMPLOYEE_ID);
+        entry.remove(EMPLOYEE_NAME);
+        return entry;
+    }
+
+    private static Map<String, Object> copyBucket(DocumentSnapshot snapshot) {
+        Map<String, Object> bucket = new HashMap<>(snapshot.getData());
+        bucket.put(ENTRIES, new HashMap<>(entries(bucket)));
+        return bucket;
+    }
+
+    private static Map<String, Object> entries(Map<String, Object> bucket) {
+        Object entries = bucket.get(ENTRIES);
+        if (entries == null) {
+            Map<String, Object> created = new HashMap<>();
+            bucket.put(ENTRIES, created);
+            return created;
+        }
+        return asMap(entries);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        return (Map<String, Object>) value;
+    }
+
+    private Query monthRange(LocalDate startDate, LocalDate endDate) {
+        // A "yyyy-MM" stringek lexikografikusan rendezhetők
+        return collection()
+                .whereGreaterThanOrEqualTo(MONTH, startDate.format(MONTH_FORMATTER))
+                .whereLessThanOrEqualTo(MONTH, endDate.format(MONTH_FORMATTER));
+    }
+
+    private static List<String> months(LocalDate startDate, LocalDate endDate) {
+        List<String> months = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(startDate); !month.isAfter(YearMonth.from(endDate)); month = month.plusMonths(1)) {
+            months.add(month.format(MONTH_FORMATTER));
+        }
+        return months;
+    }
+
+    private static boolean isBetween(LocalDate date, LocalDate start, LocalDate end) {
+        return date != null && !date.isBefore(start) && !date.isAfter(end);
+    }
+
+    private CollectionReference collection() {
+        return firestore.collection(COLLECTION);
+    }
+
+    private void recordRead(String operation, long documents, long bytes) {
+        metrics.recordRead(COLLECTION, operation, documents, bytes);
+        readAccounting.recordRead(Math.max(1, documents));
+    }
+
+    private void recordWrite(String operation, long documents, long bytes) {
+        metrics.recordWrite(COLLECTION, operation, documents, bytes);
+        readAccounting.recordWrite(documents);
+    }
+
+    private static long aggregationReads(long matched) {
+        return Math.max(1, (matched + 999) / 1000);
+    }
+}
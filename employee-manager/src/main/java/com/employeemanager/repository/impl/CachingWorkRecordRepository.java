@@ -0,0 +1,422 @@
+package com.employeemanager.repository.impl;
+
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.model.WorkRecordSummary;
+import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Munkanapló lekérdezések gyorsítótára a kiválasztott tárolási forma előtt.
+ * Szűrési módonként (munkavégzés / bejelentés dátuma) nyilvántartja a már betöltött, összevont
+ * dátum intervallumokat: a lefedett tartományt memóriából szolgálja ki, bővített tartománynál csak a
+ * hiányzó részintervallumokat kérdezi le. A saját írások a gyorsítótárat rekordonként frissítik.
+ */
+@Slf4j
+public class CachingWorkRecordRepository implements WorkRecordRepository {
+
+    public static final String CACHE_REQUESTS = "workrecords.query-cache.requests";
+
+    public enum Mode {
+        WORK_DATE, NOTIFICATION_DATE
+    }
+
+    private static final Comparator<WorkRecord> BY_WORK_DATE_DESC =
+            Comparator.comparing(WorkRecord::getWorkDate, Comparator.nullsLast(Comparator.<LocalDate>reverseOrder()));
+
+    private final WorkRecordRepository delegate;
+    private final MeterRegistry registry;
+    private final long ttlMillis;
+    private final Map<Mode, RangeCache> caches = new EnumMap<>(Mode.class);
+
+    // Írásonként nő: az írás közben futott letöltés eredménye nem kerül a lefedett tartományok közé
+    private final AtomicLong writeGeneration = new AtomicLong();
+
+    public CachingWorkRecordRepository(WorkRecordRepository delegate, MeterRegistry registry, Duration ttl) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.ttlMillis = ttl.toMillis();
+        caches.put(Mode.WORK_DATE, new RangeCache(WorkRecord::getWorkDate));
+        caches.put(Mode.NOTIFICATION_DATE, new RangeCache(WorkRecord::getNotificationDate));
+    }
+
+    /**
+     * Igaz, ha a tartomány teljes egészében memóriából kiszolgálható
+     */
+    public boolean covers(Mode mode, LocalDate startDate, LocalDate endDate) {
+        return caches.get(mode).gaps(startDate, endDate).isEmpty();
+    }
+
+    public void invalidateAll() {
+        writeGeneration.incrementAndGet();
+        caches.values().forEach(RangeCache::clear);
+        log.debug("Work record query cache invalidated");
+    }
+
+    @Override
+    public List<WorkRecord> findByWorkDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        return query(Mode.WORK_DATE, startDate, endDate);
+    }
+
+    @Override
+    public List<WorkRecord> findByNotificationDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        return query(Mode.NOTIFICATION_DATE, startDate, endDate);
+    }
+
+    /**
+     * Lapozott olvasás (nagy exportok): a gyorsítótár megkerülésével, hogy ne töltődjön fel az egész időszakkal
+     */
+    @Override
+    public void forEachPageByWorkDate(LocalDate startDate, LocalDate endDate, int pageSize,
+                                      Consumer<List<WorkRecord>> page)
+            throws ExecutionException, InterruptedException {
+        count("bypass");
+        delegate.forEachPageByWorkDate(startDate, endDate, pageSize, page);
+    }
+
+    @Override
+    public void forEachPageByNotificationDate(LocalDate startDate, LocalDate endDate, int pageSize,
+                                              Consumer<List<WorkRecord>> page)
+            throws ExecutionException, InterruptedException {
+        count("bypass");
+        delegate.forEachPageByNotificationDate(startDate, endDate, pageSize, page);
+    }
+
+    /**
+     * Mindkét dátum szerinti szűrés: ha a bejelentési tartomány már betöltött, abból szűrünk,
+     * egyébként a munkavégzés szerinti gyorsítótárból (szükség esetén azt bővítve)
+     */
+    @Override
+    public List<WorkRecord> findByNotificationDateAndWorkDateBetween(
+            LocalDate notifStart, LocalDate notifEnd,
+            LocalDate workStart, LocalDate workEnd)
+            throws ExecutionException, InterruptedException {
+        boolean fromNotification = covers(Mode.NOTIFICATION_DATE, notifStart, notifEnd)
+                && !covers(Mode.WORK_DATE, workStart, workEnd);
+
+        List<WorkRecord> base = fromNotification
+                ? query(Mode.NOTIFICATION_DATE, notifStart, notifEnd)
+                : query(Mode.WORK_DATE, workStart, workEnd);
+
+        return base.stream()
+                .filter(record -> isBetween(record.getWorkDate(), workStart, workEnd)
+                        && isBetween(record.getNotificationDate(), notifStart, notifEnd))
+                .sorted(BY_WORK_DATE_DESC)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<WorkRecord> findByEmployeeIdAndWorkDateBetween(String employeeId, LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        RangeCache cache = caches.get(Mode.WORK_DATE);
+        if (!cache.gaps(startDate, endDate).isEmpty()) {
+            // Dolgozónkénti lekérdezés nem fed le időszakot, ezért nem kerül a gyorsítótárba
+            count("bypass");
+            return delegate.findByEmployeeIdAndWorkDateBetween(employeeId, startDate, endDate);
+        }
+
+        count("hit");
+        return cache.records(startDate, endDate).stream()
+                .filter(record -> record.getEmployee() != null && employeeId.equals(record.getEmployee().getId()))
+                .collect(Collectors.toList());
+    }
+
+    private List<WorkRecord> query(Mode mode, LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        RangeCache cache = caches.get(mode);
+        long generation = writeGeneration.get();
+        List<LocalDate[]> gaps = cache.gaps(startDate, endDate);
+
+        if (gaps.isEmpty()) {
+            count("hit");
+            return cache.records(startDate, endDate);
+        }
+        count(gaps.size() == 1 && gaps.get(0)[0].equals(startDate) && gaps.get(0)[1].equals(endDate) ? "miss" : "partial");
+
+        // A letöltés zár nélkül fut, hogy egy háttérben futó előtöltés ne blokkolja a felületet
+        List<WorkRecord> fetched = new ArrayList<>();
+        for (LocalDate[] gap : gaps) {
+            log.debug("Query cache {} fetching {} - {}", mode, gap[0], gap[1]);
+            fetched.addAll(mode == Mode.WORK_DATE
+                    ? delegate.findByWorkDateBetween(gap[0], gap[1])
+                    : delegate.findByNotificationDateBetween(gap[0], gap[1]));
+        }
+
+        if (cache.store(gaps, fetched, () -> generation == writeGeneration.get())) {
+            return cache.records(startDate, endDate);
+        }
+
+        // Közben írás történt: az eredményt visszaadjuk, de a tartományt nem jelöljük betöltöttnek
+        Map<String, WorkRecord> merged = new LinkedHashMap<>();
+        for (WorkRecord record : cache.records(startDate, endDate)) {
+            merged.put(record.getId(), record);
+        }
+        for (WorkRecord record : fetched) {
+            merged.put(record.getId(), record);
+        }
+        Function<WorkRecord, LocalDate> date = mode == Mode.WORK_DATE ? WorkRecord::getWorkDate : WorkRecord::getNotificationDate;
+        return merged.values().stream()
+                .sorted(Comparator.comparing(date, Comparator.nullsLast(Comparator.<LocalDate>reverseOrder())))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public WorkRecord save(WorkRecord workRecord) throws ExecutionException, InterruptedException {
+        try {
+            WorkRecord saved = delegate.save(workRecord);
+            writeGeneration.incrementAndGet();
+            caches.values().forEach(cache -> cache.upsert(saved));
+            return saved;
+        } catch (ExecutionException | InterruptedException | RuntimeException e) {
+            // A visszaadott rekordokat a hívó módosíthatta mentés előtt: sikertelen írásnál nem bízunk bennük
+            invalidateAll();
+            throw e;
+        }
+    }
+
+    @Override
+    public List<WorkRecord> saveAll(List<WorkRecord> workRecords) throws ExecutionException, InterruptedException {
+        try {
+            List<WorkRecord> saved = delegate.saveAll(workRecords);
+            writeGeneration.incrementAndGet();
+            for (WorkRecord record : saved) {
+                caches.values().forEach(cache -> cache.upsert(record));
+            }
+            return saved;
+        } catch (ExecutionException | InterruptedException | RuntimeException e) {
+            invalidateAll();
+            throw e;
+        }
+    }
+
+    @Override
+    public void deleteById(String id) throws ExecutionException, InterruptedException {
+        try {
+            delegate.deleteById(id);
+            writeGeneration.incrementAndGet();
+            caches.values().forEach(cache -> cache.remove(id));
+        } catch (ExecutionException | InterruptedException | RuntimeException e) {
+            invalidateAll();
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<WorkRecord> findById(String id) throws ExecutionException, InterruptedException {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<WorkRecord> findAll() throws ExecutionException, InterruptedException {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Set<String> findExistingIds(Collection<String> ids) throws ExecutionException, InterruptedException {
+        return delegate.findExistingIds(ids);
+    }
+
+    @Override
+    public boolean existsByEmployeeId(String employeeId) throws ExecutionException, InterruptedException {
+        return delegate.existsByEmployeeId(employeeId);
+    }
+
+    @Override
+    public long countByEmployeeId(String employeeId) throws ExecutionException, InterruptedException {
+        return delegate.countByEmployeeId(employeeId);
+    }
+
+    @Override
+    public WorkRecordSummary summarizeByWorkDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        return delegate.summarizeByWorkDateBetween(startDate, endDate);
+    }
+
+    private void count(String result) {
+        Counter.builder(CACHE_REQUESTS)
+                .tag("result", result)
+                .register(registry)
+                .increment();
+    }
+
+    private static boolean isBetween(LocalDate date, LocalDate start, LocalDate end) {
+        return date != null && !date.isBefore(start) && !date.isAfter(end);
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    /**
+     * Egy szűrési mód betöltött intervallumai (kezdet szerint rendezve, átfedés és szomszédság nélkül)
+     * és a bennük lévő rekordok ID szerint
+     */
+    private final class RangeCache {
+        private final Function<WorkRecord, LocalDate> dateOf;
+        private final TreeMap<LocalDate, Interval> intervals = new TreeMap<>();
+        private final Map<String, WorkRecord> records = new HashMap<>();
+
+        private RangeCache(Function<WorkRecord, LocalDate> dateOf) {
+            this.dateOf = dateOf;
+        }
+
+        /**
+         * A [start, end] tartomány még be nem töltött részintervallumai
+         */
+        synchronized List<LocalDate[]> gaps(LocalDate start, LocalDate end) {
+            expire();
+            List<LocalDate[]> gaps = new ArrayList<>();
+
+            LocalDate cursor = start;
+            Map.Entry<LocalDate, Interval> floor = intervals.floorEntry(cursor);
+            if (floor != null && !floor.getValue().end.isBefore(cursor)) {
+                cursor = floor.getValue().end.plusDays(1);
+            }
+            if (cursor.isAfter(end)) {
+                return gaps;
+            }
+
+            for (Interval interval : intervals.subMap(cursor, true, end, true).values()) {
+                if (interval.start.isAfter(cursor)) {
+                    gaps.add(new LocalDate[]{cursor, interval.start.minusDays(1)});
+                }
+                cursor = max(cursor, interval.end.plusDays(1));
+            }
+            if (!cursor.isAfter(end)) {
+                gaps.add(new LocalDate[]{cursor, end});
+            }
+            return gaps;
+        }
+
+        synchronized List<WorkRecord> records(LocalDate start, LocalDate end) {
+            return records.values().stream()
+                    .filter(record -> isBetween(dateOf.apply(record), start, end))
+                    .sorted(Comparator.comparing(dateOf, Comparator.nullsLast(Comparator.<LocalDate>reverseOrder())))
+                    .collect(Collectors.toList());
+        }
+
+        /**
+         * Letöltött részintervallumok rögzítése; ha a feltétel már nem teljesül (közben írás történt), nem rögzít
+         */
+        synchronized boolean store(List<LocalDate[]> gaps, List<WorkRecord> fetched,
+                                   BooleanSupplier unchanged) {
+            if (!unchanged.getAsBoolean()) {
+                return false;
+            }
+
+            for (WorkRecord record : fetched) {
+                if (record.getId() != null) {
+                    records.put(record.getId(), record);
+                }
+            }
+            long now = System.currentTimeMillis();
+            for (LocalDate[] gap : gaps) {
+                addInterval(gap[0], gap[1], now);
+            }
+            return true;
+        }
+
+        /**
+         * Saját írás után: a rekord régi változata kikerül, az új bekerül, ha a dátuma lefedett tartományba esik
+         */
+        synchronized void upsert(WorkRecord record) {
+            if (record.getId() == null) {
+                return;
+            }
+            records.remove(record.getId());
+            LocalDate date = dateOf.apply(record);
+            if (date != null && isCovered(date)) {
+                records.put(record.getId(), record);
+            }
+        }
+
+        synchronized void remove(String id) {
+            records.remove(id);
+        }
+
+        synchronized void clear() {
+            intervals.clear();
+            records.clear();
+        }
+
+        private boolean isCovered(LocalDate date) {
+            Map.Entry<LocalDate, Interval> floor = intervals.floorEntry(date);
+            return floor != null && !floor.getValue().end.isBefore(date);
+        }
+
+        /**
+         * Intervallum felvétele az átfedő és szomszédos intervallumok összevonásával (a régebbi betöltési idő marad)
+         */
+        private void addInterval(LocalDate start, LocalDate end, long loadedAt) {
+            Map.Entry<LocalDate, Interval> floor = intervals.floorEntry(start);
+            if (floor != null && !floor.getValue().end.plusDays(1).isBefore(start)) {
+                start = floor.getValue().start;
+                end = max(end, floor.getValue().end);
+                loadedAt = Math.min(loadedAt, floor.getValue().loadedAt);
+                intervals.remove(floor.getKey());
+            }
+
+            Map.Entry<LocalDate, Interval> next;
+            while ((next = intervals.ceilingEntry(start)) != null && !next.getKey().isAfter(end.plusDays(1))) {
+                end = max(end, next.getValue().end);
+                loadedAt = Math.min(loadedAt, next.getValue().loadedAt);
+                intervals.remove(next.getKey());
+            }
+
+            intervals.put(start, new Interval(start, end, loadedAt));
+        }
+
+        /**
+         * Lejárt intervallumok és a beléjük eső rekordok eldobása (más kliensek módosításai miatt)
+         */
+        private void expire() {
+            long limit = System.currentTimeMillis() - ttlMillis;
+            List<Interval> expired = intervals.values().stream()
+                    .filter(interval -> interval.loadedAt < limit)
+                    .collect(Collectors.toList());
+            if (expired.isEmpty()) {
+                return;
+            }
+
+            for (Interval interval : expired) {
+                intervals.remove(interval.start);
+                records.values().removeIf(record -> isBetween(dateOf.apply(record), interval.start, interval.end));
+            }
+        }
+    }
+
+    private static final class Interval {
+        private final LocalDate start;
+        private final LocalDate end;
+        private final long loadedAt;
+
+        private Interval(LocalDate start, LocalDate end, long loadedAt) {
+            this.start = start;
+            this.end = end;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
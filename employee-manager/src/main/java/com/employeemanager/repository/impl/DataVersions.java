@@ -0,0 +1,165 @@
+package com.employeemanager.repository.impl;
+
+import com.employeemanager.diagnostics.OperationMetrics;
+import com.employeemanager.diagnostics.ReadAccounting;
+import com.employeemanager.util.WorkRecordKeys;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.UpdateBuilder;
+import com.google.cloud.firestore.WriteBatch;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adatváltozás számlálók a meta gyűjteményben, számlálónként külön dokumentumban ("dataVersions_2025-03",
+ * "dataVersions_employees", "dataVersions_workrecords"), így az írások nem egyetlen dokumentumra torlódnak.
+ * Minden dolgozó és munkanapló írás ugyanabban a batch-ben (tranzakcióban) növeli az érintett számlálót:
+ * a munkanapló hónapjáét, a dolgozókét, illetve hónap nélküli változásnál (visszatöltés) a közös munkanapló számlálót.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DataVersions {
+
+    public static final String COLLECTION = "meta";
+    private static final String DOCUMENT_PREFIX = "dataVersions_";
+    private static final String VERSION = "version";
+
+    public static final String EMPLOYEES = "employees";
+    // Hónaphoz nem köthető munkanapló változás, minden hónap jelzőjébe beszámít
+    public static final String WORK_RECORDS = "workrecords";
+
+    private final Firestore firestore;
+    private final OperationMetrics metrics;
+    private final ReadAccounting readAccounting;
+
+    // A közös (dolgozó és hónap nélküli) számlálók ritkán változnak, más kliensek változása ennyi idő alatt látszik
+    @Value("${firestore.data-versions.shared-ttl-seconds:60}")
+    private long sharedTtlSeconds;
+
+    // Minden saját, véglegesült közös számláló írás növeli; az ennél korábbi olvasás nem használható
+    private final AtomicLong sharedGeneration = new AtomicLong();
+    private volatile SharedVersions shared;
+
+    public static String monthKey(YearMonth month) {
+        return month.toString();
+    }
+
+    /**
+     * A közvetlen (napi dokumentumos) tárolás egy írása által érintett számlálók. Adat nélkül (törlés)
+     * a hónap a determinisztikus dokumentum ID-ból adódik, régi, véletlen ID-nál a közös számláló nő.
+     */
+    public static Set<String> keysFor(String collection, String documentId, Map<String, Object> data) {
+        if (EMPLOYEES.equals(collection)) {
+            return Set.of(EMPLOYEES);
+        }
+        if (!WORK_RECORDS.equals(collection)) {
+            return Set.of();
+        }
+        Object workDate = data == null ? null : data.get("workDate");
+        if (workDate instanceof String && ((String) workDate).length() >= 7) {
+            return Set.of(((String) workDate).substring(0, 7));
+        }
+        YearMonth month = documentId == null ? null : WorkRecordKeys.workMonth(documentId);
+        return Set.of(month != null ? monthKey(month) : WORK_RECORDS);
+    }
+
+    /**
+     * Számlálók növelése a hívó batch-ében vagy tranzakciójában, így az adatírással együtt véglegesül
+     */
+    public void touch(UpdateBuilder<?> writes, Collection<String> keys) {
+        for (String key : keys) {
+            writes.set(document(key), Map.of(VERSION, FieldValue.increment(1)), SetOptions.merge());
+        }
+    }
+
+    /**
+     * Batch véglegesítése a számlálókkal együtt
+     */
+    public void commit(WriteBatch batch, Collection<String> keys) throws ExecutionException, InterruptedException {
+        touch(batch, keys);
+        batch.commit().get();
+        committed(keys);
+    }
+
+    /**
+     * Számlálók növelése önálló írással (pl. tömeges visszatöltés után)
+     */
+    public void touch(Collection<String> keys) throws ExecutionException, InterruptedException {
+        commit(firestore.batch(), keys);
+        metrics.recordWrite(COLLECTION, "touch", keys.size(), 0);
+        readAccounting.recordWrite(keys.size());
+        log.debug("Data versions bumped: {}", keys);
+    }
+
+    /**
+     * Véglegesült saját írás: a közös számlálók korábbi olvasása elavult
+     */
+    public void committed(Collection<String> keys) {
+        if (keys.contains(EMPLOYEES) || keys.contains(WORK_RECORDS)) {
+            sharedGeneration.incrementAndGet();
+        }
+    }
+
+    /**
+     * A hónap exportjának változásjelzője: a hónap számlálója (egy dokumentum olvasás) és a közös számlálók
+     * (gyorsítótárból). A dokumentumok létrehozási ideje is benne van, hogy a törölt és újrakezdett számlálók
+     * ne ütközzenek.
+     */
+    public String marker(YearMonth month) throws ExecutionException, InterruptedException {
+        DocumentSnapshot snapshot = document(monthKey(month)).get().get();
+        metrics.recordRead(COLLECTION, "marker", 1, 0);
+        readAccounting.recordRead(1);
+        return sharedVersions() + "/" + version(snapshot);
+    }
+
+    private String sharedVersions() throws ExecutionException, InterruptedException {
+        long generation = sharedGeneration.get();
+        SharedVersions cached = shared;
+        if (cached != null && cached.generation == generation
+                && System.nanoTime() - cached.readAt < sharedTtlSeconds * 1_000_000_000L) {
+            return cached.versions;
+        }
+
+        List<DocumentSnapshot> snapshots = firestore.getAll(document(EMPLOYEES), document(WORK_RECORDS)).get();
+        metrics.recordRead(COLLECTION, "marker", snapshots.size(), 0);
+        readAccounting.recordRead(snapshots.size());
+
+        String versions = version(snapshots.get(0)) + "/" + version(snapshots.get(1));
+        // Az olvasás előtti generációval: ha közben saját írás véglegesült, a következő hívás újraolvas
+        shared = new SharedVersions(versions, System.nanoTime(), generation);
+        return versions;
+    }
+
+    private static String version(DocumentSnapshot snapshot) {
+        Long value = snapshot.exists() ? snapshot.getLong(VERSION) : null;
+        Timestamp created = snapshot.getCreateTime();
+        return (value == null ? 0 : value) + "@" + (created == null ? "-" : created.toString());
+    }
+
+    private DocumentReference document(String key) {
+        return firestore.collection(COLLECTION).document(DOCUMENT_PREFIX + key);
+    }
+
+    @AllArgsConstructor
+    private static final class SharedVersions {
+        private final String versions;
+        private final long readAt;
+        private final long generation;
+    }
+}
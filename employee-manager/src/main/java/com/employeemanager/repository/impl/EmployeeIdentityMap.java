@@ -0,0 +1,84 @@
+package com.employeemanager.repository.impl;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.repository.interfaces.EmployeeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Munkamenet szintű identity map: employeeId-nként egyetlen kanonikus Employee példány.
+ * A munkanaplók betöltésekor minden rekord ugyanazt a példányt kapja, így a WorkRecord, a WorkRecordFX
+ * és az Excel export is közös objektumot használ. Újratöltés vagy mentés a meglévő példányt frissíti.
+ */
+@Slf4j
+@Component
+public class EmployeeIdentityMap {
+
+    private final Map<String, Employee> employees = new ConcurrentHashMap<>();
+
+    public Employee get(String employeeId) {
+        return employeeId != null ? employees.get(employeeId) : null;
+    }
+
+    /**
+     * Betöltött vagy mentett példány regisztrálása. Ha az ID már ismert, a meglévő példány mezői frissülnek,
+     * és az kerül visszaadásra, így a korábban kiadott hivatkozások is az új adatokat látják.
+     */
+    public Employee canonical(Employee loaded) {
+        if (loaded == null || loaded.getId() == null) {
+            return loaded;
+        }
+
+        Employee existing = employees.putIfAbsent(loaded.getId(), loaded);
+        if (existing == null || existing == loaded) {
+            return loaded;
+        }
+
+        synchronized (existing) {
+            existing.setName(loaded.getName());
+            existing.setBirthPlace(loaded.getBirthPlace());
+            existing.setBirthDate(loaded.getBirthDate());
+            existing.setMotherName(loaded.getMotherName());
+            existing.setTaxNumber(loaded.getTaxNumber());
+            existing.setSocialSecurityNumber(loaded.getSocialSecurityNumber());
+            existing.setAddress(loaded.getAddress());
+            existing.setCreatedAt(loaded.getCreatedAt());
+        }
+        return existing;
+    }
+
+    /**
+     * Munkanapló dolgozójának feloldása: ismert ID esetén olvasás nélkül, egyébként a repository-ból
+     * (amely a betöltött példányt regisztrálja). Sikertelen betöltésnél minimális, nem regisztrált példány.
+     */
+    public Employee resolve(String employeeId, String employeeName, EmployeeRepository employeeRepository) {
+        Employee employee = get(employeeId);
+        if (employee != null) {
+            return employee;
+        }
+
+        try {
+            Optional<Employee> loaded = employeeRepository.findById(employeeId);
+            if (loaded.isPresent()) {
+                return loaded.get();
+            }
+        } catch (Exception e) {
+            log.warn("Could not load full employee data for ID: {}, using minimal data", employeeId);
+        }
+
+        Employee minimal = new Employee();
+        minimal.setId(employeeId);
+        minimal.setName(employeeName);
+        return minimal;
+    }
+
+    public void evict(String employeeId) {
+        if (employeeId != null) {
+            employees.remove(employeeId);
+        }
+    }
+}
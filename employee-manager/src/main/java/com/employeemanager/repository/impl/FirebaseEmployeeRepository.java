@@ -1,22 +1,50 @@
 package com.employeemanager.repository.impl;
 
+import com.employeemanager.diagnostics.OperationMetrics;
+import com.employeemanager.diagnostics.ReadAccounting;
 import com.employeemanager.model.Employee;
+import com.employeemanager.repository.journal.WriteJournal;
 import com.employeemanager.repository.interfaces.EmployeeRepository;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.QuerySnapshot;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 @Repository
 @Slf4j
 public class FirebaseEmployeeRepository extends BaseFirebaseRepository<Employee> implements EmployeeRepository {
 
-    public FirebaseEmployeeRepository(Firestore firestore) {
-        super(firestore, "employees", Employee.class);
+    private final EmployeeIdentityMap identityMap;
+
+    public FirebaseEmployeeRepository(Firestore firestore, OperationMetrics metrics, ReadAccounting readAccounting,
+                                      WriteJournal journal, DataVersions dataVersions,
+                                      EmployeeIdentityMap identityMap) {
+        super(firestore, "employees", Employee.class, metrics, readAccounting, journal, dataVersions);
+        this.identityMap = identityMap;
+    }
+
+    @Override
+    public Employee save(Employee employee) throws ExecutionException, InterruptedException {
+        return identityMap.canonical(super.save(employee));
+    }
+
+    @Override
+    public List<Employee> saveAll(List<Employee> employees) throws ExecutionException, InterruptedException {
+        return super.saveAll(employees).stream()
+                .map(identityMap::canonical)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void deleteById(String id) throws ExecutionException, InterruptedException {
+        super.deleteById(id);
+        identityMap.evict(id);
     }
 
     @Override
@@ -36,44 +64,34 @@ public class FirebaseEmployeeRepository extends BaseFirebaseRepository<Employee>
 
     @Override
     protected Employee convertFromMap(Map<String, Object> data) {
-        return Employee.fromMap(data);
+        return identityMap.canonical(Employee.fromMap(data));
     }
 
     @Override
     public Optional<Employee> findByTaxNumber(String taxNumber) throws ExecutionException, InterruptedException {
-        QuerySnapshot query = firestore.collection(collectionName)
-                .whereEqualTo("taxNumber", taxNumber)
-                .limit(1)
-                .get()
-                .get();
-
-        if (!query.isEmpty()) {
-            Map<String, Object> data = query.getDocuments().get(0).getData();
-            if (data != null) {
-                data.put("id", query.getDocuments().get(0).getId());
-                return Optional.ofNullable(convertFromMap(data));
-            }
-        }
-
-        return Optional.empty();
+        return metrics.timeFirestore(collectionName, "findByTaxNumber", () -> {
+            QuerySnapshot query = firestore.collection(collectionName)
+                    .whereEqualTo("taxNumber", taxNumber)
+                    .limit(1)
+                    .get()
+                    .get();
+
+            return hydrate("findByTaxNumber", query.getDocuments(),
+                    data -> taxNumber.equals(data.get("taxNumber"))).stream().findFirst();
+        });
     }
 
     @Override
     public Optional<Employee> findBySocialSecurityNumber(String ssn) throws ExecutionException, InterruptedException {
-        QuerySnapshot query = firestore.collection(collectionName)
-                .whereEqualTo("socialSecurityNumber", ssn)
-                .limit(1)
-                .get()
-                .get();
-
-        if (!query.isEmpty()) {
-            Map<String, Object> data = query.getDocuments().get(0).getData();
-            if (data != null) {
-                data.put("id", query.getDocuments().get(0).getId());
-                return Optional.ofNullable(convertFromMap(data));
-            }
-        }
-
-        return Optional.empty();
+        return metrics.timeFirestore(collectionName, "findBySocialSecurityNumber", () -> {
+            QuerySnapshot query = firestore.collection(collectionName)
+                    .whereEqualTo("socialSecurityNumber", ssn)
+                    .limit(1)
+                    .get()
+                    .get();
+
+            return hydrate("findBySocialSecurityNumber", query.getDocuments(),
+                    data -> ssn.equals(data.get("socialSecurityNumber"))).stream().findFirst();
+        });
     }
 }
\ No newline at end of file
@@ -1,35 +1,61 @@
 package com.employeemanager.repository.impl;
 
-import com.employeemanager.model.Employee;
+import com.employeemanager.diagnostics.OperationMetrics;
+import com.employeemanager.diagnostics.ReadAccounting;
 import com.employeemanager.model.WorkRecord;
+import com.employeemanager.model.WorkRecordSummary;
 import com.employeemanager.repository.interfaces.EmployeeRepository;
 import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import com.employeemanager.repository.journal.JournalEntry;
+import com.employeemanager.repository.journal.WriteJournal;
 import com.employeemanager.util.FirebaseDateConverter;
+import com.employeemanager.util.WorkRecordKeys;
+import com.google.cloud.firestore.AggregateField;
+import com.google.cloud.firestore.AggregateQuerySnapshot;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldMask;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
 import com.google.cloud.firestore.QuerySnapshot;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Repository
 @Slf4j
 public class FirebaseWorkRecordRepository extends BaseFirebaseRepository<WorkRecord> implements WorkRecordRepository {
 
+    private static final String PAYMENT_AMOUNT_FIELD = "paymentAmount";
+    // A paymentAmount pótlás befejezését jelző dokumentum a meta gyűjteményben (lásd PaymentAmountBackfillService)
+    public static final String PAYMENT_AMOUNT_MARKER = "paymentAmountBackfill";
+
     private final EmployeeRepository employeeRepository;
+    private final EmployeeIdentityMap identityMap;
+
+    // Igaz, ha a pótlás befejeződött, így minden dokumentum tartalmazza a paymentAmount mezőt
+    private volatile boolean paymentAmountComplete = false;
 
     @Autowired
-    public FirebaseWorkRecordRepository(Firestore firestore, EmployeeRepository employeeRepository) {
-        super(firestore, "workrecords", WorkRecord.class);
+    public FirebaseWorkRecordRepository(Firestore firestore, EmployeeRepository employeeRepository,
+                                        OperationMetrics metrics, ReadAccounting readAccounting,
+                                        WriteJournal journal, DataVersions dataVersions,
+                                        EmployeeIdentityMap identityMap) {
+        super(firestore, "workrecords", WorkRecord.class, metrics, readAccounting, journal, dataVersions);
         this.employeeRepository = employeeRepository;
+        this.identityMap = identityMap;
     }
 
     @Override
@@ -42,6 +68,13 @@ public class FirebaseWorkRecordRepository extends BaseFirebaseRepository<WorkRec
         workRecord.setId(id);
     }
 
+    @Override
+    protected String generateId(WorkRecord workRecord) {
+        // Dolgozó + nap (+ e-BEV) alapú ID: az újraküldött mentés ugyanazt a dokumentumot írja felül
+        String id = WorkRecordKeys.documentId(workRecord);
+        return id != null ? id : super.generateId(workRecord);
+    }
+
     @Override
     protected Map<String, Object> convertToMap(WorkRecord workRecord) {
         return workRecord.toMap();
@@ -52,19 +85,10 @@ public class FirebaseWorkRecordRepository extends BaseFirebaseRepository<WorkRec
         try {
             WorkRecord record = WorkRecord.fromMap(data);
 
-            // Employee kapcsolat betöltése
+            // Employee kapcsolat: dolgozónként egy közös példány, csak az első előfordulás olvas
             String employeeId = (String) data.get("employeeId");
             if (employeeId != null) {
-                try {
-                    employeeRepository.findById(employeeId).ifPresent(record::setEmployee);
-                } catch (Exception e) {
-                    log.warn("Could not load full employee data for ID: {}, using minimal data", employeeId);
-                    // Minimális employee adatok beállítása
-                    Employee employee = new Employee();
-                    employee.setId(employeeId);
-                    employee.setName((String) data.get("employeeName"));
-                    record.setEmployee(employee);
-                }
+                record.setEmployee(identityMap.resolve(employeeId, (String) data.get("employeeName"), employeeRepository));
             } else {
                 log.warn("WorkRecord without employeeId found: {}", data.get("id"));
             }
@@ -80,42 +104,33 @@ public class FirebaseWorkRecordRepository extends BaseFirebaseRepository<WorkRec
     public List<WorkRecord> findByEmployeeIdAndWorkDateBetween(String employeeId, LocalDate startDate, LocalDate endDate)
             throws ExecutionException, InterruptedException {
 
-        String startDateStr = FirebaseDateConverter.dateToString(startDate);
-        String endDateStr = FirebaseDateConverter.dateToString(endDate);
-
         try {
-            // Először csak az employeeId alapján szűrünk, majd Java-ban szűrjük a dátumokat
-            QuerySnapshot querySnapshot = firestore.collection(collectionName)
-                    .whereEqualTo("employeeId", employeeId)
-                    .get()
-                    .get();
+            return metrics.timeFirestore(collectionName, "findByEmployeeIdAndWorkDateBetween", () -> {
+                // Először csak az employeeId alapján szűrünk, majd Java-ban szűrjük a dátumokat
+                QuerySnapshot querySnapshot = firestore.collection(collectionName)
+                        .whereEqualTo("employeeId", employeeId)
+                        .get()
+                        .get();
 
-            return querySnapshot.getDocuments().stream()
-                    .map(doc -> {
-                        Map<String, Object> data = doc.getData();
-                        if (data != null) {
-                            data.put("id", doc.getId());
-                            return convertFromMap(data);
-                        }
-                        return null;
-                    })
-                    .filter(Objects::nonNull)
-                    .filter(record -> {
-                        // Szűrés dátum alapján Java oldalon
-                        LocalDate workDate = record.getWorkDate();
-                        return workDate != null &&
-                                !workDate.isBefore(startDate) &&
-                                !workDate.isAfter(endDate);
-                    })
-                    .sorted((r1, r2) -> {
-                        // Rendezés dátum szerint (csökkenő)
-                        LocalDate d1 = r1.getWorkDate();
-                        LocalDate d2 = r2.getWorkDate();
-                        if (d1 == null) return 1;
-                        if (d2 == null) return -1;
-                        return d2.compareTo(d1);
-                    })
-                    .collect(Collectors.toList());
+                return hydrate("findByEmployeeIdAndWorkDateBetween", querySnapshot.getDocuments(),
+                        data -> employeeId.equals(data.get("employeeId"))).stream()
+                        .filter(record -> {
+                            // Szűrés dátum alapján Java oldalon
+                            LocalDate workDate = record.getWorkDate();
+                            return workDate != null &&
+                                    !workDate.isBefore(startDate) &&
+                                    !workDate.isAfter(endDate);
+                        })
+                        .sorted((r1, r2) -> {
+                            // Rendezés dátum szerint (csökkenő)
+                            LocalDate d1 = r1.getWorkDate();
+                            LocalDate d2 = r2.getWorkDate();
+                            if (d1 == null) return 1;
+                            if (d2 == null) return -1;
+                            return d2.compareTo(d1);
+                        })
+                        .collect(Collectors.toList());
+            });
         } catch (Exception e) {
             log.error("Error fetching work records for employee {}: {}", employeeId, e.getMessage(), e);
             throw new ExecutionException("Failed to fetch work records", e);
@@ -132,37 +147,32 @@ public class FirebaseWorkRecordRepository extends BaseFirebaseRepository<WorkRec
         log.debug("Querying work records between {} and {}", startDateStr, endDateStr);
 
         try {
-            // Egyszerű lekérdezés index nélkül
-            QuerySnapshot querySnapshot = firestore.collection(collectionName)
-                    .get()
-                    .get();
+            return metrics.timeFirestore(collectionName, "findByWorkDateBetween", () -> {
+                // Egymezős range lekérdezés (ISO dátum string), csak az időszak dokumentumai kerülnek letöltésre
+                QuerySnapshot querySnapshot = firestore.collection(collectionName)
+                        .whereGreaterThanOrEqualTo("workDate", startDateStr)
+                        .whereLessThanOrEqualTo("workDate", endDateStr)
+                        .get()
+                        .get();
 
-            return querySnapshot.getDocuments().stream()
-                    .map(doc -> {
-                        Map<String, Object> data = doc.getData();
-                        if (data != null) {
-                            data.put("id", doc.getId());
-                            return convertFromMap(data);
-                        }
-                        return null;
-                    })
-                    .filter(Objects::nonNull)
-                    .filter(record -> {
-                        // Szűrés dátum alapján Java oldalon
-                        LocalDate workDate = record.getWorkDate();
-                        return workDate != null &&
-                                !workDate.isBefore(startDate) &&
-                                !workDate.isAfter(endDate);
-                    })
-                    .sorted((r1, r2) -> {
-                        // Rendezés dátum szerint (csökkenő)
-                        LocalDate d1 = r1.getWorkDate();
-                        LocalDate d2 = r2.getWorkDate();
-                        if (d1 == null) return 1;
-                        if (d2 == null) return -1;
-                        return d2.compareTo(d1);
-                    })
-                    .collect(Collectors.toList());
+                return hydrate("findByWorkDateBetween", querySnapshot.getDocuments(), data -> true).stream()
+                        .filter(record -> {
+                            // Szűrés dátum alapján Java oldalon
+                            LocalDate workDate = record.getWorkDate();
+                            return workDate != null &&
+                                    !workDate.isBefore(startDate) &&
+                                    !workDate.isAfter(endDate);
+                        })
+                        .sorted((r1, r2) -> {
+                            // Rendezés dátum szerint (csökkenő)
+                            LocalDate d1 = r1.getWorkDate();
+                            LocalDate d2 = r2.getWorkDate();
+                            if (d1 == null) return 1;
+                            if (d2 == null) return -1;
+                            return d2.compareTo(d1);
+                        })
+                        .collect(Collectors.toList());
+            });
         } catch (Exception e) {
             log.error("Error fetching work records between dates: {}", e.getMessage(), e);
             throw new ExecutionException("Failed to fetch work records", e);
@@ -174,34 +184,29 @@ public class FirebaseWorkRecordRepository extends BaseFirebaseRepository<WorkRec
             throws ExecutionException, InterruptedException {
 
         try {
-            QuerySnapshot querySnapshot = firestore.collection(collectionName)
-                    .get()
-                    .get();
+            return metrics.timeFirestore(collectionName, "findByNotificationDateBetween", () -> {
+                QuerySnapshot querySnapshot = firestore.collection(collectionName)
+                        .whereGreaterThanOrEqualTo("notificationDate", FirebaseDateConverter.dateToString(startDate))
+                        .whereLessThanOrEqualTo("notificationDate", FirebaseDateConverter.dateToString(endDate))
+                        .get()
+                        .get();
 
-            return querySnapshot.getDocuments().stream()
-                    .map(doc -> {
-                        Map<String, Object> data = doc.getData();
-                        if (data != null) {
-                            data.put("id", doc.getId());
-                            return convertFromMap(data);
-                        }
-                        return null;
-                    })
-                    .filter(Objects::nonNull)
-                    .filter(record -> {
-                        LocalDate notificationDate = record.getNotificationDate();
-                        return notificationDate != null &&
-                                !notificationDate.isBefore(startDate) &&
-                                !notificationDate.isAfter(endDate);
-                    })
-                    .sorted((r1, r2) -> {
-                        LocalDate d1 = r1.getNotificationDate();
-                        LocalDate d2 = r2.getNotificationDate();
-                        if (d1 == null) return 1;
-                        if (d2 == null) return -1;
-                        return d2.compareTo(d1);
-                    })
-                    .collect(Collectors.toList());
+                return hydrate("findByNotificationDateBetween", querySnapshot.getDocuments(), data -> true).stream()
+                        .filter(record -> {
+                            LocalDate notificationDate = record.getNotificationDate();
+                            return notificationDate != null &&
+                                    !notificationDate.isBefore(startDate) &&
+                                    !notificationDate.isAfter(endDate);
+                        })
+                        .sorted((r1, r2) -> {
+                            LocalDate d1 = r1.getNotificationDate();
+                            LocalDate d2 = r2.getNotificationDate();
+                            if (d1 == null) return 1;
+                            if (d2 == null) return -1;
+                            return d2.compareTo(d1);
+                        })
+                        .collect(Collectors.toList());
+            });
         } catch (Exception e) {
             log.error("Error fetching work records by notification date: {}", e.getMessage(), e);
             throw new ExecutionException("Failed to fetch work records", e);
@@ -215,45 +220,263 @@ public class FirebaseWorkRecordRepository extends BaseFirebaseRepository<WorkRec
             throws ExecutionException, InterruptedException {
 
         try {
-            QuerySnapshot querySnapshot = firestore.collection(collectionName)
-                    .get()
-                    .get();
+            return metrics.timeFirestore(collectionName, "findByNotificationDateAndWorkDateBetween", () -> {
+                // Két mezőn range szűrés összetett indexet igényelne: a munkavégzés dátuma szerver oldalon,
+                // a bejelentés dátuma Java oldalon szűrődik
+                QuerySnapshot querySnapshot = firestore.collection(collectionName)
+                        .whereGreaterThanOrEqualTo("workDate", FirebaseDateConverter.dateToString(workStart))
+                        .whereLessThanOrEqualTo("workDate", FirebaseDateConverter.dateToString(workEnd))
+                        .get()
+                        .get();
 
-            return querySnapshot.getDocuments().stream()
-                    .map(doc -> {
-                        Map<String, Object> data = doc.getData();
-                        if (data != null) {
-                            data.put("id", doc.getId());
-                            return convertFromMap(data);
-                        }
-                        return null;
-                    })
-                    .filter(Objects::nonNull)
-                    .filter(record -> {
-                        LocalDate notificationDate = record.getNotificationDate();
-                        LocalDate workDate = record.getWorkDate();
+                return hydrate("findByNotificationDateAndWorkDateBetween", querySnapshot.getDocuments(), data -> true).stream()
+                        .filter(record -> {
+                            LocalDate notificationDate = record.getNotificationDate();
+                            LocalDate workDate = record.getWorkDate();
 
-                        boolean notifInRange = notificationDate != null &&
-                                !notificationDate.isBefore(notifStart) &&
-                                !notificationDate.isAfter(notifEnd);
+                            boolean notifInRange = notificationDate != null &&
+                                    !notificationDate.isBefore(notifStart) &&
+                                    !notificationDate.isAfter(notifEnd);
 
-                        boolean workInRange = workDate != null &&
-                                !workDate.isBefore(workStart) &&
-                                !workDate.isAfter(workEnd);
+                            boolean workInRange = workDate != null &&
+                                    !workDate.isBefore(workStart) &&
+                                    !workDate.isAfter(workEnd);
 
-                        return notifInRange && workInRange;
-                    })
-                    .sorted((r1, r2) -> {
-                        LocalDate d1 = r1.getWorkDate();
-                        LocalDate d2 = r2.getWorkDate();
-                        if (d1 == null) return 1;
-                        if (d2 == null) return -1;
-                        return d2.compareTo(d1);
-                    })
-                    .collect(Collectors.toList());
+                            return notifInRange && workInRange;
+                        })
+                        .sorted((r1, r2) -> {
+                            LocalDate d1 = r1.getWorkDate();
+                            LocalDate d2 = r2.getWorkDate();
+                            if (d1 == null) return 1;
+                            if (d2 == null) return -1;
+                            return d2.compareTo(d1);
+                        })
+                        .collect(Collectors.toList());
+            });
         } catch (Exception e) {
             log.error("Error fetching work records by both dates: {}", e.getMessage(), e);
             throw new ExecutionException("Failed to fetch work records", e);
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public void forEachPageByWorkDate(LocalDate startDate, LocalDate endDate, int pageSize,
+                                      Consumer<List<WorkRecord>> page)
+            throws ExecutionException, InterruptedException {
+        forEachPage("forEachPageByWorkDate", "workDate", WorkRecord::getWorkDate, startDate, endDate, pageSize, page);
+    }
+
+    @Override
+    public void forEachPageByNotificationDate(LocalDate startDate, LocalDate endDate, int pageSize,
+                                              Consumer<List<WorkRecord>> page)
+            throws ExecutionException, InterruptedException {
+        forEachPage("forEachPageByNotificationDate", "notificationDate", WorkRecord::getNotificationDate,
+                startDate, endDate, pageSize, page);
+    }
+
+    /**
+     * Kurzoros lapozás a dátum mezőn: laponként legfeljebb pageSize dokumentum van a memóriában.
+     * A naplóban függő mentések csak az első lappal együtt kerülnek át, hogy ne ismétlődjenek.
+     */
+    private void forEachPage(String operation, String field, Function<WorkRecord, LocalDate> date,
+                             LocalDate startDate, LocalDate endDate, int pageSize,
+                             Consumer<List<WorkRecord>> page)
+            throws ExecutionException, InterruptedException {
+        String startDateStr = FirebaseDateConverter.dateToString(startDate);
+        String endDateStr = FirebaseDateConverter.dateToString(endDate);
+
+        Query query = firestore.collection(collectionName)
+                .whereGreaterThanOrEqualTo(field, startDateStr)
+                .whereLessThanOrEqualTo(field, endDateStr)
+                .orderBy(field)
+                .limit(pageSize);
+
+        QueryDocumentSnapshot last = null;
+        boolean first = true;
+        while (true) {
+            Query pageQuery = last == null ? query : query.startAfter(last);
+            List<QueryDocumentSnapshot> documents = metrics.timeFirestore(collectionName, operation,
+                    () -> pageQuery.get().get().getDocuments());
+
+            Predicate<Map<String, Object>> pendingFilter = first
+                    ? data -> isBetween(data.get(field), startDateStr, endDateStr)
+                    : data -> false;
+            List<WorkRecord> records = hydrate(operation, documents, pendingFilter).stream()
+                    .filter(record -> {
+                        LocalDate value = date.apply(record);
+                        return value != null && !value.isBefore(startDate) && !value.isAfter(endDate);
+                    })
+                    .collect(Collectors.toList());
+            first = false;
+
+            if (!records.isEmpty()) {
+                page.accept(records);
+            }
+            if (documents.size() < pageSize) {
+                return;
+            }
+            last = documents.get(documents.size() - 1);
+        }
+    }
+
+    private static boolean isBetween(Object value, String startDateStr, String endDateStr) {
+        return value instanceof String
+                && ((String) value).compareTo(startDateStr) >= 0
+                && ((String) value).compareTo(endDateStr) <= 0;
+    }
+
+    @Override
+    public boolean existsByEmployeeId(String employeeId) throws ExecutionException, InterruptedException {
+        return metrics.timeFirestore(collectionName, "existsByEmployeeId", () -> {
+            QuerySnapshot query = firestore.collection(collectionName)
+                    .whereEqualTo("employeeId", employeeId)
+                    .select("employeeId")
+                    .limit(1)
+                    .get()
+                    .get();
+            recordRead("existsByEmployeeId", 1, 0);
+            return !query.isEmpty();
+        });
+    }
+
+    @Override
+    public long countByEmployeeId(String employeeId) throws ExecutionException, InterruptedException {
+        return metrics.timeFirestore(collectionName, "countByEmployeeId", () -> {
+            long count = firestore.collection(collectionName)
+                    .whereEqualTo("employeeId", employeeId)
+                    .count()
+                    .get()
+                    .get()
+                    .getCount();
+            recordRead("countByEmployeeId", aggregationReads(count), 0);
+            return count;
+        });
+    }
+
+    @Override
+    public WorkRecordSummary summarizeByWorkDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException {
+        return metrics.timeFirestore(collectionName, "summarizeByWorkDateBetween", () -> {
+            // Az ISO dátum stringek lexikografikusan rendezhetők, így egymezős range lekérdezés elég
+            Query query = firestore.collection(collectionName)
+                    .whereGreaterThanOrEqualTo("workDate", FirebaseDateConverter.dateToString(startDate))
+                    .whereLessThanOrEqualTo("workDate", FirebaseDateConverter.dateToString(endDate));
+
+            AggregateField hoursSum = AggregateField.sum("hoursWorked");
+            AggregateField paymentSum = AggregateField.sum(PAYMENT_AMOUNT_FIELD);
+
+            AggregateQuerySnapshot snapshot = query
+                    .aggregate(AggregateField.count(), hoursSum, paymentSum)
+                    .get()
+                    .get();
+            recordRead("summarizeByWorkDateBetween", aggregationReads(snapshot.getCount()), 0);
+
+            Double hours = snapshot.getDouble(hoursSum);
+            long payment;
+            if (isPaymentAmountComplete()) {
+                // A paymentAmount egész forint, így az összeg pontos
+                Long sum = snapshot.getLong(paymentSum);
+                payment = sum != null ? sum : 0L;
+            } else {
+                // A pótlás előtt a sum() kihagyná a paymentAmount nélküli dokumentumokat: csak a payment mező letöltése
+                log.info("paymentAmount backfill not finished, summing payments client-side");
+                List<QueryDocumentSnapshot> documents = query.select("payment").get().get().getDocuments();
+                recordRead("summarizeByWorkDateBetween", documents.size(), 0);
+                payment = documents.stream()
+                        .mapToLong(doc -> paymentOf(doc.getData()))
+                        .sum();
+            }
+
+            WorkRecordSummary summary = new WorkRecordSummary(
+                    snapshot.getCount(), hours != null ? hours.longValue() : 0L, BigDecimal.valueOf(payment));
+            return withPendingWrites(summary, FirebaseDateConverter.dateToString(startDate),
+                    FirebaseDateConverter.dateToString(endDate));
+        });
+    }
+
+    /**
+     * A naplóban függő írások beszámítása, hogy az összesítés egyezzen a hydrate által adott tételekkel:
+     * a függő dokumentumok tárolt állapota kikerül, a függő mentések bekerülnek (dokumentumonként egy olvasás)
+     */
+    private WorkRecordSummary withPendingWrites(WorkRecordSummary summary, String startDateStr, String endDateStr)
+            throws ExecutionException, InterruptedException {
+        Map<String, JournalEntry> pending = journal.pendingFor(collectionName);
+        if (pending.isEmpty()) {
+            return summary;
+        }
+
+        DocumentReference[] references = pending.keySet().stream()
+                .map(id -> firestore.collection(collectionName).document(id))
+                .toArray(DocumentReference[]::new);
+        List<DocumentSnapshot> stored = firestore.getAll(references,
+                FieldMask.of("workDate", "hoursWorked", "payment", PAYMENT_AMOUNT_FIELD)).get();
+        recordRead("summarizeByWorkDateBetween", stored.size(), 0);
+
+        long count = summary.getRecordCount();
+        long hours = summary.getTotalHours();
+        long payment = summary.getTotalPayment().longValue();
+
+        for (DocumentSnapshot doc : stored) {
+            if (doc.exists() && isBetween(doc.get("workDate"), startDateStr, endDateStr)) {
+                count--;
+                hours -= hoursOf(doc.getData());
+                payment -= paymentOf(doc.getData());
+            }
+        }
+        for (JournalEntry entry : pending.values()) {
+            Map<String, Object> data = entry.getData();
+            if (entry.getOperation() == JournalEntry.Operation.SET
+                    && isBetween(data.get("workDate"), startDateStr, endDateStr)) {
+                count++;
+                hours += hoursOf(data);
+                payment += paymentOf(data);
+            }
+        }
+        return new WorkRecordSummary(count, hours, BigDecimal.valueOf(payment));
+    }
+
+    private static long hoursOf(Map<String, Object> data) {
+        Object hours = data.get("hoursWorked");
+        return hours instanceof Number ? ((Number) hours).longValue() : 0L;
+    }
+
+    /**
+     * Egész forintos összeg: a paymentAmount mező, ennek hiányában a szöveges payment mezőből számítva
+     */
+    private static long paymentOf(Map<String, Object> data) {
+        Object amount = data.get(PAYMENT_AMOUNT_FIELD);
+        if (amount instanceof Number) {
+            return Math.round(((Number) amount).doubleValue());
+        }
+        Object payment = data.get("payment");
+        if (payment instanceof String && !((String) payment).isBlank()) {
+            return WorkRecord.toForints(new BigDecimal(((String) payment).trim()));
+        }
+        return 0L;
+    }
+
+    /**
+     * A pótlás jelzője egy dokumentum olvasás, amíg be nem fejeződött; utána nincs több ellenőrzés
+     */
+    private boolean isPaymentAmountComplete() throws ExecutionException, InterruptedException {
+        if (paymentAmountComplete) {
+            return true;
+        }
+
+        DocumentSnapshot marker = firestore.collection(DataVersions.COLLECTION)
+                .document(PAYMENT_AMOUNT_MARKER)
+                .get()
+                .get();
+        recordRead("paymentAmountMarker", 1, 0);
+
+        paymentAmountComplete = marker.exists();
+        return paymentAmountComplete;
+    }
+
+    /**
+     * Aggregációs lekérdezés számlázott olvasásai: minden megkezdett 1000 index bejegyzés egy olvasás
+     */
+    private static long aggregationReads(long matched) {
+        return Math.max(1, (matched + 999) / 1000);
+    }
+}
@@ -1,7 +1,9 @@
 package com.employeemanager.repository.interfaces;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 public interface BaseRepository<T, ID> {
@@ -10,4 +12,5 @@ public interface BaseRepository<T, ID> {
     List<T> findAll() throws ExecutionException, InterruptedException;
     void deleteById(ID id) throws ExecutionException, InterruptedException;
     List<T> saveAll(List<T> entities) throws ExecutionException, InterruptedException;
+    Set<ID> findExistingIds(Collection<ID> ids) throws ExecutionException, InterruptedException;
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package com.employeemanager.repository.interfaces;
 
 import com.employeemanager.model.WorkRecord;
+import com.employeemanager.model.WorkRecordSummary;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 public interface WorkRecordRepository extends BaseRepository<WorkRecord, String> {
     List<WorkRecord> findByEmployeeIdAndWorkDateBetween(String employeeId, LocalDate startDate, LocalDate endDate)
@@ -19,4 +21,30 @@ public interface WorkRecordRepository extends BaseRepository<WorkRecord, String>
             LocalDate notifStart, LocalDate notifEnd,
             LocalDate workStart, LocalDate workEnd)
             throws ExecutionException, InterruptedException;
-}
\ No newline at end of file
+
+    /**
+     * Munkavégzés szerinti időszak rekordjai lapokban, a teljes eredmény memóriába töltése nélkül (nagy exportokhoz).
+     * A lapokon belüli sorrend nem garantált; az alapértelmezés a teljes lekérdezést egyetlen lapként adja át.
+     */
+    default void forEachPageByWorkDate(LocalDate startDate, LocalDate endDate, int pageSize,
+                                       Consumer<List<WorkRecord>> page)
+            throws ExecutionException, InterruptedException {
+        page.accept(findByWorkDateBetween(startDate, endDate));
+    }
+
+    /**
+     * Bejelentés szerinti időszak rekordjai lapokban
+     */
+    default void forEachPageByNotificationDate(LocalDate startDate, LocalDate endDate, int pageSize,
+                                               Consumer<List<WorkRecord>> page)
+            throws ExecutionException, InterruptedException {
+        page.accept(findByNotificationDateBetween(startDate, endDate));
+    }
+
+    boolean existsByEmployeeId(String employeeId) throws ExecutionException, InterruptedException;
+
+    long countByEmployeeId(String employeeId) throws ExecutionException, InterruptedException;
+
+    WorkRecordSummary summarizeByWorkDateBetween(LocalDate startDate, LocalDate endDate)
+            throws ExecutionException, InterruptedException;
+}
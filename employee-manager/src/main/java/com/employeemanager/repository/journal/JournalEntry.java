@@ -0,0 +1,29 @@
+package com.employeemanager.repository.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Egy naplózott, még nem feltétlenül Firestore-ba írt dokumentum művelet
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalEntry {
+
+    public enum Operation { SET, DELETE }
+
+    private long seq;
+    private String collection;
+    private String documentId;
+    private Operation operation;
+    private Map<String, Object> data;
+    private long timestamp;
+
+    public String key() {
+        return collection + "/" + documentId;
+    }
+}
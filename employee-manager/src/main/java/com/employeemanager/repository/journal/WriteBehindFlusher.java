@@ -0,0 +1,203 @@
+package com.employeemanager.repository.journal;
+
+import com.employeemanager.diagnostics.OperationMetrics;
+import com.employeemanager.diagnostics.ReadAccounting;
+import com.employeemanager.repository.impl.DataVersions;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Háttérszál, amely a napló függő bejegyzéseit összevont batch-ekben írja a Firestore-ba.
+ * Hiba esetén exponenciálisan növekvő várakozással újrapróbálkozik; a bejegyzések addig a naplóban maradnak.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WriteBehindFlusher {
+
+    // Firestore batch írás korlátja, egy hely a változásszámlálóé
+    private static final int MAX_BATCH_SIZE = 499;
+    private static final long IDLE_WAIT_MILLIS = 5000;
+
+    private final WriteJournal journal;
+    private final Firestore firestore;
+    private final OperationMetrics metrics;
+    private final ReadAccounting readAccounting;
+    private final DataVersions dataVersions;
+
+    @Value("${firestore.write-behind.batch-delay-ms:250}")
+    private long batchDelayMillis;
+
+    @Value("${firestore.write-behind.max-backoff-seconds:60}")
+    private long maxBackoffSeconds;
+
+    @Value("${firestore.write-behind.shutdown-timeout-seconds:5}")
+    private long shutdownTimeoutSeconds;
+
+    private final List<Consumer<Status>> listeners = new CopyOnWriteArrayList<>();
+
+    private Thread thread;
+    private volatile boolean running;
+    private volatile boolean retrying;
+
+    @PostConstruct
+    public void start() {
+        if (!journal.isEnabled()) {
+            return;
+        }
+
+        journal.addListener(this::notifyListeners);
+
+        running = true;
+        thread = new Thread(this::run, "write-behind-flusher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (thread == null) {
+            return;
+        }
+
+        // Kilépés előtt még megpróbáljuk kiírni a függő bejegyzéseket, a maradék a következő indításkor kerül sorra
+        running = false;
+        thread.interrupt();
+        thread.join(shutdownTimeoutSeconds * 1000);
+        if (journal.pendingCount() > 0) {
+            log.info("{} journal entries left for the next start", journal.pendingCount());
+        }
+    }
+
+    public void addListener(Consumer<Status> listener) {
+        listeners.add(listener);
+    }
+
+    public Status getStatus() {
+        return new Status(journal.pendingCount(), retrying);
+    }
+
+    private void run() {
+        long backoffMillis = 1000;
+        notifyListeners();
+
+        while (running || journal.pendingCount() > 0) {
+            try {
+                if (running) {
+                    journal.awaitPending(IDLE_WAIT_MILLIS);
+                    // Rövid várakozás, hogy az egymást követő mentések egy batch-be kerüljenek
+                    Thread.sleep(batchDelayMillis);
+                }
+
+                List<JournalEntry> batch = journal.nextBatch(MAX_BATCH_SIZE);
+                if (batch.isEmpty()) {
+                    continue;
+                }
+
+                flush(batch);
+                retrying = false;
+                backoffMillis = 1000;
+            } catch (InterruptedException e) {
+                if (!running && journal.pendingCount() > 0) {
+                    // Leállításkor egy utolsó kísérlet megszakítás nélkül
+                    flushOnceQuietly();
+                    return;
+                }
+            } catch (Exception e) {
+                retrying = true;
+                log.warn("Write-behind flush failed, retrying in {} ms: {}", backoffMillis, e.getMessage());
+                notifyListeners();
+                if (!running) {
+                    return;
+                }
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException ignored) {
+                    // Leállítás: a ciklusfeltétel dönt
+                }
+                backoffMillis = Math.min(backoffMillis * 2, maxBackoffSeconds * 1000);
+            }
+            notifyListeners();
+        }
+    }
+
+    private void flushOnceQuietly() {
+        try {
+            List<JournalEntry> batch = journal.nextBatch(MAX_BATCH_SIZE);
+            if (!batch.isEmpty()) {
+                flush(batch);
+            }
+        } catch (Exception e) {
+            log.warn("Final write-behind flush failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Dokumentumonként az utolsó művelet kerül a batch-be, sikeres commit után a checkpoint előrelép
+     */
+    private void flush(List<JournalEntry> batch) throws Exception {
+        Map<String, JournalEntry> coalesced = new LinkedHashMap<>();
+        for (JournalEntry entry : batch) {
+            coalesced.put(entry.key(), entry);
+        }
+
+        metrics.timeFirestore("journal", "flush", () -> {
+            WriteBatch writeBatch = firestore.batch();
+            Set<String> versionKeys = new HashSet<>();
+            long bytes = 0;
+
+            for (JournalEntry entry : coalesced.values()) {
+                DocumentReference docRef = firestore.collection(entry.getCollection()).document(entry.getDocumentId());
+                if (entry.getOperation() == JournalEntry.Operation.DELETE) {
+                    writeBatch.delete(docRef);
+                } else {
+                    writeBatch.set(docRef, entry.getData());
+                    bytes += OperationMetrics.estimateSize(entry.getData());
+                }
+                versionKeys.addAll(DataVersions.keysFor(entry.getCollection(), entry.getDocumentId(), entry.getData()));
+            }
+
+            dataVersions.commit(writeBatch, versionKeys);
+            metrics.recordWrite("journal", "flush", coalesced.size(), bytes);
+            readAccounting.recordWrite(coalesced.size());
+            return null;
+        });
+
+        journal.markFlushed(batch.get(batch.size() - 1).getSeq());
+        log.debug("Flushed {} journal entries as {} document writes", batch.size(), coalesced.size());
+    }
+
+    private void notifyListeners() {
+        Status status = getStatus();
+        for (Consumer<Status> listener : listeners) {
+            listener.accept(status);
+        }
+    }
+
+    /**
+     * Függő írások száma és hogy a legutóbbi kísérlet hibára futott-e
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Status {
+        private final int pendingWrites;
+        private final boolean retrying;
+    }
+}
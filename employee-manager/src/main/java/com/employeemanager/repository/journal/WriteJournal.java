@@ -0,0 +1,233 @@
+package com.employeemanager.repository.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Helyi, csak hozzáfűzhető írási napló (NDJSON). Minden hozzáfűzés fsync-kel zárul, így a mentés
+ * a naplózás után azonnal visszatérhet; a Firestore írást a {@link WriteBehindFlusher} végzi.
+ * Az utolsó sikeresen kiírt sorszám a checkpoint fájlban van, összeomlás után az ennél nagyobb
+ * sorszámú bejegyzések újra függőbe kerülnek.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WriteJournal {
+
+    private static final String JOURNAL_FILE = "writes.log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${firestore.write-behind.enabled:true}")
+    private boolean enabled;
+
+    @Value("${firestore.write-behind.directory:journal}")
+    private String directory;
+
+    // Sorszám szerint rendezett, még ki nem írt bejegyzések
+    private final List<JournalEntry> pending = new ArrayList<>();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    private FileChannel channel;
+    private long nextSeq = 1;
+    private long checkpoint;
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+
+        Path checkpointPath = dir.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpointPath)) {
+            checkpoint = Long.parseLong(Files.readString(checkpointPath, StandardCharsets.UTF_8).trim());
+        }
+        nextSeq = checkpoint + 1;
+
+        Path journalPath = dir.resolve(JOURNAL_FILE);
+        if (Files.exists(journalPath)) {
+            for (String line : Files.readAllLines(journalPath, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JournalEntry entry = objectMapper.readValue(line, JournalEntry.class);
+                    nextSeq = Math.max(nextSeq, entry.getSeq() + 1);
+                    if (entry.getSeq() > checkpoint) {
+                        pending.add(entry);
+                    }
+                } catch (IOException e) {
+                    // Összeomláskor félbemaradt utolsó sor: a mentés nem tért vissza, eldobható
+                    log.warn("Skipping unreadable journal line: {}", e.getMessage());
+                }
+            }
+        }
+
+        channel = FileChannel.open(journalPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        truncateTornLine(journalPath);
+
+        if (!pending.isEmpty()) {
+            log.info("Replaying {} unflushed journal entries", pending.size());
+        }
+    }
+
+    /**
+     * Félbemaradt utolsó sor levágása, hogy a következő hozzáfűzés ne ugyanabba a sorba kerüljön
+     */
+    private void truncateTornLine(Path journalPath) throws IOException {
+        byte[] content = Files.readAllBytes(journalPath);
+        int end = content.length;
+        while (end > 0 && content[end - 1] != '\n') {
+            end--;
+        }
+        if (end < content.length) {
+            channel.truncate(end);
+            channel.force(true);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public JournalEntry set(String collection, String documentId, Map<String, Object> data) throws IOException {
+        return appendAll(List.of(newEntry(collection, documentId, JournalEntry.Operation.SET, data))).get(0);
+    }
+
+    public JournalEntry delete(String collection, String documentId) throws IOException {
+        return appendAll(List.of(newEntry(collection, documentId, JournalEntry.Operation.DELETE, null))).get(0);
+    }
+
+    /**
+     * Több bejegyzés hozzáfűzése egyetlen fsync-kel (batch mentéshez)
+     */
+    public List<JournalEntry> appendAll(List<JournalEntry> entries) throws IOException {
+        append(entries);
+        listeners.forEach(Runnable::run);
+        return entries;
+    }
+
+    private synchronized void append(List<JournalEntry> entries) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (JournalEntry entry : entries) {
+            entry.setSeq(nextSeq++);
+            entry.setTimestamp(System.currentTimeMillis());
+            lines.append(objectMapper.writeValueAsString(entry)).append('\n');
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(true);
+
+        pending.addAll(entries);
+        notifyAll();
+    }
+
+    /**
+     * Értesítés minden hozzáfűzés után (függő írások kijelzése)
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public static JournalEntry newEntry(String collection, String documentId,
+                                        JournalEntry.Operation operation, Map<String, Object> data) {
+        return new JournalEntry(0, collection, documentId, operation, data, 0);
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Egy gyűjtemény függő műveletei dokumentumonként összevonva (az utolsó művelet érvényes)
+     */
+    public synchronized Map<String, JournalEntry> pendingFor(String collection) {
+        Map<String, JournalEntry> result = new LinkedHashMap<>();
+        for (JournalEntry entry : pending) {
+            if (entry.getCollection().equals(collection)) {
+                result.put(entry.getDocumentId(), entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A legrégebbi függő bejegyzések legfeljebb maxDocuments különböző dokumentumig.
+     * A visszaadott lista sorszám szerint rendezett, így az utolsó elem sorszáma checkpointnak használható.
+     */
+    public synchronized List<JournalEntry> nextBatch(int maxDocuments) {
+        List<JournalEntry> batch = new ArrayList<>();
+        Map<String, Boolean> documents = new LinkedHashMap<>();
+
+        for (JournalEntry entry : pending) {
+            if (!documents.containsKey(entry.key()) && documents.size() == maxDocuments) {
+                break;
+            }
+            documents.put(entry.key(), Boolean.TRUE);
+            batch.add(entry);
+        }
+        return batch;
+    }
+
+    /**
+     * Várakozás új bejegyzésre, legfeljebb a megadott ideig
+     */
+    public synchronized void awaitPending(long timeoutMillis) throws InterruptedException {
+        if (pending.isEmpty()) {
+            wait(timeoutMillis);
+        }
+    }
+
+    /**
+     * A megadott sorszámig minden bejegyzés kiírva: checkpoint frissítése, üres napló esetén csonkolás
+     */
+    public synchronized void markFlushed(long seq) throws IOException {
+        pending.removeIf(entry -> entry.getSeq() <= seq);
+        checkpoint = seq;
+
+        Path dir = Paths.get(directory);
+        Path temp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temp, Long.toString(seq), StandardCharsets.UTF_8);
+        Files.move(temp, dir.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        if (pending.isEmpty()) {
+            channel.truncate(0);
+            channel.force(true);
+        }
+    }
+}
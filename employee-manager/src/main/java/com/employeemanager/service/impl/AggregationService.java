@@ -0,0 +1,49 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.model.WorkRecordSummary;
+import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import com.employeemanager.service.exception.ServiceException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Szerver oldali count()/sum() aggregációk, hogy az összesítésekhez
+ * ne kelljen minden munkanapló dokumentumot letölteni
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AggregationService {
+    private final WorkRecordRepository workRecordRepository;
+
+    public boolean hasWorkRecords(String employeeId) throws ServiceException {
+        try {
+            return workRecordRepository.existsByEmployeeId(employeeId);
+        } catch (ExecutionException | InterruptedException e) {
+            log.error("Error checking work records of employee: " + employeeId, e);
+            throw new ServiceException("Failed to check work records", e);
+        }
+    }
+
+    public long countWorkRecords(String employeeId) throws ServiceException {
+        try {
+            return workRecordRepository.countByEmployeeId(employeeId);
+        } catch (ExecutionException | InterruptedException e) {
+            log.error("Error counting work records of employee: " + employeeId, e);
+            throw new ServiceException("Failed to count work records", e);
+        }
+    }
+
+    public WorkRecordSummary summarizeByWorkDate(LocalDate startDate, LocalDate endDate) throws ServiceException {
+        try {
+            return workRecordRepository.summarizeByWorkDateBetween(startDate, endDate);
+        } catch (ExecutionException | InterruptedException e) {
+            log.error("Error summarizing work records between {} and {}", startDate, endDate, e);
+            throw new ServiceException("Failed to summarize work records", e);
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.diagnostics.OperationMetrics;
+import com.employeemanager.diagnostics.ReadAccounting;
+import com.employeemanager.repository.impl.BucketedWorkRecordRepository;
+import com.employeemanager.repository.impl.DataVersions;
+import com.employeemanager.service.exception.ServiceException;
+import com.employeemanager.util.ExportFiles;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.BulkWriterOptions;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QueryPartition;
+import com.google.cloud.firestore.WriteResult;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Teljes helyi mentés és visszatöltés. A mentés gyűjteményenként partíciós lekérdezésekkel, párhuzamosan
+ * olvas; minden partíció lapozva, saját tömörített NDJSON fájlba íródik, így a memóriaigény a szálak száma
+ * és a lapméret szorzatára korlátos. A mentés könyvtárában a manifest.json kerül a helyére utoljára:
+ * csak az ilyen mentés teljes.
+ * <p>
+ * A visszatöltés a mentett dokumentumokat azonos ID-val, korlátozott ütemű BulkWriter írásokkal állítja vissza;
+ * a mentés óta létrehozott dokumentumok megmaradnak. Közvetlenül a Firestore-ba ír (a napló és a gyorsítótár
+ * megkerülésével), ezért batch módban futtatandó.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BackupService {
+
+    public static final String MANIFEST = "manifest.json";
+
+    private static final int FORMAT_VERSION = 1;
+    private static final List<String> COLLECTIONS = List.of("employees", "workrecords",
+            BucketedWorkRecordRepository.COLLECTION);
+    private static final DateTimeFormatter DIRECTORY_FORMATTER = DateTimeFormatter.ofPattern("yyyy_MM_dd_HHmmss");
+    private static final String TIMESTAMP_KEY = "$timestamp";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long PROGRESS_STEP = 10_000;
+    // A BulkWriter legfeljebb ennyi függő írást tart, utána megvárjuk a kiírásukat
+    private static final int RESTORE_CHUNK = 2000;
+    private static final int BULK_WRITER_START_RATE = 500;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final TypeReference<Map<String, Object>> LINE_TYPE = new TypeReference<>() { };
+
+    private final Firestore firestore;
+    private final ObjectMapper objectMapper;
+    private final OperationMetrics metrics;
+    private final ReadAccounting readAccounting;
+    private final DataVersions dataVersions;
+
+    @Value("${backup.directory:backups}")
+    private String directory;
+
+    @Value("${backup.threads:4}")
+    private int threads;
+
+    @Value("${backup.partitions:8}")
+    private int partitions;
+
+    @Value("${backup.page-size:500}")
+    private int pageSize;
+
+    @Value("${backup.restore.max-writes-per-second:500}")
+    private int maxWritesPerSecond;
+
+    /**
+     * Új mentés a backup könyvtárba; a progress legfeljebb 10 000 dokumentumonként kap jelzést
+     */
+    public Manifest backup(LongConsumer progress) throws ServiceException, InterruptedException {
+        Path target = Paths.get(directory, "backup_" + LocalDateTime.now().format(DIRECTORY_FORMATTER));
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "backup-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+
+        try {
+            Files.createDirectories(target);
+            AtomicLong total = new AtomicLong();
+
+            Map<String, List<Future<Part>>> tasks = new LinkedHashMap<>();
+            for (String collection : COLLECTIONS) {
+                List<QueryPartition> collectionPartitions = firestore.collectionGroup(collection)
+                        .getPartitions(partitions)
+                        .get();
+                List<Future<Part>> parts = new ArrayList<>();
+                for (int i = 0; i < collectionPartitions.size(); i++) {
+                    String fileName = String.format("%s-%03d.ndjson.gz", collection, i);
+                    Query query = collectionPartitions.get(i).createQuery();
+                    parts.add(pool.submit(() -> backupPartition(collection, query, target.resolve(fileName), total,
+                            progress)));
+                }
+                tasks.put(collection, parts);
+            }
+
+            Manifest manifest = new Manifest(FORMAT_VERSION, LocalDateTime.now().toString(),
+                    firestore.getOptions().getProjectId(), new ArrayList<>());
+            for (Map.Entry<String, List<Future<Part>>> entry : tasks.entrySet()) {
+                List<Part> parts = new ArrayList<>();
+                for (Future<Part> part : entry.getValue()) {
+                    parts.add(part.get());
+                }
+                manifest.getCollections().add(new CollectionBackup(entry.getKey(),
+                        parts.stream().mapToLong(Part::getDocuments).sum(), parts));
+            }
+
+            ExportFiles.writeAtomically(target.resolve(MANIFEST),
+                    temp -> objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), manifest));
+            log.info("Backup of {} documents written to {} in {} ms", manifest.getDocuments(), target,
+                    (System.nanoTime() - start) / 1_000_000);
+            return manifest;
+        } catch (InterruptedException e) {
+            stop(pool);
+            deleteQuietly(target);
+            throw e;
+        } catch (Exception e) {
+            log.error("Error writing backup to {}", target, e);
+            stop(pool);
+            deleteQuietly(target);
+            throw new ServiceException("Failed to back up Firestore data", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Mentés visszatöltése; előbb minden fájl ellenőrzőösszege ellenőrződik, hibás mentésből nem ír semmit
+     */
+    public RestoreResult restore(Path backup, LongConsumer progress) throws ServiceException, InterruptedException {
+        long start = System.nanoTime();
+
+        try {
+            Manifest manifest = objectMapper.readValue(backup.resolve(MANIFEST).toFile(), Manifest.class);
+            if (manifest.getFormatVersion() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Nem támogatott mentés formátum: " + manifest.getFormatVersion());
+            }
+            if (!firestore.getOptions().getProjectId().equals(manifest.getProjectId())) {
+                log.warn("Restoring backup of project {} into project {}", manifest.getProjectId(),
+                        firestore.getOptions().getProjectId());
+            }
+            verify(backup, manifest);
+
+            long restored = 0;
+            long failed = 0;
+            BulkWriter writer = firestore.bulkWriter(BulkWriterOptions.builder()
+                    .setInitialOpsPerSecond(Math.min(BULK_WRITER_START_RATE, maxWritesPerSecond))
+                    .setMaxOpsPerSecond(maxWritesPerSecond)
+                    .build());
+            try {
+                for (CollectionBackup collection : manifest.getCollections()) {
+                    for (Part part : collection.getParts()) {
+                        long[] counts = restorePart(writer, collection.getName(), backup.resolve(part.getFile()),
+                                restored + failed, progress);
+                        restored += counts[0];
+                        failed += counts[1];
+                    }
+                }
+            } finally {
+                writer.close();
+            }
+            // A visszatöltött adatokból készült exportok mind elavulnak
+            dataVersions.touch(List.of(DataVersions.EMPLOYEES, DataVersions.WORK_RECORDS));
+
+            log.info("Restored {} documents ({} failed) from {} in {} ms", restored, failed, backup,
+                    (System.nanoTime() - start) / 1_000_000);
+            return new RestoreResult(restored, failed);
+        } catch (InterruptedException | IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error restoring backup from {}", backup, e);
+            throw new ServiceException("Failed to restore backup", e);
+        }
+    }
+
+    private Part backupPartition(String collection, Query partition, Path file, AtomicLong total,
+                                 LongConsumer progress) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        long[] documents = new long[1];
+
+        ExportFiles.writeAtomically(file, temp -> {
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest);
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(
+                         new GZIPOutputStream(out, BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                QueryDocumentSnapshot last = null;
+                while (true) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedException("Backup cancelled");
+                    }
+
+                    Query page = last == null ? partition.limit(pageSize) : partition.startAfter(last).limit(pageSize);
+                    List<QueryDocumentSnapshot> snapshots = page.get().get().getDocuments();
+
+                    long bytes = 0;
+                    for (QueryDocumentSnapshot doc : snapshots) {
+                        // A gyűjtőcsoport lekérdezés az azonos nevű algyűjteményeket is hozná
+                        if (doc.getReference().getParent().getParent() != null) {
+                            continue;
+                        }
+                        Map<String, Object> data = doc.getData();
+                        bytes += OperationMetrics.estimateSize(data);
+
+                        Map<String, Object> line = new LinkedHashMap<>();
+                        line.put("id", doc.getId());
+                        line.put("data", encode(data));
+                        writer.write(objectMapper.writeValueAsString(line));
+                        writer.write('\n');
+                        documents[0]++;
+                    }
+                    metrics.recordRead(collection, "backup", snapshots.size(), bytes);
+                    // Az üres eredményű lekérdezés is egy olvasásnak számít
+                    readAccounting.recordRead(Math.max(1, snapshots.size()));
+                    reportProgress(total, snapshots.size(), progress);
+
+                    if (snapshots.size() < pageSize) {
+                        break;
+                    }
+                    last = snapshots.get(snapshots.size() - 1);
+                }
+            }
+        });
+
+        return new Part(file.getFileName().toString(), documents[0], HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Egy mentett fájl dokumentumainak visszaírása; a visszatérési érték {sikeres, hibás}
+     */
+    private long[] restorePart(BulkWriter writer, String collection, Path file, long done, LongConsumer progress)
+            throws IOException, InterruptedException {
+        long[] counts = new long[2];
+        List<ApiFuture<WriteResult>> pending = new ArrayList<>(RESTORE_CHUNK);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file), BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Map<String, Object> entry = objectMapper.readValue(line, LINE_TYPE);
+                @SuppressWarnings("unchecked")
+                Map<String, Object> data = (Map<String, Object>) decode(entry.get("data"));
+                if ("workrecords".equals(collection) && !data.containsKey("paymentAmount")) {
+                    // Régi mentés: a pótlás jelzője a visszatöltés után is érvényes maradjon
+                    data.put("paymentAmount", PaymentAmountBackfillService.amountOf((String) data.get("payment")));
+                }
+                pending.add(writer.set(firestore.collection(collection).document((String) entry.get("id")), data));
+
+                if (pending.size() >= RESTORE_CHUNK) {
+                    drain(writer, collection, pending, counts);
+                    progress.accept(done + counts[0] + counts[1]);
+                }
+            }
+        }
+        drain(writer, collection, pending, counts);
+        progress.accept(done + counts[0] + counts[1]);
+        return counts;
+    }
+
+    private void drain(BulkWriter writer, String collection, List<ApiFuture<WriteResult>> pending, long[] counts)
+            throws InterruptedException {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try {
+            writer.flush().get();
+        } catch (ExecutionException e) {
+            // Az egyes írások hibája alább, dokumentumonként derül ki
+            log.debug("Bulk writer flush reported an error", e);
+        }
+
+        long written = 0;
+        for (ApiFuture<WriteResult> future : pending) {
+            try {
+                future.get();
+                written++;
+            } catch (ExecutionException e) {
+                if (counts[1]++ < 10) {
+                    log.warn("Restore write failed in {}: {}", collection, e.getCause().getMessage());
+                }
+            }
+        }
+        counts[0] += written;
+        pending.clear();
+
+        metrics.recordWrite(collection, "restore", written, 0);
+        readAccounting.recordWrite(written);
+    }
+
+    private void verify(Path backup, Manifest manifest) throws IOException, NoSuchAlgorithmException {
+        for (CollectionBackup collection : manifest.getCollections()) {
+            for (Part part : collection.getParts()) {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                try (InputStream in = new DigestInputStream(Files.newInputStream(backup.resolve(part.getFile())), digest)) {
+                    in.transferTo(OutputStream.nullOutputStream());
+                }
+                if (!HexFormat.of().formatHex(digest.digest()).equals(part.getSha256())) {
+                    throw new IllegalArgumentException("Sérült mentés fájl: " + part.getFile());
+                }
+            }
+        }
+    }
+
+    private static void reportProgress(AtomicLong total, long documents, LongConsumer progress) {
+        long before = total.getAndAdd(documents);
+        if (before / PROGRESS_STEP != (before + documents) / PROGRESS_STEP) {
+            progress.accept(before + documents);
+        }
+    }
+
+    /**
+     * Firestore érték JSON-ná; az időbélyeg külön jelölt objektumként, hogy visszatöltéskor ne térképpé váljon
+     */
+    @SuppressWarnings("unchecked")
+    static Object encode(Object value) {
+        if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof Timestamp) {
+            return Map.of(TIMESTAMP_KEY, value.toString());
+        }
+        if (value instanceof Map) {
+            Map<String, Object> encoded = new LinkedHashMap<>();
+            ((Map<String, Object>) value).forEach((key, nested) -> encoded.put(key, encode(nested)));
+            return encoded;
+        }
+        if (value instanceof List) {
+            List<Object> encoded = new ArrayList<>();
+            for (Object nested : (List<Object>) value) {
+                encoded.add(encode(nested));
+            }
+            return encoded;
+        }
+        throw new IllegalStateException("Unsupported Firestore field type in backup: " + value.getClass().getName());
+    }
+
+    @SuppressWarnings("unchecked")
+    static Object decode(Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> map = (Map<String, Object>) value;
+            if (map.size() == 1 && map.get(TIMESTAMP_KEY) instanceof String) {
+                return Timestamp.parseTimestamp((String) map.get(TIMESTAMP_KEY));
+            }
+            Map<String, Object> decoded = new LinkedHashMap<>();
+            map.forEach((key, nested) -> decoded.put(key, decode(nested)));
+            return decoded;
+        }
+        if (value instanceof List) {
+            List<Object> decoded = new ArrayList<>();
+            for (Object nested : (List<Object>) value) {
+                decoded.add(decode(nested));
+            }
+            return decoded;
+        }
+        return value;
+    }
+
+    /**
+     * Az olvasó szálak leállítása a félkész mentés törlése előtt
+     */
+    private static void stop(ExecutorService pool) throws InterruptedException {
+        pool.shutdownNow();
+        if (!pool.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Backup readers did not stop within {} s", SHUTDOWN_TIMEOUT_SECONDS);
+        }
+    }
+
+    private static void deleteQuietly(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Could not delete {}", file);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Could not delete incomplete backup {}", directory);
+        }
+    }
+
+    /**
+     * A mentés leírása (manifest.json): gyűjteményenként a fájlok, dokumentumszámok és SHA-256 összegek
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Manifest {
+        private int formatVersion;
+        private String createdAt;
+        private String projectId;
+        private List<CollectionBackup> collections;
+
+        public long getDocuments() {
+            return collections.stream().mapToLong(CollectionBackup::getDocuments).sum();
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CollectionBackup {
+        private String name;
+        private long documents;
+        private List<Part> parts;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Part {
+        private String file;
+        private long documents;
+        private String sha256;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class RestoreResult {
+        private final long restored;
+        private final long failed;
+    }
+}
@@ -0,0 +1,128 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.impl.BucketedWorkRecordRepository;
+import com.employeemanager.service.exception.ServiceException;
+import com.google.cloud.firestore.AggregateField;
+import com.google.cloud.firestore.AggregateQuerySnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.LongConsumer;
+
+/**
+ * Napi munkanapló dokumentumok átmásolása a havi bucket-es tárolásba.
+ * Lapozva olvas (dokumentum ID szerint), a dolgozót nem tölti be (a név a dokumentumban van),
+ * és az ID-k megtartása miatt tetszőlegesen újrafuttatható. A régi gyűjtemény érintetlen marad.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BucketMigrationService {
+
+    private static final String SOURCE_COLLECTION = "workrecords";
+    private static final int PAGE_SIZE = 300;
+
+    private final Firestore firestore;
+    private final BucketedWorkRecordRepository bucketedRepository;
+
+    public MigrationResult migrate(LongConsumer progress) throws ServiceException {
+        try {
+            long migrated = 0;
+            QueryDocumentSnapshot last = null;
+
+            while (true) {
+                Query page = firestore.collection(SOURCE_COLLECTION)
+                        .orderBy(FieldPath.documentId())
+                        .limit(PAGE_SIZE);
+                if (last != null) {
+                    page = page.startAfter(last);
+                }
+
+                List<QueryDocumentSnapshot> documents = page.get().get().getDocuments();
+                if (documents.isEmpty()) {
+                    break;
+                }
+
+                List<WorkRecord> records = new ArrayList<>(documents.size());
+                for (QueryDocumentSnapshot doc : documents) {
+                    WorkRecord record = toRecord(doc);
+                    if (record != null) {
+                        records.add(record);
+                    }
+                }
+
+                bucketedRepository.importRecords(records);
+                migrated += records.size();
+                last = documents.get(documents.size() - 1);
+                progress.accept(migrated);
+                log.debug("Migrated {} work records into buckets", migrated);
+            }
+
+            return verify(migrated);
+        } catch (ExecutionException | InterruptedException e) {
+            log.error("Error migrating work records to buckets", e);
+            throw new ServiceException("Failed to migrate work records", e);
+        }
+    }
+
+    private WorkRecord toRecord(QueryDocumentSnapshot doc) {
+        Map<String, Object> data = doc.getData();
+        String employeeId = (String) data.get("employeeId");
+        if (employeeId == null || data.get("workDate") == null) {
+            log.warn("Skipping work record {} without employee or work date", doc.getId());
+            return null;
+        }
+
+        data.put("id", doc.getId());
+        WorkRecord record = WorkRecord.fromMap(data);
+
+        Employee employee = new Employee();
+        employee.setId(employeeId);
+        employee.setName((String) data.get("employeeName"));
+        record.setEmployee(employee);
+        return record;
+    }
+
+    /**
+     * Ellenőrzés két aggregációval: forrás dokumentumok száma és a bucket-ek recordCount összege
+     */
+    private MigrationResult verify(long migrated) throws ExecutionException, InterruptedException {
+        long sourceCount = firestore.collection(SOURCE_COLLECTION).count().get().get().getCount();
+
+        AggregateField recordCount = AggregateField.sum("recordCount");
+        AggregateQuerySnapshot buckets = firestore.collection(BucketedWorkRecordRepository.COLLECTION)
+                .aggregate(AggregateField.count(), recordCount)
+                .get()
+                .get();
+        Long bucketRecords = buckets.getLong(recordCount);
+
+        return new MigrationResult(migrated, sourceCount, buckets.getCount(),
+                bucketRecords != null ? bucketRecords : 0L);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class MigrationResult {
+        private final long migrated;
+        private final long sourceRecords;
+        private final long buckets;
+        private final long bucketRecords;
+
+        public boolean isComplete() {
+            return sourceRecords == bucketRecords;
+        }
+    }
+}
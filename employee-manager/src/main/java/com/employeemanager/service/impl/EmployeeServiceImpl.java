@@ -4,6 +4,8 @@ import com.employeemanager.model.Employee;
 import com.employeemanager.model.WorkRecord;
 import com.employeemanager.repository.interfaces.EmployeeRepository;
 import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import com.employeemanager.repository.journal.JournalEntry;
+import com.employeemanager.repository.journal.WriteJournal;
 import com.employeemanager.service.exception.ServiceException;
 import com.employeemanager.service.interfaces.EmployeeService;
 import com.employeemanager.service.interfaces.WorkRecordService;
@@ -22,9 +24,12 @@ import java.util.concurrent.ExecutionException;
 @RequiredArgsConstructor
 public class EmployeeServiceImpl implements EmployeeService {
     private static final Logger logger = LoggerFactory.getLogger(EmployeeServiceImpl.class);
+    private static final String WORK_RECORD_COLLECTION = "workrecords";
     private final EmployeeRepository employeeRepository;
     private final WorkRecordService workRecordService;
     private final WorkRecordRepository workRecordRepository;
+    private final AggregationService aggregationService;
+    private final WriteJournal journal;
 
     @Override
     public Employee save(Employee employee) throws ServiceException {
@@ -78,13 +83,18 @@ public class EmployeeServiceImpl implements EmployeeService {
     @Override
     public void deleteById(String id) throws ServiceException {
         try {
-            // Ellenőrizzük, hogy vannak-e kapcsolódó munkanaplók
-            List<WorkRecord> employeeRecords = workRecordService.getEmployeeMonthlyRecords(
-                    id, LocalDate.of(1900, 1, 1), LocalDate.of(2100, 12, 31));
+            // A naplóban függő (még ki nem írt) munkanaplókat a Firestore lekérdezés nem látja
+            long pendingRecords = countPendingWorkRecords(id);
+            if (pendingRecords > 0) {
+                throw new ServiceException("Nem törölhető az alkalmazott, mert " +
+                        pendingRecords + " kapcsolódó munkanapló mentése folyamatban van");
+            }
 
-            if (!employeeRecords.isEmpty()) {
+            // Ellenőrizzük, hogy vannak-e kapcsolódó munkanaplók (limit(1) lekérdezés)
+            if (aggregationService.hasWorkRecords(id)) {
+                long recordCount = aggregationService.countWorkRecords(id);
                 throw new ServiceException("Nem törölhető az alkalmazott, mert " +
-                        employeeRecords.size() + " kapcsolódó munkanapló található");
+                        recordCount + " kapcsolódó munkanapló található");
             }
 
             employeeRepository.deleteById(id);
@@ -94,6 +104,13 @@ public class EmployeeServiceImpl implements EmployeeService {
         }
     }
 
+    private long countPendingWorkRecords(String employeeId) {
+        return journal.pendingFor(WORK_RECORD_COLLECTION).values().stream()
+                .filter(entry -> entry.getOperation() == JournalEntry.Operation.SET)
+                .filter(entry -> employeeId.equals(entry.getData().get("employeeId")))
+                .count();
+    }
+
     @Override
     public List<Employee> saveAll(List<Employee> employees) throws ServiceException {
         try {
@@ -136,6 +153,11 @@ public class EmployeeServiceImpl implements EmployeeService {
                 ValidationHelper.isValidBirthDate(employee.getBirthDate());
     }
 
+    @Override
+    public List<WorkRecord> findDuplicateWorkRecords(List<WorkRecord> workRecords) throws ServiceException {
+        return workRecordService.findDuplicates(workRecords);
+    }
+
     @Override
     public WorkRecord addWorkRecord(WorkRecord workRecord) throws ServiceException {
         if (workRecord == null || workRecord.getEmployee() == null) {
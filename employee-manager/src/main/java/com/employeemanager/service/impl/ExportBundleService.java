@@ -0,0 +1,164 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.service.exception.ServiceException;
+import com.employeemanager.service.impl.StreamingExportService.Filter;
+import com.employeemanager.service.interfaces.EmployeeService;
+import com.employeemanager.util.ExcelExporter;
+import com.employeemanager.util.ExportFiles;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Több hónap exportja: az időszak adatai egyetlen lekérdezéssel töltődnek be és hónapokra bomlanak,
+ * a havi munkafüzetek korlátos szálkészleten párhuzamosan készülnek, majd hónap sorrendben
+ * egyetlen zip fájlba kerülnek. A hívó szál megszakítása az egész exportot leállítja.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportBundleService {
+
+    private static final String EXPORT_DIRECTORY = "exports";
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final EmployeeService employeeService;
+    private final ExcelExporter excelExporter;
+
+    // Egyszerre készülő munkafüzetek száma (a POI munkafüzetek memóriaigénye miatt korlátos)
+    @Value("${exports.bundle.threads:4}")
+    private int threads;
+
+    @FunctionalInterface
+    public interface Progress {
+        void update(int done, int total);
+    }
+
+    /**
+     * Az időszak rekordjai hónaponként; mindkét dátum szerinti szűrésnél a munkavégzés hónapja dönt
+     */
+    public Map<YearMonth, List<WorkRecord>> loadByMonth(YearMonth from, YearMonth to, Filter filter)
+            throws ServiceException {
+        LocalDate start = from.atDay(1);
+        LocalDate end = to.atEndOfMonth();
+
+        List<WorkRecord> records = switch (filter) {
+            case NOTIFICATION -> employeeService.getRecordsByNotificationDate(start, end);
+            case WORK -> employeeService.getMonthlyRecords(start, end);
+            case BOTH -> employeeService.getRecordsByBothDates(start, end, start, end);
+        };
+
+        Function<WorkRecord, LocalDate> monthOf = filter == Filter.NOTIFICATION
+                ? WorkRecord::getNotificationDate
+                : WorkRecord::getWorkDate;
+
+        Map<YearMonth, List<WorkRecord>> byMonth = new TreeMap<>();
+        for (WorkRecord record : records) {
+            LocalDate date = monthOf.apply(record);
+            if (date != null) {
+                byMonth.computeIfAbsent(YearMonth.from(date), month -> new ArrayList<>()).add(record);
+            }
+        }
+        return byMonth;
+    }
+
+    /**
+     * Havi munkafüzetek egy zip fájlban; az üres hónapok kimaradnak. A fájl ideiglenes néven készül
+     * (ExportFiles), és csak hiánytalanul elkészülve kerül a végleges helyére.
+     */
+    public String exportBundle(YearMonth from, YearMonth to, Filter filter, Progress progress)
+            throws ServiceException, InterruptedException {
+        long start = System.nanoTime();
+        Map<YearMonth, List<WorkRecord>> byMonth = loadByMonth(from, to, filter);
+        if (byMonth.isEmpty()) {
+            throw new ServiceException("Az időszakban nincs exportálható munkanapló");
+        }
+
+        Path filePath = bundlePath(from, to);
+        int total = byMonth.size();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, total)), runnable -> {
+            Thread thread = new Thread(runnable, "export-bundle-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            Map<YearMonth, Future<byte[]>> workbooks = new TreeMap<>();
+            for (Map.Entry<YearMonth, List<WorkRecord>> month : byMonth.entrySet()) {
+                workbooks.put(month.getKey(), pool.submit(() -> buildWorkbook(month.getKey(), month.getValue())));
+            }
+
+            progress.update(0, total);
+            ExportFiles.writeAtomically(filePath, temp -> {
+                int done = 0;
+                try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    // Az xlsx már tömörített, újratömörítése csak időt vinne
+                    zip.setLevel(Deflater.BEST_SPEED);
+                    for (Map.Entry<YearMonth, Future<byte[]>> workbook : workbooks.entrySet()) {
+                        YearMonth month = workbook.getKey();
+                        byte[] content = workbook.getValue().get();
+
+                        zip.putNextEntry(new ZipEntry(ExcelExporter.workRecordsPath(month.atDay(1), month.atEndOfMonth())
+                                .getFileName().toString()));
+                        zip.write(content);
+                        zip.closeEntry();
+                        progress.update(++done, total);
+                    }
+                }
+            });
+
+            log.info("Exported {} monthly workbooks to {} in {} ms", total, filePath,
+                    (System.nanoTime() - start) / 1_000_000);
+            return filePath.toString();
+        } catch (InterruptedException | ClosedByInterruptException e) {
+            // Megszakítás a várakozás vagy a fájlírás közben; az ideiglenes fájlt az ExportFiles törli
+            log.info("Bundle export {} - {} cancelled", from, to);
+            throw new InterruptedException("Bundle export cancelled");
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            log.error("Error exporting bundle {} - {}", from, to, cause);
+            throw new ServiceException("Failed to export work record bundle", cause);
+        } finally {
+            // Megszakításkor a még futó munkafüzetek is leállnak
+            pool.shutdownNow();
+        }
+    }
+
+    public static Path bundlePath(YearMonth from, YearMonth to) {
+        String fileName = String.format("munkanaplot_%s_%s.zip", from.format(MONTH_FORMATTER), to.format(MONTH_FORMATTER));
+        return Paths.get(EXPORT_DIRECTORY, fileName);
+    }
+
+    private byte[] buildWorkbook(YearMonth month, List<WorkRecord> records) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        excelExporter.writeWorkRecords(records, month.atDay(1), month.atEndOfMonth(), out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,171 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.util.ExcelExporter;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.nio.channels.ClosedByInterruptException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Excel exportok háttérsora: a feladatok egyetlen szálon, beküldési sorrendben futnak, így több export is
+ * sorba állhat a felület blokkolása nélkül. A feladatok lépésenként jelzik az előrehaladást, megszakíthatók;
+ * az állapotváltozásokról a figyelők az export szálán értesülnek.
+ */
+@Slf4j
+@Service
+public class ExportJobService {
+
+    public enum State {
+        QUEUED, RUNNING, DONE, FAILED, CANCELLED
+    }
+
+    /**
+     * Az export maga; a visszatérési érték a létrehozott fájl útvonala
+     */
+    @FunctionalInterface
+    public interface Work {
+        String run(ExcelExporter.Progress progress) throws Exception;
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "export-jobs");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<Job> jobs = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Status>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger ids = new AtomicInteger();
+
+    public Job submit(String name, Work work) {
+        Job job = new Job(ids.incrementAndGet(), name);
+        jobs.add(job);
+        job.future = executor.submit(() -> run(job, work));
+        log.debug("Export job {} queued: {}", job.id, name);
+        notifyListeners(job);
+        return job;
+    }
+
+    /**
+     * A még várakozó feladat kikerül a sorból, a futó feladat szála megszakítást kap
+     */
+    public void cancel(Job job) {
+        boolean dequeued;
+        synchronized (job) {
+            dequeued = job.state == State.QUEUED;
+            if (dequeued) {
+                job.state = State.CANCELLED;
+            }
+        }
+        job.future.cancel(true);
+
+        if (dequeued) {
+            jobs.remove(job);
+            notifyListeners(job);
+        }
+    }
+
+    /**
+     * Várakozó (még el nem indult) feladatok száma
+     */
+    public int getQueuedCount() {
+        return (int) jobs.stream().filter(job -> job.state == State.QUEUED).count();
+    }
+
+    public void addListener(Consumer<Status> listener) {
+        listeners.add(listener);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(Job job, Work work) {
+        synchronized (job) {
+            if (job.state != State.QUEUED) {
+                return;
+            }
+            job.state = State.RUNNING;
+        }
+        notifyListeners(job);
+
+        long start = System.nanoTime();
+        try {
+            job.result = work.run((step, done, total) -> {
+                job.step = step;
+                job.progress = total > 0 ? (double) done / total : -1;
+                notifyListeners(job);
+            });
+            job.state = State.DONE;
+            log.info("Export job {} finished in {} ms: {}", job.id, (System.nanoTime() - start) / 1_000_000, job.result);
+        } catch (InterruptedException | ClosedByInterruptException e) {
+            job.state = State.CANCELLED;
+            log.info("Export job {} cancelled", job.id);
+        } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                job.state = State.CANCELLED;
+                log.info("Export job {} cancelled", job.id);
+            } else {
+                job.state = State.FAILED;
+                job.error = e;
+                log.error("Export job {} failed: {}", job.id, job.name, e);
+            }
+        } finally {
+            jobs.remove(job);
+            notifyListeners(job);
+        }
+    }
+
+    private void notifyListeners(Job job) {
+        Status status = new Status(job, job.name, job.state, job.step, job.progress, job.result, job.error,
+                getQueuedCount());
+        for (Consumer<Status> listener : listeners) {
+            listener.accept(status);
+        }
+    }
+
+    /**
+     * Beküldött export; az állapota az export szálán változik, a figyelők pillanatképet kapnak róla
+     */
+    @RequiredArgsConstructor
+    public static class Job {
+        @Getter
+        private final int id;
+        @Getter
+        private final String name;
+        private volatile State state = State.QUEUED;
+        private volatile String step = "";
+        private volatile double progress = -1;
+        private volatile String result;
+        private volatile Exception error;
+        private volatile Future<?> future;
+    }
+
+    /**
+     * Egy export állapota az értesítés pillanatában, a sorban várakozók számával
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Status {
+        private final Job job;
+        private final String name;
+        private final State state;
+        private final String step;
+        private final double progress;
+        private final String result;
+        private final Exception error;
+        private final int queued;
+    }
+}
@@ -0,0 +1,162 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.diagnostics.OperationMetrics;
+import com.employeemanager.diagnostics.ReadAccounting;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.impl.DataVersions;
+import com.employeemanager.repository.impl.FirebaseWorkRecordRepository;
+import com.employeemanager.service.exception.ServiceException;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.LongConsumer;
+
+/**
+ * Egyszeri pótlás: a munkanaplók numerikus paymentAmount mezőjének (egész forint) kitöltése a szöveges
+ * payment mezőből, hogy az összesítők egyetlen sum() aggregációval készülhessenek. Lapozva olvas
+ * (dokumentum ID szerint), csak az eltérő dokumentumokat írja, így tetszőlegesen újrafuttatható.
+ * Indításkor a háttérben automatikusan lefut, ha a meta gyűjtemény jelzője még hiányzik; a jelzőt
+ * a sikeres pótlás írja, addig az összesítő a payment mezőkből számol.
+ * A havi bucket-es tárolás összesítői a bucket-es átalakítás újrafuttatásával frissülnek.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentAmountBackfillService {
+
+    private static final String COLLECTION = "workrecords";
+    private static final String PAYMENT_AMOUNT = "paymentAmount";
+    // Firestore batch írás korlátja alatt
+    private static final int PAGE_SIZE = 400;
+
+    private final Firestore firestore;
+    private final OperationMetrics metrics;
+    private final ReadAccounting readAccounting;
+
+    @Value("${firestore.payment-backfill.auto:true}")
+    private boolean auto;
+
+    @PostConstruct
+    public void start() {
+        if (!auto) {
+            return;
+        }
+
+        Thread thread = new Thread(this::backfillIfNeeded, "payment-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void backfillIfNeeded() {
+        try {
+            DocumentSnapshot marker = marker().get().get();
+            metrics.recordRead(DataVersions.COLLECTION, "paymentAmountMarker", 1, 0);
+            readAccounting.recordRead(1);
+            if (!marker.exists()) {
+                log.info("paymentAmount backfill marker missing, starting backfill");
+                backfill(scanned -> { });
+            }
+        } catch (Exception e) {
+            // A következő indításkor újra próbálkozik, addig az összesítő a payment mezőkből számol
+            log.warn("Automatic paymentAmount backfill failed: {}", e.getMessage());
+        }
+    }
+
+    public synchronized BackfillResult backfill(LongConsumer progress) throws ServiceException {
+        try {
+            long scanned = 0;
+            long updated = 0;
+            QueryDocumentSnapshot last = null;
+
+            while (true) {
+                Query page = firestore.collection(COLLECTION)
+                        .orderBy(FieldPath.documentId())
+                        .select("payment", PAYMENT_AMOUNT)
+                        .limit(PAGE_SIZE);
+                if (last != null) {
+                    page = page.startAfter(last);
+                }
+
+                List<QueryDocumentSnapshot> documents = page.get().get().getDocuments();
+                metrics.recordRead(COLLECTION, "backfillPaymentAmount", documents.size(), 0);
+                readAccounting.recordRead(Math.max(1, documents.size()));
+                if (documents.isEmpty()) {
+                    break;
+                }
+
+                WriteBatch batch = firestore.batch();
+                int writes = 0;
+                for (QueryDocumentSnapshot doc : documents) {
+                    long amount = amountOf(doc.getString("payment"));
+                    Object current = doc.get(PAYMENT_AMOUNT);
+                    if (!(current instanceof Long) || (Long) current != amount) {
+                        batch.update(doc.getReference(), PAYMENT_AMOUNT, amount);
+                        writes++;
+                    }
+                }
+                if (writes > 0) {
+                    batch.commit().get();
+                    metrics.recordWrite(COLLECTION, "backfillPaymentAmount", writes, 0);
+                    readAccounting.recordWrite(writes);
+                }
+
+                scanned += documents.size();
+                updated += writes;
+                last = documents.get(documents.size() - 1);
+                progress.accept(scanned);
+                log.debug("Backfilled paymentAmount: {} scanned, {} updated", scanned, updated);
+            }
+
+            Map<String, Object> done = new HashMap<>();
+            done.put("completedAt", Timestamp.now());
+            done.put("scanned", scanned);
+            done.put("updated", updated);
+            marker().set(done).get();
+            metrics.recordWrite(DataVersions.COLLECTION, "paymentAmountMarker", 1, 0);
+            readAccounting.recordWrite(1);
+
+            log.info("paymentAmount backfill finished: {} scanned, {} updated", scanned, updated);
+            return new BackfillResult(scanned, updated);
+        } catch (ExecutionException | InterruptedException e) {
+            log.error("Error backfilling paymentAmount", e);
+            throw new ServiceException("Failed to backfill payment amounts", e);
+        }
+    }
+
+    private DocumentReference marker() {
+        return firestore.collection(DataVersions.COLLECTION)
+                .document(FirebaseWorkRecordRepository.PAYMENT_AMOUNT_MARKER);
+    }
+
+    static long amountOf(String payment) {
+        if (payment == null || payment.isBlank()) {
+            return 0L;
+        }
+        return WorkRecord.toForints(new BigDecimal(payment.trim()));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class BackfillResult {
+        private final long scanned;
+        private final long updated;
+    }
+}
@@ -0,0 +1,246 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.diagnostics.ReadAccounting;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.model.WorkRecordSummary;
+import com.employeemanager.repository.impl.DataVersions;
+import com.employeemanager.repository.journal.JournalEntry;
+import com.employeemanager.repository.journal.WriteJournal;
+import com.employeemanager.service.interfaces.EmployeeService;
+import com.employeemanager.util.ExcelExporter;
+import com.employeemanager.util.ExportFiles;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Havi zárás előkészítése: az aktuális és az előző hónap Excel exportja és szöveges riportja
+ * a háttérben, éjszaka (és indulás után, ha elavult) elkészül. Minden fájl mellé a készítéskori változásjelző
+ * kerül (a hónap, a dolgozók és a hónap nélküli változások számlálója); a felhasználó kérésekor egyetlen
+ * dokumentum olvasással és a napló függő írásainak vizsgálatával eldönthető, hogy a fájl még érvényes-e.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PrebuiltExportService {
+
+    public static final String META_SUFFIX = ".meta";
+
+    private final EmployeeService employeeService;
+    private final AggregationService aggregationService;
+    private final ReportService reportService;
+    private final ExcelExporter excelExporter;
+    private final ReadAccounting readAccounting;
+    private final DataVersions dataVersions;
+    private final WriteJournal journal;
+
+    @Value("${exports.prebuild.enabled:true}")
+    private boolean enabled;
+
+    @Value("${exports.prebuild.time:02:00}")
+    private String time;
+
+    @Value("${exports.prebuild.startup-delay-minutes:5}")
+    private long startupDelayMinutes;
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "export-prebuild");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+
+        // Indulás után pótlás (ha az éjszakai futás kimaradt), majd naponta a megadott időpontban
+        executor.schedule((Runnable) this::prebuild, startupDelayMinutes, TimeUnit.MINUTES);
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = now.toLocalDate().atTime(LocalTime.parse(time));
+        if (!next.isAfter(now)) {
+            next = next.plusDays(1);
+        }
+        executor.scheduleAtFixedRate(this::prebuild, Duration.between(now, next).toMinutes(),
+                TimeUnit.DAYS.toMinutes(1), TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Az időszak előre elkészített exportja, ha teljes hónap és az adatai azóta nem változtak
+     */
+    public Optional<String> findFreshExport(LocalDate startDate, LocalDate endDate) {
+        return findFresh(ExcelExporter.workRecordsPath(startDate, endDate), startDate, endDate);
+    }
+
+    /**
+     * Az időszak előre elkészített teljes riportja (alkalmazottak, tételek, összesítés), ha még érvényes
+     */
+    public Optional<String> findFreshReport(LocalDate startDate, LocalDate endDate) {
+        return findFresh(ReportService.reportPath(startDate, endDate), startDate, endDate);
+    }
+
+    void prebuild() {
+        YearMonth current = YearMonth.now();
+        for (YearMonth month : List.of(current.minusMonths(1), current)) {
+            if (readAccounting.getUsage().isOverBudget()) {
+                log.info("Export prebuild skipped, daily Firestore budget exceeded");
+                return;
+            }
+            try (ReadAccounting.Scope scope = readAccounting.begin("prebuild")) {
+                prebuild(month);
+            } catch (Exception e) {
+                // A következő ütemezett futás újra megpróbálja
+                log.warn("Could not prebuild exports for {}: {}", month, e.getMessage());
+            }
+        }
+    }
+
+    private void prebuild(YearMonth month) throws Exception {
+        LocalDate start = month.atDay(1);
+        LocalDate end = month.atEndOfMonth();
+
+        if (hasPendingWrites(month)) {
+            // A kiírásuk után a következő futás készíti el, a számláló addig nem tükrözi őket
+            log.debug("Prebuild for {} postponed, journal has pending writes", month);
+            return;
+        }
+
+        // Az adatok olvasása előtt: közbeni írásnál a fájl elavultnak látszik, sosem fordítva
+        String marker = dataVersions.marker(month);
+        Path exportPath = ExcelExporter.workRecordsPath(start, end);
+        Path reportPath = ReportService.reportPath(start, end);
+        boolean exportFresh = isFresh(exportPath, marker);
+        boolean reportFresh = isFresh(reportPath, marker);
+        if (exportFresh && reportFresh) {
+            log.debug("Prebuilt exports for {} are up to date", month);
+            return;
+        }
+
+        WorkRecordSummary summary = aggregationService.summarizeByWorkDate(start, end);
+        if (summary.getRecordCount() == 0) {
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        if (!exportFresh) {
+            List<WorkRecord> records = employeeService.getMonthlyRecords(start, end);
+            excelExporter.exportWorkRecords(records, start, end);
+            writeMeta(exportPath, marker);
+        }
+        if (!reportFresh) {
+            reportService.generateReport(start, end, true, true, true);
+            writeMeta(reportPath, marker);
+        }
+        log.info("Prebuilt exports for {} ({} records) in {} ms", month, summary.getRecordCount(),
+                (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private Optional<String> findFresh(Path file, LocalDate startDate, LocalDate endDate) {
+        if (!enabled || !isWholeMonth(startDate, endDate)) {
+            return Optional.empty();
+        }
+        YearMonth month = YearMonth.from(startDate);
+        if (hasPendingWrites(month)) {
+            return Optional.empty();
+        }
+        try {
+            return isFresh(file, dataVersions.marker(month)) ? Optional.of(file.toString()) : Optional.empty();
+        } catch (Exception e) {
+            log.debug("Freshness check failed for {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Érvényes, ha a fájl azóta nem íródott felül és a változásjelző megegyezik a készítéskorival
+     */
+    private boolean isFresh(Path file, String marker) {
+        Path metaPath = metaPath(file);
+        if (!Files.exists(file) || !Files.exists(metaPath)) {
+            return false;
+        }
+
+        Properties meta = new Properties();
+        try (Reader reader = Files.newBufferedReader(metaPath, StandardCharsets.UTF_8)) {
+            meta.load(reader);
+            return String.valueOf(Files.size(file)).equals(meta.getProperty("fileSize"))
+                    && String.valueOf(Files.getLastModifiedTime(file).toMillis()).equals(meta.getProperty("fileModified"))
+                    && marker.equals(meta.getProperty("marker"));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void writeMeta(Path file, String marker) throws Exception {
+        Properties meta = new Properties();
+        meta.setProperty("generatedAt", LocalDateTime.now().toString());
+        meta.setProperty("marker", marker);
+        meta.setProperty("fileSize", String.valueOf(Files.size(file)));
+        meta.setProperty("fileModified", String.valueOf(Files.getLastModifiedTime(file).toMillis()));
+
+        ExportFiles.writeAtomically(metaPath(file), temp -> {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                meta.store(writer, "Előre elkészített export frissességi adatai");
+            }
+        });
+    }
+
+    /**
+     * Igaz, ha a naplóban a hónapot érintő, még ki nem írt dolgozó vagy munkanapló írás van
+     */
+    private boolean hasPendingWrites(YearMonth month) {
+        Set<String> affecting = Set.of(DataVersions.EMPLOYEES, DataVersions.WORK_RECORDS, DataVersions.monthKey(month));
+        for (String collection : List.of(DataVersions.EMPLOYEES, DataVersions.WORK_RECORDS)) {
+            for (JournalEntry pending : journal.pendingFor(collection).values()) {
+                if (DataVersions.keysFor(collection, pending.getDocumentId(), pending.getData()).stream()
+                        .anyMatch(affecting::contains)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Path metaPath(Path file) {
+        return file.resolveSibling(file.getFileName() + META_SUFFIX);
+    }
+
+    private static boolean isWholeMonth(LocalDate startDate, LocalDate endDate) {
+        YearMonth month = YearMonth.from(startDate);
+        return startDate.equals(month.atDay(1)) && endDate.equals(month.atEndOfMonth());
+    }
+}
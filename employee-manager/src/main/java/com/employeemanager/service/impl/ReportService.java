@@ -1,7 +1,9 @@
 package com.employeemanager.service.impl;
 
+import com.employeemanager.diagnostics.OperationMetrics;
 import com.employeemanager.model.Employee;
 import com.employeemanager.model.WorkRecord;
+import com.employeemanager.model.WorkRecordSummary;
 import com.employeemanager.service.exception.ServiceException;
 import com.employeemanager.service.interfaces.EmployeeService;
 import com.employeemanager.service.interfaces.WorkRecordService;
@@ -25,6 +27,8 @@ public class ReportService {
     private final EmployeeService employeeService;
     private final WorkRecordService workRecordService;
     private final SettingsService settingsService;
+    private final AggregationService aggregationService;
+    private final OperationMetrics metrics;
 
     private static final String REPORTS_DIRECTORY = "reports";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
@@ -40,18 +44,22 @@ public class ReportService {
                     .append(" - ").append(endDate.format(DATE_FORMATTER)).append("\n\n");
 
             if (includeEmployeeDetails) {
-                appendEmployeeDetails(report);
+                metrics.timePhase(OperationMetrics.REPORT_PHASE, "employee-details",
+                        () -> appendEmployeeDetails(report));
             }
 
             if (includeWorkRecords) {
-                appendWorkRecords(report, startDate, endDate);
+                metrics.timePhase(OperationMetrics.REPORT_PHASE, "work-records",
+                        () -> appendWorkRecords(report, startDate, endDate));
             }
 
             if (includeSummary) {
-                appendSummary(report, startDate, endDate);
+                metrics.timePhase(OperationMetrics.REPORT_PHASE, "summary",
+                        () -> appendSummary(report, startDate, endDate));
             }
 
-            return saveReport(report.toString(), startDate, endDate);
+            return metrics.timePhase(OperationMetrics.REPORT_PHASE, "save",
+                    () -> saveReport(report.toString(), startDate, endDate));
         } catch (Exception e) {
             log.error("Error generating report", e);
             throw new ServiceException("Failed to generate report", e);
@@ -89,31 +97,30 @@ public class ReportService {
     }
 
     private void appendSummary(StringBuilder report, LocalDate startDate, LocalDate endDate) {
-        List<WorkRecord> records = workRecordService.getMonthlyRecords(startDate, endDate);
-
-        int totalHours = records.stream()
-                .mapToInt(WorkRecord::getHoursWorked)
-                .sum();
-
-        long totalPayment = records.stream()
-                .mapToLong(r -> r.getPayment().longValue())
-                .sum();
+        // Egyetlen aggregációs olvasás a teljes letöltés helyett
+        WorkRecordSummary summary = aggregationService.summarizeByWorkDate(startDate, endDate);
 
         report.append("Összesítés\n");
         report.append("----------------------------------------\n");
-        report.append("Összes munkaóra: ").append(totalHours).append(" óra\n");
-        report.append("Összes kifizetés: ").append(String.format("%,d Ft", totalPayment)).append("\n");
+        report.append("Összes munkaóra: ").append(summary.getTotalHours()).append(" óra\n");
+        report.append("Összes kifizetés: ").append(String.format("%,d Ft", summary.getTotalPayment().longValue())).append("\n");
+    }
+
+    /**
+     * A riport helye az időszakhoz; az előre elkészített riportok is ezt használják
+     */
+    public static Path reportPath(LocalDate startDate, LocalDate endDate) {
+        String fileName = String.format("report_%s_%s.txt",
+                startDate.format(DateTimeFormatter.BASIC_ISO_DATE),
+                endDate.format(DateTimeFormatter.BASIC_ISO_DATE));
+        return Paths.get(REPORTS_DIRECTORY, fileName);
     }
 
     private String saveReport(String content, LocalDate startDate, LocalDate endDate) throws ServiceException {
         try {
             createReportsDirectory();
 
-            String fileName = String.format("report_%s_%s.txt",
-                    startDate.format(DateTimeFormatter.BASIC_ISO_DATE),
-                    endDate.format(DateTimeFormatter.BASIC_ISO_DATE));
-
-            Path reportPath = Paths.get(REPORTS_DIRECTORY, fileName);
+            Path reportPath = reportPath(startDate, endDate);
             Files.writeString(reportPath, content);
 
             return reportPath.toString();
@@ -139,6 +146,8 @@ public class ReportService {
             return Files.list(directory)
                     .map(Path::getFileName)
                     .map(Path::toString)
+                    // Az előre elkészített riportok frissességi adatai nem riportok
+                    .filter(name -> !name.contains(PrebuiltExportService.META_SUFFIX))
                     .collect(Collectors.toList());
         } catch (IOException e) {
             throw new ServiceException("Failed to get available reports", e);
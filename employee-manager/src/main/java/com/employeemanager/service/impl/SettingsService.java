@@ -103,6 +103,16 @@ public class SettingsService {
         saveSettings();
     }
 
+    // Munkanapló tárolási forma (újraindítás után érvényes)
+    public String getWorkRecordLayout() {
+        return properties.getProperty("firestore.work-records.layout", "flat");
+    }
+
+    public void setWorkRecordLayout(String layout) {
+        properties.setProperty("firestore.work-records.layout", layout);
+        saveSettings();
+    }
+
     private void testDatabaseConnection() {
         try {
             // Egyszerű validáció
@@ -0,0 +1,279 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.diagnostics.OperationMetrics;
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import com.employeemanager.service.exception.ServiceException;
+import com.employeemanager.util.ExportFiles;
+import com.employeemanager.util.FirebaseDateConverter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Nyers adat export (CSV, NDJSON) bérszámfejtő programok számára: a munkanaplók a dolgozó adataival
+ * együtt, a tárolóból lapokban olvasva, közvetlenül egy pufferelt fájlcsatornába íródnak.
+ * A memóriában egyszerre csak egy lap van, így az időszak mérete nem korlátozza az exportot.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StreamingExportService {
+
+    private static final String EXPORT_DIRECTORY = "exports";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] COLUMNS = {
+            "id", "notificationDate", "notificationTime", "ebevSerialNumber", "workDate", "hoursWorked", "payment",
+            "employeeId", "employeeName", "birthPlace", "birthDate", "motherName", "taxNumber",
+            "socialSecurityNumber", "address"
+    };
+    private static final int HOURS_COLUMN = 5;
+    private static final int PAYMENT_COLUMN = 6;
+
+    private final WorkRecordRepository workRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final OperationMetrics metrics;
+
+    @Value("${exports.stream.page-size:1000}")
+    private int pageSize;
+
+    public enum Format {
+        CSV("csv"), NDJSON("ndjson");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    /**
+     * Szűrés ugyanúgy, mint a munkanapló nézetben és az Excel exportnál
+     */
+    public enum Filter {
+        NOTIFICATION, WORK, BOTH
+    }
+
+    /**
+     * Az időszak exportja; a visszatérési érték a létrehozott fájl útvonala
+     */
+    public String exportWorkRecords(LocalDate startDate, LocalDate endDate, Filter filter, Format format,
+                                    boolean gzip) throws ServiceException {
+        Path filePath = exportPath(startDate, endDate, format, gzip);
+        long start = System.nanoTime();
+
+        try {
+            long[] rows = new long[1];
+            metrics.timePhase(OperationMetrics.EXPORT_PHASE, format.extension, () -> {
+                ExportFiles.writeAtomically(filePath, temp -> {
+                    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                         Writer writer = newWriter(channel, gzip)) {
+                        RowWriter rowWriter = format == Format.CSV ? new CsvWriter(writer) : new NdjsonWriter(writer);
+                        rowWriter.begin();
+                        forEachPage(startDate, endDate, filter, page -> {
+                            try {
+                                for (WorkRecord record : page) {
+                                    rowWriter.write(record);
+                                }
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                        rowWriter.end();
+                        rows[0] = rowWriter.rows;
+                    } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                    }
+                });
+                return null;
+            });
+
+            log.info("Streamed {} work records to {} in {} ms", rows[0], filePath, (System.nanoTime() - start) / 1_000_000);
+            return filePath.toString();
+        } catch (Exception e) {
+            log.error("Error streaming work records to {}", filePath, e);
+            throw new ServiceException("Failed to export work records", e);
+        }
+    }
+
+    public static Path exportPath(LocalDate startDate, LocalDate endDate, Format format, boolean gzip) {
+        String fileName = String.format("munkanaplot_%s_%s.%s%s",
+                startDate.format(DateTimeFormatter.ofPattern("yyyy_MM_dd")),
+                endDate.format(DateTimeFormatter.ofPattern("yyyy_MM_dd")),
+                format.extension, gzip ? ".gz" : "");
+        return Paths.get(EXPORT_DIRECTORY, fileName);
+    }
+
+    private void forEachPage(LocalDate startDate, LocalDate endDate, Filter filter, Consumer<List<WorkRecord>> page)
+            throws Exception {
+        switch (filter) {
+            case NOTIFICATION -> workRecordRepository.forEachPageByNotificationDate(startDate, endDate, pageSize, page);
+            case WORK -> workRecordRepository.forEachPageByWorkDate(startDate, endDate, pageSize, page);
+            // A bejelentés dátuma Java oldalon szűrődik, mint a mindkét dátum szerinti lekérdezésnél
+            case BOTH -> workRecordRepository.forEachPageByWorkDate(startDate, endDate, pageSize, records ->
+                    page.accept(records.stream()
+                            .filter(record -> isBetween(record.getNotificationDate(), startDate, endDate))
+                            .collect(Collectors.toList())));
+        }
+    }
+
+    private static Writer newWriter(FileChannel channel, boolean gzip) throws IOException {
+        OutputStream out = Channels.newOutputStream(channel);
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static boolean isBetween(LocalDate date, LocalDate start, LocalDate end) {
+        return date != null && !date.isBefore(start) && !date.isAfter(end);
+    }
+
+    private static String[] values(WorkRecord record) {
+        Employee employee = record.getEmployee() != null ? record.getEmployee() : new Employee();
+        return new String[]{
+                record.getId(),
+                FirebaseDateConverter.dateToString(record.getNotificationDate()),
+                FirebaseDateConverter.timeToString(record.getNotificationTime()),
+                record.getEbevSerialNumber(),
+                FirebaseDateConverter.dateToString(record.getWorkDate()),
+                record.getHoursWorked() != null ? record.getHoursWorked().toString() : null,
+                record.getPayment() != null ? record.getPayment().toPlainString() : null,
+                employee.getId(),
+                employee.getName(),
+                employee.getBirthPlace(),
+                FirebaseDateConverter.dateToString(employee.getBirthDate()),
+                employee.getMotherName(),
+                employee.getTaxNumber(),
+                employee.getSocialSecurityNumber(),
+                employee.getAddress()
+        };
+    }
+
+    private abstract static class RowWriter {
+        long rows;
+
+        void begin() throws IOException {
+        }
+
+        abstract void write(WorkRecord record) throws IOException;
+
+        void end() throws IOException {
+        }
+    }
+
+    /**
+     * RFC 4180 szerinti CSV fejléccel; idézőjelezés csak szükség esetén
+     */
+    private static final class CsvWriter extends RowWriter {
+        private final Writer writer;
+
+        private CsvWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        void begin() throws IOException {
+            writeLine(COLUMNS);
+        }
+
+        @Override
+        void write(WorkRecord record) throws IOException {
+            writeLine(values(record));
+            rows++;
+        }
+
+        private void writeLine(String[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                String value = values[i];
+                if (value == null) {
+                    continue;
+                }
+                if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                        || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                    writer.write('"');
+                    writer.write(value.replace("\"", "\"\""));
+                    writer.write('"');
+                } else {
+                    writer.write(value);
+                }
+            }
+            writer.write("\r\n");
+        }
+    }
+
+    /**
+     * Soronként egy JSON objektum, a Jackson streaming generátorával (objektumfa építése nélkül)
+     */
+    private final class NdjsonWriter extends RowWriter {
+        private final Writer writer;
+        private JsonGenerator generator;
+
+        private NdjsonWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        void begin() throws IOException {
+            // A generátor nem zárja le az alatta lévő writer-t, azt a hívó kezeli
+            generator = objectMapper.getFactory().createGenerator(writer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void write(WorkRecord record) throws IOException {
+            String[] values = values(record);
+            generator.writeStartObject();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (values[i] == null) {
+                    continue;
+                }
+                if (i == HOURS_COLUMN) {
+                    generator.writeNumberField(COLUMNS[i], Integer.parseInt(values[i]));
+                } else if (i == PAYMENT_COLUMN) {
+                    generator.writeFieldName(COLUMNS[i]);
+                    generator.writeNumber(values[i]);
+                } else {
+                    generator.writeStringField(COLUMNS[i], values[i]);
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            rows++;
+        }
+
+        @Override
+        void end() throws IOException {
+            generator.flush();
+        }
+    }
+}
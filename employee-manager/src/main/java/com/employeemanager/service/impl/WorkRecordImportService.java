@@ -0,0 +1,283 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.diagnostics.ReadAccounting;
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.service.exception.ServiceException;
+import com.employeemanager.service.interfaces.EmployeeService;
+import com.employeemanager.service.interfaces.WorkRecordService;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.stereotype.Service;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Korábbi Excel exportok visszatöltése az "e-bev" munkalapról.
+ * A munkalapot a POI SAX alapú olvasója soronként dolgozza fel, a munkafüzet nem kerül teljesen a
+ * memóriába. A dolgozók a TAJ szám (ennek hiányában a név) alapján párosulnak, a rekordok
+ * kötegenként a szokásos kötegelt mentésen keresztül íródnak; az ID-k determinisztikusak,
+ * így ugyanannak a fájlnak az újbóli importja felülírás, nem duplikáció.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WorkRecordImportService {
+
+    public static final String EBEV_SHEET = "e-bev";
+
+    // Firestore batch írás korlátja, egy hely a változásszámlálóé
+    private static final int BATCH_SIZE = 499;
+    private static final int MAX_PROBLEMS = 100;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+
+    // Az "e-bev" munkalap oszlopai (lásd ExcelExporter.createEbevWorksheet)
+    private static final int NOTIFICATION_DATE = 0;
+    private static final int NOTIFICATION_TIME = 1;
+    private static final int EBEV_SERIAL = 2;
+    private static final int WORK_DATE = 3;
+    private static final int EMPLOYEE_NAME = 4;
+    private static final int SOCIAL_SECURITY = 5;
+    private static final int PAYMENT = 6;
+    private static final int HOURS = 7;
+    private static final int COLUMNS = 8;
+
+    private final EmployeeService employeeService;
+    private final WorkRecordService workRecordService;
+    private final ReadAccounting readAccounting;
+
+    public ImportResult importWorkbook(Path file, LongConsumer progress) throws ServiceException {
+        long start = System.nanoTime();
+
+        try (ReadAccounting.Scope scope = readAccounting.begin("importWorkRecords");
+             OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            RowHandler handler = new RowHandler(loadEmployees(), progress);
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            boolean found = false;
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    if (!EBEV_SHEET.equals(sheets.getSheetName())) {
+                        continue;
+                    }
+                    found = true;
+
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, handler, new RawNumberFormatter(), false));
+                    parser.parse(new InputSource(sheet));
+                }
+            }
+            if (!found) {
+                throw new ServiceException("A munkafüzetben nincs \"" + EBEV_SHEET + "\" munkalap");
+            }
+
+            handler.flush();
+            log.info("Imported {} work records from {} ({} skipped) in {} ms", handler.imported, file,
+                    handler.skipped, (System.nanoTime() - start) / 1_000_000);
+            return new ImportResult(handler.imported, handler.skipped, handler.problems);
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error importing work records from {}", file, e);
+            throw new ServiceException("Failed to import work records", e);
+        }
+    }
+
+    private EmployeeLookup loadEmployees() {
+        EmployeeLookup lookup = new EmployeeLookup();
+        for (Employee employee : employeeService.findAll()) {
+            if (employee.getSocialSecurityNumber() != null) {
+                lookup.bySocialSecurity.put(digits(employee.getSocialSecurityNumber()), employee);
+            }
+            if (employee.getName() != null) {
+                // Azonos nevű dolgozóknál a név nem azonosít egyértelműen
+                lookup.byName.merge(employee.getName().trim(), employee, (a, b) -> EmployeeLookup.AMBIGUOUS);
+            }
+        }
+        return lookup;
+    }
+
+    private static String digits(String value) {
+        return value.replaceAll("\\D", "");
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Az "e-bev" munkalap egy sorát egy munkanaplóvá alakítja. A bejelentés adatai (dátum, időpont,
+     * e-BEV sorszám) csak a csoport első sorában szerepelnek, a további sorok ezeket öröklik.
+     */
+    private final class RowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final EmployeeLookup employees;
+        private final LongConsumer progress;
+        private final String[] cells = new String[COLUMNS];
+        private final List<WorkRecord> batch = new ArrayList<>(BATCH_SIZE);
+        private final List<String> problems = new ArrayList<>();
+
+        private LocalDate notificationDate;
+        private LocalTime notificationTime;
+        private String ebevSerial;
+
+        private long imported;
+        private long skipped;
+
+        private RowHandler(EmployeeLookup employees, LongConsumer progress) {
+            this.employees = employees;
+            this.progress = progress;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(cells, null);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = new CellReference(cellReference).getCol();
+            if (column < COLUMNS) {
+                cells[column] = formattedValue;
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            // Fejléc és üres sorok
+            if (rowNum == 0 || isBlank(cells[WORK_DATE])) {
+                return;
+            }
+
+            try {
+                if (!isBlank(cells[NOTIFICATION_DATE])) {
+                    notificationDate = LocalDate.parse(cells[NOTIFICATION_DATE].trim(), DATE_FORMATTER);
+                    notificationTime = isBlank(cells[NOTIFICATION_TIME]) ? null : LocalTime.parse(cells[NOTIFICATION_TIME].trim());
+                    ebevSerial = isBlank(cells[EBEV_SERIAL]) ? null : cells[EBEV_SERIAL].trim();
+                }
+
+                Employee employee = employees.find(cells[SOCIAL_SECURITY], cells[EMPLOYEE_NAME]);
+                if (employee == null) {
+                    skip(rowNum, "ismeretlen dolgozó: " + cells[EMPLOYEE_NAME]);
+                    return;
+                }
+
+                WorkRecord record = new WorkRecord();
+                record.setEmployee(employee);
+                record.setNotificationDate(notificationDate);
+                record.setNotificationTime(notificationTime);
+                record.setEbevSerialNumber(ebevSerial);
+                record.setWorkDate(LocalDate.parse(cells[WORK_DATE].trim(), DATE_FORMATTER));
+                record.setPayment(new BigDecimal(cells[PAYMENT].trim()));
+                record.setHoursWorked((int) Math.round(Double.parseDouble(cells[HOURS].trim())));
+
+                if (!workRecordService.validateWorkRecord(record)) {
+                    skip(rowNum, "hiányos vagy érvénytelen adatok");
+                    return;
+                }
+
+                batch.add(record);
+                if (batch.size() >= BATCH_SIZE) {
+                    flush();
+                }
+            } catch (ServiceException e) {
+                // Mentési hiba: az import leáll, a már mentett kötegek megmaradnak
+                throw e;
+            } catch (RuntimeException e) {
+                skip(rowNum, e.getMessage());
+            }
+        }
+
+        @Override
+        public void headerFooter(String text, boolean isHeader, String tagName) {
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            workRecordService.saveAll(new ArrayList<>(batch));
+            imported += batch.size();
+            batch.clear();
+            progress.accept(imported);
+        }
+
+        private void skip(int rowNum, String reason) {
+            skipped++;
+            if (problems.size() < MAX_PROBLEMS) {
+                // Excel sorszámozás 1-től
+                problems.add((rowNum + 1) + ". sor: " + reason);
+            }
+        }
+    }
+
+    private static final class EmployeeLookup {
+        private static final Employee AMBIGUOUS = new Employee();
+
+        private final Map<String, Employee> bySocialSecurity = new HashMap<>();
+        private final Map<String, Employee> byName = new HashMap<>();
+
+        private Employee find(String socialSecurity, String name) {
+            if (!isBlank(socialSecurity)) {
+                Employee employee = bySocialSecurity.get(digits(socialSecurity));
+                if (employee != null) {
+                    return employee;
+                }
+            }
+            if (!isBlank(name)) {
+                Employee employee = byName.get(name.trim());
+                if (employee != null && employee != AMBIGUOUS) {
+                    return employee;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A számokat formázás nélkül adja vissza (a "Ft" formátumú összeg is nyers szám marad)
+     */
+    private static final class RawNumberFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            return NumberToTextConverter.toText(value);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ImportResult {
+        private final long imported;
+        private final long skipped;
+        private final List<String> problems;
+    }
+}
@@ -0,0 +1,167 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.diagnostics.ReadAccounting;
+import com.employeemanager.repository.impl.CachingWorkRecordRepository;
+import com.employeemanager.repository.impl.CachingWorkRecordRepository.Mode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Szomszédos hónapok előtöltése a munkanapló lekérdezés gyorsítótárba.
+ * Egy szűrés után a háttérben, alacsony prioritással betölti az előző és következő hónapot, illetve a
+ * dolgozónkénti nézethez a munkavégzés szerinti időszakot. Új navigáció a folyamatban lévő előtöltést
+ * megszakítja, a napi olvasási keret közelében pedig nem indul előtöltés.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WorkRecordPrefetcher {
+
+    public static final String PREFETCH_RANGES = "workrecords.prefetch.ranges";
+
+    private final CachingWorkRecordRepository repository;
+    private final ReadAccounting readAccounting;
+    private final MeterRegistry registry;
+
+    @Value("${firestore.prefetch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${firestore.prefetch.delay-ms:500}")
+    private long delayMillis;
+
+    // A napi olvasási keret ekkora hányadáig előtöltünk
+    @Value("${firestore.prefetch.max-budget-ratio:0.8}")
+    private double maxBudgetRatio;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "work-record-prefetch");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private Future<?> current;
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Szűrés után: az aktuális szűrési mód szerint az időszak előtti és utáni hónap,
+     * valamint a dolgozónkénti betöltéshez a munkavégzés szerinti időszak
+     */
+    public void prefetchAround(Mode mode, LocalDate startDate, LocalDate endDate) {
+        YearMonth previous = YearMonth.from(startDate).minusMonths(1);
+        YearMonth next = YearMonth.from(endDate).plusMonths(1);
+
+        List<Range> ranges = new ArrayList<>();
+        ranges.add(new Range(mode, next.atDay(1), next.atEndOfMonth()));
+        ranges.add(new Range(mode, previous.atDay(1), previous.atEndOfMonth()));
+        if (mode != Mode.WORK_DATE) {
+            ranges.add(new Range(Mode.WORK_DATE, startDate, endDate));
+        }
+        schedule(ranges);
+    }
+
+    /**
+     * Dolgozó kijelölésekor: a dolgozónkénti lekérdezést a munkavégzés szerinti gyorsítótár szolgálja ki
+     */
+    public void prefetchEmployeePeriod(LocalDate startDate, LocalDate endDate) {
+        List<Range> ranges = new ArrayList<>();
+        ranges.add(new Range(Mode.WORK_DATE, startDate, endDate));
+        schedule(ranges);
+    }
+
+    /**
+     * Navigáció: a még futó előtöltés ne versenyezzen az előtérben indított lekérdezéssel
+     */
+    public synchronized void cancel() {
+        if (current != null) {
+            current.cancel(true);
+            current = null;
+        }
+    }
+
+    private synchronized void schedule(List<Range> ranges) {
+        cancel();
+        if (!enabled) {
+            return;
+        }
+        current = executor.schedule(() -> run(ranges), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void run(List<Range> ranges) {
+        try (ReadAccounting.Scope scope = readAccounting.begin("prefetch")) {
+            for (Range range : ranges) {
+                if (Thread.currentThread().isInterrupted()) {
+                    count("cancelled");
+                    return;
+                }
+                if (!withinBudget()) {
+                    log.debug("Prefetch skipped, daily read budget nearly used");
+                    count("budget");
+                    return;
+                }
+                if (repository.covers(range.mode, range.start, range.end)) {
+                    count("covered");
+                    continue;
+                }
+
+                long start = System.nanoTime();
+                int records = load(range);
+                count("loaded");
+                log.debug("Prefetched {} {} - {}: {} records in {} ms", range.mode, range.start, range.end,
+                        records, (System.nanoTime() - start) / 1_000_000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            count("cancelled");
+        } catch (ExecutionException | RuntimeException e) {
+            // Az előtöltés csak gyorsítás, a hiba az előtérbeli lekérdezésnél úgyis jelentkezik
+            log.debug("Prefetch failed: {}", e.getMessage());
+            count("failed");
+        }
+    }
+
+    private int load(Range range) throws ExecutionException, InterruptedException {
+        return range.mode == Mode.WORK_DATE
+                ? repository.findByWorkDateBetween(range.start, range.end).size()
+                : repository.findByNotificationDateBetween(range.start, range.end).size();
+    }
+
+    private boolean withinBudget() {
+        ReadAccounting.Usage usage = readAccounting.getUsage();
+        return !usage.isOverBudget() && usage.getTodayReads() < usage.getDailyReadBudget() * maxBudgetRatio;
+    }
+
+    private void count(String result) {
+        Counter.builder(PREFETCH_RANGES)
+                .tag("result", result)
+                .register(registry)
+                .increment();
+    }
+
+    @AllArgsConstructor
+    private static class Range {
+        private final Mode mode;
+        private final LocalDate start;
+        private final LocalDate end;
+    }
+}
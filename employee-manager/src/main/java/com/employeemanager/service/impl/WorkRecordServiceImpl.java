@@ -8,6 +8,7 @@ import com.employeemanager.service.exception.ServiceException;
 import com.employeemanager.service.interfaces.EmployeeService;
 import com.employeemanager.service.interfaces.WorkRecordService;
 import com.employeemanager.util.ValidationHelper;
+import com.employeemanager.util.WorkRecordKeys;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,6 +16,8 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.concurrent.ExecutionException;
 
 @Service
@@ -100,6 +103,33 @@ public class WorkRecordServiceImpl implements WorkRecordService {
         }
     }
 
+    /**
+     * Új (ID nélküli) rekordok, amelyek determinisztikus ID-ja már létezik: mentésük felülírás lenne
+     */
+    @Override
+    public List<WorkRecord> findDuplicates(List<WorkRecord> workRecords) throws ServiceException {
+        List<WorkRecord> newRecords = workRecords.stream()
+                .filter(record -> !WorkRecordKeys.hasId(record))
+                .filter(record -> WorkRecordKeys.documentId(record) != null)
+                .collect(Collectors.toList());
+        if (newRecords.isEmpty()) {
+            return List.of();
+        }
+
+        try {
+            Set<String> existing = workRecordRepository.findExistingIds(newRecords.stream()
+                    .map(WorkRecordKeys::documentId)
+                    .collect(Collectors.toSet()));
+
+            return newRecords.stream()
+                    .filter(record -> existing.contains(WorkRecordKeys.documentId(record)))
+                    .collect(Collectors.toList());
+        } catch (ExecutionException | InterruptedException e) {
+            logger.error("Error checking duplicate work records", e);
+            throw new ServiceException("Failed to check duplicate work records", e);
+        }
+    }
+
     @Override
     public boolean validateWorkRecord(WorkRecord workRecord) {
         return workRecord != null &&
@@ -31,6 +31,7 @@ public interface EmployeeService extends BaseService<Employee, String> {
     List<WorkRecord> getMonthlyRecords(LocalDate startDate, LocalDate endDate) throws ServiceException;
     List<WorkRecord> getEmployeeMonthlyRecords(String employeeId, LocalDate startDate, LocalDate endDate) throws ServiceException;
     void deleteWorkRecord(String id) throws ServiceException;
+    List<WorkRecord> findDuplicateWorkRecords(List<WorkRecord> workRecords) throws ServiceException;
 
     // Új metódusok a szűréshez
     List<WorkRecord> getRecordsByNotificationDate(LocalDate startDate, LocalDate endDate) throws ServiceException;
@@ -12,4 +12,5 @@ public interface WorkRecordService extends BaseService<WorkRecord, String> {
     List<WorkRecord> getMonthlyRecords(LocalDate startDate, LocalDate endDate) throws ServiceException;
     List<WorkRecord> getEmployeeMonthlyRecords(String employeeId, LocalDate startDate, LocalDate endDate) throws ServiceException;
     boolean validateWorkRecord(WorkRecord workRecord);
+    List<WorkRecord> findDuplicates(List<WorkRecord> workRecords) throws ServiceException;
 }
\ No newline at end of file
@@ -1,70 +1,246 @@
 package com.employeemanager.util;
 
-import com.employeemanager.model.fx.WorkRecordFX;
+import com.employeemanager.analytics.PivotDimension;
+import com.employeemanager.analytics.PivotMeasure;
+import com.employeemanager.analytics.PivotResult;
+import com.employeemanager.analytics.WorkRecordSnapshot;
+import com.employeemanager.diagnostics.OperationMetrics;
+import com.employeemanager.diagnostics.jfr.AutoSizeColumnEvent;
+import com.employeemanager.diagnostics.jfr.ExportGroupingEvent;
+import com.employeemanager.diagnostics.jfr.WorkbookWriteEvent;
+import com.employeemanager.model.WorkRecord;
+import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.stereotype.Component;
 
-import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Component
+@RequiredArgsConstructor
 public class ExcelExporter {
 
+    private final OperationMetrics metrics;
+
     private static final String EXPORT_DIRECTORY = "exports";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy.MM.dd");
     private static final DateTimeFormatter YEAR_MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy.MM.");
+    private static final int EXPORT_STEPS = 5;
 
-    public String exportWorkRecords(List<WorkRecordFX> records, LocalDate startDate, LocalDate endDate) throws Exception {
-        createExportDirectory();
-
-        try (Workbook workbook = new XSSFWorkbook()) {
-
-            // 1. "e-bev" munkalap - részletes lista
-            createEbevWorksheet(workbook, records);
+    /**
+     * Előrehaladás jelzése lépésenként (munkalapok, majd a mentés)
+     */
+    @FunctionalInterface
+    public interface Progress {
+        Progress NONE = (step, done, total) -> { };
 
-            // 2. "dátum szerint" munkalap - dátum szerinti összesítés
-            createDateBasedWorksheet(workbook, records);
+        void update(String step, int done, int total);
+    }
 
-            // 3. "név szerint" munkalap - dolgozók szerinti csoportosítás
-            createEmployeeBasedWorksheet(workbook, records);
+    public String exportWorkRecords(List<WorkRecord> records, LocalDate startDate, LocalDate endDate) throws Exception {
+        return exportWorkRecords(records, startDate, endDate, Progress.NONE);
+    }
 
-            // 4. "ki hány napot dolgozott" munkalap - havi összesítő
-            createMonthlySummaryWorksheet(workbook, records, startDate, endDate);
+    /**
+     * Munkanapló export munkalaponkénti előrehaladással. A szál megszakítása a következő lépés előtt
+     * leállítja az exportot; a fájl csak hiánytalanul elkészülve kerül a helyére (lásd ExportFiles).
+     */
+    public String exportWorkRecords(List<WorkRecord> records, LocalDate startDate, LocalDate endDate,
+                                    Progress progress) throws Exception {
+        return metrics.timePhase(OperationMetrics.EXPORT_PHASE, "total", () -> {
+            try (Workbook workbook = new XSSFWorkbook()) {
+                createWorkRecordSheets(workbook, records, startDate, endDate, progress);
+
+                // Fájl mentése
+                step(progress, "mentés", 4);
+                Path filePath = workRecordsPath(startDate, endDate);
+                String fileName = filePath.getFileName().toString();
+                ExportFiles.writeAtomically(filePath, temp -> metrics.timePhase(OperationMetrics.EXPORT_PHASE, "write", () -> {
+                    WorkbookWriteEvent event = new WorkbookWriteEvent();
+                    event.begin();
+                    try (OutputStream fileOut = Files.newOutputStream(temp)) {
+                        workbook.write(fileOut);
+                    }
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.setFile(fileName);
+                        event.setSheets(workbook.getNumberOfSheets());
+                        event.setRows(countRows(workbook));
+                        event.setBytes(Files.size(temp));
+                        event.commit();
+                    }
+                    return null;
+                }));
+                progress.update("kész", EXPORT_STEPS, EXPORT_STEPS);
 
-            // Fájl mentése
-            String fileName = String.format("munkanaplot_%s_%s.xlsx",
-                    startDate.format(DateTimeFormatter.ofPattern("yyyy_MM_dd")),
-                    endDate.format(DateTimeFormatter.ofPattern("yyyy_MM_dd")));
+                return filePath.toString();
+            }
+        });
+    }
 
-            Path filePath = Paths.get(EXPORT_DIRECTORY, fileName);
-            try (FileOutputStream fileOut = new FileOutputStream(filePath.toFile())) {
-                workbook.write(fileOut);
+    /**
+     * Ugyanaz a munkafüzet, mint az exportWorkRecords-nál, tetszőleges kimenetre (pl. zip bejegyzésbe).
+     * A kimenetet nem zárja le; különböző munkafüzetek párhuzamosan is készülhetnek.
+     */
+    public void writeWorkRecords(List<WorkRecord> records, LocalDate startDate, LocalDate endDate,
+                                 OutputStream out) throws Exception {
+        metrics.timePhase(OperationMetrics.EXPORT_PHASE, "total", () -> {
+            try (Workbook workbook = new XSSFWorkbook()) {
+                createWorkRecordSheets(workbook, records, startDate, endDate, Progress.NONE);
+                metrics.timePhase(OperationMetrics.EXPORT_PHASE, "write", () -> {
+                    workbook.write(out);
+                    return null;
+                });
             }
+            return null;
+        });
+    }
+
+    private void createWorkRecordSheets(Workbook workbook, List<WorkRecord> records,
+                                        LocalDate startDate, LocalDate endDate,
+                                        Progress progress) throws InterruptedException {
+        // A stílusok munkafüzetenként egyszer jönnek létre, a munkalapok közösen használják
+        WorkbookStyles styles = new WorkbookStyles(workbook);
+
+        // 1. "e-bev" munkalap - részletes lista
+        step(progress, "e-bev", 0);
+        metrics.timePhase(OperationMetrics.EXPORT_PHASE, "e-bev",
+                () -> createEbevWorksheet(workbook, styles, records));
+
+        // 2. "dátum szerint" munkalap - dátum szerinti összesítés
+        step(progress, "dátum szerint", 1);
+        metrics.timePhase(OperationMetrics.EXPORT_PHASE, "date-based",
+                () -> createDateBasedWorksheet(workbook, styles, records));
+
+        // 3. "név szerint" munkalap - dolgozók szerinti csoportosítás
+        step(progress, "név szerint", 2);
+        metrics.timePhase(OperationMetrics.EXPORT_PHASE, "employee-based",
+                () -> createEmployeeBasedWorksheet(workbook, styles, records));
+
+        // 4. "ki hány napot dolgozott" munkalap - havi összesítő
+        step(progress, "ki hány napot dolgozott", 3);
+        metrics.timePhase(OperationMetrics.EXPORT_PHASE, "monthly-summary",
+                () -> createMonthlySummaryWorksheet(workbook, styles, records, startDate, endDate));
+    }
 
-            return filePath.toString();
+    /**
+     * A következő lépés jelzése; megszakított szálnál itt áll le az export
+     */
+    private static void step(Progress progress, String step, int done) throws InterruptedException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException("Export cancelled");
         }
+        progress.update(step, done, EXPORT_STEPS);
+    }
+
+    /**
+     * A munkanapló export helye az időszakhoz; az előre elkészített exportok is ezt használják
+     */
+    public static Path workRecordsPath(LocalDate startDate, LocalDate endDate) {
+        String fileName = String.format("munkanaplot_%s_%s.xlsx",
+                startDate.format(DateTimeFormatter.ofPattern("yyyy_MM_dd")),
+                endDate.format(DateTimeFormatter.ofPattern("yyyy_MM_dd")));
+        return Paths.get(EXPORT_DIRECTORY, fileName);
+    }
+
+    /**
+     * Kimutatás mentése önálló munkafüzetbe: dimenzió oszlopok, majd a kért mértékek, végül összesítő sor
+     */
+    public String exportPivot(PivotResult result) throws Exception {
+        return metrics.timePhase(OperationMetrics.EXPORT_PHASE, "pivot", () -> {
+            try (Workbook workbook = new XSSFWorkbook()) {
+                Sheet sheet = workbook.createSheet("kimutatás");
+                WorkbookStyles styles = new WorkbookStyles(workbook);
+                CellStyle headerStyle = styles.header();
+                CellStyle boldStyle = styles.bold();
+                CellStyle currencyStyle = styles.currency();
+                CellStyle currencyBoldStyle = styles.currencyBold();
+
+                List<PivotDimension> dimensions = result.getQuery().getDimensions();
+                List<PivotMeasure> measures = result.getQuery().getMeasures();
+
+                Row headerRow = sheet.createRow(0);
+                int col = 0;
+                for (PivotDimension dimension : dimensions) {
+                    Cell cell = headerRow.createCell(col++);
+                    cell.setCellValue(dimension.getLabel());
+                    cell.setCellStyle(headerStyle);
+                }
+                for (PivotMeasure measure : measures) {
+                    Cell cell = headerRow.createCell(col++);
+                    cell.setCellValue(measure.getLabel());
+                    cell.setCellStyle(headerStyle);
+                }
+
+                int rowNum = 1;
+                double[] totals = new double[measures.size()];
+                for (PivotResult.Row pivotRow : result.getRows()) {
+                    Row row = sheet.createRow(rowNum++);
+                    col = 0;
+                    for (int d = 0; d < dimensions.size(); d++) {
+                        row.createCell(col++).setCellValue(result.label(pivotRow, d));
+                    }
+                    for (int m = 0; m < measures.size(); m++) {
+                        double value = result.value(pivotRow, measures.get(m));
+                        Cell cell = row.createCell(col++);
+                        cell.setCellValue(value);
+                        if (measures.get(m) == PivotMeasure.PAYMENT) {
+                            cell.setCellStyle(currencyStyle);
+                        }
+                        totals[m] += value;
+                    }
+                }
+
+                // Összesítő sor
+                Row totalRow = sheet.createRow(rowNum);
+                Cell totalLabel = totalRow.createCell(0);
+                totalLabel.setCellValue("összesen");
+                totalLabel.setCellStyle(boldStyle);
+                col = dimensions.size();
+                for (int m = 0; m < measures.size(); m++) {
+                    Cell cell = totalRow.createCell(col++);
+                    cell.setCellValue(totals[m]);
+                    cell.setCellStyle(measures.get(m) == PivotMeasure.PAYMENT ? currencyBoldStyle : boldStyle);
+                }
+
+                autoSizeColumns(sheet, 0, col);
+
+                String fileName = String.format("kimutatas_%s.xlsx",
+                        LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy_MM_dd_HHmmss")));
+                Path filePath = Paths.get(EXPORT_DIRECTORY, fileName);
+                ExportFiles.writeAtomically(filePath, temp -> {
+                    try (OutputStream fileOut = Files.newOutputStream(temp)) {
+                        workbook.write(fileOut);
+                    }
+                });
+                return filePath.toString();
+            }
+        });
     }
 
     /**
      * 1. "e-bev" munkalap - részletes munkanaplók
      */
-    private void createEbevWorksheet(Workbook workbook, List<WorkRecordFX> records) {
+    private void createEbevWorksheet(Workbook workbook, WorkbookStyles styles, List<WorkRecord> records) {
         Sheet sheet = workbook.createSheet("e-bev");
 
         // Stílusok
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle dateBoldStyle = createDateBoldStyle(workbook);
-        CellStyle currencyStyle = createCurrencyStyle(workbook);
-        CellStyle centerStyle = createCenterStyle(workbook);
+        CellStyle headerStyle = styles.header();
+        CellStyle dateBoldStyle = styles.dateBold();
+        CellStyle currencyStyle = styles.currency();
+        CellStyle centerStyle = styles.center();
 
         // Fejléc sor
         Row headerRow = sheet.createRow(0);
@@ -78,21 +254,21 @@ public class ExcelExporter {
         }
 
         // Adatok csoportosítása bejelentés szerint (dátum + időpont + e-BEV szám)
-        Map<String, List<WorkRecordFX>> groupedRecords = records.stream()
+        Map<String, List<WorkRecord>> groupedRecords = group(sheet, records, () -> records.stream()
                 .collect(Collectors.groupingBy(record ->
                         record.getNotificationDate().toString() + "_" +
                                 (record.getNotificationTime() != null ? record.getNotificationTime().toString() : "") + "_" +
                                 (record.getEbevSerialNumber() != null ? record.getEbevSerialNumber() : "")
-                ));
+                )));
 
         int rowNum = 1;
 
-        for (Map.Entry<String, List<WorkRecordFX>> entry : groupedRecords.entrySet()) {
-            List<WorkRecordFX> groupRecords = entry.getValue();
-            groupRecords.sort(Comparator.comparing(WorkRecordFX::getWorkDate));
+        for (Map.Entry<String, List<WorkRecord>> entry : groupedRecords.entrySet()) {
+            List<WorkRecord> groupRecords = entry.getValue();
+            groupRecords.sort(Comparator.comparing(WorkRecord::getWorkDate));
 
             for (int i = 0; i < groupRecords.size(); i++) {
-                WorkRecordFX record = groupRecords.get(i);
+                WorkRecord record = groupRecords.get(i);
                 Row row = sheet.createRow(rowNum++);
 
                 // Bejelentés adatai csak az első sornál
@@ -124,7 +300,7 @@ public class ExcelExporter {
 
                 // Dolgozó neve
                 Cell nameCell = row.createCell(4);
-                nameCell.setCellValue(record.getEmployeeName());
+                nameCell.setCellValue(employeeName(record));
 
                 // TAJ
                 Cell tajCell = row.createCell(5);
@@ -151,20 +327,18 @@ public class ExcelExporter {
         }
 
         // Oszlopszélességek beállítása
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
+        autoSizeColumns(sheet, 0, headers.length);
     }
 
     /**
      * 2. "dátum szerint" munkalap - dátum szerinti összesítés
      */
-    private void createDateBasedWorksheet(Workbook workbook, List<WorkRecordFX> records) {
+    private void createDateBasedWorksheet(Workbook workbook, WorkbookStyles styles, List<WorkRecord> records) {
         Sheet sheet = workbook.createSheet("dátum szerint");
 
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle dateBoldStyle = createDateBoldStyle(workbook);
-        CellStyle currencyStyle = createCurrencyStyle(workbook);
+        CellStyle headerStyle = styles.header();
+        CellStyle dateBoldStyle = styles.dateBold();
+        CellStyle currencyStyle = styles.currency();
 
         // Fejléc
         Row headerRow = sheet.createRow(1);
@@ -177,23 +351,23 @@ public class ExcelExporter {
         }
 
         // Adatok csoportosítása dátum szerint
-        Map<LocalDate, List<WorkRecordFX>> dateGroups = records.stream()
+        Map<LocalDate, List<WorkRecord>> dateGroups = group(sheet, records, () -> records.stream()
                 .collect(Collectors.groupingBy(
-                        WorkRecordFX::getWorkDate,
+                        WorkRecord::getWorkDate,
                         TreeMap::new,
                         Collectors.toList()
-                ));
+                )));
 
         int rowNum = 4; // 5. sortól kezdünk (0-indexelés miatt 4)
 
-        for (Map.Entry<LocalDate, List<WorkRecordFX>> dateEntry : dateGroups.entrySet()) {
+        for (Map.Entry<LocalDate, List<WorkRecord>> dateEntry : dateGroups.entrySet()) {
             LocalDate date = dateEntry.getKey();
-            List<WorkRecordFX> dayRecords = dateEntry.getValue();
+            List<WorkRecord> dayRecords = dateEntry.getValue();
 
             BigDecimal dayTotal = BigDecimal.ZERO;
 
             for (int i = 0; i < dayRecords.size(); i++) {
-                WorkRecordFX record = dayRecords.get(i);
+                WorkRecord record = dayRecords.get(i);
                 Row row = sheet.createRow(rowNum++);
 
                 // Dátum csak az első rekordnál - félkövér
@@ -205,7 +379,7 @@ public class ExcelExporter {
 
                 // Név
                 Cell nameCell = row.createCell(3);
-                nameCell.setCellValue(record.getEmployeeName());
+                nameCell.setCellValue(employeeName(record));
 
                 // Összeg
                 Cell amountCell = row.createCell(4);
@@ -228,39 +402,37 @@ public class ExcelExporter {
         }
 
         // Oszlopszélességek
-        for (int i = 2; i <= 5; i++) {
-            sheet.autoSizeColumn(i);
-        }
+        autoSizeColumns(sheet, 2, 6);
     }
 
     /**
      * 3. "név szerint" munkalap - dolgozók szerinti csoportosítás
      */
-    private void createEmployeeBasedWorksheet(Workbook workbook, List<WorkRecordFX> records) {
+    private void createEmployeeBasedWorksheet(Workbook workbook, WorkbookStyles styles, List<WorkRecord> records) {
         Sheet sheet = workbook.createSheet("név szerint");
 
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle boldStyle = createBoldStyle(workbook);
-        CellStyle dateBoldStyle = createDateBoldStyle(workbook);
-        CellStyle currencyBoldStyle = createCurrencyBoldStyle(workbook);
-        CellStyle currencyStyle = createCurrencyStyle(workbook);
+        CellStyle headerStyle = styles.header();
+        CellStyle boldStyle = styles.bold();
+        CellStyle dateBoldStyle = styles.dateBold();
+        CellStyle currencyBoldStyle = styles.currencyBold();
+        CellStyle currencyStyle = styles.currency();
 
         // Dolgozók szerinti csoportosítás
-        Map<String, List<WorkRecordFX>> employeeGroups = records.stream()
+        Map<String, List<WorkRecord>> employeeGroups = group(sheet, records, () -> records.stream()
                 .collect(Collectors.groupingBy(
-                        WorkRecordFX::getEmployeeName,
+                        ExcelExporter::employeeName,
                         LinkedHashMap::new,
                         Collectors.toList()
-                ));
+                )));
 
         int rowNum = 3; // 4. sortól kezdünk
 
-        for (Map.Entry<String, List<WorkRecordFX>> employeeEntry : employeeGroups.entrySet()) {
+        for (Map.Entry<String, List<WorkRecord>> employeeEntry : employeeGroups.entrySet()) {
             String employeeName = employeeEntry.getKey();
-            List<WorkRecordFX> employeeRecords = employeeEntry.getValue();
+            List<WorkRecord> employeeRecords = employeeEntry.getValue();
 
             // Ha van dolgozó adat, akkor megjelenítjük a személyes adatokat
-            WorkRecordFX firstRecord = employeeRecords.get(0);
+            WorkRecord firstRecord = employeeRecords.get(0);
             if (firstRecord.getEmployee() != null) {
                 // Név - félkövér
                 Row nameRow = sheet.createRow(rowNum++);
@@ -343,12 +515,12 @@ public class ExcelExporter {
             rowNum++; // Üres sor
 
             // Munkanaplók táblázata
-            employeeRecords.sort(Comparator.comparing(WorkRecordFX::getWorkDate));
+            employeeRecords.sort(Comparator.comparing(WorkRecord::getWorkDate));
 
             int totalHours = 0;
             BigDecimal totalPayment = BigDecimal.ZERO;
 
-            for (WorkRecordFX record : employeeRecords) {
+            for (WorkRecord record : employeeRecords) {
                 Row workRow = sheet.createRow(rowNum++);
 
                 // Dátum - félkövér
@@ -391,16 +563,14 @@ public class ExcelExporter {
     /**
      * 4. "ki hány napot dolgozott" munkalap - havi összesítő
      */
-    private void createMonthlySummaryWorksheet(Workbook workbook, List<WorkRecordFX> records,
+    private void createMonthlySummaryWorksheet(Workbook workbook, WorkbookStyles styles, List<WorkRecord> records,
                                                LocalDate startDate, LocalDate endDate) {
         Sheet sheet = workbook.createSheet("ki hány napot dolgozott");
 
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle currencyBoldStyle = createCurrencyBoldStyle(workbook);
-        CellStyle currencyStyle = createCurrencyStyle(workbook);
-        CellStyle centerStyle = createCenterStyle(workbook);
-        CellStyle topDashedBorderStyle = createTopDashedBorderStyle(workbook);
-        CellStyle bottomDashedBorderStyle = createBottomDashedBorderStyle(workbook);
+        CellStyle headerStyle = styles.header();
+        CellStyle currencyBoldTopStyle = styles.currencyBoldTopDashed();
+        CellStyle topDashedBorderStyle = styles.topDashed();
+        CellStyle bottomDashedBorderStyle = styles.bottomDashed();
 
         // Fejléc sorok
         Row row1 = sheet.createRow(1);
@@ -430,46 +600,44 @@ public class ExcelExporter {
         totalDaysHeader.setCellValue("munkanapok összesen");
         totalDaysHeader.setCellStyle(headerStyle);
 
-        // Dolgozók szerinti csoportosítás
-        Map<String, List<WorkRecordFX>> employeeGroups = records.stream()
-                .collect(Collectors.groupingBy(WorkRecordFX::getEmployeeName));
+        // Dolgozónkénti és havi összegek egy menetben az oszlopos pillanatképből
+        YearMonth firstMonth = YearMonth.of(startDate.getYear(), 1);
+        int months = (endDate.getYear() - startDate.getYear() + 1) * 12;
+
+        ExportGroupingEvent event = new ExportGroupingEvent();
+        event.begin();
+        WorkRecordSnapshot snapshot = WorkRecordSnapshot.of(records);
+        long[] monthlyPayments = snapshot.totalsByEmployeeAndMonth(WorkRecordSnapshot.Column.PAYMENT, firstMonth, months);
+        long[] monthlyDays = snapshot.totalsByEmployeeAndMonth(WorkRecordSnapshot.Column.RECORDS, firstMonth, months);
+        event.end();
+        if (event.shouldCommit()) {
+            event.setSheet(sheet.getSheetName());
+            event.setRecords(records.size());
+            event.setGroups(snapshot.employeeCount());
+            event.commit();
+        }
 
         int rowNum = 4; // 5. sortól kezdünk az adatokkal
 
-        for (Map.Entry<String, List<WorkRecordFX>> employeeEntry : employeeGroups.entrySet()) {
-            String employeeName = employeeEntry.getKey();
-            List<WorkRecordFX> employeeRecords = employeeEntry.getValue();
-
+        for (int employee = 0; employee < snapshot.employeeCount(); employee++) {
             Row dataRow = sheet.createRow(rowNum);
             Row daysRow = sheet.createRow(rowNum + 1);
 
             // Név - felső szaggatott keret
             Cell nameCell = dataRow.createCell(1);
-            nameCell.setCellValue(employeeName);
+            nameCell.setCellValue(snapshot.employeeName(employee));
             nameCell.setCellStyle(topDashedBorderStyle);
 
             Cell emptyNameCell = daysRow.createCell(1);
             emptyNameCell.setCellStyle(bottomDashedBorderStyle);
 
-            // Havi adatok számítása
-            Map<String, BigDecimal> monthlyPayments = new HashMap<>();
-            Map<String, Integer> monthlyDays = new HashMap<>();
-
-            for (WorkRecordFX record : employeeRecords) {
-                String monthKey = record.getWorkDate().format(YEAR_MONTH_FORMATTER);
-
-                monthlyPayments.merge(monthKey, record.getPayment(), BigDecimal::add);
-                monthlyDays.merge(monthKey, 1, Integer::sum);
-            }
-
             // Havi oszlopok kitöltése
-            currentMonth = LocalDate.of(startDate.getYear(), 1, 1);
             col = 2;
-            BigDecimal totalPayment = BigDecimal.ZERO;
-            int totalDays = 0;
+            long totalPayment = 0;
+            long totalDays = 0;
 
-            while (!currentMonth.isAfter(yearEnd)) {
-                String monthKey = currentMonth.format(YEAR_MONTH_FORMATTER);
+            for (int month = 0; month < months; month++) {
+                int index = employee * months + month;
 
                 Cell paymentCell = dataRow.createCell(col);
                 Cell daysCell = daysRow.createCell(col);
@@ -478,29 +646,21 @@ public class ExcelExporter {
                 paymentCell.setCellStyle(topDashedBorderStyle);
                 daysCell.setCellStyle(bottomDashedBorderStyle);
 
-                if (monthlyPayments.containsKey(monthKey)) {
-                    BigDecimal monthPayment = monthlyPayments.get(monthKey);
-                    paymentCell.setCellValue(monthPayment.doubleValue());
-
-                    int monthDays = monthlyDays.get(monthKey);
-                    daysCell.setCellValue(monthDays);
+                if (monthlyDays[index] > 0) {
+                    paymentCell.setCellValue(WorkRecordSnapshot.toPayment(monthlyPayments[index]).doubleValue());
+                    daysCell.setCellValue(monthlyDays[index]);
 
-                    totalPayment = totalPayment.add(monthPayment);
-                    totalDays += monthDays;
+                    totalPayment += monthlyPayments[index];
+                    totalDays += monthlyDays[index];
                 }
 
                 col++;
-                currentMonth = currentMonth.plusMonths(1);
             }
 
             // Összesen oszlopok - szaggatott keret továbbra is
             Cell totalPaymentCell = dataRow.createCell(col);
-            totalPaymentCell.setCellValue(totalPayment.doubleValue());
-            totalPaymentCell.setCellStyle(currencyBoldStyle);
-            // Felső keret hozzáadása a bérkifizetés összesen-hez
-            CellStyle currencyBoldTopStyle = workbook.createCellStyle();
-            currencyBoldTopStyle.cloneStyleFrom(currencyBoldStyle);
-            currencyBoldTopStyle.setBorderTop(BorderStyle.DASHED);
+            totalPaymentCell.setCellValue(WorkRecordSnapshot.toPayment(totalPayment).doubleValue());
+            // Felső keret a bérkifizetés összesen-hez (közös stílus, nem soronkénti másolat)
             totalPaymentCell.setCellStyle(currencyBoldTopStyle);
 
             Cell totalDaysCell = dataRow.createCell(col + 1);
@@ -519,104 +679,55 @@ public class ExcelExporter {
 
         // Oszlopszélességek
         sheet.setColumnWidth(1, 5000); // Név oszlop szélesebb
-        for (int i = 2; i < col + 2; i++) {
-            sheet.autoSizeColumn(i);
-        }
+        autoSizeColumns(sheet, 2, col + 2);
     }
 
-    // Segéd metódusok a stílusokhoz
-    private CellStyle createHeaderStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        Font font = workbook.createFont();
-        font.setBold(true);
-        style.setFont(font);
-        style.setFillForegroundColor(IndexedColors.LIGHT_GREEN.getIndex());
-        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        style.setBorderBottom(BorderStyle.THIN);
-        style.setBorderTop(BorderStyle.THIN);
-        style.setBorderLeft(BorderStyle.THIN);
-        style.setBorderRight(BorderStyle.THIN);
-        style.setAlignment(HorizontalAlignment.CENTER);
-        return style;
-    }
-
-    private CellStyle createDateStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setDataFormat(workbook.createDataFormat().getFormat("yyyy.mm.dd"));
-        style.setAlignment(HorizontalAlignment.CENTER);
-        return style;
-    }
-
-    private CellStyle createDateBoldStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        Font font = workbook.createFont();
-        font.setBold(true);
-        style.setFont(font);
-        style.setDataFormat(workbook.createDataFormat().getFormat("yyyy.mm.dd"));
-        style.setAlignment(HorizontalAlignment.CENTER);
-        return style;
-    }
-
-    private CellStyle createCurrencyStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setDataFormat(workbook.createDataFormat().getFormat("#,##0 \"Ft\""));
-        style.setAlignment(HorizontalAlignment.RIGHT);
-        return style;
-    }
-
-    private CellStyle createCurrencyBoldStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        Font font = workbook.createFont();
-        font.setBold(true);
-        style.setFont(font);
-        style.setDataFormat(workbook.createDataFormat().getFormat("#,##0 \"Ft\""));
-        style.setAlignment(HorizontalAlignment.RIGHT);
-        return style;
-    }
-
-    private CellStyle createCenterStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setAlignment(HorizontalAlignment.CENTER);
-        return style;
-    }
-
-    private CellStyle createBoldStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        Font font = workbook.createFont();
-        font.setBold(true);
-        style.setFont(font);
-        return style;
-    }
-
-    private CellStyle createDashedBorderStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setBorderBottom(BorderStyle.DASHED);
-        style.setBorderTop(BorderStyle.DASHED);
-        // Oldalak nyitva maradnak - nincs bal és jobb keret
-        style.setAlignment(HorizontalAlignment.CENTER);
-        return style;
+    /**
+     * Csoportosítás JFR eseménnyel (munkalap, rekordok és csoportok száma)
+     */
+    private static <K> Map<K, List<WorkRecord>> group(Sheet sheet, List<WorkRecord> records,
+                                                         Supplier<Map<K, List<WorkRecord>>> grouping) {
+        ExportGroupingEvent event = new ExportGroupingEvent();
+        event.begin();
+        Map<K, List<WorkRecord>> groups = grouping.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.setSheet(sheet.getSheetName());
+            event.setRecords(records.size());
+            event.setGroups(groups.size());
+            event.commit();
+        }
+        return groups;
     }
 
-    private CellStyle createTopDashedBorderStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setBorderTop(BorderStyle.DASHED);
-        // Csak felső keret
-        style.setAlignment(HorizontalAlignment.CENTER);
-        return style;
+    /**
+     * Oszlopszélességek automatikus beállítása [from, to) tartományban, oszloponként JFR eseménnyel
+     */
+    private static void autoSizeColumns(Sheet sheet, int from, int to) {
+        for (int i = from; i < to; i++) {
+            AutoSizeColumnEvent event = new AutoSizeColumnEvent();
+            event.begin();
+            sheet.autoSizeColumn(i);
+            event.end();
+            if (event.shouldCommit()) {
+                event.setSheet(sheet.getSheetName());
+                event.setColumn(i);
+                event.setRows(sheet.getPhysicalNumberOfRows());
+                event.commit();
+            }
+        }
     }
 
-    private CellStyle createBottomDashedBorderStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setBorderBottom(BorderStyle.DASHED);
-        // Csak alsó keret
-        style.setAlignment(HorizontalAlignment.CENTER);
-        return style;
+    private static String employeeName(WorkRecord record) {
+        return record.getEmployee() != null && record.getEmployee().getName() != null
+                ? record.getEmployee().getName() : "";
     }
 
-    private void createExportDirectory() throws Exception {
-        Path directory = Paths.get(EXPORT_DIRECTORY);
-        if (!Files.exists(directory)) {
-            Files.createDirectory(directory);
+    private static int countRows(Workbook workbook) {
+        int rows = 0;
+        for (Sheet sheet : workbook) {
+            rows += sheet.getPhysicalNumberOfRows();
         }
+        return rows;
     }
-}
\ No newline at end of file
+}
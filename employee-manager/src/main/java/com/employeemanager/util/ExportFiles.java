@@ -0,0 +1,55 @@
+package com.employeemanager.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Export fájlok biztonságos írása: a tartalom egyedi nevű ideiglenes fájlba készül ugyanabban a könyvtárban
+ * (így egyszerre futó exportok sem írják egymás ideiglenes fájlját), és csak
+ * hiánytalanul elkészülve kerül atomi átnevezéssel a végleges helyére. Hiba, megszakítás vagy összeomlás
+ * esetén a korábbi fájl érintetlen marad, félig írt export nem jelenik meg.
+ */
+@Slf4j
+public final class ExportFiles {
+
+    public static final String TEMP_SUFFIX = ".tmp";
+
+    @FunctionalInterface
+    public interface Content {
+        void write(Path temp) throws Exception;
+    }
+
+    private ExportFiles() {
+    }
+
+    public static void writeAtomically(Path target, Content content) throws Exception {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, target.getFileName() + ".", TEMP_SUFFIX);
+
+        try {
+            content.write(temp);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (Exception e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary file {}", file);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.employeemanager.util;
+
+import javafx.concurrent.Task;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Háttérlekérdezések futtatása úgy, hogy mindig csak a legutóbb indított eredménye jusson érvényre.
+ * Minden kérés sorszámot kap; új kérés a korábbit megszakítja, a már elavult kérés eredménye
+ * (akkor is, ha a megszakítás előtt elkészült) eldobásra kerül. Az FX szálról hívandó.
+ */
+public class LatestTaskRunner {
+
+    private final ExecutorService executor;
+    private long sequence;
+    private Task<?> running;
+
+    public LatestTaskRunner(String threadName) {
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <T> long submit(Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        cancel();
+        long requestSequence = ++sequence;
+
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return work.call();
+            }
+        };
+        task.setOnSucceeded(event -> {
+            if (isLatest(requestSequence)) {
+                running = null;
+                onSuccess.accept(task.getValue());
+            }
+        });
+        task.setOnFailed(event -> {
+            if (isLatest(requestSequence)) {
+                running = null;
+                onFailure.accept(task.getException());
+            }
+        });
+
+        running = task;
+        executor.execute(task);
+        return requestSequence;
+    }
+
+    /**
+     * A folyamatban lévő kérés megszakítása; az eredménye már nem kerül alkalmazásra
+     */
+    public void cancel() {
+        sequence++;
+        if (running != null) {
+            running.cancel(true);
+            running = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running != null;
+    }
+
+    private boolean isLatest(long requestSequence) {
+        return requestSequence == sequence;
+    }
+}
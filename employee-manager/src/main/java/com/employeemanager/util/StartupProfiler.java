@@ -0,0 +1,91 @@
+package com.employeemanager.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Indulási idő mérése fázisonként (JVM indulásától számítva).
+ * A fázisok párhuzamosan is futhatnak, ezért mindegyiknek külön kezdete és vége van.
+ * Az első interaktív ablak megjelenésekor a bontás a logba és a startup-times.csv fájlba kerül.
+ */
+@Slf4j
+public final class StartupProfiler {
+
+    public static final String LOG_FILE_PROPERTY = "employeemanager.startup.log";
+    public static final String EXIT_AFTER_INTERACTIVE_PROPERTY = "employeemanager.startup.exit-after-interactive";
+
+    private static final String DEFAULT_LOG_FILE = "startup-times.csv";
+    private static final long JVM_START_MILLIS = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    private static final Map<String, Long> phaseStarts = new LinkedHashMap<>();
+    private static final Map<String, Long> phaseDurations = new LinkedHashMap<>();
+    private static volatile boolean reported = false;
+
+    private StartupProfiler() {
+    }
+
+    /**
+     * Eltelt idő a JVM indulása óta (ms)
+     */
+    public static long sinceJvmStart() {
+        return System.currentTimeMillis() - JVM_START_MILLIS;
+    }
+
+    public static synchronized void begin(String phase) {
+        phaseStarts.put(phase, sinceJvmStart());
+    }
+
+    public static synchronized void end(String phase) {
+        Long start = phaseStarts.get(phase);
+        if (start != null) {
+            phaseDurations.put(phase, sinceJvmStart() - start);
+        }
+    }
+
+    /**
+     * Az első interaktív ablak megjelenése - lezárja a mérést és kiírja az eredményt
+     */
+    public static void firstInteractive() {
+        if (reported) {
+            return;
+        }
+        reported = true;
+
+        long total = sinceJvmStart();
+        String breakdown;
+        synchronized (StartupProfiler.class) {
+            breakdown = phaseDurations.entrySet().stream()
+                    .map(entry -> entry.getKey() + "@" + phaseStarts.get(entry.getKey()) + "+" + entry.getValue())
+                    .collect(Collectors.joining(";"));
+        }
+
+        log.info("Time to first interactive window: {} ms [{}]", total, breakdown);
+        appendToLog(total, breakdown);
+    }
+
+    public static boolean isExitAfterInteractive() {
+        return Boolean.getBoolean(EXIT_AFTER_INTERACTIVE_PROPERTY);
+    }
+
+    private static void appendToLog(long total, String breakdown) {
+        Path logFile = Paths.get(System.getProperty(LOG_FILE_PROPERTY, DEFAULT_LOG_FILE));
+        String line = String.format("%s,%d,%s%n",
+                LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), total, breakdown);
+        try {
+            Files.writeString(logFile, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.warn("Could not write startup timing to {}: {}", logFile, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.employeemanager.util;
+
+import com.employeemanager.diagnostics.OperationMetrics;
+import com.employeemanager.model.WorkRecord;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Sablon alapú export: a templates könyvtár minden .xlsx fájlja egy elrendezés, új elrendezéshez elég
+ * egy újabb sablon (lásd TemplatePlan). A sablonok első használatkor fordulnak le, a terv a fájl
+ * módosításáig a memóriában marad. Üres könyvtárba egy kiinduló sablon kerül, amely Excelben átszerkeszthető.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TemplateExporter {
+
+    public static final String TEMPLATE_DIRECTORY = "templates";
+
+    private static final String EXPORT_DIRECTORY = "exports";
+    private static final String TEMPLATE_EXTENSION = ".xlsx";
+    private static final String DEFAULT_TEMPLATE = "munkanaplo_lista.xlsx";
+
+    private final OperationMetrics metrics;
+
+    private final Map<Path, CompiledTemplate> plans = new ConcurrentHashMap<>();
+
+    /**
+     * Elérhető sablonok neve (kiterjesztés nélkül)
+     */
+    public List<String> getAvailableTemplates() throws IOException {
+        Path directory = Paths.get(TEMPLATE_DIRECTORY);
+        if (!Files.isDirectory(directory)) {
+            Files.createDirectories(directory);
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            List<String> templates = files
+                    .map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(TEMPLATE_EXTENSION) && !name.startsWith("~$"))
+                    .map(name -> name.substring(0, name.length() - TEMPLATE_EXTENSION.length()))
+                    .sorted()
+                    .collect(Collectors.toList());
+            if (!templates.isEmpty()) {
+                return templates;
+            }
+        }
+
+        writeDefaultTemplate(directory.resolve(DEFAULT_TEMPLATE));
+        return List.of(DEFAULT_TEMPLATE.substring(0, DEFAULT_TEMPLATE.length() - TEMPLATE_EXTENSION.length()));
+    }
+
+    public String exportWorkRecords(String template, List<WorkRecord> records, LocalDate startDate, LocalDate endDate)
+            throws Exception {
+        return metrics.timePhase(OperationMetrics.EXPORT_PHASE, "template", () -> {
+            TemplatePlan plan = plan(Paths.get(TEMPLATE_DIRECTORY, template + TEMPLATE_EXTENSION));
+
+            Path filePath = Paths.get(EXPORT_DIRECTORY, String.format("%s_%s_%s.xlsx", template,
+                    startDate.format(DateTimeFormatter.ofPattern("yyyy_MM_dd")),
+                    endDate.format(DateTimeFormatter.ofPattern("yyyy_MM_dd"))));
+            ExportFiles.writeAtomically(filePath, temp -> {
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    plan.write(records, out);
+                }
+            });
+            return filePath.toString();
+        });
+    }
+
+    /**
+     * Lefordított terv; a sablon módosításakor újrafordul
+     */
+    private TemplatePlan plan(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("A sablon nem található: " + file);
+        }
+
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        CompiledTemplate cached = plans.get(file);
+        if (cached != null && cached.modified == modified) {
+            return cached.plan;
+        }
+
+        long start = System.nanoTime();
+        TemplatePlan plan;
+        try (InputStream in = Files.newInputStream(file)) {
+            plan = TemplatePlan.compile(in);
+        }
+        plans.put(file, new CompiledTemplate(modified, plan));
+        log.info("Compiled export template {} in {} ms", file, (System.nanoTime() - start) / 1_000_000);
+        return plan;
+    }
+
+    /**
+     * Kiinduló sablon: az e-bev lista oszlopai a dolgozó adataival, fejléccel és formázott adatsorral
+     */
+    private void writeDefaultTemplate(Path file) throws IOException {
+        String[][] columns = {
+                {"bejelentés dátuma", "${notificationDate}"},
+                {"időpont", "${notificationTime}"},
+                {"e-BEV sorszám", "${ebevSerialNumber}"},
+                {"munkavégzés napja", "${workDate}"},
+                {"név", "${employee.name}"},
+                {"TAJ szám", "${employee.socialSecurityNumber}"},
+                {"adóazonosító", "${employee.taxNumber}"},
+                {"bér", "${payment}"},
+                {"óra", "${hoursWorked}"}
+        };
+
+        try (Workbook workbook = new XSSFWorkbook()) {
+            WorkbookStyles styles = new WorkbookStyles(workbook);
+            Sheet sheet = workbook.createSheet("munkanaplók");
+            Row header = sheet.createRow(0);
+            Row data = sheet.createRow(1);
+
+            for (int col = 0; col < columns.length; col++) {
+                header.createCell(col).setCellValue(columns[col][0]);
+                header.getCell(col).setCellStyle(styles.header());
+
+                data.createCell(col).setCellValue(columns[col][1]);
+                String field = columns[col][1];
+                if (field.endsWith("Date}")) {
+                    data.getCell(col).setCellStyle(styles.dateBold());
+                } else if (field.equals("${payment}")) {
+                    data.getCell(col).setCellStyle(styles.currency());
+                } else if (!field.startsWith("${employee.name")) {
+                    data.getCell(col).setCellStyle(styles.center());
+                }
+                sheet.setColumnWidth(col, 5000);
+            }
+            sheet.createFreezePane(0, 1);
+
+            try (OutputStream out = Files.newOutputStream(file)) {
+                workbook.write(out);
+            }
+        }
+        log.info("Default export template written to {}", file);
+    }
+
+    @AllArgsConstructor
+    private static final class CompiledTemplate {
+        private final long modified;
+        private final TemplatePlan plan;
+    }
+}
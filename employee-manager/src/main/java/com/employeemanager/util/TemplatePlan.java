@@ -0,0 +1,213 @@
+package com.employeemanager.util;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Excel sablonból fordított export terv. A sablon minden munkalapján az utolsó sor az adatsor: celláiban
+ * ${mező} helyőrzők (vagy állandó szövegek) állnak, a fölötte lévő sorok (fejléc, cím) változatlanul
+ * maradnak. Fordításkor az adatsor oszlopai, stílus indexei és mezői rögzülnek, a sablon az adatsor nélkül
+ * kerül a memóriába; exportkor csak ennek megnyitása és a sorok streamelt írása marad.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class TemplatePlan {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([\\w.]+)}");
+    private static final int ROW_WINDOW = 500;
+
+    private final byte[] template;
+    private final List<SheetPlan> sheets;
+
+    /**
+     * Sablon fordítása; hibás sablonnál IllegalArgumentException a hiba helyével
+     */
+    public static TemplatePlan compile(InputStream in) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(in)) {
+            List<SheetPlan> sheets = new ArrayList<>();
+
+            for (int s = 0; s < workbook.getNumberOfSheets(); s++) {
+                Sheet sheet = workbook.getSheetAt(s);
+                Row dataRow = sheet.getRow(sheet.getLastRowNum());
+                if (dataRow == null || !hasPlaceholder(dataRow)) {
+                    // Adatsor nélküli munkalap (pl. leírás) változatlanul kerül az exportba
+                    continue;
+                }
+
+                List<CellPlan> cells = new ArrayList<>();
+                for (Cell cell : dataRow) {
+                    cells.add(compileCell(sheet, cell));
+                }
+                sheets.add(new SheetPlan(s, dataRow.getRowNum(), dataRow.getHeight(), cells));
+                sheet.removeRow(dataRow);
+            }
+
+            if (sheets.isEmpty()) {
+                throw new IllegalArgumentException("A sablonban nincs ${mező} helyőrzőket tartalmazó adatsor");
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            workbook.write(out);
+            return new TemplatePlan(out.toByteArray(), sheets);
+        }
+    }
+
+    /**
+     * A rekordok kiírása a sablon minden adatsoros munkalapjára; a kimenetet nem zárja le
+     */
+    public void write(List<WorkRecord> records, OutputStream out) throws IOException {
+        try (XSSFWorkbook base = new XSSFWorkbook(new ByteArrayInputStream(template))) {
+            SXSSFWorkbook workbook = new SXSSFWorkbook(base, ROW_WINDOW);
+            try {
+                for (SheetPlan plan : sheets) {
+                    Sheet sheet = workbook.getSheetAt(plan.sheetIndex);
+                    CellStyle[] styles = new CellStyle[plan.cells.size()];
+                    for (int i = 0; i < styles.length; i++) {
+                        styles[i] = workbook.getCellStyleAt(plan.cells.get(i).styleIndex);
+                    }
+
+                    int rowNum = plan.firstRow;
+                    for (WorkRecord record : records) {
+                        Row row = sheet.createRow(rowNum++);
+                        row.setHeight(plan.rowHeight);
+                        for (int i = 0; i < styles.length; i++) {
+                            CellPlan cellPlan = plan.cells.get(i);
+                            Cell cell = row.createCell(cellPlan.column);
+                            cell.setCellStyle(styles[i]);
+                            setValue(cell, cellPlan.value(record));
+                        }
+                    }
+                }
+                workbook.write(out);
+            } finally {
+                workbook.dispose();
+            }
+        }
+    }
+
+    private static CellPlan compileCell(Sheet sheet, Cell cell) {
+        int styleIndex = cell.getCellStyle().getIndex();
+        if (cell.getCellType() != CellType.STRING) {
+            return new CellPlan(cell.getColumnIndex(), styleIndex, null, null);
+        }
+
+        String text = cell.getStringCellValue();
+        Matcher matcher = PLACEHOLDER.matcher(text.trim());
+        if (!matcher.matches()) {
+            return new CellPlan(cell.getColumnIndex(), styleIndex, null, text);
+        }
+
+        Field field = Field.parse(matcher.group(1));
+        if (field == null) {
+            throw new IllegalArgumentException(String.format("Ismeretlen mező a(z) \"%s\" munkalap %s cellájában: %s",
+                    sheet.getSheetName(), cell.getAddress().formatAsString(), text));
+        }
+        return new CellPlan(cell.getColumnIndex(), styleIndex, field, null);
+    }
+
+    private static boolean hasPlaceholder(Row row) {
+        for (Cell cell : row) {
+            if (cell.getCellType() == CellType.STRING && PLACEHOLDER.matcher(cell.getStringCellValue()).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void setValue(Cell cell, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof LocalDate) {
+            cell.setCellValue((LocalDate) value);
+        } else if (value instanceof BigDecimal) {
+            cell.setCellValue(((BigDecimal) value).doubleValue());
+        } else if (value instanceof Number) {
+            cell.setCellValue(((Number) value).doubleValue());
+        } else {
+            cell.setCellValue(value.toString());
+        }
+    }
+
+    /**
+     * A sablonban használható mezők; a dolgozó adatai "employee." előtaggal
+     */
+    @AllArgsConstructor
+    public enum Field {
+        ID("id", WorkRecord::getId),
+        NOTIFICATION_DATE("notificationDate", WorkRecord::getNotificationDate),
+        NOTIFICATION_TIME("notificationTime", record -> FirebaseDateConverter.timeToString(record.getNotificationTime())),
+        EBEV_SERIAL_NUMBER("ebevSerialNumber", WorkRecord::getEbevSerialNumber),
+        WORK_DATE("workDate", WorkRecord::getWorkDate),
+        HOURS_WORKED("hoursWorked", WorkRecord::getHoursWorked),
+        PAYMENT("payment", WorkRecord::getPayment),
+        EMPLOYEE_NAME("employee.name", record -> employee(record, Employee::getName)),
+        EMPLOYEE_BIRTH_PLACE("employee.birthPlace", record -> employee(record, Employee::getBirthPlace)),
+        EMPLOYEE_BIRTH_DATE("employee.birthDate", record -> employee(record, Employee::getBirthDate)),
+        EMPLOYEE_MOTHER_NAME("employee.motherName", record -> employee(record, Employee::getMotherName)),
+        EMPLOYEE_TAX_NUMBER("employee.taxNumber", record -> employee(record, Employee::getTaxNumber)),
+        EMPLOYEE_SOCIAL_SECURITY_NUMBER("employee.socialSecurityNumber",
+                record -> employee(record, Employee::getSocialSecurityNumber)),
+        EMPLOYEE_ADDRESS("employee.address", record -> employee(record, Employee::getAddress));
+
+        @Getter
+        private final String key;
+        private final Function<WorkRecord, Object> accessor;
+
+        static Field parse(String key) {
+            for (Field field : values()) {
+                if (field.key.toLowerCase(Locale.ROOT).equals(key.toLowerCase(Locale.ROOT))) {
+                    return field;
+                }
+            }
+            return null;
+        }
+
+        private static Object employee(WorkRecord record, Function<Employee, Object> accessor) {
+            return record.getEmployee() != null ? accessor.apply(record.getEmployee()) : null;
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class SheetPlan {
+        private final int sheetIndex;
+        private final int firstRow;
+        private final short rowHeight;
+        private final List<CellPlan> cells;
+    }
+
+    @AllArgsConstructor
+    private static final class CellPlan {
+        private final int column;
+        private final int styleIndex;
+        private final Field field;
+        private final String constant;
+
+        private Object value(WorkRecord record) {
+            return field != null ? field.accessor.apply(record) : constant;
+        }
+    }
+}
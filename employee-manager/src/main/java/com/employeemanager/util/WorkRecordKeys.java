@@ -0,0 +1,77 @@
+package com.employeemanager.util;
+
+import com.employeemanager.model.WorkRecord;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Determinisztikus munkanapló dokumentum ID: dolgozó + munkavégzés napja (+ e-BEV sorszám).
+ * Ugyanaz a bejegyzés mindig ugyanarra az ID-ra kerül, így a mentés idempotens felülírás,
+ * a duplikáció ellenőrzése pedig egyetlen közvetlen dokumentum olvasás.
+ */
+public class WorkRecordKeys {
+
+    private static final DateTimeFormatter KEY_DATE_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * @return az ID, vagy null, ha a rekordból hiányzik a dolgozó vagy a munkavégzés dátuma
+     */
+    public static String documentId(WorkRecord record) {
+        if (record.getEmployee() == null || record.getEmployee().getId() == null || record.getWorkDate() == null) {
+            return null;
+        }
+
+        StringBuilder id = new StringBuilder()
+                .append(encode(record.getEmployee().getId()))
+                .append('_')
+                .append(record.getWorkDate().format(KEY_DATE_FORMATTER));
+
+        String ebev = record.getEbevSerialNumber();
+        if (ebev != null && !ebev.isBlank()) {
+            id.append('_').append(encode(ebev.trim()));
+        }
+        return id.toString();
+    }
+
+    /**
+     * A munkavégzés hónapja egy {@link #documentId} által készített ID-ból; más (régi, véletlen) ID-nál null
+     */
+    public static YearMonth workMonth(String documentId) {
+        String[] parts = documentId.split("_", -1);
+        if (parts.length < 2 || parts.length > 3 || parts[0].isEmpty()) {
+            return null;
+        }
+        try {
+            return YearMonth.from(LocalDate.parse(parts[1], KEY_DATE_FORMATTER));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    public static boolean hasId(WorkRecord record) {
+        return record.getId() != null && !record.getId().isEmpty();
+    }
+
+    /**
+     * Visszafejthető kódolás: a betűk, számjegyek és a '-' maradnak, minden más karakter UTF-8 bájtjai %XX
+     * alakban (így a '/' tiltott jel, az '_' elválasztó és maga a '%' sem kerül nyersen az ID-ba).
+     * Különböző értékekből ezért soha nem lesz azonos ID ("AB/12", "AB-12" és "AB 12" is különbözik).
+     */
+    static String encode(String value) {
+        StringBuilder encoded = new StringBuilder(value.length());
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-') {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(HEX[(b >> 4) & 0x0F]).append(HEX[b & 0x0F]);
+            }
+        }
+        return encoded.toString();
+    }
+}
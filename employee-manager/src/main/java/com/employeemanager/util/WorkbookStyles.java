@@ -0,0 +1,138 @@
+package com.employeemanager.util;
+
+import lombok.Value;
+import lombok.With;
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Munkafüzetenkénti stílus nyilvántartás: az azonos tulajdonságú cellastílusok és betűtípusok csak egyszer
+ * jönnek létre, a munkalapok közösen használják őket. Így a styles.xml mérete nem függ a munkalapok és
+ * a dolgozók számától, és nem érhető el az Excel stílus korlátja.
+ */
+public class WorkbookStyles {
+
+    public static final String DATE_FORMAT = "yyyy.mm.dd";
+    public static final String CURRENCY_FORMAT = "#,##0 \"Ft\"";
+
+    private final Workbook workbook;
+    private final Map<Spec, CellStyle> styles = new HashMap<>();
+    private final Map<Boolean, Font> fonts = new HashMap<>();
+    private final Map<String, Short> formats = new HashMap<>();
+
+    public WorkbookStyles(Workbook workbook) {
+        this.workbook = workbook;
+    }
+
+    public CellStyle header() {
+        return get(Spec.PLAIN.withBold(true)
+                .withFill(IndexedColors.LIGHT_GREEN)
+                .withBorderTop(BorderStyle.THIN)
+                .withBorderBottom(BorderStyle.THIN)
+                .withBorderLeft(BorderStyle.THIN)
+                .withBorderRight(BorderStyle.THIN)
+                .withAlignment(HorizontalAlignment.CENTER));
+    }
+
+    public CellStyle bold() {
+        return get(Spec.PLAIN.withBold(true));
+    }
+
+    public CellStyle center() {
+        return get(Spec.PLAIN.withAlignment(HorizontalAlignment.CENTER));
+    }
+
+    public CellStyle dateBold() {
+        return get(Spec.PLAIN.withBold(true).withDataFormat(DATE_FORMAT).withAlignment(HorizontalAlignment.CENTER));
+    }
+
+    public CellStyle currency() {
+        return get(Spec.PLAIN.withDataFormat(CURRENCY_FORMAT).withAlignment(HorizontalAlignment.RIGHT));
+    }
+
+    public CellStyle currencyBold() {
+        return get(Spec.PLAIN.withBold(true).withDataFormat(CURRENCY_FORMAT).withAlignment(HorizontalAlignment.RIGHT));
+    }
+
+    /**
+     * Félkövér összeg felső szaggatott kerettel (havi összesítő, dolgozónkénti összesen)
+     */
+    public CellStyle currencyBoldTopDashed() {
+        return get(Spec.PLAIN.withBold(true).withDataFormat(CURRENCY_FORMAT).withAlignment(HorizontalAlignment.RIGHT)
+                .withBorderTop(BorderStyle.DASHED));
+    }
+
+    public CellStyle topDashed() {
+        return get(Spec.PLAIN.withBorderTop(BorderStyle.DASHED).withAlignment(HorizontalAlignment.CENTER));
+    }
+
+    public CellStyle bottomDashed() {
+        return get(Spec.PLAIN.withBorderBottom(BorderStyle.DASHED).withAlignment(HorizontalAlignment.CENTER));
+    }
+
+    /**
+     * A tulajdonságoknak megfelelő stílus; először kéréskor jön létre a munkafüzetben
+     */
+    public CellStyle get(Spec spec) {
+        return styles.computeIfAbsent(spec, this::create);
+    }
+
+    /**
+     * A munkafüzetben eddig létrehozott stílusok száma
+     */
+    public int size() {
+        return styles.size();
+    }
+
+    private CellStyle create(Spec spec) {
+        CellStyle style = workbook.createCellStyle();
+        if (spec.isBold()) {
+            style.setFont(fonts.computeIfAbsent(true, bold -> {
+                Font font = workbook.createFont();
+                font.setBold(true);
+                return font;
+            }));
+        }
+        if (spec.getDataFormat() != null) {
+            style.setDataFormat(formats.computeIfAbsent(spec.getDataFormat(),
+                    format -> workbook.createDataFormat().getFormat(format)));
+        }
+        if (spec.getFill() != null) {
+            style.setFillForegroundColor(spec.getFill().getIndex());
+            style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        }
+        style.setAlignment(spec.getAlignment());
+        style.setBorderTop(spec.getBorderTop());
+        style.setBorderBottom(spec.getBorderBottom());
+        style.setBorderLeft(spec.getBorderLeft());
+        style.setBorderRight(spec.getBorderRight());
+        return style;
+    }
+
+    /**
+     * Cellastílus tulajdonságai; az egyenlőség alapján dől el, hogy új stílus kell-e
+     */
+    @Value
+    @With
+    public static class Spec {
+        public static final Spec PLAIN = new Spec(false, null, HorizontalAlignment.GENERAL, null,
+                BorderStyle.NONE, BorderStyle.NONE, BorderStyle.NONE, BorderStyle.NONE);
+
+        boolean bold;
+        String dataFormat;
+        HorizontalAlignment alignment;
+        IndexedColors fill;
+        BorderStyle borderTop;
+        BorderStyle borderBottom;
+        BorderStyle borderLeft;
+        BorderStyle borderRight;
+    }
+}
@@ -0,0 +1,217 @@
+package com.employeemanager.analytics;
+
+import com.employeemanager.analytics.PivotEngine.GroupTable;
+import com.employeemanager.analytics.PivotQuery.DateBasis;
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PivotEngineTest {
+
+    private static final Employee BELA = employee("e1", "Béla");
+    private static final Employee ABEL = employee("e2", "Ábel");
+    private static final Employee ADAM = employee("e3", "Ádám");
+
+    private final PivotEngine engine = new PivotEngine();
+
+    @Test
+    void groupTableSumsPerKeyAcrossResizes() {
+        GroupTable table = new GroupTable();
+        for (int round = 0; round < 3; round++) {
+            for (long group = 0; group < 10_000; group++) {
+                table.add(group * 7919, 1, group, 2 * group);
+            }
+        }
+
+        long[] keys = table.keys();
+        assertThat(keys).hasSize(10_000);
+        Arrays.sort(keys);
+        assertThat(keys[0]).isZero();
+        assertThat(keys[9_999]).isEqualTo(9_999L * 7919);
+
+        int slot = table.find(1234L * 7919);
+        assertThat(table.days[slot]).isEqualTo(3);
+        assertThat(table.hours[slot]).isEqualTo(3 * 1234);
+        assertThat(table.payment[slot]).isEqualTo(6 * 1234);
+    }
+
+    @Test
+    void groupTableMergeAddsOverlappingKeys() {
+        GroupTable left = new GroupTable();
+        left.add(1, 1, 8, 100);
+        left.add(2, 1, 4, 50);
+        GroupTable right = new GroupTable();
+        right.add(2, 2, 6, 70);
+        right.add(Long.MAX_VALUE, 1, 1, 1);
+
+        left.addAll(right);
+
+        assertThat(left.keys()).containsExactlyInAnyOrder(1, 2, Long.MAX_VALUE);
+        int slot = left.find(2);
+        assertThat(left.days[slot]).isEqualTo(3);
+        assertThat(left.hours[slot]).isEqualTo(10);
+        assertThat(left.payment[slot]).isEqualTo(120);
+    }
+
+    @Test
+    void weeksStartOnMonday() {
+        for (LocalDate day = LocalDate.of(1969, 12, 1); day.isBefore(LocalDate.of(1970, 2, 1)); day = day.plusDays(1)) {
+            LocalDate monday = LocalDate.ofEpochDay(PivotEngine.weekStart(PivotEngine.week((int) day.toEpochDay())));
+            assertThat(monday.getDayOfWeek()).isEqualTo(DayOfWeek.MONDAY);
+            assertThat(monday).isAfter(day.minusDays(7)).isBeforeOrEqualTo(day);
+        }
+    }
+
+    @Test
+    void rowsAreSortedByDimensionKeysWithHungarianNameOrder() {
+        WorkRecordSnapshot snapshot = WorkRecordSnapshot.of(List.of(
+                record(BELA, LocalDate.of(2025, 2, 3), 8, "1000"),
+                record(ABEL, LocalDate.of(2025, 3, 4), 4, "500"),
+                record(ADAM, LocalDate.of(2025, 2, 5), 2, "250"),
+                record(BELA, LocalDate.of(2025, 2, 6), 6, "750"),
+                record(ABEL, LocalDate.of(2025, 2, 7), 1, "125")));
+
+        PivotResult result = engine.pivot(snapshot,
+                PivotQuery.of(DateBasis.WORK_DATE, PivotDimension.EMPLOYEE, PivotDimension.MONTH));
+
+        assertThat(labels(result)).containsExactly(
+                "Ábel 2025.02.", "Ábel 2025.03.", "Ádám 2025.02.", "Béla 2025.02.");
+        PivotResult.Row bela = result.getRows().get(3);
+        assertThat(bela.getDays()).isEqualTo(2);
+        assertThat(bela.getHours()).isEqualTo(14);
+        assertThat(result.value(bela, PivotMeasure.PAYMENT)).isEqualTo(1750.0);
+    }
+
+    @Test
+    void keysBeforeEpochArePackedAndDecoded() {
+        WorkRecordSnapshot snapshot = WorkRecordSnapshot.of(List.of(
+                record(BELA, LocalDate.of(1969, 12, 31), 1, "0"),
+                record(BELA, LocalDate.of(1970, 1, 1), 2, "0"),
+                record(ABEL, LocalDate.of(1969, 12, 31), 4, "0")));
+
+        PivotResult result = engine.pivot(snapshot,
+                PivotQuery.of(DateBasis.WORK_DATE, PivotDimension.DAY, PivotDimension.EMPLOYEE));
+
+        assertThat(labels(result)).containsExactly("1969.12.31. Ábel", "1969.12.31. Béla", "1970.01.01. Béla");
+        assertThat(result.getRows().stream().map(PivotResult.Row::getHours).collect(Collectors.toList()))
+                .containsExactly(4L, 1L, 2L);
+    }
+
+    @Test
+    void missingDatesAreSkippedOnlyForDateDimensions() {
+        WorkRecord withoutDate = record(BELA, null, 5, "0");
+        WorkRecordSnapshot snapshot = WorkRecordSnapshot.of(List.of(
+                record(BELA, LocalDate.of(2025, 3, 1), 1, "0"), withoutDate));
+
+        PivotResult byEmployee = engine.pivot(snapshot, PivotQuery.of(DateBasis.WORK_DATE, PivotDimension.EMPLOYEE));
+        PivotResult byYear = engine.pivot(snapshot, PivotQuery.of(DateBasis.WORK_DATE, PivotDimension.YEAR));
+
+        assertThat(byEmployee.getRows().get(0).getHours()).isEqualTo(6);
+        assertThat(labels(byYear)).containsExactly("2025");
+        assertThat(byYear.getRows().get(0).getHours()).isEqualTo(1);
+    }
+
+    @Test
+    void notificationDateBasisGroupsByNotificationDate() {
+        WorkRecord record = record(BELA, LocalDate.of(2025, 3, 31), 8, "0");
+        record.setNotificationDate(LocalDate.of(2025, 4, 1));
+        WorkRecordSnapshot snapshot = WorkRecordSnapshot.of(List.of(record));
+
+        assertThat(labels(engine.pivot(snapshot, PivotQuery.of(DateBasis.NOTIFICATION_DATE, PivotDimension.MONTH))))
+                .containsExactly("2025.04.");
+        assertThat(labels(engine.pivot(snapshot, PivotQuery.of(DateBasis.WORK_DATE, PivotDimension.MONTH))))
+                .containsExactly("2025.03.");
+    }
+
+    @Test
+    void resultIsMemoizedPerSnapshotVersion() {
+        List<WorkRecord> records = List.of(record(BELA, LocalDate.of(2025, 3, 1), 1, "0"));
+        WorkRecordSnapshot snapshot = WorkRecordSnapshot.of(records);
+        PivotQuery query = PivotQuery.of(DateBasis.WORK_DATE, PivotDimension.EMPLOYEE);
+
+        PivotResult first = engine.pivot(snapshot, query);
+
+        assertThat(engine.pivot(snapshot, PivotQuery.of(DateBasis.WORK_DATE, PivotDimension.EMPLOYEE))).isSameAs(first);
+        assertThat(engine.pivot(WorkRecordSnapshot.of(records), query)).isNotSameAs(first);
+    }
+
+    @Test
+    void parallelAggregationMatchesPlainGrouping() {
+        Random random = new Random(7);
+        List<Employee> employees = List.of(BELA, ABEL, ADAM);
+        List<WorkRecord> records = new ArrayList<>();
+        Map<String, Long> expected = new HashMap<>();
+        for (int i = 0; i < 40_000; i++) {
+            Employee employee = employees.get(random.nextInt(employees.size()));
+            LocalDate day = LocalDate.of(2024, 11, 1).plusDays(random.nextInt(150));
+            int hours = 1 + random.nextInt(10);
+            records.add(record(employee, day, hours, "0"));
+            expected.merge(employee.getName() + " " + day.getYear() + "." + String.format("%02d.", day.getMonthValue()),
+                    (long) hours, Long::sum);
+        }
+
+        PivotResult result = engine.pivot(WorkRecordSnapshot.of(records),
+                PivotQuery.of(DateBasis.WORK_DATE, PivotDimension.EMPLOYEE, PivotDimension.MONTH));
+
+        Map<String, Long> actual = new HashMap<>();
+        for (PivotResult.Row row : result.getRows()) {
+            actual.put(result.label(row, 0) + " " + result.label(row, 1), row.getHours());
+        }
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void tooManyCellsAreRejected() {
+        WorkRecordSnapshot snapshot = WorkRecordSnapshot.of(List.of(
+                record(BELA, LocalDate.of(1, 1, 1), 1, "0"),
+                record(BELA, LocalDate.of(999_999, 12, 31), 1, "0")));
+
+        assertThatThrownBy(() -> engine.pivot(snapshot, PivotQuery.of(DateBasis.WORK_DATE,
+                PivotDimension.DAY, PivotDimension.WEEK, PivotDimension.MONTH, PivotDimension.YEAR)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<String> labels(PivotResult result) {
+        int dimensions = result.getQuery().getDimensions().size();
+        List<String> labels = new ArrayList<>();
+        for (PivotResult.Row row : result.getRows()) {
+            List<String> parts = new ArrayList<>();
+            for (int d = 0; d < dimensions; d++) {
+                parts.add(result.label(row, d));
+            }
+            labels.add(String.join(" ", parts));
+        }
+        return labels;
+    }
+
+    private static Employee employee(String id, String name) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setName(name);
+        return employee;
+    }
+
+    private static WorkRecord record(Employee employee, LocalDate workDate, int hours, String payment) {
+        WorkRecord record = new WorkRecord();
+        record.setEmployee(employee);
+        record.setWorkDate(workDate);
+        record.setNotificationDate(workDate);
+        record.setHoursWorked(hours);
+        record.setPayment(new BigDecimal(payment));
+        return record;
+    }
+}
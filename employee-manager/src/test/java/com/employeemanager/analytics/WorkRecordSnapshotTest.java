@@ -0,0 +1,187 @@
+package com.employeemanager.analytics;
+
+import com.employeemanager.analytics.WorkRecordSnapshot.Column;
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkRecordSnapshotTest {
+
+    private static final Employee ANNA = employee("e1", "Kiss Anna");
+    private static final Employee BELA = employee("e2", "Nagy Béla");
+
+    @Test
+    void totalsCoverAllRows() {
+        WorkRecordSnapshot snapshot = WorkRecordSnapshot.of(List.of(
+                record(ANNA, LocalDate.of(2025, 3, 1), 8, "12000.50"),
+                record(BELA, LocalDate.of(2025, 3, 2), 4, "6000.25"),
+                record(ANNA, null, null, null)));
+
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.total(Column.RECORDS)).isEqualTo(3);
+        assertThat(snapshot.totalHours()).isEqualTo(12);
+        assertThat(snapshot.totalPaymentMinor()).isEqualTo(1_800_075);
+        assertThat(snapshot.totalPayment()).isEqualByComparingTo("18000.75");
+    }
+
+    @Test
+    void paymentIsRoundedToFillerHalfUp() {
+        WorkRecordSnapshot snapshot = WorkRecordSnapshot.of(List.of(
+                record(ANNA, LocalDate.of(2025, 3, 1), 1, "0.005"),
+                record(ANNA, LocalDate.of(2025, 3, 1), 1, "0.004")));
+
+        assertThat(snapshot.paymentMinor(0)).isEqualTo(1);
+        assertThat(snapshot.paymentMinor(1)).isZero();
+    }
+
+    @Test
+    void employeesAreIndexedByIdInFirstAppearanceOrder() {
+        Employee renamed = employee("e1", "Kiss Anna Mária");
+        Employee withoutId = employee(null, "Szabó Cecil");
+        WorkRecordSnapshot snapshot = WorkRecordSnapshot.of(List.of(
+                record(BELA, LocalDate.of(2025, 3, 1), 1, "100"),
+                record(ANNA, LocalDate.of(2025, 3, 1), 2, "200"),
+                record(renamed, LocalDate.of(2025, 3, 2), 3, "300"),
+                record(withoutId, LocalDate.of(2025, 3, 2), 4, "400")));
+
+        assertThat(snapshot.employeeCount()).isEqualTo(3);
+        assertThat(snapshot.employeeId(0)).isEqualTo("e2");
+        assertThat(snapshot.employeeName(1)).isEqualTo("Kiss Anna");
+        assertThat(snapshot.employeeId(2)).isNull();
+        assertThat(snapshot.employeeName(2)).isEqualTo("Szabó Cecil");
+        assertThat(snapshot.totalsByEmployee(Column.HOURS)).containsExactly(1, 5, 4);
+    }
+
+    @Test
+    void employeeMonthMatrixSkipsRowsOutsideThePeriod() {
+        WorkRecordSnapshot snapshot = WorkRecordSnapshot.of(List.of(
+                record(ANNA, LocalDate.of(2025, 1, 31), 1, "0"),
+                record(ANNA, LocalDate.of(2025, 2, 1), 2, "0"),
+                record(BELA, LocalDate.of(2025, 3, 15), 3, "0"),
+                record(BELA, LocalDate.of(2025, 4, 1), 4, "0"),
+                record(BELA, null, 5, "0")));
+
+        long[] matrix = snapshot.totalsByEmployeeAndMonth(Column.HOURS, YearMonth.of(2025, 2), 2);
+
+        // [dolgozó * hónapok + hónap]: Anna feb, Anna márc, Béla feb, Béla márc
+        assertThat(matrix).containsExactly(2, 0, 0, 3);
+    }
+
+    @Test
+    void monthKeysSpanYearBoundary() {
+        WorkRecordSnapshot snapshot = WorkRecordSnapshot.of(List.of(
+                record(ANNA, LocalDate.of(2024, 12, 31), 1, "0"),
+                record(ANNA, LocalDate.of(2025, 1, 1), 2, "0")));
+
+        assertThat(snapshot.workMonth(1) - snapshot.workMonth(0)).isEqualTo(1);
+        assertThat(snapshot.totalsByEmployeeAndMonth(Column.HOURS, YearMonth.of(2024, 12), 2)).containsExactly(1, 2);
+    }
+
+    @Test
+    void workDateRangeTotalsAreInclusive() {
+        WorkRecordSnapshot snapshot = WorkRecordSnapshot.of(List.of(
+                record(ANNA, LocalDate.of(2025, 3, 10), 1, "0"),
+                record(BELA, LocalDate.of(2025, 3, 1), 2, "0"),
+                record(ANNA, LocalDate.of(2025, 3, 20), 4, "0"),
+                record(BELA, null, 8, "0"),
+                record(ANNA, LocalDate.of(2025, 3, 10), 16, "0")));
+
+        assertThat(snapshot.totalByWorkDate(Column.HOURS, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 10)))
+                .isEqualTo(19);
+        assertThat(snapshot.totalByWorkDate(Column.HOURS, LocalDate.of(2025, 3, 11), LocalDate.of(2025, 3, 19)))
+                .isZero();
+        assertThat(snapshot.totalByWorkDate(Column.RECORDS, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31)))
+                .isEqualTo(4);
+    }
+
+    @Test
+    void sortIndexIsStableWithMissingDatesFirst() {
+        WorkRecordSnapshot snapshot = WorkRecordSnapshot.of(List.of(
+                record(ANNA, LocalDate.of(2025, 3, 10), 1, "0"),
+                record(BELA, null, 2, "0"),
+                record(ANNA, LocalDate.of(2025, 3, 1), 3, "0"),
+                record(BELA, LocalDate.of(2025, 3, 10), 4, "0")));
+
+        assertThat(snapshot.sortedByWorkDate()).containsExactly(1, 2, 0, 3);
+        assertThat(snapshot.sortedByWorkDate()).isSameAs(snapshot.sortedByWorkDate());
+    }
+
+    @Test
+    void parallelKernelsMatchSequentialSums() {
+        Random random = new Random(42);
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            employees.add(employee("e" + i, "Dolgozó " + i));
+        }
+
+        List<WorkRecord> records = new ArrayList<>();
+        long hours = 0;
+        long payment = 0;
+        long[] hoursByEmployee = new long[employees.size()];
+        long[] marchHours = new long[employees.size()];
+        for (int i = 0; i < 50_000; i++) {
+            int employee = random.nextInt(employees.size());
+            LocalDate day = LocalDate.of(2025, 1, 1).plusDays(random.nextInt(120));
+            int worked = 1 + random.nextInt(12);
+            int forints = random.nextInt(50_000);
+            records.add(record(employees.get(employee), day, worked, Integer.toString(forints)));
+            hours += worked;
+            payment += forints * 100L;
+            hoursByEmployee[employee] += worked;
+            if (day.getMonthValue() == 3) {
+                marchHours[employee] += worked;
+            }
+        }
+
+        WorkRecordSnapshot snapshot = WorkRecordSnapshot.of(records);
+        assertThat(snapshot.totalHours()).isEqualTo(hours);
+        assertThat(snapshot.totalPaymentMinor()).isEqualTo(payment);
+
+        // A dolgozók az első előfordulásuk sorrendjében kapnak indexet
+        long[] byEmployee = snapshot.totalsByEmployee(Column.HOURS);
+        long[] byMonth = snapshot.totalsByEmployeeAndMonth(Column.HOURS, YearMonth.of(2025, 1), 4);
+        for (int index = 0; index < snapshot.employeeCount(); index++) {
+            int employee = Integer.parseInt(snapshot.employeeId(index).substring(1));
+            assertThat(byEmployee[index]).isEqualTo(hoursByEmployee[employee]);
+            assertThat(byMonth[index * 4 + 2]).isEqualTo(marchHours[employee]);
+        }
+        assertThat(snapshot.totalByWorkDate(Column.HOURS, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31)))
+                .isEqualTo(hours);
+    }
+
+    @Test
+    void everySnapshotGetsANewVersion() {
+        WorkRecordSnapshot first = WorkRecordSnapshot.of(List.of());
+        WorkRecordSnapshot second = WorkRecordSnapshot.of(List.of());
+
+        assertThat(second.getVersion()).isGreaterThan(first.getVersion());
+        assertThat(first.totalHours()).isZero();
+        assertThat(first.sortedByWorkDate()).isEmpty();
+    }
+
+    private static Employee employee(String id, String name) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setName(name);
+        return employee;
+    }
+
+    private static WorkRecord record(Employee employee, LocalDate workDate, Integer hours, String payment) {
+        WorkRecord record = new WorkRecord();
+        record.setEmployee(employee);
+        record.setWorkDate(workDate);
+        record.setNotificationDate(workDate);
+        record.setHoursWorked(hours);
+        record.setPayment(payment != null ? new BigDecimal(payment) : null);
+        return record;
+    }
+}
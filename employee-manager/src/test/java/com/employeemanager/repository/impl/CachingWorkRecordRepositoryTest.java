@@ -0,0 +1,251 @@
+package com.employeemanager.repository.impl;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.model.WorkRecordSummary;
+import com.employeemanager.repository.interfaces.WorkRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.employeemanager.repository.impl.CachingWorkRecordRepository.Mode.NOTIFICATION_DATE;
+import static com.employeemanager.repository.impl.CachingWorkRecordRepository.Mode.WORK_DATE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingWorkRecordRepositoryTest {
+
+    private final FakeRepository delegate = new FakeRepository();
+
+    @Test
+    void repeatedQueryIsServedFromMemory() throws Exception {
+        delegate.records.add(record("a", day(3)));
+        CachingWorkRecordRepository cache = cache(Duration.ofMinutes(5));
+
+        assertThat(ids(cache.findByWorkDateBetween(day(1), day(10)))).containsExactly("a");
+        assertThat(ids(cache.findByWorkDateBetween(day(2), day(5)))).containsExactly("a");
+
+        assertThat(delegate.calls).containsExactly("work 1-10");
+        assertThat(cache.covers(WORK_DATE, day(1), day(10))).isTrue();
+        assertThat(cache.covers(NOTIFICATION_DATE, day(1), day(10))).isFalse();
+    }
+
+    @Test
+    void extendedRangeFetchesOnlyTheGaps() throws Exception {
+        CachingWorkRecordRepository cache = cache(Duration.ofMinutes(5));
+
+        cache.findByWorkDateBetween(day(5), day(10));
+        cache.findByWorkDateBetween(day(15), day(20));
+        cache.findByWorkDateBetween(day(1), day(25));
+
+        assertThat(delegate.calls).containsExactly("work 5-10", "work 15-20", "work 1-4", "work 11-14", "work 21-25");
+        assertThat(cache.covers(WORK_DATE, day(1), day(25))).isTrue();
+    }
+
+    @Test
+    void adjacentIntervalsAreMerged() throws Exception {
+        CachingWorkRecordRepository cache = cache(Duration.ofMinutes(5));
+
+        cache.findByWorkDateBetween(day(1), day(10));
+        cache.findByWorkDateBetween(day(11), day(20));
+        cache.findByWorkDateBetween(day(21), day(28));
+        cache.findByWorkDateBetween(day(5), day(25));
+
+        assertThat(delegate.calls).containsExactly("work 1-10", "work 11-20", "work 21-28");
+        assertThat(cache.covers(WORK_DATE, day(1), day(28))).isTrue();
+        assertThat(cache.covers(WORK_DATE, day(1), day(29))).isFalse();
+    }
+
+    @Test
+    void overlappingIntervalsAreMerged() throws Exception {
+        CachingWorkRecordRepository cache = cache(Duration.ofMinutes(5));
+
+        cache.findByWorkDateBetween(day(10), day(20));
+        cache.findByWorkDateBetween(day(1), day(15));
+        cache.findByWorkDateBetween(day(18), day(28));
+
+        assertThat(delegate.calls).containsExactly("work 10-20", "work 1-9", "work 21-28");
+        assertThat(cache.covers(WORK_DATE, day(1), day(28))).isTrue();
+    }
+
+    @Test
+    void expiredIntervalsAreFetchedAgain() throws Exception {
+        delegate.records.add(record("a", day(3)));
+        CachingWorkRecordRepository cache = cache(Duration.ofMillis(1));
+
+        cache.findByWorkDateBetween(day(1), day(10));
+        Thread.sleep(20);
+
+        assertThat(cache.covers(WORK_DATE, day(1), day(10))).isFalse();
+        delegate.records.clear();
+        assertThat(cache.findByWorkDateBetween(day(1), day(10))).isEmpty();
+        assertThat(delegate.calls).containsExactly("work 1-10", "work 1-10");
+    }
+
+    @Test
+    void ownWritesUpdateCoveredRanges() throws Exception {
+        delegate.records.add(record("a", day(3)));
+        CachingWorkRecordRepository cache = cache(Duration.ofMinutes(5));
+        cache.findByWorkDateBetween(day(1), day(10));
+
+        cache.save(record("b", day(4)));
+        cache.save(record("a", day(20)));
+        assertThat(ids(cache.findByWorkDateBetween(day(1), day(10)))).containsExactly("b");
+
+        cache.deleteById("b");
+        assertThat(cache.findByWorkDateBetween(day(1), day(10))).isEmpty();
+        assertThat(delegate.calls).containsExactly("work 1-10");
+    }
+
+    @Test
+    void writeDuringFetchDoesNotMarkRangeLoaded() throws Exception {
+        CachingWorkRecordRepository cache = cache(Duration.ofMinutes(5));
+        delegate.duringFetch = () -> cache.save(record("x", day(2)));
+
+        cache.findByWorkDateBetween(day(1), day(10));
+
+        assertThat(cache.covers(WORK_DATE, day(1), day(10))).isFalse();
+    }
+
+    @Test
+    void invalidateAllDropsEveryRange() throws Exception {
+        CachingWorkRecordRepository cache = cache(Duration.ofMinutes(5));
+        cache.findByWorkDateBetween(day(1), day(10));
+        cache.findByNotificationDateBetween(day(1), day(10));
+
+        cache.invalidateAll();
+
+        assertThat(cache.covers(WORK_DATE, day(1), day(10))).isFalse();
+        assertThat(cache.covers(NOTIFICATION_DATE, day(1), day(10))).isFalse();
+    }
+
+    private CachingWorkRecordRepository cache(Duration ttl) {
+        return new CachingWorkRecordRepository(delegate, new SimpleMeterRegistry(), ttl);
+    }
+
+    private static LocalDate day(int dayOfMonth) {
+        return LocalDate.of(2025, 3, dayOfMonth);
+    }
+
+    private static WorkRecord record(String id, LocalDate workDate) {
+        Employee employee = new Employee();
+        employee.setId("emp1");
+        WorkRecord record = new WorkRecord();
+        record.setId(id);
+        record.setEmployee(employee);
+        record.setWorkDate(workDate);
+        record.setNotificationDate(workDate);
+        return record;
+    }
+
+    private static List<String> ids(List<WorkRecord> records) {
+        return records.stream().map(WorkRecord::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * Memóriában tartott rekordok, a dátum szerinti lekérdezések naplózásával
+     */
+    private static class FakeRepository implements WorkRecordRepository {
+        private final List<WorkRecord> records = new ArrayList<>();
+        private final List<String> calls = new ArrayList<>();
+        private ThrowingRunnable duringFetch;
+
+        @Override
+        public List<WorkRecord> findByWorkDateBetween(LocalDate startDate, LocalDate endDate) {
+            calls.add("work " + startDate.getDayOfMonth() + "-" + endDate.getDayOfMonth());
+            runDuringFetch();
+            return records.stream()
+                    .filter(record -> !record.getWorkDate().isBefore(startDate) && !record.getWorkDate().isAfter(endDate))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public List<WorkRecord> findByNotificationDateBetween(LocalDate startDate, LocalDate endDate) {
+            calls.add("notification " + startDate.getDayOfMonth() + "-" + endDate.getDayOfMonth());
+            return records.stream()
+                    .filter(record -> !record.getNotificationDate().isBefore(startDate)
+                            && !record.getNotificationDate().isAfter(endDate))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public WorkRecord save(WorkRecord entity) {
+            return entity;
+        }
+
+        @Override
+        public List<WorkRecord> saveAll(List<WorkRecord> entities) {
+            return entities;
+        }
+
+        @Override
+        public void deleteById(String id) {
+        }
+
+        @Override
+        public Optional<WorkRecord> findById(String id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<WorkRecord> findAll() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Set<String> findExistingIds(Collection<String> ids) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<WorkRecord> findByEmployeeIdAndWorkDateBetween(String employeeId, LocalDate startDate,
+                                                                   LocalDate endDate) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<WorkRecord> findByNotificationDateAndWorkDateBetween(LocalDate notifStart, LocalDate notifEnd,
+                                                                         LocalDate workStart, LocalDate workEnd) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean existsByEmployeeId(String employeeId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long countByEmployeeId(String employeeId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public WorkRecordSummary summarizeByWorkDateBetween(LocalDate startDate, LocalDate endDate) {
+            throw new UnsupportedOperationException();
+        }
+
+        private void runDuringFetch() {
+            if (duringFetch != null) {
+                ThrowingRunnable action = duringFetch;
+                duringFetch = null;
+                try {
+                    action.run();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
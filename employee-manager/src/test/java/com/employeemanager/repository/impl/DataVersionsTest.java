@@ -0,0 +1,31 @@
+package com.employeemanager.repository.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataVersionsTest {
+
+    @Test
+    void workRecordWriteTouchesItsWorkMonth() {
+        assertThat(DataVersions.keysFor("workrecords", "emp1_20250307", Map.of("workDate", "2025-04-01")))
+                .containsExactly("2025-04");
+        assertThat(DataVersions.monthKey(YearMonth.of(2025, 4))).isEqualTo("2025-04");
+    }
+
+    @Test
+    void deleteTakesTheMonthFromTheDocumentId() {
+        assertThat(DataVersions.keysFor("workrecords", "emp1_20250307_123", null)).containsExactly("2025-03");
+        assertThat(DataVersions.keysFor("workrecords", "Xy3kQ9aLm2Pz7RtVb0Wc", null))
+                .containsExactly(DataVersions.WORK_RECORDS);
+    }
+
+    @Test
+    void employeeWritesShareOneCounterAndOtherCollectionsNone() {
+        assertThat(DataVersions.keysFor("employees", "e1", null)).containsExactly(DataVersions.EMPLOYEES);
+        assertThat(DataVersions.keysFor("meta", "x", Map.of())).isEmpty();
+    }
+}
@@ -0,0 +1,136 @@
+package com.employeemanager.repository.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private WriteJournal journal;
+
+    @AfterEach
+    void close() throws Exception {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void unflushedEntriesAreReplayedAfterRestart() throws Exception {
+        journal = open();
+        journal.set("workrecords", "a", Map.of("hoursWorked", 8));
+        journal.delete("workrecords", "b");
+        journal.close();
+
+        journal = open();
+
+        assertThat(journal.pendingCount()).isEqualTo(2);
+        assertThat(journal.pendingFor("workrecords").get("a").getData()).containsEntry("hoursWorked", 8);
+        assertThat(journal.pendingFor("workrecords").get("b").getOperation()).isEqualTo(JournalEntry.Operation.DELETE);
+        assertThat(journal.set("workrecords", "c", Map.of()).getSeq()).isEqualTo(3);
+    }
+
+    @Test
+    void checkpointSkipsFlushedEntriesOnReplay() throws Exception {
+        journal = open();
+        journal.set("workrecords", "a", Map.of());
+        journal.set("workrecords", "b", Map.of());
+        journal.set("workrecords", "c", Map.of());
+        journal.markFlushed(2);
+        journal.close();
+
+        journal = open();
+
+        assertThat(journal.pendingFor("workrecords").keySet()).containsExactly("c");
+        assertThat(journal.set("workrecords", "d", Map.of()).getSeq()).isEqualTo(4);
+    }
+
+    @Test
+    void fullyFlushedJournalIsTruncated() throws Exception {
+        journal = open();
+        List<JournalEntry> entries = journal.appendAll(List.of(
+                WriteJournal.newEntry("employees", "e1", JournalEntry.Operation.SET, Map.of("name", "Kiss Anna")),
+                WriteJournal.newEntry("employees", "e2", JournalEntry.Operation.SET, Map.of("name", "Nagy Béla"))));
+        journal.markFlushed(entries.get(1).getSeq());
+
+        assertThat(journal.pendingCount()).isZero();
+        assertThat(Files.size(directory.resolve("writes.log"))).isZero();
+        assertThat(Files.readString(directory.resolve("checkpoint"), StandardCharsets.UTF_8)).isEqualTo("2");
+
+        journal.close();
+        journal = open();
+        assertThat(journal.pendingCount()).isZero();
+        assertThat(journal.set("employees", "e3", Map.of()).getSeq()).isEqualTo(3);
+    }
+
+    @Test
+    void tornLastLineIsSkipped() throws Exception {
+        journal = open();
+        journal.set("workrecords", "a", Map.of());
+        journal.close();
+        Files.writeString(directory.resolve("writes.log"), "{\"seq\":2,\"collec", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        journal = open();
+        assertThat(journal.pendingFor("workrecords").keySet()).containsExactly("a");
+
+        // Az új bejegyzés saját sorba kerül, a következő újraindításkor is olvasható
+        journal.set("workrecords", "b", Map.of());
+        journal.close();
+        journal = open();
+        assertThat(journal.pendingFor("workrecords").keySet()).containsExactly("a", "b");
+    }
+
+    @Test
+    void pendingForKeepsLastOperationPerDocument() throws Exception {
+        journal = open();
+        journal.set("workrecords", "a", Map.of("hoursWorked", 4));
+        journal.set("workrecords", "a", Map.of("hoursWorked", 6));
+        journal.set("employees", "a", Map.of());
+        journal.delete("workrecords", "b");
+        journal.set("workrecords", "b", Map.of("hoursWorked", 2));
+
+        Map<String, JournalEntry> pending = journal.pendingFor("workrecords");
+
+        assertThat(pending).hasSize(2);
+        assertThat(pending.get("a").getData()).containsEntry("hoursWorked", 6);
+        assertThat(pending.get("b").getOperation()).isEqualTo(JournalEntry.Operation.SET);
+    }
+
+    @Test
+    void nextBatchIsLimitedByDistinctDocuments() throws Exception {
+        journal = open();
+        journal.set("workrecords", "a", Map.of());
+        journal.set("workrecords", "a", Map.of());
+        journal.set("workrecords", "b", Map.of());
+        journal.set("workrecords", "c", Map.of());
+        journal.set("workrecords", "b", Map.of());
+
+        List<JournalEntry> batch = journal.nextBatch(2);
+
+        assertThat(batch.stream().map(JournalEntry::getSeq).collect(Collectors.toList())).containsExactly(1L, 2L, 3L);
+    }
+
+    private WriteJournal open() throws Exception {
+        WriteJournal opened = new WriteJournal(new ObjectMapper());
+        ReflectionTestUtils.setField(opened, "enabled", true);
+        ReflectionTestUtils.setField(opened, "directory", directory.toString());
+        opened.open();
+        return opened;
+    }
+}
@@ -0,0 +1,67 @@
+package com.employeemanager.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.Timestamp;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BackupServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void documentSurvivesJsonRoundTrip() throws Exception {
+        Timestamp created = Timestamp.ofTimeSecondsAndNanos(1_741_000_000L, 123_456_000);
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("createdAt", created);
+        nested.put("tags", List.of("a", "b"));
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("name", "Kiss Anna");
+        document.put("hoursWorked", 8);
+        document.put("payment", 12000.5);
+        document.put("active", true);
+        document.put("note", null);
+        document.put("details", nested);
+        document.put("history", Arrays.asList(created, 3, null, Map.of("at", created)));
+
+        Object restored = BackupService.decode(roundTrip(BackupService.encode(document)));
+
+        assertThat(restored).isEqualTo(document);
+    }
+
+    @Test
+    void timestampIsWrittenAsMarkedObject() throws Exception {
+        Timestamp created = Timestamp.ofTimeSecondsAndNanos(0, 1_000);
+
+        String json = objectMapper.writeValueAsString(BackupService.encode(Map.of("createdAt", created)));
+
+        assertThat(json).isEqualTo("{\"createdAt\":{\"$timestamp\":\"" + created + "\"}}");
+    }
+
+    @Test
+    void mapsThatOnlyResembleTimestampsAreKept() {
+        Map<String, Object> twoKeys = Map.of("$timestamp", "1970-01-01T00:00:00Z", "other", 1);
+        Map<String, Object> notText = Map.of("$timestamp", 42);
+
+        assertThat(BackupService.decode(twoKeys)).isEqualTo(twoKeys);
+        assertThat(BackupService.decode(notText)).isEqualTo(notText);
+    }
+
+    @Test
+    void unsupportedFieldTypeIsRejected() {
+        assertThatThrownBy(() -> BackupService.encode(Map.of("data", new byte[] {1})))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("[B");
+    }
+
+    private Object roundTrip(Object encoded) throws Exception {
+        return objectMapper.readValue(objectMapper.writeValueAsString(encoded), Object.class);
+    }
+}
@@ -0,0 +1,226 @@
+package com.employeemanager.service.impl;
+
+import com.employeemanager.diagnostics.ReadAccounting;
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import com.employeemanager.service.exception.ServiceException;
+import com.employeemanager.service.interfaces.EmployeeService;
+import com.employeemanager.service.interfaces.WorkRecordService;
+import com.employeemanager.util.WorkbookStyles;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WorkRecordImportServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final EmployeeService employeeService = mock(EmployeeService.class);
+    private final WorkRecordService workRecordService = mock(WorkRecordService.class);
+    private final List<WorkRecord> saved = new ArrayList<>();
+
+    private WorkRecordImportService service;
+
+    @BeforeEach
+    void setUp() {
+        when(employeeService.findAll()).thenReturn(List.of(
+                employee("e1", "Kiss Anna", "123456789"),
+                employee("e2", "Nagy Béla", null),
+                employee("e3", "Tóth Cecil", null),
+                employee("e4", "Tóth Cecil", "987654321")));
+        when(workRecordService.validateWorkRecord(any())).thenReturn(true);
+        when(workRecordService.saveAll(anyList())).thenAnswer(invocation -> {
+            List<WorkRecord> batch = invocation.getArgument(0);
+            saved.addAll(batch);
+            return batch;
+        });
+        service = new WorkRecordImportService(employeeService, workRecordService, mock(ReadAccounting.class));
+    }
+
+    @Test
+    void groupRowsInheritNotificationData() throws Exception {
+        Path file = workbook(sheet -> {
+            row(sheet, 1, "2025.03.01", "08:15", "EB-1", "2025.03.03", "Kiss Anna", "123-456-789", 12000.5, 8);
+            row(sheet, 2, null, null, null, "2025.03.04", "Kiss Anna", "123-456-789", 6000, 4);
+            row(sheet, 3, "2025.03.02", null, null, "2025.03.05", "Nagy Béla", null, 1500, 1);
+        });
+
+        WorkRecordImportService.ImportResult result = service.importWorkbook(file, imported -> { });
+
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getSkipped()).isZero();
+
+        WorkRecord first = saved.get(0);
+        assertThat(first.getEmployee().getId()).isEqualTo("e1");
+        assertThat(first.getNotificationDate()).isEqualTo(LocalDate.of(2025, 3, 1));
+        assertThat(first.getNotificationTime()).isEqualTo(LocalTime.of(8, 15));
+        assertThat(first.getEbevSerialNumber()).isEqualTo("EB-1");
+        assertThat(first.getWorkDate()).isEqualTo(LocalDate.of(2025, 3, 3));
+        assertThat(first.getPayment()).isEqualByComparingTo("12000.5");
+        assertThat(first.getHoursWorked()).isEqualTo(8);
+
+        WorkRecord second = saved.get(1);
+        assertThat(second.getNotificationDate()).isEqualTo(LocalDate.of(2025, 3, 1));
+        assertThat(second.getNotificationTime()).isEqualTo(LocalTime.of(8, 15));
+        assertThat(second.getEbevSerialNumber()).isEqualTo("EB-1");
+
+        WorkRecord third = saved.get(2);
+        assertThat(third.getEmployee().getId()).isEqualTo("e2");
+        assertThat(third.getNotificationDate()).isEqualTo(LocalDate.of(2025, 3, 2));
+        assertThat(third.getNotificationTime()).isNull();
+        assertThat(third.getEbevSerialNumber()).isNull();
+    }
+
+    @Test
+    void employeesMatchBySocialSecurityThenUniqueName() throws Exception {
+        Path file = workbook(sheet -> {
+            // A TAJ elsőbbséget élvez a (más) névvel szemben
+            row(sheet, 1, "2025.03.01", null, null, "2025.03.01", "Kiss A.", "123 456 789", 100, 1);
+            row(sheet, 2, null, null, null, "2025.03.01", "Tóth Cecil", "987-654-321", 100, 1);
+            row(sheet, 3, null, null, null, "2025.03.01", "Tóth Cecil", null, 100, 1);
+            row(sheet, 4, null, null, null, "2025.03.01", "Ismeretlen", null, 100, 1);
+        });
+
+        WorkRecordImportService.ImportResult result = service.importWorkbook(file, imported -> { });
+
+        assertThat(saved).extracting(record -> record.getEmployee().getId()).containsExactly("e1", "e4");
+        assertThat(result.getSkipped()).isEqualTo(2);
+        assertThat(result.getProblems()).containsExactly(
+                "4. sor: ismeretlen dolgozó: Tóth Cecil",
+                "5. sor: ismeretlen dolgozó: Ismeretlen");
+    }
+
+    @Test
+    void invalidRowsAreSkippedWithRowNumbers() throws Exception {
+        Path file = workbook(sheet -> {
+            row(sheet, 1, "2025.03.01", null, null, "2025.13.01", "Kiss Anna", null, 100, 1);
+            row(sheet, 2, null, null, null, "2025.03.02", "Kiss Anna", null, 100, 1);
+            row(sheet, 3, null, null, null, null, null, null, null, null);
+            row(sheet, 4, null, null, null, "2025.03.04", "Kiss Anna", null, 100, 2.5);
+        });
+
+        WorkRecordImportService.ImportResult result = service.importWorkbook(file, imported -> { });
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getSkipped()).isEqualTo(1);
+        assertThat(result.getProblems()).singleElement().asString().startsWith("2. sor:");
+        assertThat(saved.get(1).getHoursWorked()).isEqualTo(3);
+    }
+
+    @Test
+    void recordsAreSavedInBatches() throws Exception {
+        Path file = workbook(sheet -> {
+            for (int i = 1; i <= 1000; i++) {
+                row(sheet, i, i == 1 ? "2025.03.01" : null, null, null, "2025.03.01", "Kiss Anna", null, 100, 1);
+            }
+        });
+        List<Long> progress = new ArrayList<>();
+
+        WorkRecordImportService.ImportResult result = service.importWorkbook(file, progress::add);
+
+        assertThat(result.getImported()).isEqualTo(1000);
+        verify(workRecordService, times(3)).saveAll(anyList());
+        assertThat(progress).containsExactly(499L, 998L, 1000L);
+    }
+
+    @Test
+    void workbookWithoutEbevSheetIsRejected() throws Exception {
+        Path file = directory.resolve("other.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            workbook.createSheet("név szerint");
+            workbook.write(out);
+        }
+
+        assertThatThrownBy(() -> service.importWorkbook(file, imported -> { }))
+                .isInstanceOf(ServiceException.class)
+                .hasMessageContaining("e-bev");
+        verify(workRecordService, never()).saveAll(anyList());
+    }
+
+    @Test
+    void validationFailureSkipsRow() throws Exception {
+        ArgumentCaptor<WorkRecord> validated = ArgumentCaptor.forClass(WorkRecord.class);
+        when(workRecordService.validateWorkRecord(validated.capture())).thenReturn(false);
+        Path file = workbook(sheet ->
+                row(sheet, 1, "2025.03.01", null, null, "2025.03.01", "Kiss Anna", null, 100, 1));
+
+        WorkRecordImportService.ImportResult result = service.importWorkbook(file, imported -> { });
+
+        assertThat(result.getImported()).isZero();
+        assertThat(result.getProblems()).containsExactly("2. sor: hiányos vagy érvénytelen adatok");
+        assertThat(validated.getValue().getPayment()).isEqualByComparingTo(BigDecimal.valueOf(100));
+    }
+
+    /**
+     * Az export "e-bev" munkalapjával azonos formátum: szöveges dátumok, "Ft" formátumú összeg
+     */
+    private Path workbook(Consumer<Sheet> rows) throws Exception {
+        Path file = directory.resolve("import.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet(WorkRecordImportService.EBEV_SHEET);
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("bejelentés dátuma");
+            header.createCell(3).setCellValue("munkavégzés dátuma");
+            rows.accept(sheet);
+
+            WorkbookStyles styles = new WorkbookStyles(workbook);
+            for (Row row : sheet) {
+                if (row.getRowNum() > 0 && row.getCell(6) != null) {
+                    row.getCell(6).setCellStyle(styles.currency());
+                }
+            }
+            workbook.write(out);
+        }
+        return file;
+    }
+
+    private static void row(Sheet sheet, int rowNum, String notificationDate, String notificationTime, String ebev,
+                            String workDate, String name, String socialSecurity, Number payment, Number hours) {
+        Row row = sheet.createRow(rowNum);
+        String[] texts = {notificationDate, notificationTime, ebev, workDate, name, socialSecurity};
+        for (int column = 0; column < texts.length; column++) {
+            if (texts[column] != null) {
+                row.createCell(column).setCellValue(texts[column]);
+            }
+        }
+        if (payment != null) {
+            row.createCell(6).setCellValue(payment.doubleValue());
+        }
+        if (hours != null) {
+            row.createCell(7).setCellValue(hours.doubleValue());
+        }
+    }
+
+    private static Employee employee(String id, String name, String socialSecurity) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setName(name);
+        employee.setSocialSecurityNumber(socialSecurity);
+        return employee;
+    }
+}
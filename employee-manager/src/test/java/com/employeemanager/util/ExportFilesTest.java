@@ -0,0 +1,76 @@
+package com.employeemanager.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExportFilesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesTargetAndLeavesNoTemporaryFile() throws Exception {
+        Path target = directory.resolve("exports").resolve("a.xlsx");
+
+        ExportFiles.writeAtomically(target, temp -> Files.writeString(temp, "tartalom", StandardCharsets.UTF_8));
+
+        assertThat(read(target)).isEqualTo("tartalom");
+        assertThat(files(target.getParent())).containsExactly("a.xlsx");
+    }
+
+    @Test
+    void failedWriteKeepsPreviousFile() throws Exception {
+        Path target = directory.resolve("a.xlsx");
+        Files.writeString(target, "régi", StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> ExportFiles.writeAtomically(target, temp -> {
+            Files.writeString(temp, "félig", StandardCharsets.UTF_8);
+            throw new IOException("hiba");
+        })).isInstanceOf(IOException.class);
+
+        assertThat(read(target)).isEqualTo("régi");
+        assertThat(files(directory)).containsExactly("a.xlsx");
+    }
+
+    @Test
+    void nestedWritesOfSameTargetUseDistinctTemporaryFiles() throws Exception {
+        Path target = directory.resolve("a.xlsx");
+        List<Path> temps = new ArrayList<>();
+
+        ExportFiles.writeAtomically(target, outer -> {
+            temps.add(outer);
+            ExportFiles.writeAtomically(target, inner -> {
+                temps.add(inner);
+                Files.writeString(inner, "belső", StandardCharsets.UTF_8);
+            });
+            Files.writeString(outer, "külső", StandardCharsets.UTF_8);
+        });
+
+        assertThat(temps.get(0)).isNotEqualTo(temps.get(1));
+        assertThat(temps.get(0).getFileName().toString()).startsWith("a.xlsx.").endsWith(ExportFiles.TEMP_SUFFIX);
+        assertThat(read(target)).isEqualTo("külső");
+        assertThat(files(directory)).containsExactly("a.xlsx");
+    }
+
+    private static String read(Path file) throws IOException {
+        return Files.readString(file, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).collect(Collectors.toList());
+        }
+    }
+}
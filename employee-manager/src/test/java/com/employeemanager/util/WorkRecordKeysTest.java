@@ -0,0 +1,102 @@
+package com.employeemanager.util;
+
+import com.employeemanager.model.Employee;
+import com.employeemanager.model.WorkRecord;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkRecordKeysTest {
+
+    @Test
+    void documentIdCombinesEmployeeDateAndEbev() {
+        assertThat(WorkRecordKeys.documentId(record("emp1", LocalDate.of(2025, 3, 7), "123456")))
+                .isEqualTo("emp1_20250307_123456");
+    }
+
+    @Test
+    void documentIdWithoutEbevHasNoSuffix() {
+        assertThat(WorkRecordKeys.documentId(record("emp1", LocalDate.of(2025, 3, 7), "  ")))
+                .isEqualTo("emp1_20250307");
+        assertThat(WorkRecordKeys.documentId(record("emp1", LocalDate.of(2025, 3, 7), null)))
+                .isEqualTo("emp1_20250307");
+    }
+
+    @Test
+    void documentIdIsNullWithoutEmployeeOrWorkDate() {
+        assertThat(WorkRecordKeys.documentId(record(null, LocalDate.of(2025, 3, 7), "1"))).isNull();
+        assertThat(WorkRecordKeys.documentId(record("emp1", null, "1"))).isNull();
+
+        WorkRecord withoutEmployee = new WorkRecord();
+        withoutEmployee.setWorkDate(LocalDate.of(2025, 3, 7));
+        assertThat(WorkRecordKeys.documentId(withoutEmployee)).isNull();
+    }
+
+    @Test
+    void distinctEbevNumbersNeverCollide() {
+        LocalDate day = LocalDate.of(2025, 3, 7);
+        String slash = WorkRecordKeys.documentId(record("emp1", day, "AB/12"));
+        String dash = WorkRecordKeys.documentId(record("emp1", day, "AB-12"));
+        String space = WorkRecordKeys.documentId(record("emp1", day, "AB 12"));
+        String underscore = WorkRecordKeys.documentId(record("emp1", day, "AB_12"));
+        String percent = WorkRecordKeys.documentId(record("emp1", day, "AB%2F12"));
+
+        assertThat(new String[]{slash, dash, space, underscore, percent}).doesNotHaveDuplicates();
+        assertThat(slash).isEqualTo("emp1_20250307_AB%2F12");
+        assertThat(dash).isEqualTo("emp1_20250307_AB-12");
+    }
+
+    @Test
+    void encodedIdContainsNoForbiddenCharacters() {
+        String encoded = WorkRecordKeys.encode("../á_b/c.d__");
+
+        assertThat(encoded).doesNotContain("/", ".", "_");
+        assertThat(encoded).isEqualTo("%2E%2E%2F%C3%A1%5Fb%2Fc%2Ed%5F%5F");
+    }
+
+    @Test
+    void documentIdIsDeterministic() {
+        LocalDate day = LocalDate.of(2025, 12, 31);
+        assertThat(WorkRecordKeys.documentId(record("emp2", day, "X/1")))
+                .isEqualTo(WorkRecordKeys.documentId(record("emp2", day, " X/1 ")));
+    }
+
+    @Test
+    void workMonthIsReadBackFromDocumentId() {
+        String id = WorkRecordKeys.documentId(record("a_b", LocalDate.of(2025, 12, 31), "X_1"));
+
+        assertThat(WorkRecordKeys.workMonth(id)).isEqualTo(YearMonth.of(2025, 12));
+        assertThat(WorkRecordKeys.workMonth("emp1_20250307")).isEqualTo(YearMonth.of(2025, 3));
+    }
+
+    @Test
+    void workMonthIsNullForOtherIds() {
+        assertThat(WorkRecordKeys.workMonth("Xy3kQ9aLm2Pz7RtVb0Wc")).isNull();
+        assertThat(WorkRecordKeys.workMonth("emp1_20251332")).isNull();
+        assertThat(WorkRecordKeys.workMonth("_20250307")).isNull();
+        assertThat(WorkRecordKeys.workMonth("emp1_2025-03-07")).isNull();
+    }
+
+    @Test
+    void hasIdRequiresNonEmptyId() {
+        WorkRecord record = new WorkRecord();
+        assertThat(WorkRecordKeys.hasId(record)).isFalse();
+        record.setId("");
+        assertThat(WorkRecordKeys.hasId(record)).isFalse();
+        record.setId("abc");
+        assertThat(WorkRecordKeys.hasId(record)).isTrue();
+    }
+
+    private static WorkRecord record(String employeeId, LocalDate workDate, String ebev) {
+        WorkRecord record = new WorkRecord();
+        Employee employee = new Employee();
+        employee.setId(employeeId);
+        record.setEmployee(employee);
+        record.setWorkDate(workDate);
+        record.setEbevSerialNumber(ebev);
+        return record;
+    }
+}